@@ -5,16 +5,40 @@ package com.example.lamontana;
 //   - Clase Application principal de la app "La Montaña".
 //   - Inicializar Firebase en el arranque de la aplicación.
 //   - Configurar Firebase Firestore con persistencia offline habilitada.
+//   - Arrancar la persistencia local del carrito (CartJournal), que
+//     restaura el carrito en segundo plano si el proceso murió.
+//   - Arrancar la sincronización del carrito entre dispositivos
+//     (CartSyncRepository, usuarios/{uid}/carrito).
+//   - Arrancar la bandeja de salida durable (WriteOutbox) que sube las
+//     escrituras de perfil/registro/contraseña con reintentos.
+//   - Arrancar la cache reactiva del perfil (ProfileRepository: un
+//     snapshot listener sobre usuarios/{uid} mientras haya sesión).
+//   - Cargar en segundo plano la tabla de zonas de envío
+//     (ShippingQuoteEngine, assets/shipping_zones.json).
+//   - Cargar la tabla de precios de impresión (ServiciosRepository:
+//     copia local al instante y colección "servicios" de Firestore).
+//   - Abrir el registro del pedido en envío (PendingOrderStore), para
+//     no duplicarlo si la app muere antes de que Firestore lo acepte.
 // Alcance:
 //   - Se ejecuta una sola vez cuando se abre la app.
 //   - Cualquier Activity/Repository podrá usar FirebaseAuth y FirebaseFirestore
 //     ya inicializados.
 // Métodos presentes:
-//   - onCreate(): punto de entrada de la Application, inicializa Firebase y
-//                 configura Firestore.
+//   - onCreate(): punto de entrada de la Application, inicializa Firebase,
+//                 configura Firestore y arranca CartJournal,
+//                 CartSyncRepository, WriteOutbox, ProfileRepository,
+//                 ShippingQuoteEngine, ServiciosRepository y
+//                 PendingOrderStore.
 // -----------------------------------------------------------------------------
 import android.app.Application;
 
+import com.example.lamontana.data.cart.CartJournal;
+import com.example.lamontana.data.cart.CartSyncRepository;
+import com.example.lamontana.data.order.PendingOrderStore;
+import com.example.lamontana.data.outbox.WriteOutbox;
+import com.example.lamontana.data.pricing.ServiciosRepository;
+import com.example.lamontana.data.shipping.ShippingQuoteEngine;
+import com.example.lamontana.data.user.ProfileRepository;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.FirebaseFirestoreSettings;
@@ -37,5 +61,26 @@ public class LaMontanaApp extends Application {
                 .build();
 
         firestore.setFirestoreSettings(settings);
+
+        // Persistencia del carrito: journal en disco escrito/leído en su propio hilo
+        CartJournal.init(this);
+
+        // Sincronización del carrito con Firestore (fuera del hilo de UI)
+        CartSyncRepository.init(this);
+
+        // Escrituras de usuario pendientes (persisten si no hay red)
+        WriteOutbox.init(this);
+
+        // Perfil del usuario: un solo listener compartido por todas las pantallas
+        ProfileRepository.init();
+
+        // Tabla de zonas de envío (se compila una vez, fuera del hilo de UI)
+        ShippingQuoteEngine.init(this);
+
+        // Precios de impresión: tabla local ya, la de Firestore cuando llegue
+        ServiciosRepository.init(this);
+
+        // Pedido en envío: mismo orderId aunque la app se reinicie
+        PendingOrderStore.init(this);
     }
 }
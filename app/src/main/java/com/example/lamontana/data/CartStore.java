@@ -1,13 +1,20 @@
 package com.example.lamontana.data;
 
+import com.example.lamontana.model.CartChange;
 import com.example.lamontana.model.CartItem;
+import com.example.lamontana.model.CartOp;
+import com.example.lamontana.model.CartSnapshot;
 import com.example.lamontana.model.Product;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-
-import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
 
 /*
  * ============================================================
@@ -23,6 +30,7 @@ import java.util.Iterator;
  *
  * ¿Qué métodos expone ?
  *   - static CartStore get(): obtiene la instancia única.
+ *   - CartSnapshot getSnapshot(): estado inmutable actual del carrito.
  *   - List<CartItem> getItems(): lista actual del carrito (solo lectura).
  *   - void clear(): vacía el carrito.
  *   - void add(Product p): agrega un producto (o incrementa si ya existe).
@@ -31,18 +39,43 @@ import java.util.Iterator;
  *   - void dec(Product p): decrementa en 1; elimina si queda en 0.
  *   - int getTotalAmount(): total $ (suma de qty * price por ítem).
  *   - int getTotalQty(): total de unidades (suma de qty).
+ *   - void apply(List<CartOp> ops): aplica un lote de operaciones
+ *       de forma atómica, con un único recálculo de totales y un
+ *       único CartChange (BATCH).
+ *   - void restore(List<CartItem> items): re-incorpora líneas
+ *       persistidas (CartJournal) al arrancar la app.
+ *   - void addListener(Listener l) / removeListener(Listener l):
+ *       suscripción a cambios puntuales (CartChange).
  *
  * ¿Cómo se relaciona con las vistas?
  *   - Vista Catálogo (MainActivity):
  *       * Llama a add(p) al presionar "Agregar".
  *       * Muestra resumen (getTotalQty / getTotalAmount).
- *   - Vista Carrito (CartActivity):
+ *   - Vista Carrito (CartFragment):
  *       * Dibuja la lista con getItems().
  *       * Usa inc/dec/setQty/clear para actualizar cantidades.
  *       * Vuelve a calcular totales con getTotalAmount().
  *
  * Notas:
  *   - Las búsquedas se hacen por nombre de producto (p.name).
+ *   - El estado es un CartSnapshot inmutable publicado en un
+ *     AtomicReference (copy-on-write):
+ *       * Las lecturas no toman locks ni copian listas.
+ *       * Las mutaciones se serializan entre sí con writeLock,
+ *         derivan un snapshot nuevo y lo publican con set().
+ *       * Un lector nunca ve un estado a medio modificar.
+ *   - Cada mutación efectiva emite un CartChange (línea agregada,
+ *     cantidad cambiada, línea quitada, carrito vaciado o lote) con
+ *     los totales nuevos. Los listeners se invocan FUERA de writeLock
+ *     y en el mismo orden en que se publicaron los snapshots:
+ *       * Bajo el lock, el cambio solo se encola (undelivered).
+ *       * Al soltarlo, el escritor entrega la cola (deliverPending).
+ *         Si otro hilo ya la está entregando, ese entrega también
+ *         el cambio nuevo: nunca hay dos entregas a la vez.
+ *       * Un listener puede mutar el carrito sin deadlock: su cambio
+ *         se entrega después de que todos vieron el actual.
+ *     Por eso un listener puede correr en otro hilo escritor que el
+ *     que mutó; los de la app ya derivan su trabajo a su propio hilo.
  *
  * ============================================================
  */
@@ -54,10 +87,31 @@ public class CartStore {
     private static CartStore INSTANCE;
 
     /**
-     * Lista en memoria de líneas del carrito.
-     * Se mantiene encapsulada; se devuelve copia inmutable en getItems().
+     * Estado actual del carrito. Se reemplaza completo en cada mutación;
+     * los lectores obtienen siempre un snapshot consistente.
+     */
+    private final AtomicReference<CartSnapshot> state =
+            new AtomicReference<>(CartSnapshot.empty());
+
+    /** Serializa a los escritores entre sí (los lectores no lo usan). */
+    private final Object writeLock = new Object();
+
+    /** Observadores de cambios del carrito. */
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    /** Cambios publicados y todavía no entregados (con writeLock). */
+    private final ArrayDeque<CartChange> undelivered = new ArrayDeque<>();
+
+    /** true mientras algún hilo entrega la cola (con writeLock). */
+    private boolean delivering;
+
+    /**
+     * Recibe cada cambio efectivo del carrito, en orden de versión.
+     * Se invoca en un hilo escritor, sin locks tomados: debe ser liviano.
      */
-    private final List<CartItem> items = new ArrayList<>();
+    public interface Listener {
+        void onCartChanged(CartChange change);
+    }
 
     /** Constructor privado para forzar Singleton. */
     private CartStore() { }
@@ -74,36 +128,49 @@ public class CartStore {
 
 
     // ------------------------------
-    // Lecturas
+    // Lecturas (sin locks)
     // ------------------------------
 
+    /**
+     * Devuelve el snapshot inmutable actual (líneas + totales + versión).
+     */
+    public CartSnapshot getSnapshot() {
+        return state.get();
+    }
+
     /**
      * Devuelve una vista inmutable de los ítems actuales del carrito.
      */
-    public synchronized List<CartItem> getItems() {
-        return Collections.unmodifiableList(new ArrayList<>(items));
+    public List<CartItem> getItems() {
+        return state.get().getItems();
     }
 
     /**
      * Retorna el monto total (sumatoria de qty * price).
      */
-    public synchronized int getTotalAmount() {
-        int total = 0;
-        for (CartItem ci : items) {
-            total += ci.qty * ci.product.price;
-        }
-        return total;
+    public int getTotalAmount() {
+        return state.get().getTotalAmount();
     }
 
     /**
      * Retorna la cantidad total de unidades en el carrito.
      */
-    public synchronized int getTotalQty() {
-        int q = 0;
-        for (CartItem ci : items) {
-            q += ci.qty;
+    public int getTotalQty() {
+        return state.get().getTotalQty();
+    }
+
+    // ------------------------------
+    // Suscripción a cambios
+    // ------------------------------
+
+    public void addListener(Listener listener) {
+        if (listener != null && !listeners.contains(listener)) {
+            listeners.add(listener);
         }
-        return q;
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
     }
 
     // ------------------------------
@@ -113,24 +180,27 @@ public class CartStore {
     /**
      * Elimina todos los ítems del carrito.
      */
-    public synchronized void clear() {
-        items.clear();
+    public void clear() {
+        synchronized (writeLock) {
+            CartSnapshot current = state.get();
+            if (current.isEmpty()) return;
+            publish(current.cleared(), CartChange.Type.CLEARED, -1, null);
+        }
+        deliverPending();
     }
 
     //    elimina 1 item del carrito
-    public synchronized void remove(Product p) {
+    public void remove(Product p) {
         if (p == null || p.name == null) return;
 
-        Iterator<CartItem> iterator = items.iterator();
-        while (iterator.hasNext()) {
-            CartItem item = iterator.next();
-            if (item.product != null
-                    && item.product.name != null
-                    && item.product.name.equals(p.name)) {
-                iterator.remove();
-                break;
-            }
+        synchronized (writeLock) {
+            CartSnapshot current = state.get();
+            int index = current.indexOf(p.name);
+            if (index < 0) return;
+            publish(current.withItemRemovedAt(index),
+                    CartChange.Type.LINE_REMOVED, index, current.getItems().get(index));
         }
+        deliverPending();
     }
 
 
@@ -139,14 +209,12 @@ public class CartStore {
      * Si ya existe (por nombre), incrementa su cantidad.
      * Lanza IllegalArgumentException si p es nulo.
      */
-    public synchronized void add(Product p) {
+    public void add(Product p) {
         validateProduct(p);
-        CartItem existing = findByProductName(p.name);
-        if (existing == null) {
-            items.add(new CartItem(p, 1));
-        } else {
-            existing.qty++;
+        synchronized (writeLock) {
+            addOne(p);
         }
+        deliverPending();
     }
 
     /**
@@ -156,34 +224,42 @@ public class CartStore {
      * - Si existe y qty == 0 => se elimina la línea.
      * - Si existe y qty > 0 => se actualiza la cantidad.
      */
-    public synchronized void setQty(Product p, int qty) {
+    public void setQty(Product p, int qty) {
         validateProduct(p);
         if (qty < 0) qty = 0;
 
-        CartItem existing = findByProductName(p.name);
-        if (existing == null && qty > 0) {
-            items.add(new CartItem(p, qty));
-        } else if (existing != null) {
-            if (qty == 0) {
-                items.remove(existing);
-            } else {
-                existing.qty = qty;
+        synchronized (writeLock) {
+            CartSnapshot current = state.get();
+            int index = current.indexOf(p.name);
+            if (index < 0 && qty > 0) {
+                CartItem added = new CartItem(p, qty);
+                publish(current.withItemAdded(added),
+                        CartChange.Type.LINE_ADDED, current.getItems().size(), added);
+            } else if (index >= 0) {
+                CartItem existing = current.getItems().get(index);
+                if (qty == 0) {
+                    publish(current.withItemRemovedAt(index),
+                            CartChange.Type.LINE_REMOVED, index, existing);
+                } else if (existing.qty != qty) {
+                    CartItem updated = existing.withQty(qty);
+                    publish(current.withItemAt(index, updated),
+                            CartChange.Type.QTY_CHANGED, index, updated);
+                }
             }
         }
+        deliverPending();
     }
 
     /**
      * Incrementa en 1 la cantidad del producto p.
      * Si el producto no existe, lo agrega con qty = 1.
      */
-    public synchronized void inc(Product p) {
+    public void inc(Product p) {
         validateProduct(p);
-        CartItem existing = findByProductName(p.name);
-        if (existing == null) {
-            items.add(new CartItem(p, 1));
-        } else {
-            existing.qty++;
+        synchronized (writeLock) {
+            addOne(p);
         }
+        deliverPending();
     }
 
     /**
@@ -191,15 +267,129 @@ public class CartStore {
      * Si al decrementar queda en 0, elimina la línea.
      * Si no existe, no hace nada.
      */
-    public synchronized void dec(Product p) {
+    public void dec(Product p) {
         validateProduct(p);
-        CartItem existing = findByProductName(p.name);
-        if (existing == null) return;
+        synchronized (writeLock) {
+            CartSnapshot current = state.get();
+            int index = current.indexOf(p.name);
+            if (index < 0) return;
 
-        existing.qty--;
-        if (existing.qty <= 0) {
-            items.remove(existing);
+            CartItem existing = current.getItems().get(index);
+            if (existing.qty <= 1) {
+                publish(current.withItemRemovedAt(index),
+                        CartChange.Type.LINE_REMOVED, index, existing);
+            } else {
+                CartItem updated = existing.withQty(existing.qty - 1);
+                publish(current.withItemAt(index, updated),
+                        CartChange.Type.QTY_CHANGED, index, updated);
+            }
         }
+        deliverPending();
+    }
+
+    /**
+     * Aplica un lote de operaciones de forma atómica:
+     *   - Valida TODAS las operaciones antes de tocar el carrito
+     *     (si alguna es inválida, lanza IllegalArgumentException y
+     *     el carrito queda igual).
+     *   - Las aplica con una sola toma de writeLock sobre una copia
+     *     de trabajo, recalcula los totales una vez y publica un
+     *     único snapshot.
+     *   - Emite un único CartChange de tipo BATCH (si hubo cambios).
+     */
+    public void apply(List<CartOp> ops) {
+        if (ops == null || ops.isEmpty()) return;
+        for (CartOp op : ops) {
+            if (op == null) {
+                throw new IllegalArgumentException("CartOp no puede ser null");
+            }
+            if (op.type != CartOp.Type.CLEAR) {
+                validateProduct(op.product);
+            }
+        }
+
+        synchronized (writeLock) {
+            CartSnapshot base = state.get();
+            Map<String, CartItem> lines = toLineMap(base);
+            Set<String> touched = new LinkedHashSet<>();
+            boolean cleared = false;
+
+            for (CartOp op : ops) {
+                if (op.type == CartOp.Type.CLEAR) {
+                    lines.clear();
+                    touched.clear();
+                    cleared = true;
+                    continue;
+                }
+
+                Product p = op.product;
+                CartItem existing = lines.get(p.name);
+
+                if (op.type == CartOp.Type.UPDATE_PRODUCT) {
+                    // Mismos datos de línea, producto nuevo (ej. precio revalidado)
+                    if (existing != null && existing.product != p) {
+                        lines.put(p.name, new CartItem(p, existing.qty));
+                        touched.add(p.name);
+                    }
+                    continue;
+                }
+
+                int qty = (existing != null) ? existing.qty : 0;
+                switch (op.type) {
+                    case ADD:
+                    case INC:
+                        qty++;
+                        break;
+                    case DEC:
+                        qty--;
+                        break;
+                    case SET_QTY:
+                        qty = op.qty;
+                        break;
+                    case REMOVE:
+                        qty = 0;
+                        break;
+                    default:
+                        break;
+                }
+
+                if (qty <= 0) {
+                    lines.remove(p.name);
+                } else if (existing == null) {
+                    lines.put(p.name, new CartItem(p, qty));
+                } else if (existing.qty != qty) {
+                    lines.put(p.name, existing.withQty(qty));
+                }
+                touched.add(p.name);
+            }
+
+            publishBatch(base, lines, touched, cleared);
+        }
+        deliverPending();
+    }
+
+    /**
+     * Re-incorpora líneas recuperadas del disco (CartJournal).
+     * Las líneas que el usuario ya volvió a cargar desde que arrancó
+     * la app tienen prioridad: solo se agregan las que no existen.
+     * Se publica como un único lote.
+     */
+    public void restore(List<CartItem> restored) {
+        if (restored == null || restored.isEmpty()) return;
+
+        synchronized (writeLock) {
+            CartSnapshot base = state.get();
+            Map<String, CartItem> lines = toLineMap(base);
+            Set<String> touched = new LinkedHashSet<>();
+            for (CartItem ci : restored) {
+                if (ci == null || ci.product == null) continue;
+                if (lines.containsKey(ci.product.name)) continue;
+                lines.put(ci.product.name, ci);
+                touched.add(ci.product.name);
+            }
+            publishBatch(base, lines, touched, false);
+        }
+        deliverPending();
     }
 
     // ------------------------------
@@ -207,19 +397,135 @@ public class CartStore {
     // ------------------------------
 
     /**
-     * Busca una línea del carrito por nombre de producto (clave lógica actual).
+     * Suma una unidad de p (crea la línea si no existe).
+     * Debe llamarse con writeLock tomado.
      */
-    private CartItem findByProductName(String name) {
-        if (name == null) return null;
-        for (CartItem ci : items) {
-            if (ci.product != null && name.equals(ci.product.name)) {
-                return ci;
-            }
+    private void addOne(Product p) {
+        CartSnapshot current = state.get();
+        int index = current.indexOf(p.name);
+        if (index < 0) {
+            CartItem added = new CartItem(p, 1);
+            publish(current.withItemAdded(added),
+                    CartChange.Type.LINE_ADDED, current.getItems().size(), added);
+        } else {
+            CartItem updated = current.getItems().get(index).withQty(
+                    current.getItems().get(index).qty + 1);
+            publish(current.withItemAt(index, updated),
+                    CartChange.Type.QTY_CHANGED, index, updated);
         }
-        return null;
         // Alternativa: si existiera un "productId" único, comparar por ID.
     }
 
+    /** Copia de trabajo (ordenada) de las líneas de un snapshot. */
+    private static Map<String, CartItem> toLineMap(CartSnapshot snapshot) {
+        Map<String, CartItem> lines = new LinkedHashMap<>();
+        for (CartItem ci : snapshot.getItems()) {
+            lines.put(ci.product.name, ci);
+        }
+        return lines;
+    }
+
+    /**
+     * Publica el resultado de un lote como un único snapshot y un único
+     * CartChange BATCH con solo las líneas que cambiaron respecto de base.
+     * Debe llamarse con writeLock tomado.
+     */
+    private void publishBatch(CartSnapshot base,
+                              Map<String, CartItem> lines,
+                              Set<String> touched,
+                              boolean cleared) {
+        List<CartItem> upserts = new ArrayList<>();
+        List<Product> removals = new ArrayList<>();
+
+        if (cleared) {
+            // Luego del vaciado, todo lo que quedó es nuevo.
+            upserts.addAll(lines.values());
+        } else {
+            for (String name : touched) {
+                CartItem before = base.find(name);
+                CartItem after = lines.get(name);
+                if (after != null && (before == null
+                        || before.qty != after.qty
+                        || before.product != after.product)) {
+                    upserts.add(after);
+                } else if (after == null && before != null) {
+                    removals.add(before.product);
+                }
+            }
+            if (upserts.isEmpty() && removals.isEmpty()) return;
+        }
+        if (cleared && base.isEmpty() && upserts.isEmpty()) return;
+
+        CartSnapshot next = base.withItems(new ArrayList<>(lines.values()));
+        state.set(next);
+        if (listeners.isEmpty()) return;
+
+        undelivered.add(CartChange.batch(
+                cleared,
+                upserts,
+                removals,
+                next.getTotalAmount(),
+                next.getTotalQty(),
+                next.getVersion()
+        ));
+    }
+
+    /**
+     * Publica el snapshot nuevo y encola el cambio para los listeners
+     * (los entrega deliverPending(), ya sin el lock).
+     * Debe llamarse con writeLock tomado para conservar el orden.
+     */
+    private void publish(CartSnapshot next, CartChange.Type type, int position, CartItem item) {
+        state.set(next);
+        if (listeners.isEmpty()) return;
+
+        undelivered.add(new CartChange(
+                type,
+                position,
+                item,
+                next.getTotalAmount(),
+                next.getTotalQty(),
+                next.getVersion()
+        ));
+    }
+
+    /**
+     * Entrega los cambios encolados, en orden, sin writeLock tomado.
+     * Llamar después de soltar el lock. Si otro hilo (o este mismo, desde
+     * un listener que mutó) ya está entregando, no hace nada: esa entrega
+     * vacía la cola, incluido lo recién encolado.
+     */
+    private void deliverPending() {
+        synchronized (writeLock) {
+            if (delivering || undelivered.isEmpty()) return;
+            delivering = true;
+        }
+        boolean done = false;
+        try {
+            while (true) {
+                CartChange next;
+                synchronized (writeLock) {
+                    next = undelivered.poll();
+                    if (next == null) {
+                        delivering = false;
+                        done = true;
+                        return;
+                    }
+                }
+                for (Listener l : listeners) {
+                    l.onCartChanged(next);
+                }
+            }
+        } finally {
+            if (!done) {
+                // Un listener lanzó: la próxima mutación entrega el resto.
+                synchronized (writeLock) {
+                    delivering = false;
+                }
+            }
+        }
+    }
+
     /**
      * Valida que el producto no sea nulo y que tenga nombre no vacío.
      */
@@ -1,41 +1,35 @@
 package com.example.lamontana.data;
 
-import java.util.Arrays;
-import java.util.List;
-
+/*
+ * ============================================================
+ * Archivo: Servicio.java
+ * Paquete: com.example.lamontana.data
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Un ítem de la tabla de precios de impresión: un documento de
+ *     la colección "servicios" de Firestore (id = id del documento).
+ *   - precio en pesos: por carilla (carilla, fotocopiado_bn,
+ *     fotocopiado_color, doble_faz, papel_*) o por trabajo
+ *     (anillado, encuadernado). Ver ServicePriceTable.
+ *   - orden: posición en el selector de tamaño de hoja (papel_*).
+ * ============================================================
+ */
 public class Servicio {
 
-    public String nombre;
-    public String descripcion;
-    public boolean disponible;
-    public double precio;
-
-    public Servicio(String nombre, String descripcion, boolean disponible, double precio) {
-        this.nombre = nombre;
-        this.descripcion = descripcion;
+    public final String id;
+    public final String nombre;
+    public final String descripcion;
+    public final boolean disponible;
+    public final double precio;
+    public final int orden;
+
+    public Servicio(String id, String nombre, String descripcion,
+                    boolean disponible, double precio, int orden) {
+        this.id = id;
+        this.nombre = nombre != null ? nombre : id;
+        this.descripcion = descripcion != null ? descripcion : "";
         this.disponible = disponible;
         this.precio = precio;
+        this.orden = orden;
     }
-
-    List<Servicio> servicios = Arrays.asList(
-            new Servicio("fotocopiado_bn",
-                    "Fotocopiado en blanco y negro por carilla, simple faz.",
-                    true, 40),
-
-            new Servicio("fotocopiado_color",
-                    "Fotocopiado/color por carilla, simple faz.",
-                    true, 120),
-
-            new Servicio("doble_faz",
-                    "Recargo o ajuste por impresión doble faz.",
-                    true, 0.8),
-
-            new Servicio("anillado",
-                    "Anillado plástico o metálico estándar.",
-                    true, 900),
-
-            new Servicio("encuadernado",
-                    "Encuadernado simple (tapa blanda).",
-                    true, 1500)
-    );
 }
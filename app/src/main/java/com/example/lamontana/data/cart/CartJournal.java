@@ -0,0 +1,514 @@
+package com.example.lamontana.data.cart;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.example.lamontana.data.CartStore;
+import com.example.lamontana.model.CartChange;
+import com.example.lamontana.model.CartItem;
+import com.example.lamontana.model.Category;
+import com.example.lamontana.model.Product;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.CRC32;
+
+/*
+ * ============================================================
+ * Archivo: CartJournal.java
+ * Paquete: com.example.lamontana.data.cart
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Persiste el carrito en disco para que sobreviva a la muerte
+ *     del proceso (cierre forzado, low-memory kill, reinicio).
+ *   - Escucha los CartChange de CartStore y agrega un registro
+ *     compacto por cambio a un journal append-only.
+ *   - Periódicamente compacta el journal en un snapshot y lo
+ *     trunca.
+ *   - Al arrancar, reconstruye el carrito (snapshot + journal) en
+ *     el hilo escritor y lo restaura en CartStore.
+ *
+ * ¿Qué métodos expone?
+ *   - static void init(Context ctx): arranca el hilo escritor
+ *     (una sola vez, desde LaMontanaApp).
+ *   - static void awaitRestored(): bloquea hasta que terminó la
+ *     restauración del arranque (CartSyncRepository, en su hilo).
+ *
+ * Formato en disco (filesDir/cart/):
+ *   - journal.bin: secuencia de registros
+ *       [len:short][payload][crc32:int]
+ *     payload:
+ *       · DEF   id, productId?, nombre, desc, precio, categoría,
+ *               copyBased, imageUrl
+ *       · SET   id, qty      (qty == 0 → se quita la línea)
+ *       · CLEAR
+ *     DEF se escribe una sola vez por producto y por journal;
+ *     SET/CLEAR son absolutos, por lo que re-aplicarlos es inocuo.
+ *     productId es Product.id (documento en "productos"); los DEF
+ *     de versiones anteriores (OP_DEF_V1) no lo tienen y se siguen
+ *     leyendo, con id null.
+ *   - snapshot.bin: [formato:int] + lista de (producto, qty) escrita
+ *     en un .tmp y renombrada de forma atómica. El formato 1 es el
+ *     anterior, sin productId.
+ *
+ * Notas:
+ *   - Ningún tap espera I/O: el listener solo encola el cambio.
+ *   - El hilo escritor drena todos los cambios pendientes, los
+ *     escribe juntos y hace un único fsync por lote.
+ *   - Si el último registro quedó cortado por un crash, su CRC no
+ *     coincide y la reproducción se detiene ahí.
+ *   - Un CLEARED compacta en el acto: el contenido anterior (ej. el
+ *     carrito de otro usuario) no queda en disco.
+ *   - imageRes no se persiste (los ids de recursos cambian entre
+ *     builds); las pantallas ya usan imageUrl o un fallback.
+ * ============================================================
+ */
+public final class CartJournal implements CartStore.Listener {
+
+    private static final String TAG = "CartJournal";
+
+    private static final String DIR_NAME = "cart";
+    private static final String JOURNAL_FILE = "journal.bin";
+    private static final String SNAPSHOT_FILE = "snapshot.bin";
+
+    /** DEF sin Product.id (journals viejos: solo lectura). */
+    private static final byte OP_DEF_V1 = 1;
+    private static final byte OP_SET = 2;
+    private static final byte OP_CLEAR = 3;
+    private static final byte OP_DEF = 4;
+
+    /** Snapshot sin Product.id (solo lectura). */
+    private static final int SNAPSHOT_FORMAT_V1 = 1;
+    private static final int SNAPSHOT_FORMAT = 2;
+
+    /** Registros en el journal a partir de los cuales se compacta. */
+    private static final int COMPACT_THRESHOLD = 256;
+
+    private static CartJournal instance;
+
+    /** Se libera al terminar restore() (o si no hay disco). */
+    private final CountDownLatch restored = new CountDownLatch(1);
+
+    private final File journalFile;
+    private final File snapshotFile;
+
+    /** Cambios pendientes de escribir (productor: UI; consumidor: escritor). */
+    private final LinkedBlockingQueue<CartChange> pending = new LinkedBlockingQueue<>();
+
+    // ---- Estado propio del hilo escritor ----
+    private FileOutputStream journalOut;
+    private final Map<String, Integer> definedIds = new HashMap<>();
+    private final Map<String, Product> definedProducts = new HashMap<>();
+    private int recordsInJournal = 0;
+
+    /** init() usa filesDir/cart; los tests, una carpeta temporal. */
+    CartJournal(File dir) {
+        this.journalFile = new File(dir, JOURNAL_FILE);
+        this.snapshotFile = new File(dir, SNAPSHOT_FILE);
+    }
+
+    /**
+     * Inicializa la persistencia del carrito. Idempotente.
+     * La lectura del disco ocurre en el hilo escritor, no en el llamador.
+     */
+    public static synchronized void init(Context context) {
+        if (instance != null) return;
+
+        File dir = new File(context.getApplicationContext().getFilesDir(), DIR_NAME);
+        instance = new CartJournal(dir);
+
+        // Nos suscribimos antes de restaurar: los cambios hechos mientras se
+        // reproduce el journal quedan encolados detrás de la restauración.
+        CartStore.get().addListener(instance);
+
+        Thread writer = new Thread(instance::runWriter, "cart-journal");
+        writer.setDaemon(true);
+        writer.setPriority(Thread.MIN_PRIORITY);
+        writer.start();
+    }
+
+    /**
+     * Espera a que el carrito persistido esté restaurado en CartStore.
+     * No llamar desde el hilo de UI. Sin init() no espera.
+     */
+    public static void awaitRestored() {
+        final CartJournal journal;
+        synchronized (CartJournal.class) {
+            journal = instance;
+        }
+        if (journal == null) return;
+        try {
+            journal.restored.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ------------------------------
+    // Listener (hilo de la mutación)
+    // ------------------------------
+
+    @Override
+    public void onCartChanged(CartChange change) {
+        // Solo encolar: nunca bloquear al que muta el carrito.
+        pending.offer(change);
+    }
+
+    // ------------------------------
+    // Hilo escritor
+    // ------------------------------
+
+    private void runWriter() {
+        File dir = journalFile.getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs()) {
+            Log.e(TAG, "No se pudo crear " + dir);
+            restored.countDown();
+            return;
+        }
+
+        restore();
+        restored.countDown();
+
+        List<CartChange> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(pending.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            pending.drainTo(batch);
+
+            try {
+                boolean cleared = writeBatch(batch);
+                if (cleared || recordsInJournal >= COMPACT_THRESHOLD) {
+                    compact();
+                }
+            } catch (IOException e) {
+                Log.e(TAG, "Error escribiendo journal del carrito", e);
+                closeJournal();
+                // Los DEF de este lote pueden no haber llegado al disco:
+                // el próximo lote vuelve a definir los productos que use.
+                definedIds.clear();
+                definedProducts.clear();
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Reconstruye el carrito desde snapshot + journal, lo restaura en
+     * CartStore y deja el journal compactado.
+     */
+    private void restore() {
+        Map<String, CartItem> lines;
+        try {
+            lines = load();
+        } catch (IOException e) {
+            Log.w(TAG, "Carrito persistido ilegible, se descarta", e);
+            lines = new LinkedHashMap<>();
+        }
+
+        if (!lines.isEmpty()) {
+            CartStore.get().restore(new ArrayList<>(lines.values()));
+        }
+
+        try {
+            compact();
+        } catch (IOException e) {
+            Log.e(TAG, "Error compactando journal del carrito", e);
+            closeJournal();
+        }
+    }
+
+    /** @return true si el lote vació el carrito (conviene compactar ya). */
+    boolean writeBatch(List<CartChange> batch) throws IOException {
+        FileOutputStream out = openJournal();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        boolean cleared = false;
+
+        for (CartChange change : batch) {
+            switch (change.type) {
+                case CLEARED:
+                    appendRecord(buffer, new byte[]{OP_CLEAR});
+                    cleared = true;
+                    break;
+                case BATCH:
+                    if (change.clearedFirst) {
+                        appendRecord(buffer, new byte[]{OP_CLEAR});
+                        cleared = true;
+                    }
+                    for (Product removed : change.removals) {
+                        appendSet(buffer, removed, 0);
+                    }
+                    for (CartItem upsert : change.upserts) {
+                        appendSet(buffer, upsert.product, upsert.qty);
+                    }
+                    break;
+                case LINE_REMOVED:
+                    if (change.item != null) appendSet(buffer, change.item.product, 0);
+                    break;
+                default:
+                    if (change.item != null) appendSet(buffer, change.item.product, change.item.qty);
+                    break;
+            }
+        }
+
+        // Un solo write + un solo fsync para todo el lote (group commit).
+        buffer.writeTo(out);
+        out.flush();
+        out.getFD().sync();
+        return cleared;
+    }
+
+    /**
+     * Escribe el estado actual de CartStore como snapshot y trunca el journal.
+     * Los registros aún encolados son absolutos, así que si ya están
+     * reflejados en el snapshot, re-aplicarlos no cambia nada.
+     */
+    void compact() throws IOException {
+        List<CartItem> items = CartStore.get().getItems();
+
+        File tmp = new File(snapshotFile.getPath() + ".tmp");
+        FileOutputStream fos = new FileOutputStream(tmp);
+        try {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos));
+            out.writeInt(SNAPSHOT_FORMAT);
+            out.writeInt(items.size());
+            for (CartItem ci : items) {
+                writeProduct(out, ci.product);
+                out.writeInt(ci.qty);
+            }
+            out.flush();
+            fos.getFD().sync();
+        } finally {
+            fos.close();
+        }
+        if (!tmp.renameTo(snapshotFile)) {
+            throw new IOException("No se pudo reemplazar " + snapshotFile);
+        }
+
+        // Journal nuevo y vacío
+        closeJournal();
+        journalOut = new FileOutputStream(journalFile, false);
+        definedIds.clear();
+        definedProducts.clear();
+        recordsInJournal = 0;
+    }
+
+    private FileOutputStream openJournal() throws IOException {
+        if (journalOut == null) {
+            journalOut = new FileOutputStream(journalFile, true);
+        }
+        return journalOut;
+    }
+
+    private void closeJournal() {
+        if (journalOut == null) return;
+        try {
+            journalOut.close();
+        } catch (IOException ignored) {
+            // Nada más para hacer
+        }
+        journalOut = null;
+    }
+
+    // ------------------------------
+    // Lectura
+    // ------------------------------
+
+    /** Carrito guardado en disco: snapshot + journal reproducido. */
+    Map<String, CartItem> load() throws IOException {
+        Map<String, CartItem> lines = new LinkedHashMap<>();
+        readSnapshot(lines);
+        replayJournal(lines);
+        return lines;
+    }
+
+    private void readSnapshot(Map<String, CartItem> lines) throws IOException {
+        if (!snapshotFile.exists()) return;
+
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(snapshotFile)))) {
+            int format = in.readInt();
+            if (format != SNAPSHOT_FORMAT && format != SNAPSHOT_FORMAT_V1) return;
+            boolean withId = format == SNAPSHOT_FORMAT;
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                Product p = readProduct(in, withId);
+                int qty = in.readInt();
+                if (qty > 0) {
+                    lines.put(p.name, new CartItem(p, qty));
+                }
+            }
+        }
+    }
+
+    private void replayJournal(Map<String, CartItem> lines) throws IOException {
+        if (!journalFile.exists()) return;
+
+        Map<Integer, Product> products = new HashMap<>();
+        CRC32 crc = new CRC32();
+
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(journalFile)))) {
+            while (true) {
+                byte[] payload;
+                try {
+                    int len = in.readUnsignedShort();
+                    payload = new byte[len];
+                    in.readFully(payload);
+                    int expected = in.readInt();
+                    crc.reset();
+                    crc.update(payload, 0, payload.length);
+                    if ((int) crc.getValue() != expected) {
+                        Log.w(TAG, "Registro corrupto en el journal, se ignora el resto");
+                        return;
+                    }
+                } catch (EOFException eof) {
+                    // Fin del journal (o último registro cortado por un crash)
+                    return;
+                }
+                applyRecord(payload, products, lines);
+            }
+        }
+    }
+
+    private static void applyRecord(byte[] payload,
+                                    Map<Integer, Product> products,
+                                    Map<String, CartItem> lines) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte op = in.readByte();
+        switch (op) {
+            case OP_DEF:
+            case OP_DEF_V1: {
+                int id = in.readInt();
+                products.put(id, readProduct(in, op == OP_DEF));
+                break;
+            }
+            case OP_SET: {
+                Product p = products.get(in.readInt());
+                int qty = in.readInt();
+                if (p == null) break;
+                if (qty <= 0) {
+                    lines.remove(p.name);
+                } else {
+                    lines.put(p.name, new CartItem(p, qty));
+                }
+                break;
+            }
+            case OP_CLEAR:
+                lines.clear();
+                break;
+            default:
+                throw new IOException("Operación desconocida en el journal: " + op);
+        }
+    }
+
+    // ------------------------------
+    // Codificación
+    // ------------------------------
+
+    private static byte[] encodeDef(int id, Product p) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(OP_DEF);
+        out.writeInt(id);
+        writeProduct(out, p);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static byte[] encodeSet(int id, int qty) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(9);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(OP_SET);
+        out.writeInt(id);
+        out.writeInt(qty);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Agrega un SET (y el DEF del producto si todavía no está en este
+     * journal, o si cambiaron sus datos: ej. precio revalidado; al
+     * reproducir, el DEF nuevo reemplaza al anterior con el mismo id).
+     */
+    private void appendSet(ByteArrayOutputStream buffer, Product p, int qty) throws IOException {
+        Integer id = definedIds.get(p.name);
+        if (id == null) {
+            id = definedIds.size();
+            definedIds.put(p.name, id);
+        }
+        if (definedProducts.get(p.name) != p) {
+            definedProducts.put(p.name, p);
+            appendRecord(buffer, encodeDef(id, p));
+        }
+        appendRecord(buffer, encodeSet(id, qty));
+    }
+
+    private void appendRecord(ByteArrayOutputStream buffer, byte[] payload) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeShort(payload.length);
+        out.write(payload);
+        out.writeInt((int) crc.getValue());
+        out.flush();
+        recordsInJournal++;
+    }
+
+    private static void writeProduct(DataOutputStream out, Product p) throws IOException {
+        out.writeBoolean(p.id != null);
+        if (p.id != null) {
+            out.writeUTF(p.id);
+        }
+        out.writeUTF(p.name);
+        out.writeUTF(p.desc);
+        out.writeInt(p.price);
+        out.writeUTF(p.category.name());
+        out.writeBoolean(p.copyBased);
+        out.writeBoolean(p.imageUrl != null);
+        if (p.imageUrl != null) {
+            out.writeUTF(p.imageUrl);
+        }
+    }
+
+    /** withId: false para los formatos viejos, sin Product.id. */
+    private static Product readProduct(DataInputStream in, boolean withId) throws IOException {
+        String id = withId && in.readBoolean() ? in.readUTF() : null;
+        String name = in.readUTF();
+        String desc = in.readUTF();
+        int price = in.readInt();
+        Category category;
+        try {
+            category = Category.valueOf(in.readUTF());
+        } catch (IllegalArgumentException e) {
+            category = Category.PRINT;
+        }
+        boolean copyBased = in.readBoolean();
+        String imageUrl = in.readBoolean() ? in.readUTF() : null;
+        try {
+            return new Product(id, name, desc, price, category, 0, copyBased, imageUrl);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Producto inválido en disco: " + name, e);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.lamontana.data.cart;
+
+import androidx.annotation.Nullable;
+
+import com.example.lamontana.model.Product;
+
+/*
+ * ============================================================
+ * Archivo: CartLineVersion.java
+ * Paquete: com.example.lamontana.data.cart
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Registro "last-writer-wins" de UNA línea del carrito
+ *     sincronizado entre dispositivos (CartSyncRepository):
+ *       · qty        → cantidad (0 = línea quitada / tombstone).
+ *       · updatedAt  → reloj lógico-híbrido en ms de la edición.
+ *       · deviceId   → dispositivo que hizo la edición (desempate).
+ *       · product    → datos para recrear la línea en otro equipo.
+ *
+ * ¿Qué métodos expone?
+ *   - boolean winsOver(CartLineVersion other): orden total
+ *     (updatedAt, deviceId) usado para fusionar de forma
+ *     determinística ediciones concurrentes.
+ *
+ * Notas:
+ *   - Inmutable; cada edición crea una versión nueva.
+ * ============================================================
+ */
+public final class CartLineVersion {
+
+    public final int qty;
+    public final long updatedAt;
+    public final String deviceId;
+
+    /** Puede ser null en tombstones de líneas que nunca vimos. */
+    @Nullable
+    public final Product product;
+
+    public CartLineVersion(int qty, long updatedAt, String deviceId, @Nullable Product product) {
+        this.qty = Math.max(qty, 0);
+        this.updatedAt = updatedAt;
+        this.deviceId = deviceId != null ? deviceId : "";
+        this.product = product;
+    }
+
+    /**
+     * true si esta versión le gana a other (o other es null).
+     * Mayor updatedAt gana; a igual updatedAt decide el deviceId.
+     */
+    public boolean winsOver(@Nullable CartLineVersion other) {
+        if (other == null) return true;
+        if (updatedAt != other.updatedAt) return updatedAt > other.updatedAt;
+        return deviceId.compareTo(other.deviceId) > 0;
+    }
+
+    @Override
+    public String toString() {
+        return "CartLineVersion{qty=" + qty +
+                ", t=" + updatedAt +
+                ", dev=" + deviceId +
+                "}";
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.lamontana.data.cart;
+
+import com.example.lamontana.model.CartOp;
+import com.example.lamontana.model.Product;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/*
+ * ============================================================
+ * Archivo: CartRevalidation.java
+ * Paquete: com.example.lamontana.data.cart
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Resultado inmutable de revalidar el carrito contra la
+ *     colección "productos" (CartRevalidator):
+ *       · priceChanges → líneas cuyo precio cambió (producto con
+ *                        el precio nuevo + precio anterior).
+ *       · unavailable  → productos que ya no existen o están
+ *                        marcados como no disponibles.
+ *       · cartVersion  → versión del carrito revalidado.
+ *   - toOps(): lote de CartOp para dejar el carrito al día de una
+ *     sola vez (CartStore.apply).
+ * ============================================================
+ */
+public final class CartRevalidation {
+
+    /** Cambio de precio de una línea. */
+    public static final class PriceChange {
+        public final Product updated;
+        public final int oldPrice;
+
+        PriceChange(Product updated, int oldPrice) {
+            this.updated = updated;
+            this.oldPrice = oldPrice;
+        }
+    }
+
+    public final List<PriceChange> priceChanges;
+    public final List<Product> unavailable;
+    public final long cartVersion;
+
+    CartRevalidation(List<PriceChange> priceChanges, List<Product> unavailable, long cartVersion) {
+        this.priceChanges = Collections.unmodifiableList(priceChanges);
+        this.unavailable = Collections.unmodifiableList(unavailable);
+        this.cartVersion = cartVersion;
+    }
+
+    /** true si el carrito coincide con el catálogo actual. */
+    public boolean isClean() {
+        return priceChanges.isEmpty() && unavailable.isEmpty();
+    }
+
+    /** Operaciones que actualizan precios y quitan lo no disponible. */
+    public List<CartOp> toOps() {
+        List<CartOp> ops = new ArrayList<>(priceChanges.size() + unavailable.size());
+        for (PriceChange change : priceChanges) {
+            ops.add(CartOp.updateProduct(change.updated));
+        }
+        for (Product p : unavailable) {
+            ops.add(CartOp.remove(p));
+        }
+        return ops;
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.lamontana.data.cart;
+
+import androidx.annotation.Nullable;
+
+import com.example.lamontana.model.CartItem;
+import com.example.lamontana.model.CartSnapshot;
+import com.example.lamontana.model.Product;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * ============================================================
+ * Archivo: CartRevalidator.java
+ * Paquete: com.example.lamontana.data.cart
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Antes de confirmar el pedido, compara cada línea del carrito
+ *     con su documento actual en "productos": precio y campo
+ *     "disponible". El carrito guarda el Product tal como estaba
+ *     al agregarlo, y el catálogo puede haber cambiado desde entonces.
+ *
+ * ¿Cómo consulta?
+ *   - Consultas whereIn en tandas de hasta WHERE_IN_LIMIT valores:
+ *       · por ID de documento (FieldPath.documentId()) para las
+ *         líneas que vienen del catálogo (Product.id);
+ *       · por "nombre" solo para las líneas viejas (id == null),
+ *         guardadas en disco o en "carrito" antes de que se
+ *         persistiera el ID.
+ *   - Todas las tandas salen JUNTAS y se esperan con
+ *     Tasks.whenAllSuccess: un solo viaje de ida y vuelta, sea
+ *     cual sea el tamaño del carrito (nunca una lectura por línea).
+ *
+ * ¿Qué métodos expone?
+ *   - static CartRevalidator getInstance()
+ *   - Task<CartRevalidation> revalidate(CartSnapshot snapshot)
+ *
+ * Notas:
+ *   - Un producto que no aparece en el resultado se considera
+ *     no disponible (fue borrado o renombrado).
+ * ============================================================
+ */
+public class CartRevalidator {
+
+    private static final String COLLECTION_PRODUCTS = "productos";
+
+    /** Tope de valores por whereIn en Firestore. */
+    static final int WHERE_IN_LIMIT = 30;
+
+    // Singleton
+    private static CartRevalidator instance;
+
+    private final FirebaseFirestore firestore;
+
+    private CartRevalidator() {
+        firestore = FirebaseFirestore.getInstance();
+    }
+
+    public static synchronized CartRevalidator getInstance() {
+        if (instance == null) {
+            instance = new CartRevalidator();
+        }
+        return instance;
+    }
+
+    /**
+     * Revalida todas las líneas del snapshot contra "productos".
+     *
+     * @return Task con el resultado (falla si alguna tanda falla).
+     */
+    public Task<CartRevalidation> revalidate(CartSnapshot snapshot) {
+        final List<CartItem> items = snapshot.getItems();
+        final long version = snapshot.getVersion();
+
+        List<String> ids = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        for (CartItem item : items) {
+            if (item.product.id != null) {
+                ids.add(item.product.id);
+            } else {
+                names.add(item.product.name);
+            }
+        }
+
+        // Todas las tandas en paralelo
+        List<Task<QuerySnapshot>> queries = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += WHERE_IN_LIMIT) {
+            List<String> chunk = ids.subList(from, Math.min(ids.size(), from + WHERE_IN_LIMIT));
+            queries.add(firestore.collection(COLLECTION_PRODUCTS)
+                    .whereIn(FieldPath.documentId(), new ArrayList<>(chunk))
+                    .get());
+        }
+        for (int from = 0; from < names.size(); from += WHERE_IN_LIMIT) {
+            List<String> chunk = names.subList(from, Math.min(names.size(), from + WHERE_IN_LIMIT));
+            queries.add(firestore.collection(COLLECTION_PRODUCTS)
+                    .whereIn("nombre", new ArrayList<>(chunk))
+                    .get());
+        }
+
+        return Tasks.whenAllSuccess(queries).continueWith(task -> {
+            Map<String, DocumentSnapshot> byId = new HashMap<>();
+            Map<String, DocumentSnapshot> byName = new HashMap<>();
+            for (Object result : task.getResult()) {
+                for (DocumentSnapshot doc : ((QuerySnapshot) result).getDocuments()) {
+                    byId.put(doc.getId(), doc);
+                    String nombre = doc.getString("nombre");
+                    if (nombre != null) byName.put(nombre.trim(), doc);
+                }
+            }
+            return compare(items, byId, byName, version);
+        });
+    }
+
+    // ------------------------------
+    // Comparación
+    // ------------------------------
+
+    private static CartRevalidation compare(List<CartItem> items,
+                                            Map<String, DocumentSnapshot> byId,
+                                            Map<String, DocumentSnapshot> byName,
+                                            long version) {
+        List<CartRevalidation.PriceChange> priceChanges = new ArrayList<>();
+        List<Product> unavailable = new ArrayList<>();
+
+        for (CartItem item : items) {
+            Product p = item.product;
+            DocumentSnapshot doc = p.id != null ? byId.get(p.id) : byName.get(p.name);
+
+            if (doc == null || Boolean.FALSE.equals(doc.getBoolean("disponible"))) {
+                unavailable.add(p);
+                continue;
+            }
+
+            Integer price = priceOf(doc);
+            if (price != null && price != p.price) {
+                priceChanges.add(new CartRevalidation.PriceChange(p.withPrice(price), p.price));
+            }
+        }
+        return new CartRevalidation(priceChanges, unavailable, version);
+    }
+
+    /** Precio del documento (mismo criterio que el catálogo), o null si falta. */
+    @Nullable
+    private static Integer priceOf(DocumentSnapshot doc) {
+        Long precioLong = doc.getLong("precio");
+        if (precioLong != null) return precioLong.intValue();
+
+        Double precioDouble = doc.getDouble("precio");
+        if (precioDouble != null) return (int) Math.round(precioDouble);
+        return null;
+    }
+}
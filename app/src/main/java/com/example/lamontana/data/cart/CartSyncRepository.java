@@ -0,0 +1,557 @@
+package com.example.lamontana.data.cart;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.example.lamontana.data.CartStore;
+import com.example.lamontana.model.CartChange;
+import com.example.lamontana.model.CartItem;
+import com.example.lamontana.model.CartOp;
+import com.example.lamontana.model.Category;
+import com.example.lamontana.model.Product;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.WriteBatch;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * ============================================================
+ * Archivo: CartSyncRepository.java
+ * Paquete: com.example.lamontana.data.cart
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Sincroniza el carrito local (CartStore) entre los equipos
+ *     del mismo usuario, en la subcolección:
+ *         usuarios/{uid}/carrito/{línea}
+ *   - Cada línea es un registro last-writer-wins (CartLineVersion):
+ *     cantidad + timestamp + deviceId. Las ediciones concurrentes
+ *     se fusionan de forma determinística: gana el timestamp mayor
+ *     y, a igualdad, el deviceId mayor. Quitar una línea deja un
+ *     tombstone (cantidad 0) para que no "reviva".
+ *   - Agrupa los +/- rápidos: las líneas modificadas se marcan como
+ *     pendientes y se suben juntas en un único WriteBatch luego de
+ *     un breve período sin cambios (debounce).
+ *
+ * ¿Qué métodos expone?
+ *   - static void init(Context ctx): arranca la sincronización
+ *     (una sola vez, desde LaMontanaApp). Se engancha a FirebaseAuth:
+ *     inicia al loguearse y se detiene al cerrar sesión.
+ *   - static void onLogout(): cierre de sesión explícito; además de
+ *     detenerse, borra el carrito local y sus metadatos.
+ *
+ * Campos de cada documento de "carrito":
+ *   - productoId (documento en "productos"; falta en líneas subidas
+ *     por versiones anteriores), nombre, descripcion, precio,
+ *     categoria, imagenUrl
+ *   - cantidad: number (0 = quitada)
+ *   - actualizadoEn: number (ms, reloj lógico-híbrido)
+ *   - dispositivo: string
+ *
+ * Notas:
+ *   - Todo el estado vive en un único hilo ("cart-sync"): los
+ *     eventos de CartStore y los snapshots remotos se procesan ahí,
+ *     nunca en el hilo de UI.
+ *   - Sin red, Firestore encola las escrituras en su cache offline
+ *     y el carrito sigue funcionando solo en local.
+ *   - Los metadatos LWW se guardan en SharedPreferences, por uid,
+ *     para que tras reiniciar las líneas restauradas por CartJournal
+ *     no se confundan con ediciones nuevas.
+ *   - El carrito local tiene dueño (el último uid sincronizado). Si
+ *     entra otro usuario, o el dueño cierra sesión, se vacían
+ *     CartStore (y con él CartJournal) y sus metadatos: las líneas
+ *     de un usuario nunca se suben al carrito de otro.
+ *   - Al arrancar, espera a que CartJournal termine de restaurar
+ *     antes de atender la sesión (si no, un carrito ajeno podría
+ *     reaparecer después de vaciarlo).
+ * ============================================================
+ */
+public final class CartSyncRepository implements CartStore.Listener {
+
+    private static final String TAG = "CartSync";
+
+    private static final String COLLECTION_USUARIOS = "usuarios";
+    private static final String SUBCOLLECTION_CARRITO = "carrito";
+
+    private static final String PREFS_NAME = "cart_sync";
+    private static final String PREF_DEVICE_ID = "device_id";
+    private static final String PREF_META = "meta";
+    private static final String PREF_OWNER = "owner";
+
+    /** Espera sin cambios antes de subir el lote. */
+    private static final long DEBOUNCE_MS = 1200;
+
+    /** Demora máxima de un cambio pendiente aunque se siga tocando. */
+    private static final long MAX_DELAY_MS = 5000;
+
+    /** Reintento si el commit falla. */
+    private static final long RETRY_MS = 10_000;
+
+    private static CartSyncRepository instance;
+
+    private final FirebaseFirestore firestore;
+    private final SharedPreferences prefs;
+    private final String deviceId;
+
+    private final ScheduledExecutorService executor =
+            Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "cart-sync");
+                t.setDaemon(true);
+                return t;
+            });
+
+    // ---- Estado confinado al hilo "cart-sync" ----
+    private final Map<String, CartLineVersion> versions = new HashMap<>();
+    private final Set<String> dirty = new HashSet<>();
+    @Nullable private String uid;
+    @Nullable private CollectionReference carritoRef;
+    @Nullable private ListenerRegistration remoteRegistration;
+    @Nullable private ScheduledFuture<?> pendingFlush;
+    private long firstDirtyAt = 0;
+    private long lastTimestamp = 0;
+    /** Versión del vaciado hecho por purgeLocal (su CLEARED no son tombstones). */
+    private long purgedThroughVersion = -1;
+
+    private CartSyncRepository(Context context) {
+        firestore = FirebaseFirestore.getInstance();
+        prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+
+        String id = prefs.getString(PREF_DEVICE_ID, null);
+        if (id == null) {
+            id = UUID.randomUUID().toString();
+            prefs.edit().putString(PREF_DEVICE_ID, id).apply();
+        }
+        deviceId = id;
+
+        // Metadatos sin uid (versiones anteriores): no se sabe de quién son.
+        if (prefs.contains(PREF_META)) {
+            prefs.edit().remove(PREF_META).apply();
+        }
+    }
+
+    /**
+     * Inicializa la sincronización. Idempotente.
+     */
+    public static synchronized void init(Context context) {
+        if (instance != null) return;
+
+        instance = new CartSyncRepository(context.getApplicationContext());
+        instance.executor.execute(CartJournal::awaitRestored);
+        CartStore.get().addListener(instance);
+
+        FirebaseAuth.getInstance().addAuthStateListener(auth -> {
+            FirebaseUser user = auth.getCurrentUser();
+            String newUid = (user != null) ? user.getUid() : null;
+            instance.executor.execute(() -> instance.switchUser(newUid));
+        });
+    }
+
+    /**
+     * Cierre de sesión explícito (MainActivity.logout): deja de
+     * sincronizar y borra el carrito local del usuario que sale.
+     */
+    public static void onLogout() {
+        final CartSyncRepository repo;
+        synchronized (CartSyncRepository.class) {
+            repo = instance;
+        }
+        if (repo == null) return;
+        repo.executor.execute(() -> {
+            repo.switchUser(null);
+            repo.purgeLocal();
+        });
+    }
+
+    // ------------------------------
+    // Eventos locales
+    // ------------------------------
+
+    @Override
+    public void onCartChanged(CartChange change) {
+        // Nada de trabajo en el hilo que mutó: se procesa en "cart-sync".
+        executor.execute(() -> onLocalChange(change));
+    }
+
+    private void onLocalChange(CartChange change) {
+        if (change.type == CartChange.Type.CLEARED && change.version <= purgedThroughVersion) {
+            return; // el vaciado de purgeLocal: no se borra el carrito remoto
+        }
+        switch (change.type) {
+            case CLEARED:
+                tombstoneAll();
+                break;
+            case BATCH:
+                if (change.clearedFirst) {
+                    tombstoneAll();
+                }
+                for (Product removed : change.removals) {
+                    onLocalLine(removed, 0);
+                }
+                for (CartItem upsert : change.upserts) {
+                    onLocalLine(upsert.product, upsert.qty);
+                }
+                break;
+            case LINE_REMOVED:
+                if (change.item != null) onLocalLine(change.item.product, 0);
+                break;
+            default:
+                if (change.item != null) onLocalLine(change.item.product, change.item.qty);
+                break;
+        }
+        scheduleFlush();
+    }
+
+    private void onLocalLine(Product p, int qty) {
+        // Si coincide con la versión conocida no es una edición nueva:
+        // es el eco de un cambio remoto aplicado o una línea restaurada.
+        CartLineVersion known = versions.get(p.name);
+        if (known != null && known.qty == qty) {
+            rememberProduct(p.name, p);
+            return;
+        }
+        stamp(p.name, qty, p);
+    }
+
+    private void tombstoneAll() {
+        for (Map.Entry<String, CartLineVersion> e : versions.entrySet()) {
+            if (e.getValue().qty > 0) {
+                stamp(e.getKey(), 0, e.getValue().product);
+            }
+        }
+    }
+
+    /** Registra una edición local con un timestamp nuevo y la marca pendiente. */
+    private void stamp(String name, int qty, @Nullable Product product) {
+        versions.put(name, new CartLineVersion(qty, nextTimestamp(), deviceId, product));
+        if (dirty.isEmpty()) {
+            firstDirtyAt = System.currentTimeMillis();
+        }
+        dirty.add(name);
+    }
+
+    /** Completa el Product de una versión cargada desde disco sin cambiar su timestamp. */
+    private void rememberProduct(String name, Product product) {
+        CartLineVersion known = versions.get(name);
+        if (known != null && known.product == null) {
+            versions.put(name, new CartLineVersion(
+                    known.qty, known.updatedAt, known.deviceId, product));
+        }
+    }
+
+    /** Reloj lógico-híbrido: nunca retrocede y supera todo lo visto. */
+    private long nextTimestamp() {
+        lastTimestamp = Math.max(System.currentTimeMillis(), lastTimestamp + 1);
+        return lastTimestamp;
+    }
+
+    // ------------------------------
+    // Subida agrupada (debounce)
+    // ------------------------------
+
+    private void scheduleFlush() {
+        if (dirty.isEmpty() || carritoRef == null) return;
+
+        if (pendingFlush != null) {
+            pendingFlush.cancel(false);
+        }
+        long waited = System.currentTimeMillis() - firstDirtyAt;
+        long delay = (waited >= MAX_DELAY_MS) ? 0 : Math.min(DEBOUNCE_MS, MAX_DELAY_MS - waited);
+        pendingFlush = executor.schedule(this::flush, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void flush() {
+        pendingFlush = null;
+        saveMeta();
+        if (dirty.isEmpty() || carritoRef == null) return;
+
+        final CollectionReference target = carritoRef;
+        final Set<String> sent = new HashSet<>(dirty);
+        dirty.clear();
+
+        WriteBatch batch = firestore.batch();
+        for (String name : sent) {
+            CartLineVersion v = versions.get(name);
+            if (v != null) {
+                batch.set(target.document(docId(name)), toDocument(name, v));
+            }
+        }
+
+        batch.commit()
+                .addOnSuccessListener(executor, unused ->
+                        Log.d(TAG, "Carrito sincronizado (" + sent.size() + " líneas)"))
+                .addOnFailureListener(executor, e -> {
+                    Log.w(TAG, "Fallo al sincronizar el carrito, se reintenta", e);
+                    if (target != carritoRef) return; // cambió el usuario
+                    if (dirty.isEmpty()) {
+                        firstDirtyAt = System.currentTimeMillis();
+                    }
+                    dirty.addAll(sent);
+                    if (pendingFlush != null) pendingFlush.cancel(false);
+                    pendingFlush = executor.schedule(this::flush, RETRY_MS, TimeUnit.MILLISECONDS);
+                });
+    }
+
+    // ------------------------------
+    // Cambios remotos
+    // ------------------------------
+
+    private void switchUser(@Nullable String newUid) {
+        if (newUid != null && newUid.equals(uid)) return;
+
+        if (remoteRegistration != null) {
+            remoteRegistration.remove();
+            remoteRegistration = null;
+        }
+        if (pendingFlush != null) {
+            pendingFlush.cancel(false);
+            pendingFlush = null;
+        }
+        carritoRef = null;
+        dirty.clear();
+
+        // El carrito local es de otro usuario: no se mezcla con este.
+        String owner = prefs.getString(PREF_OWNER, null);
+        if (newUid != null && owner != null && !owner.equals(newUid)) {
+            purgeLocal();
+        }
+        uid = newUid;
+
+        if (newUid == null) {
+            // Sin sesión: el carrito queda solo en local.
+            return;
+        }
+
+        prefs.edit().putString(PREF_OWNER, newUid).apply();
+        loadMeta(newUid);
+
+        carritoRef = firestore.collection(COLLECTION_USUARIOS)
+                .document(newUid)
+                .collection(SUBCOLLECTION_CARRITO);
+
+        // Líneas locales que nunca se subieron (o cambiaron sin versión conocida)
+        for (CartItem ci : CartStore.get().getItems()) {
+            CartLineVersion known = versions.get(ci.product.name);
+            if (known == null || known.qty != ci.qty) {
+                stamp(ci.product.name, ci.qty, ci.product);
+            } else {
+                rememberProduct(ci.product.name, ci.product);
+                if (dirty.isEmpty()) {
+                    firstDirtyAt = System.currentTimeMillis();
+                }
+                dirty.add(ci.product.name);
+            }
+        }
+
+        remoteRegistration = carritoRef.addSnapshotListener(executor, (snapshot, error) -> {
+            if (error != null) {
+                Log.w(TAG, "Sin conexión al carrito remoto, se sigue en local", error);
+                return;
+            }
+            if (snapshot != null) {
+                mergeRemote(snapshot);
+            }
+        });
+        scheduleFlush();
+    }
+
+    private void mergeRemote(QuerySnapshot snapshot) {
+        if (snapshot.getMetadata().hasPendingWrites()) {
+            // Eco de nuestras propias escrituras aún no confirmadas.
+            return;
+        }
+
+        List<CartOp> ops = new ArrayList<>();
+        for (DocumentSnapshot doc : snapshot.getDocuments()) {
+            CartLineVersion remote = fromDocument(doc);
+            // Un nombre vacío haría fallar el lote entero en CartStore.apply
+            if (remote == null || remote.product == null
+                    || remote.product.name.trim().isEmpty()) continue;
+
+            String name = remote.product.name;
+            CartLineVersion local = versions.get(name);
+            lastTimestamp = Math.max(lastTimestamp, remote.updatedAt);
+
+            if (!remote.winsOver(local)) continue;
+            if (local != null && local.updatedAt == remote.updatedAt
+                    && local.deviceId.equals(remote.deviceId)) {
+                continue; // misma versión
+            }
+
+            // Primero la versión, luego el store: el evento resultante
+            // coincide con la versión y no se re-sube.
+            versions.put(name, remote);
+            dirty.remove(name);
+            ops.add(CartOp.setQty(remote.product, remote.qty));
+        }
+        // Un solo lote: un snapshot, un recálculo y un evento (BATCH)
+        CartStore.get().apply(ops);
+        saveMeta();
+    }
+
+    // ------------------------------
+    // Mapeo Firestore
+    // ------------------------------
+
+    private static Map<String, Object> toDocument(String name, CartLineVersion v) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("nombre", name);
+        if (v.product != null) {
+            data.put("productoId", v.product.id);
+            data.put("descripcion", v.product.desc);
+            data.put("precio", v.product.price);
+            data.put("categoria", v.product.category.name());
+            data.put("imagenUrl", v.product.imageUrl);
+        }
+        data.put("cantidad", v.qty);
+        data.put("actualizadoEn", v.updatedAt);
+        data.put("dispositivo", v.deviceId);
+        return data;
+    }
+
+    @Nullable
+    private static CartLineVersion fromDocument(DocumentSnapshot doc) {
+        String nombre = doc.getString("nombre");
+        Long cantidad = doc.getLong("cantidad");
+        Long actualizadoEn = doc.getLong("actualizadoEn");
+        if (nombre == null || cantidad == null || actualizadoEn == null) return null;
+
+        Long precio = doc.getLong("precio");
+        String descripcion = doc.getString("descripcion");
+        Category category = parseCategory(doc.getString("categoria"));
+        Product product;
+        try {
+            product = new Product(
+                    doc.getString("productoId"),
+                    nombre,
+                    descripcion != null ? descripcion : "",
+                    precio != null ? precio.intValue() : 0,
+                    category,
+                    0,
+                    true,
+                    doc.getString("imagenUrl")
+            );
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        return new CartLineVersion(
+                cantidad.intValue(),
+                actualizadoEn,
+                doc.getString("dispositivo"),
+                product
+        );
+    }
+
+    private static Category parseCategory(@Nullable String value) {
+        if (value == null) return Category.PRINT;
+        try {
+            return Category.valueOf(value);
+        } catch (IllegalArgumentException e) {
+            return Category.PRINT;
+        }
+    }
+
+    /** Los IDs de documento no admiten "/": se codifica el nombre. */
+    private static String docId(String name) {
+        try {
+            return URLEncoder.encode(name, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            return Integer.toHexString(name.hashCode());
+        }
+    }
+
+    // ------------------------------
+    // Metadatos locales (SharedPreferences)
+    // ------------------------------
+
+    private static String metaKey(String uid) {
+        return PREF_META + "_" + uid;
+    }
+
+    /**
+     * Vacía el carrito local y olvida sus metadatos y su dueño.
+     * Debe llamarse sin sesión enganchada (carritoRef == null): el
+     * vaciado no se sube como tombstones.
+     */
+    private void purgeLocal() {
+        String owner = prefs.getString(PREF_OWNER, null);
+        SharedPreferences.Editor edit = prefs.edit().remove(PREF_OWNER);
+        if (owner != null) edit.remove(metaKey(owner));
+        edit.apply();
+
+        versions.clear();
+        dirty.clear();
+
+        // CartJournal recibe el mismo CLEARED y compacta el disco.
+        CartStore store = CartStore.get();
+        store.clear();
+        purgedThroughVersion = store.getSnapshot().getVersion();
+    }
+
+    /** Reemplaza las versiones en memoria por las guardadas para uid. */
+    private void loadMeta(String uid) {
+        versions.clear();
+        String raw = prefs.getString(metaKey(uid), null);
+        if (raw == null) return;
+        try {
+            JSONObject json = new JSONObject(raw);
+            Iterator<String> keys = json.keys();
+            while (keys.hasNext()) {
+                String name = keys.next();
+                JSONObject v = json.getJSONObject(name);
+                // El Product lo aporta la línea cuando CartJournal la restaura.
+                CartItem current = CartStore.get().getSnapshot().find(name);
+                CartLineVersion version = new CartLineVersion(
+                        v.getInt("q"), v.getLong("t"), v.getString("d"),
+                        current != null ? current.product : null);
+                versions.put(name, version);
+                lastTimestamp = Math.max(lastTimestamp, version.updatedAt);
+            }
+        } catch (JSONException e) {
+            Log.w(TAG, "Metadatos de sincronización ilegibles, se descartan", e);
+            versions.clear();
+        }
+    }
+
+    private void saveMeta() {
+        if (uid == null) return; // sin sesión no hay carrito remoto contra el que comparar
+        JSONObject json = new JSONObject();
+        try {
+            for (Map.Entry<String, CartLineVersion> e : versions.entrySet()) {
+                CartLineVersion v = e.getValue();
+                JSONObject o = new JSONObject();
+                o.put("q", v.qty);
+                o.put("t", v.updatedAt);
+                o.put("d", v.deviceId);
+                json.put(e.getKey(), o);
+            }
+        } catch (JSONException e) {
+            Log.w(TAG, "No se pudieron guardar los metadatos de sincronización", e);
+            return;
+        }
+        prefs.edit().putString(metaKey(uid), json.toString()).apply();
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.lamontana.data.order;
+
+import androidx.annotation.Nullable;
+
+import com.example.lamontana.data.pricing.PriceBreakdown;
+import com.example.lamontana.data.pricing.PriceLine;
+import com.example.lamontana.model.CartItem;
+import com.example.lamontana.model.CartSnapshot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/*
+ * ============================================================
+ * Archivo: OrderDraft.java
+ * Paquete: com.example.lamontana.data.order
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Foto inmutable de un pedido listo para enviar:
+ *       · orderId generado en el cliente (OrderRepository.newOrderId()).
+ *       · Líneas del carrito tomadas de un CartSnapshot.
+ *       · Desglose de precios (PricingEngine) que el usuario
+ *         confirmó: productos, trabajo de impresión y envío, en
+ *         centavos.
+ *       · Datos de envío del formulario de checkout.
+ *       · archivo: path en Storage del PDF del trabajo de impresión
+ *         (null si no hay).
+ *   - OrderRepository la convierte en los documentos del pedido.
+ *
+ * Notas:
+ *   - Las líneas se comparten con el snapshot (ya es inmutable).
+ *   - Los importes se guardan en centavos, tal cual el desglose:
+ *     total = productos + impresión + envío, sin redondeos. Pasar
+ *     a pesos es cosa de la pantalla.
+ *   - printLines: una por trabajo de impresión del desglose, aunque
+ *     cueste 0 (lleva el archivo que el local tiene que imprimir).
+ *   - createdAt acompaña al orderId: un reintento del mismo pedido
+ *     conserva ambos.
+ * ============================================================
+ */
+public final class OrderDraft {
+
+    public final String orderId;
+    public final long createdAt;
+
+    public final List<CartItem> lines;
+    public final List<PriceLine> printLines;
+    public final PriceBreakdown pricing;
+    public final int totalQty;
+
+    public final String direccion;
+    public final String codigoPostal;
+    public final String telefono;
+    public final String notas;
+    @Nullable public final String archivo;
+
+    public OrderDraft(String orderId,
+                      long createdAt,
+                      CartSnapshot snapshot,
+                      PriceBreakdown pricing,
+                      String direccion,
+                      String codigoPostal,
+                      String telefono,
+                      String notas,
+                      @Nullable String archivo) {
+        this.orderId = orderId;
+        this.createdAt = createdAt;
+        this.lines = snapshot.getItems();
+        this.printLines = linesOf(pricing, PriceLine.Tipo.IMPRESION);
+        this.pricing = pricing;
+        this.totalQty = snapshot.getTotalQty();
+        this.direccion = direccion != null ? direccion : "";
+        this.codigoPostal = codigoPostal != null ? codigoPostal : "";
+        this.telefono = telefono != null ? telefono : "";
+        this.notas = notas != null ? notas : "";
+        this.archivo = archivo;
+    }
+
+    /** Documentos de línea que genera el pedido. */
+    public int getLineCount() {
+        return lines.size() + printLines.size();
+    }
+
+    /** true si no hay nada para pedir (ni productos ni impresión). */
+    public boolean isEmpty() {
+        return lines.isEmpty() && printLines.isEmpty();
+    }
+
+    private static List<PriceLine> linesOf(PriceBreakdown pricing, PriceLine.Tipo tipo) {
+        List<PriceLine> out = new ArrayList<>(1);
+        for (PriceLine line : pricing.lines) {
+            if (line.tipo == tipo) out.add(line);
+        }
+        return Collections.unmodifiableList(out);
+    }
+}
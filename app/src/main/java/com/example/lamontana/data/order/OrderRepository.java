@@ -0,0 +1,293 @@
+package com.example.lamontana.data.order;
+
+import androidx.annotation.Nullable;
+
+import com.example.lamontana.data.pricing.PriceLine;
+import com.example.lamontana.data.pricing.PricingEngine;
+import com.example.lamontana.model.CartItem;
+import com.example.lamontana.model.OrderLine;
+import com.example.lamontana.model.OrderSummary;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.Source;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.security.SecureRandom;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/*
+ * ============================================================
+ * Archivo: OrderRepository.java
+ * Paquete: com.example.lamontana.data.order
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Persistir los pedidos confirmados en el checkout, en:
+ *         usuarios/{uid}/pedidos/{orderId}
+ *         usuarios/{uid}/pedidos/{orderId}/lineas/{nnn}
+ *   - Todo el pedido (cabecera + una línea por producto + la línea
+ *     del trabajo de impresión, si hay) se escribe en un ÚNICO
+ *     WriteBatch: un solo viaje a Firestore por pedido y, o se
+ *     guarda completo, o no se guarda nada.
+ *
+ * Idempotencia:
+ *   - El orderId lo genera el cliente (newOrderId()) ANTES de
+ *     enviar, y los IDs de las líneas son su posición (000, 001…).
+ *     Reintentar o tocar dos veces "Confirmar" con el mismo
+ *     OrderDraft vuelve a escribir los mismos documentos con los
+ *     mismos datos: nunca se duplica el pedido.
+ *
+ * ¿Qué métodos expone?
+ *   - getInstance(): singleton.
+ *   - static String newOrderId(): ID corto y legible (LM-XXXX-XXXX).
+ *   - Task<Void> placeOrder(String uid, OrderDraft draft)
+ *   - Task<DocumentSnapshot> whenSavedLocally(uid, orderId): lectura
+ *     de la cache local, para saber que el pedido ya quedó encolado
+ *     aunque no haya red.
+ *   - Task<QuerySnapshot> fetchHistoryPage(uid, after): una página
+ *     del historial (HISTORY_PAGE_SIZE cabeceras, más nuevas primero),
+ *     con cursor = último documento de la página anterior.
+ *   - Task<QuerySnapshot> fetchLines(uid, orderId): líneas de UN
+ *     pedido, solo cuando se expande en el historial.
+ *   - static toSummary(doc) / toLine(doc): mapeo a modelos.
+ *
+ * Campos del documento de pedido:
+ *   - id, usuarioId, estado ("pendiente")
+ *   - subtotalProductosCents, servicioImpresionCents, costoEnvioCents,
+ *     totalCents: number (centavos, los del desglose confirmado; los
+ *     pedidos viejos tienen subtotalProductos… total en pesos)
+ *   - cantidadUnidades, cantidadLineas: number
+ *   - envio: { direccion, codigoPostal, telefono, notas }
+ *   - creadoEnCliente: number (ms, fijo en el borrador)
+ *   - creadoEn: timestamp de servidor
+ *
+ * Campos de cada línea:
+ *   - tipo ("producto" | "impresion"), nombre, descripcion,
+ *     categoria, precioCents, cantidad, subtotalCents
+ *   - Una línea "impresion" por trabajo, aunque cueste 0.
+ *   - archivo (solo "impresion", si hay): path en Storage
+ *
+ * Notas:
+ *   - Un WriteBatch admite 500 escrituras: un carrito real queda
+ *     muy por debajo de ese tope.
+ * ============================================================
+ */
+public class OrderRepository {
+
+    private static final String COLLECTION_USUARIOS = "usuarios";
+    private static final String SUBCOLLECTION_PEDIDOS = "pedidos";
+    private static final String SUBCOLLECTION_LINEAS = "lineas";
+
+    public static final String ESTADO_PENDIENTE = "pendiente";
+
+    /** Cabeceras por página del historial (la primera es la única al abrir). */
+    public static final int HISTORY_PAGE_SIZE = 10;
+
+    private static final String ID_ALPHABET = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789";
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    // Singleton
+    private static OrderRepository instance;
+
+    private final FirebaseFirestore firestore;
+
+    private OrderRepository() {
+        firestore = FirebaseFirestore.getInstance();
+    }
+
+    public static synchronized OrderRepository getInstance() {
+        if (instance == null) {
+            instance = new OrderRepository();
+        }
+        return instance;
+    }
+
+    /**
+     * Genera un ID de pedido del lado del cliente: marca de tiempo en
+     * base 36 + 4 caracteres al azar (sin 0/O/1/I para poder dictarlo).
+     */
+    public static String newOrderId() {
+        StringBuilder sb = new StringBuilder("LM-");
+        sb.append(Long.toString(System.currentTimeMillis(), 36).toUpperCase(Locale.ROOT));
+        sb.append('-');
+        for (int i = 0; i < 4; i++) {
+            sb.append(ID_ALPHABET.charAt(RANDOM.nextInt(ID_ALPHABET.length())));
+        }
+        return sb.toString();
+    }
+
+    /** Referencia a la subcolección de pedidos del usuario. */
+    public CollectionReference ordersOf(String uid) {
+        return firestore.collection(COLLECTION_USUARIOS)
+                .document(uid)
+                .collection(SUBCOLLECTION_PEDIDOS);
+    }
+
+    /**
+     * Escribe el pedido completo en un único WriteBatch.
+     *
+     * @param uid   UID del usuario logueado.
+     * @param draft Borrador inmutable con ID, líneas y datos de envío.
+     * @return Task<Void> del commit (un solo viaje a Firestore).
+     */
+    public Task<Void> placeOrder(String uid, OrderDraft draft) {
+        if (uid == null || uid.trim().isEmpty()) {
+            throw new IllegalArgumentException("El uid del usuario no puede ser nulo ni vacío");
+        }
+
+        DocumentReference orderRef = ordersOf(uid).document(draft.orderId);
+        CollectionReference linesRef = orderRef.collection(SUBCOLLECTION_LINEAS);
+
+        WriteBatch batch = firestore.batch();
+        batch.set(orderRef, toOrderDocument(uid, draft));
+
+        int index = 0;
+        for (CartItem item : draft.lines) {
+            batch.set(linesRef.document(lineId(index++)), toProductLine(item));
+        }
+        for (PriceLine line : draft.printLines) {
+            batch.set(linesRef.document(lineId(index++)), toPrintJobLine(line, draft.archivo));
+        }
+        return batch.commit();
+    }
+
+    /**
+     * Lee el pedido de la cache local. Llamado después de placeOrder(),
+     * corre detrás del WriteBatch en la cola de Firestore: si el
+     * documento existe, el pedido ya está guardado en el dispositivo y
+     * se sube solo cuando haya red (batch.commit() recién completa con
+     * la confirmación del servidor, que sin conexión no llega).
+     */
+    public Task<DocumentSnapshot> whenSavedLocally(String uid, String orderId) {
+        return ordersOf(uid).document(orderId).get(Source.CACHE);
+    }
+
+    /**
+     * Trae una página del historial: cabeceras ordenadas por fecha de
+     * creación descendente. Paginado por cursor (startAfter), así cada
+     * página es una consulta chica e independiente del tamaño total.
+     *
+     * @param after último documento de la página anterior, o null para
+     *              la primera página.
+     */
+    public Task<QuerySnapshot> fetchHistoryPage(String uid, @Nullable DocumentSnapshot after) {
+        Query query = ordersOf(uid)
+                .orderBy("creadoEnCliente", Query.Direction.DESCENDING)
+                .limit(HISTORY_PAGE_SIZE);
+        if (after != null) {
+            query = query.startAfter(after);
+        }
+        return query.get();
+    }
+
+    /** Líneas de un pedido, en el orden en que se guardaron (000, 001…). */
+    public Task<QuerySnapshot> fetchLines(String uid, String orderId) {
+        return ordersOf(uid)
+                .document(orderId)
+                .collection(SUBCOLLECTION_LINEAS)
+                .orderBy(FieldPath.documentId())
+                .get();
+    }
+
+    // ------------------------------
+    // Mapeo Firestore
+    // ------------------------------
+
+    public static OrderSummary toSummary(DocumentSnapshot doc) {
+        return new OrderSummary(
+                doc.getId(),
+                longOf(doc, "creadoEnCliente"),
+                doc.getString("estado"),
+                centsOf(doc, "totalCents", "total"),
+                centsOf(doc, "costoEnvioCents", "costoEnvio"),
+                (int) longOf(doc, "cantidadUnidades"),
+                (int) longOf(doc, "cantidadLineas")
+        );
+    }
+
+    public static OrderLine toLine(DocumentSnapshot doc) {
+        return new OrderLine(
+                doc.getString("tipo"),
+                doc.getString("nombre"),
+                (int) longOf(doc, "cantidad"),
+                centsOf(doc, "precioCents", "precio"),
+                centsOf(doc, "subtotalCents", "subtotal")
+        );
+    }
+
+    private static long longOf(DocumentSnapshot doc, String field) {
+        Long value = doc.getLong(field);
+        return value != null ? value : 0L;
+    }
+
+    /** Campo en centavos, o el viejo en pesos (pedidos anteriores) × 100. */
+    private static long centsOf(DocumentSnapshot doc, String centsField, String legacyPesosField) {
+        Long cents = doc.getLong(centsField);
+        if (cents != null) return cents;
+        return PricingEngine.pesosToCents((int) longOf(doc, legacyPesosField));
+    }
+
+    private static Map<String, Object> toOrderDocument(String uid, OrderDraft draft) {
+        Map<String, Object> envio = new HashMap<>();
+        envio.put("direccion", draft.direccion);
+        envio.put("codigoPostal", draft.codigoPostal);
+        envio.put("telefono", draft.telefono);
+        envio.put("notas", draft.notas);
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("id", draft.orderId);
+        data.put("usuarioId", uid);
+        data.put("estado", ESTADO_PENDIENTE);
+        data.put("subtotalProductosCents", draft.pricing.productsCents);
+        data.put("servicioImpresionCents", draft.pricing.printCents);
+        data.put("costoEnvioCents", draft.pricing.shippingCents);
+        data.put("totalCents", draft.pricing.totalCents);
+        data.put("cantidadUnidades", draft.totalQty);
+        data.put("cantidadLineas", draft.getLineCount());
+        data.put("envio", envio);
+        data.put("creadoEnCliente", draft.createdAt);
+        data.put("creadoEn", FieldValue.serverTimestamp());
+        return data;
+    }
+
+    private static Map<String, Object> toProductLine(CartItem item) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("tipo", "producto");
+        data.put("nombre", item.product.name);
+        data.put("descripcion", item.product.desc);
+        data.put("categoria", item.product.category.name());
+        long precioCents = PricingEngine.pesosToCents(item.product.price);
+        data.put("precioCents", precioCents);
+        data.put("cantidad", item.qty);
+        data.put("subtotalCents", Math.multiplyExact(precioCents, (long) item.qty));
+        return data;
+    }
+
+    private static Map<String, Object> toPrintJobLine(PriceLine line, @Nullable String archivo) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("tipo", "impresion");
+        data.put("nombre", "Trabajo de impresión");
+        data.put("descripcion", line.descripcion);
+        data.put("categoria", "PRINT");
+        data.put("precioCents", line.unitCents);
+        data.put("cantidad", line.cantidad);
+        data.put("subtotalCents", line.totalCents);
+        if (archivo != null) {
+            data.put("archivo", archivo);
+        }
+        return data;
+    }
+
+    /** IDs por posición: estables entre reintentos y ordenados. */
+    static String lineId(int index) {
+        return String.format(Locale.ROOT, "%03d", index);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.lamontana.data.order;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.annotation.Nullable;
+
+/*
+ * ============================================================
+ * Archivo: PendingOrderStore.java
+ * Paquete: com.example.lamontana.data.order
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Guardar en disco el pedido que se está enviando (orderId +
+ *     creadoEnCliente + uid) hasta que Firestore lo acepta.
+ *   - Si la app muere en medio del envío, el carrito vuelve
+ *     (CartJournal) y el próximo "Confirmar" reutiliza ESTE orderId:
+ *     se reescribe el mismo pedido en lugar de crear otro.
+ *
+ * ¿Qué métodos expone?
+ *   - static void init(Context ctx): una sola vez, desde LaMontanaApp.
+ *   - static PendingOrderStore get()
+ *   - @Nullable String idFor(uid) / long createdAt()
+ *   - void save(uid, orderId, createdAt)
+ *   - void clear(orderId): solo si sigue siendo el pendiente.
+ *
+ * Notas:
+ *   - Un pedido por vez: es el del carrito local, que es uno solo.
+ *   - commit() (síncrono): el ID tiene que estar en disco ANTES de
+ *     mandar el WriteBatch.
+ * ============================================================
+ */
+public final class PendingOrderStore {
+
+    private static final String PREFS_NAME = "pending_order";
+    private static final String KEY_UID = "uid";
+    private static final String KEY_ORDER_ID = "orderId";
+    private static final String KEY_CREATED_AT = "createdAt";
+
+    private static PendingOrderStore instance;
+
+    private final SharedPreferences prefs;
+
+    private PendingOrderStore(SharedPreferences prefs) {
+        this.prefs = prefs;
+    }
+
+    public static synchronized void init(Context context) {
+        if (instance != null) return;
+        instance = new PendingOrderStore(context.getApplicationContext()
+                .getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE));
+    }
+
+    public static PendingOrderStore get() {
+        if (instance == null) {
+            throw new IllegalStateException("PendingOrderStore.init() no fue llamado (LaMontanaApp)");
+        }
+        return instance;
+    }
+
+    /** orderId pendiente del usuario uid (null si no hay o es de otro). */
+    @Nullable
+    public synchronized String idFor(String uid) {
+        if (uid == null || !uid.equals(prefs.getString(KEY_UID, null))) return null;
+        return prefs.getString(KEY_ORDER_ID, null);
+    }
+
+    /** creadoEnCliente del pedido pendiente (0 si no hay). */
+    public synchronized long createdAt() {
+        return prefs.getLong(KEY_CREATED_AT, 0L);
+    }
+
+    public synchronized void save(String uid, String orderId, long createdAt) {
+        prefs.edit()
+                .putString(KEY_UID, uid)
+                .putString(KEY_ORDER_ID, orderId)
+                .putLong(KEY_CREATED_AT, createdAt)
+                .commit();
+    }
+
+    /** Olvida el pedido pendiente si todavía es orderId. */
+    public synchronized void clear(String orderId) {
+        if (orderId != null && orderId.equals(prefs.getString(KEY_ORDER_ID, null))) {
+            prefs.edit().clear().apply();
+        }
+    }
+}
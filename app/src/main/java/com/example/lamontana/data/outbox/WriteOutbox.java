@@ -0,0 +1,511 @@
+package com.example.lamontana.data.outbox;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * ============================================================
+ * Archivo: WriteOutbox.java
+ * Paquete: com.example.lamontana.data.outbox
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Bandeja de salida DURABLE para escrituras "merge" sobre
+ *     documentos de Firestore (perfil, alta de usuario, metadatos
+ *     de contraseña). Quien escribe no espera a la red: encola y
+ *     sigue; la bandeja se encarga de que llegue.
+ *   - Persiste las escrituras pendientes en SharedPreferences: si
+ *     el proceso muere, se retoman al volver a abrir la app.
+ *   - Agrupa (coalesce) escrituras al mismo documento: una nueva
+ *     escritura se fusiona campo a campo con la pendiente, así que
+ *     guardar el perfil 5 veces sin red sube UN solo documento.
+ *   - Drena hasta MAX_BATCH documentos por WriteBatch.
+ *   - Reintenta con backoff exponencial (+ jitter) y vuelve a
+ *     intentar de inmediato cuando vuelve la conectividad.
+ *
+ * ¿Qué métodos expone?
+ *   - static void init(Context ctx): una sola vez, desde LaMontanaApp.
+ *   - static WriteOutbox get()
+ *   - void enqueueMerge(uid, path, fields, serverTimestampFields)
+ *   - LiveData<Integer> getPendingCount() / getFailedCount(): del
+ *       usuario logueado (pendientes de subir / frenadas por error
+ *       permanente o demasiados intentos). "Mis datos" las muestra.
+ *   - void retryFailed(): vuelve a poner en cola las fallidas.
+ *   - void purgeUser(uid): descarta lo pendiente de ese usuario
+ *       (cierre de sesión).
+ *
+ * Notas:
+ *   - Todo el estado vive en el hilo "write-outbox".
+ *   - Los valores deben ser JSON simples (String, número, boolean).
+ *     Los timestamps de servidor se piden por nombre de campo y se
+ *     convierten en FieldValue.serverTimestamp() al subir.
+ *   - Se guarda en disco: NUNCA encolar secretos en texto plano.
+ *   - Errores permanentes (permisos, argumento inválido) marcan la
+ *     escritura como fallida sin reintentar.
+ *   - Cada escritura guarda el uid que la encoló y solo se sube
+ *     mientras ese usuario tenga la sesión (FirebaseAuth): nunca
+ *     con las credenciales de otro.
+ * ============================================================
+ */
+public final class WriteOutbox {
+
+    private static final String TAG = "WriteOutbox";
+
+    private static final String PREFS_NAME = "write_outbox";
+    private static final String PREF_ENTRIES = "entries";
+
+    /** Documentos por WriteBatch. */
+    private static final int MAX_BATCH = 20;
+
+    /** Backoff: 2 s, 4 s, 8 s… hasta 5 min. */
+    private static final long BASE_BACKOFF_MS = 2_000;
+    private static final long MAX_BACKOFF_MS = 5 * 60_000;
+
+    /** Intentos antes de marcar la escritura como fallida. */
+    private static final int MAX_ATTEMPTS = 10;
+
+    private static WriteOutbox instance;
+
+    private final FirebaseFirestore firestore;
+    private final SharedPreferences prefs;
+    private final ConnectivityManager connectivity;
+    private final Random random = new Random();
+
+    private final ScheduledExecutorService executor =
+            Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "write-outbox");
+                t.setDaemon(true);
+                return t;
+            });
+
+    private final MutableLiveData<Integer> pendingCount = new MutableLiveData<>(0);
+    private final MutableLiveData<Integer> failedCount = new MutableLiveData<>(0);
+
+    // ---- Estado confinado al hilo "write-outbox" ----
+    /** Una entrada por documento, en orden de llegada. */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+    private boolean inFlight = false;
+    private boolean online = true;
+    /** Usuario con sesión: solo se suben sus escrituras. */
+    @Nullable private String currentUid;
+    @Nullable private ScheduledFuture<?> pendingDrain;
+
+    /** Escritura pendiente sobre un documento. */
+    private static final class Entry {
+        final String uid;
+        final String path;
+        final JSONObject fields;
+        final Set<String> serverTimestamps;
+        /** Crece con cada fusión: detecta cambios mientras se sube. */
+        long revision;
+        int attempts;
+        long nextAttemptAt;
+        boolean failed;
+
+        Entry(String uid, String path, JSONObject fields, Set<String> serverTimestamps) {
+            this.uid = uid;
+            this.path = path;
+            this.fields = fields;
+            this.serverTimestamps = serverTimestamps;
+        }
+    }
+
+    private WriteOutbox(Context context) {
+        firestore = FirebaseFirestore.getInstance();
+        prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        connectivity = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+    }
+
+    /**
+     * Inicializa la bandeja y retoma lo pendiente. Idempotente.
+     */
+    public static synchronized void init(Context context) {
+        if (instance != null) return;
+
+        instance = new WriteOutbox(context.getApplicationContext());
+        instance.executor.execute(instance::load);
+        instance.watchConnectivity();
+
+        FirebaseAuth.getInstance().addAuthStateListener(auth -> {
+            FirebaseUser user = auth.getCurrentUser();
+            String uid = (user != null) ? user.getUid() : null;
+            instance.executor.execute(() -> instance.switchUser(uid));
+        });
+    }
+
+    public static WriteOutbox get() {
+        if (instance == null) {
+            throw new IllegalStateException("WriteOutbox.init() no fue llamado (LaMontanaApp)");
+        }
+        return instance;
+    }
+
+    // ------------------------------
+    // API pública (cualquier hilo)
+    // ------------------------------
+
+    /**
+     * Encola un set(merge) sobre el documento path.
+     *
+     * @param uid                   Usuario que escribe (solo se sube con su sesión).
+     * @param path                  Ruta del documento (ej. "usuarios/{uid}").
+     * @param fields                Campos a escribir (valores JSON simples).
+     * @param serverTimestampFields Campos que toman FieldValue.serverTimestamp().
+     */
+    public void enqueueMerge(@NonNull String uid,
+                             @NonNull String path,
+                             @NonNull Map<String, Object> fields,
+                             @NonNull String... serverTimestampFields) {
+        // Copia defensiva en el hilo llamador: el mapa puede seguir cambiando.
+        final JSONObject json = new JSONObject();
+        try {
+            for (Map.Entry<String, Object> e : fields.entrySet()) {
+                json.put(e.getKey(), e.getValue());
+            }
+        } catch (JSONException e) {
+            throw new IllegalArgumentException("Valor no serializable en la escritura a " + path, e);
+        }
+        final Set<String> stamps = new HashSet<>();
+        for (String f : serverTimestampFields) stamps.add(f);
+
+        executor.execute(() -> merge(uid, path, json, stamps));
+    }
+
+    public LiveData<Integer> getPendingCount() {
+        return pendingCount;
+    }
+
+    public LiveData<Integer> getFailedCount() {
+        return failedCount;
+    }
+
+    /** Vuelve a intentar las escrituras marcadas como fallidas. */
+    public void retryFailed() {
+        executor.execute(() -> {
+            for (Entry e : entries.values()) {
+                if (e.failed && e.uid.equals(currentUid)) {
+                    e.failed = false;
+                    e.attempts = 0;
+                    e.nextAttemptAt = 0;
+                }
+            }
+            save();
+            drainSoon(0);
+        });
+    }
+
+    /**
+     * Descarta las escrituras (pendientes o fallidas) de uid. Se llama
+     * al cerrar sesión: no deben quedar en disco ni subirse después.
+     */
+    public void purgeUser(@NonNull String uid) {
+        executor.execute(() -> {
+            Iterator<Entry> it = entries.values().iterator();
+            while (it.hasNext()) {
+                if (it.next().uid.equals(uid)) it.remove();
+            }
+            save();
+        });
+    }
+
+    // ------------------------------
+    // Sesión
+    // ------------------------------
+
+    private void switchUser(@Nullable String uid) {
+        currentUid = uid;
+        publishCounts();
+        drainSoon(0);
+    }
+
+    // ------------------------------
+    // Encolado / fusión
+    // ------------------------------
+
+    private void merge(String uid, String path, JSONObject fields, Set<String> stamps) {
+        Entry entry = entries.get(path);
+        if (entry != null && !entry.uid.equals(uid)) {
+            // Quedó de otro usuario: no se mezcla con esta escritura.
+            entries.remove(path);
+            entry = null;
+        }
+        if (entry == null) {
+            entry = new Entry(uid, path, fields, stamps);
+            entries.put(path, entry);
+        } else {
+            // La escritura nueva pisa campo a campo a la pendiente.
+            try {
+                Iterator<String> keys = fields.keys();
+                while (keys.hasNext()) {
+                    String k = keys.next();
+                    entry.fields.put(k, fields.get(k));
+                    entry.serverTimestamps.remove(k);
+                }
+            } catch (JSONException e) {
+                Log.w(TAG, "No se pudo fusionar la escritura a " + path, e);
+            }
+            for (String s : stamps) {
+                entry.fields.remove(s);
+                entry.serverTimestamps.add(s);
+            }
+            // Un cambio nuevo merece un intento nuevo.
+            entry.failed = false;
+            entry.attempts = 0;
+            entry.nextAttemptAt = 0;
+        }
+        entry.revision++;
+        save();
+        drainSoon(0);
+    }
+
+    // ------------------------------
+    // Drenado
+    // ------------------------------
+
+    private void drainSoon(long delayMs) {
+        if (pendingDrain != null) {
+            pendingDrain.cancel(false);
+        }
+        pendingDrain = executor.schedule(this::drain, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void drain() {
+        pendingDrain = null;
+        if (inFlight || !online) return;
+
+        long now = System.currentTimeMillis();
+        final List<Entry> batchEntries = new ArrayList<>();
+        final Map<Entry, Long> sentRevisions = new HashMap<>();
+        for (Entry e : entries.values()) {
+            if (e.failed || e.nextAttemptAt > now || !e.uid.equals(currentUid)) continue;
+            batchEntries.add(e);
+            sentRevisions.put(e, e.revision);
+            if (batchEntries.size() == MAX_BATCH) break;
+        }
+        if (batchEntries.isEmpty()) {
+            scheduleNextAttempt();
+            return;
+        }
+
+        WriteBatch batch = firestore.batch();
+        for (Entry e : batchEntries) {
+            batch.set(firestore.document(e.path), toFirestore(e), SetOptions.merge());
+        }
+
+        inFlight = true;
+        batch.commit()
+                .addOnSuccessListener(executor, unused -> {
+                    inFlight = false;
+                    for (Entry e : batchEntries) {
+                        // Si se fusionó algo mientras subía, queda para la próxima.
+                        Long sent = sentRevisions.get(e);
+                        if (sent != null && sent == e.revision && entries.get(e.path) == e) {
+                            entries.remove(e.path);
+                        }
+                    }
+                    Log.d(TAG, "Subidas " + batchEntries.size() + " escrituras pendientes");
+                    save();
+                    drainSoon(0);
+                })
+                .addOnFailureListener(executor, error -> {
+                    inFlight = false;
+                    boolean permanent = isPermanent(error);
+                    if (!batchEntries.isEmpty() && !batchEntries.get(0).uid.equals(currentUid)) {
+                        // Se cerró la sesión mientras subía: no cuenta como intento.
+                        scheduleNextAttempt();
+                        return;
+                    }
+                    long when = System.currentTimeMillis();
+                    for (Entry e : batchEntries) {
+                        e.attempts++;
+                        if (permanent || e.attempts >= MAX_ATTEMPTS) {
+                            e.failed = true;
+                            Log.w(TAG, "Escritura a " + e.path + " descartada tras "
+                                    + e.attempts + " intentos", error);
+                        } else {
+                            e.nextAttemptAt = when + backoff(e.attempts);
+                        }
+                    }
+                    save();
+                    scheduleNextAttempt();
+                });
+    }
+
+    /** Programa el próximo drenado según el reintento más cercano. */
+    private void scheduleNextAttempt() {
+        long next = Long.MAX_VALUE;
+        for (Entry e : entries.values()) {
+            if (!e.failed && e.uid.equals(currentUid)) next = Math.min(next, e.nextAttemptAt);
+        }
+        if (next == Long.MAX_VALUE) return;
+        drainSoon(Math.max(0, next - System.currentTimeMillis()));
+    }
+
+    private long backoff(int attempts) {
+        long delay = BASE_BACKOFF_MS << Math.min(attempts - 1, 16);
+        delay = Math.min(delay, MAX_BACKOFF_MS);
+        // Jitter ±20% para no reintentar todos a la vez.
+        long jitter = (long) (delay * 0.2 * (random.nextDouble() * 2 - 1));
+        return delay + jitter;
+    }
+
+    private static boolean isPermanent(Exception error) {
+        if (!(error instanceof FirebaseFirestoreException)) return false;
+        switch (((FirebaseFirestoreException) error).getCode()) {
+            case PERMISSION_DENIED:
+            case INVALID_ARGUMENT:
+            case FAILED_PRECONDITION:
+            case UNAUTHENTICATED:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static Map<String, Object> toFirestore(Entry e) {
+        Map<String, Object> data = new HashMap<>();
+        Iterator<String> keys = e.fields.keys();
+        while (keys.hasNext()) {
+            String k = keys.next();
+            data.put(k, e.fields.opt(k));
+        }
+        for (String s : e.serverTimestamps) {
+            data.put(s, FieldValue.serverTimestamp());
+        }
+        return data;
+    }
+
+    // ------------------------------
+    // Conectividad
+    // ------------------------------
+
+    private void watchConnectivity() {
+        if (connectivity == null) return;
+        online = connectivity.getActiveNetwork() != null;
+        connectivity.registerDefaultNetworkCallback(new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onAvailable(@NonNull Network network) {
+                executor.execute(() -> {
+                    online = true;
+                    // Volvió la red: se reintenta ya, sin esperar el backoff.
+                    for (Entry e : entries.values()) {
+                        if (!e.failed) e.nextAttemptAt = 0;
+                    }
+                    drainSoon(0);
+                });
+            }
+
+            @Override
+            public void onLost(@NonNull Network network) {
+                executor.execute(() -> online = false);
+            }
+        });
+    }
+
+    // ------------------------------
+    // Persistencia (SharedPreferences)
+    // ------------------------------
+
+    private void load() {
+        String raw = prefs.getString(PREF_ENTRIES, null);
+        if (raw != null) {
+            try {
+                JSONArray array = new JSONArray(raw);
+                for (int i = 0; i < array.length(); i++) {
+                    JSONObject o = array.getJSONObject(i);
+                    Set<String> stamps = new HashSet<>();
+                    JSONArray ts = o.getJSONArray("ts");
+                    for (int j = 0; j < ts.length(); j++) stamps.add(ts.getString(j));
+
+                    String uid = o.optString("uid", null);
+                    if (uid == null) {
+                        // Formato anterior, sin dueño: no se puede saber con qué sesión subirla.
+                        Log.w(TAG, "Escritura sin uid a " + o.optString("path") + ", se descarta");
+                        continue;
+                    }
+                    Entry e = new Entry(uid, o.getString("path"), o.getJSONObject("fields"), stamps);
+                    e.attempts = o.optInt("attempts", 0);
+                    e.failed = o.optBoolean("failed", false);
+                    entries.put(e.path, e);
+                }
+            } catch (JSONException e) {
+                Log.w(TAG, "Bandeja de salida ilegible, se descarta", e);
+                entries.clear();
+            }
+        }
+        publishCounts();
+        drainSoon(0);
+    }
+
+    private void save() {
+        JSONArray array = new JSONArray();
+        try {
+            for (Entry e : entries.values()) {
+                JSONObject o = new JSONObject();
+                o.put("uid", e.uid);
+                o.put("path", e.path);
+                o.put("fields", e.fields);
+                o.put("ts", new JSONArray(e.serverTimestamps));
+                o.put("attempts", e.attempts);
+                o.put("failed", e.failed);
+                array.put(o);
+            }
+        } catch (JSONException e) {
+            Log.w(TAG, "No se pudo guardar la bandeja de salida", e);
+            return;
+        }
+        // commit(): ya estamos fuera del main thread y queremos que
+        // la escritura esté en disco antes de intentar subirla.
+        prefs.edit().putString(PREF_ENTRIES, array.toString()).commit();
+        publishCounts();
+    }
+
+    /** Cuenta solo las escrituras del usuario con sesión. */
+    private void publishCounts() {
+        int pending = 0;
+        int failed = 0;
+        for (Entry e : entries.values()) {
+            if (!e.uid.equals(currentUid)) continue;
+            if (e.failed) {
+                failed++;
+            } else {
+                pending++;
+            }
+        }
+        pendingCount.postValue(pending);
+        failedCount.postValue(failed);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.lamontana.data.pdf;
+
+import android.graphics.Bitmap;
+
+import java.util.ArrayDeque;
+
+/*
+ * ============================================================
+ * Archivo: BitmapPool.java
+ * Paquete: com.example.lamontana.data.pdf
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Pool acotado de Bitmaps ARGB_8888 de UN tamaño fijo, para
+ *     renderizar páginas de PDF sin crear un Bitmap por página.
+ *   - La memoria queda fija: como mucho "capacity" bitmaps vivos,
+ *     sin importar si el documento tiene 3 o 600 páginas.
+ *
+ * ¿Qué métodos expone?
+ *   - Bitmap acquire(): uno libre (o uno nuevo si el pool está vacío).
+ *   - void release(Bitmap): lo devuelve para reusarlo.
+ *   - void clear(): recicla todos los libres.
+ *
+ * Notas:
+ *   - Thread-safe: lo comparten los hilos de PageColorClassifier.
+ *   - Si se devuelven más bitmaps que "capacity", el sobrante se
+ *     recicla en vez de guardarse.
+ * ============================================================
+ */
+public final class BitmapPool {
+
+    private final int width;
+    private final int height;
+    private final int capacity;
+
+    private final ArrayDeque<Bitmap> free = new ArrayDeque<>();
+
+    public BitmapPool(int width, int height, int capacity) {
+        this.width = width;
+        this.height = height;
+        this.capacity = capacity;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public synchronized Bitmap acquire() {
+        Bitmap bitmap = free.pollFirst();
+        if (bitmap != null && !bitmap.isRecycled()) {
+            return bitmap;
+        }
+        return Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+    }
+
+    public synchronized void release(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled()) return;
+        if (free.size() < capacity
+                && bitmap.getWidth() == width
+                && bitmap.getHeight() == height) {
+            free.addFirst(bitmap);
+        } else {
+            bitmap.recycle();
+        }
+    }
+
+    public synchronized void clear() {
+        for (Bitmap bitmap : free) {
+            bitmap.recycle();
+        }
+        free.clear();
+    }
+}
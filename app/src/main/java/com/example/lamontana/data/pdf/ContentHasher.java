@@ -0,0 +1,124 @@
+package com.example.lamontana.data.pdf;
+
+import android.content.ContentResolver;
+import android.net.Uri;
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * ============================================================
+ * Archivo: ContentHasher.java
+ * Paquete: com.example.lamontana.data.pdf
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - SHA-256 del CONTENIDO de un archivo elegido (no de su Uri):
+ *     el mismo apunte subido desde Descargas o desde Drive da el
+ *     mismo hash, y PdfAnalysisCache lo reconoce.
+ *   - Lee por un canal NIO (FileChannel si el proveedor da un
+ *     archivo real; si no, Channels.newChannel sobre el stream) con
+ *     UN buffer directo de BUFFER_BYTES: memoria fija sin importar
+ *     el tamaño del PDF.
+ *
+ * ¿Qué métodos expone?
+ *   - String sha256(Uri, AtomicBoolean cancelled, ProgressListener)
+ *       → hash en hexadecimal (64 caracteres).
+ *
+ * Notas:
+ *   - Es BLOQUEANTE: se llama desde el hilo de análisis.
+ *   - El progreso solo se informa si se conoce el tamaño.
+ * ============================================================
+ */
+public final class ContentHasher {
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final ContentResolver resolver;
+
+    // Se reusa entre archivos (un solo hilo de análisis)
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+
+    public ContentHasher(ContentResolver resolver) {
+        this.resolver = resolver;
+    }
+
+    /**
+     * Hashea el contenido completo del archivo.
+     *
+     * @throws IOException           si no se puede leer.
+     * @throws CancellationException si se canceló mientras corría.
+     */
+    public synchronized String sha256(Uri uri,
+                                      AtomicBoolean cancelled,
+                                      PdfAnalyzer.ProgressListener progress) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-256 no disponible", e);
+        }
+
+        InputStream in = resolver.openInputStream(uri);
+        if (in == null) {
+            throw new FileNotFoundException("No se pudo abrir " + uri);
+        }
+
+        long size = -1;
+        ReadableByteChannel channel;
+        if (in instanceof FileInputStream) {
+            FileChannel file = ((FileInputStream) in).getChannel();
+            channel = file;
+            try {
+                size = file.size();
+            } catch (IOException ignored) {
+                // Pipe: sin tamaño, sin progreso
+            }
+        } else {
+            channel = Channels.newChannel(in);
+        }
+
+        // Cerrar el canal cierra también el stream
+        try (ReadableByteChannel ch = channel) {
+            long read = 0;
+            int lastPercent = -1;
+            buffer.clear();
+            while (ch.read(buffer) >= 0) {
+                PdfAnalyzer.checkCancelled(cancelled);
+                buffer.flip();
+                read += buffer.remaining();
+                digest.update(buffer);
+                buffer.clear();
+
+                if (size > 0) {
+                    int percent = (int) Math.min(100, read * 100 / size);
+                    if (percent != lastPercent) {
+                        lastPercent = percent;
+                        progress.onProgress(percent);
+                    }
+                }
+            }
+        }
+        progress.onProgress(100);
+        return toHex(digest.digest());
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] out = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            out[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            out[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(out);
+    }
+}
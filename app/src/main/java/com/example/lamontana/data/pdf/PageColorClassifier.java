@@ -0,0 +1,156 @@
+package com.example.lamontana.data.pdf;
+
+import android.content.ContentResolver;
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.pdf.PdfRenderer;
+import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * ============================================================
+ * Archivo: PageColorClassifier.java
+ * Paquete: com.example.lamontana.data.pdf
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Decide, página por página, si un PDF tiene color o es escala
+ *     de grises. Así un apunte de 200 páginas con 3 gráficos a
+ *     color se cobra 197 carillas B/N + 3 color, en vez de 200 color.
+ *   - Cada página se renderiza a baja resolución (RENDER_W x
+ *     RENDER_H) y se mira la saturación de cada píxel: si al menos
+ *     MIN_COLOR_PIXELS píxeles tienen croma (max - min de RGB)
+ *     mayor a CHROMA_THRESHOLD, la página es color.
+ *
+ * Hilos y memoria:
+ *   - Corre en el hilo que llama, página por página, con UN solo
+ *     PdfRenderer. pdfium serializa todos los renderers del proceso
+ *     con un lock global: más hilos no renderizan más rápido.
+ *   - Toma UN Bitmap de BitmapPool y lo reusa en todas las páginas
+ *     (eraseColor + render), igual que el buffer de píxeles y la
+ *     Matrix: la memoria no crece con la cantidad de páginas.
+ *   - Recorre como máximo las páginas que ve PdfRenderer, aunque el
+ *     conteo rápido (PdfPageCounter) diga más.
+ *
+ * ¿Qué métodos expone?
+ *   - PageColorMap classify(Uri, int pageCount, AtomicBoolean
+ *                           cancelled, ProgressListener)
+ *   - void shutdown(): libera los bitmaps (onCleared).
+ *
+ * Notas:
+ *   - classify() es BLOQUEANTE: se llama desde el hilo de análisis
+ *     de PrintJobViewModel, nunca desde el main thread.
+ * ============================================================
+ */
+public final class PageColorClassifier {
+
+    // Resolución de muestreo (suficiente para ver logos y gráficos)
+    static final int RENDER_W = 72;
+    static final int RENDER_H = 96;
+
+    // Gris con antialiasing o papel amarillento no cuenta como color
+    static final int CHROMA_THRESHOLD = 48;
+    static final int MIN_COLOR_PIXELS = 4;
+
+    private final ContentResolver resolver;
+    private final BitmapPool bitmaps = new BitmapPool(RENDER_W, RENDER_H, 1);
+
+    public PageColorClassifier(ContentResolver resolver) {
+        this.resolver = resolver;
+    }
+
+    /**
+     * Clasifica todas las páginas del documento.
+     *
+     * @param pageCount páginas ya contadas por PdfAnalyzer.
+     * @throws IOException           si el archivo no se puede abrir.
+     * @throws CancellationException si se canceló mientras corría.
+     */
+    public PageColorMap classify(Uri uri,
+                                 int pageCount,
+                                 AtomicBoolean cancelled,
+                                 PdfAnalyzer.ProgressListener progress) throws IOException {
+        BitSet colorPages = new BitSet(pageCount);
+        if (pageCount <= 0) {
+            progress.onProgress(100);
+            return new PageColorMap(0, colorPages);
+        }
+
+        classifyPages(uri, pageCount, colorPages, cancelled, progress);
+        return new PageColorMap(pageCount, colorPages);
+    }
+
+    public void shutdown() {
+        bitmaps.clear();
+    }
+
+    // ------------------------------
+    // Render y muestreo
+    // ------------------------------
+
+    private void classifyPages(Uri uri,
+                               int pageCount,
+                               BitSet colorPages,
+                               AtomicBoolean cancelled,
+                               PdfAnalyzer.ProgressListener progress) throws IOException {
+        ParcelFileDescriptor pfd = resolver.openFileDescriptor(uri, "r");
+        if (pfd == null) {
+            throw new FileNotFoundException("No se pudo abrir " + uri);
+        }
+
+        Bitmap bitmap = bitmaps.acquire();
+        int[] pixels = new int[RENDER_W * RENDER_H];
+        Matrix matrix = new Matrix();
+
+        try (PdfRenderer renderer = new PdfRenderer(pfd)) {
+            int pages = Math.min(pageCount, renderer.getPageCount());
+            for (int page = 0; page < pages; page++) {
+                PdfAnalyzer.checkCancelled(cancelled);
+
+                try (PdfRenderer.Page p = renderer.openPage(page)) {
+                    // Toda la página en el bitmap chico (la proporción
+                    // no importa para medir color)
+                    matrix.setScale(
+                            (float) RENDER_W / Math.max(1, p.getWidth()),
+                            (float) RENDER_H / Math.max(1, p.getHeight()));
+                    bitmap.eraseColor(Color.WHITE);
+                    p.render(bitmap, null, matrix, PdfRenderer.Page.RENDER_MODE_FOR_DISPLAY);
+                }
+                bitmap.getPixels(pixels, 0, RENDER_W, 0, 0, RENDER_W, RENDER_H);
+                if (hasColor(pixels)) colorPages.set(page);
+
+                // Solo cuando cambia el porcentaje (no un aviso por página)
+                int percent = (page + 1) * 100 / pages;
+                if (percent != page * 100 / pages) progress.onProgress(percent);
+            }
+        } catch (SecurityException e) {
+            // PDF protegido con contraseña
+            throw new IOException("PDF protegido", e);
+        } finally {
+            bitmaps.release(bitmap);
+            pfd.close();
+        }
+    }
+
+    /** true si hay suficientes píxeles saturados para considerar color. */
+    static boolean hasColor(int[] pixels) {
+        int colored = 0;
+        for (int argb : pixels) {
+            int r = (argb >> 16) & 0xFF;
+            int g = (argb >> 8) & 0xFF;
+            int b = argb & 0xFF;
+            int max = Math.max(r, Math.max(g, b));
+            int min = Math.min(r, Math.min(g, b));
+            if (max - min > CHROMA_THRESHOLD && ++colored >= MIN_COLOR_PIXELS) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
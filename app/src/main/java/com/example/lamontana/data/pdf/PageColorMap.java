@@ -0,0 +1,53 @@
+package com.example.lamontana.data.pdf;
+
+import java.util.BitSet;
+
+/*
+ * ============================================================
+ * Archivo: PageColorMap.java
+ * Paquete: com.example.lamontana.data.pdf
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Resultado inmutable de PageColorClassifier: qué páginas del
+ *     PDF tienen color y cuáles son escala de grises.
+ *   - ServiciosFragment lo usa en modo "Automático" para cobrar
+ *     cada carilla como B/N o color (PrintJob.carillasColor).
+ *
+ * Notas:
+ *   - Páginas numeradas desde 0, como en PdfRenderer.
+ * ============================================================
+ */
+public final class PageColorMap {
+
+    private final int pageCount;
+    private final BitSet colorPages;
+    private final int colorCount;
+
+    public PageColorMap(int pageCount, BitSet colorPages) {
+        this.pageCount = Math.max(0, pageCount);
+        this.colorPages = (BitSet) colorPages.clone();
+        this.colorCount = this.colorPages.cardinality();
+    }
+
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    /** true si la página (desde 0) tiene color. */
+    public boolean isColor(int page) {
+        return colorPages.get(page);
+    }
+
+    public int getColorCount() {
+        return colorCount;
+    }
+
+    public int getGrayCount() {
+        return pageCount - colorCount;
+    }
+
+    /** Bits de páginas color, para guardarlo (PdfAnalysisCache). */
+    long[] toLongArray() {
+        return colorPages.toLongArray();
+    }
+}
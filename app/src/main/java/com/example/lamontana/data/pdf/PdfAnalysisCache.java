@@ -0,0 +1,182 @@
+package com.example.lamontana.data.pdf;
+
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * ============================================================
+ * Archivo: PdfAnalysisCache.java
+ * Paquete: com.example.lamontana.data.pdf
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Guarda en disco el resultado del análisis de un PDF (páginas,
+ *     tamaño de hoja y mapa de color por página), con clave = SHA-256
+ *     del contenido (ContentHasher).
+ *   - Volver a elegir el mismo apunte solo cuesta el hash: ni
+ *     conteo de páginas ni clasificación de color.
+ *
+ * ¿Qué métodos expone?
+ *   - Entry get(String hash): resultado guardado o null.
+ *   - void put(String hash, PdfDocumentInfo info, PageColorMap colores)
+ *
+ * Formato en disco (cacheDir/pdf-analysis/<hash>.bin):
+ *   [version:int][paginas:int][anchoPt:int][altoPt:int]
+ *   [palabras:int][long × palabras]   (bits de páginas a color)
+ *   Se escribe en un .tmp y se renombra, como CartJournal.
+ *
+ * LRU:
+ *   - Índice en memoria (LinkedHashMap en orden de acceso) armado
+ *     al primer uso a partir de la fecha de modificación de los
+ *     archivos. Un acierto "toca" el archivo para que la recencia
+ *     sobreviva al reinicio.
+ *   - Más de MAX_ENTRIES → se borra el menos usado.
+ *
+ * Notas:
+ *   - Vive en cacheDir: el sistema puede vaciarlo; es solo un atajo.
+ *   - Un archivo ilegible o de otra versión se borra y cuenta como
+ *     fallo de cache.
+ * ============================================================
+ */
+public final class PdfAnalysisCache {
+
+    private static final String TAG = "PdfAnalysisCache";
+
+    private static final String DIR_NAME = "pdf-analysis";
+    private static final String SUFFIX = ".bin";
+    private static final int VERSION = 1;
+
+    static final int MAX_ENTRIES = 200;
+
+    /** Resultado guardado para un hash. */
+    public static final class Entry {
+        public final int paginas;
+        public final int anchoPt;
+        public final int altoPt;
+        public final PageColorMap colores;
+
+        Entry(int paginas, int anchoPt, int altoPt, PageColorMap colores) {
+            this.paginas = paginas;
+            this.anchoPt = anchoPt;
+            this.altoPt = altoPt;
+            this.colores = colores;
+        }
+    }
+
+    private final File dir;
+
+    /** hash → archivo, del menos al más usado (null hasta el primer uso). */
+    @Nullable private LinkedHashMap<String, File> index;
+
+    public PdfAnalysisCache(File cacheDir) {
+        this.dir = new File(cacheDir, DIR_NAME);
+    }
+
+    @Nullable
+    public synchronized Entry get(String hash) {
+        File file = index().get(hash);
+        if (file == null) return null;
+
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != VERSION) throw new IOException("Versión distinta");
+            int paginas = in.readInt();
+            int ancho = in.readInt();
+            int alto = in.readInt();
+            long[] words = new long[in.readInt()];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = in.readLong();
+            }
+            file.setLastModified(System.currentTimeMillis());
+            return new Entry(paginas, ancho, alto, new PageColorMap(paginas, BitSet.valueOf(words)));
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "Entrada ilegible, se descarta: " + file.getName(), e);
+            remove(hash);
+            return null;
+        }
+    }
+
+    public synchronized void put(String hash, PdfDocumentInfo info, PageColorMap colores) {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            Log.w(TAG, "No se pudo crear " + dir);
+            return;
+        }
+
+        File file = new File(dir, hash + SUFFIX);
+        File tmp = new File(dir, hash + SUFFIX + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(tmp)))) {
+                long[] words = colores.toLongArray();
+                out.writeInt(VERSION);
+                out.writeInt(info.paginas);
+                out.writeInt(info.anchoPt);
+                out.writeInt(info.altoPt);
+                out.writeInt(words.length);
+                for (long w : words) {
+                    out.writeLong(w);
+                }
+            }
+            if (!tmp.renameTo(file)) {
+                throw new IOException("No se pudo reemplazar " + file);
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "No se pudo guardar el análisis", e);
+            tmp.delete();
+            return;
+        }
+
+        Map<String, File> idx = index();
+        idx.put(hash, file);
+        evict(idx);
+    }
+
+    // ------------------------------
+    // Índice LRU
+    // ------------------------------
+
+    private LinkedHashMap<String, File> index() {
+        if (index != null) return index;
+
+        index = new LinkedHashMap<>(16, 0.75f, true);
+        File[] files = dir.listFiles((d, name) -> name.endsWith(SUFFIX));
+        if (files != null) {
+            // Del más viejo al más nuevo: el orden del LRU
+            Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+            for (File f : files) {
+                String name = f.getName();
+                index.put(name.substring(0, name.length() - SUFFIX.length()), f);
+            }
+        }
+        evict(index);
+        return index;
+    }
+
+    private void evict(Map<String, File> idx) {
+        Iterator<Map.Entry<String, File>> it = idx.entrySet().iterator();
+        while (idx.size() > MAX_ENTRIES && it.hasNext()) {
+            Map.Entry<String, File> oldest = it.next();
+            oldest.getValue().delete();
+            it.remove();
+        }
+    }
+
+    private void remove(String hash) {
+        File file = index().remove(hash);
+        if (file != null) file.delete();
+    }
+}
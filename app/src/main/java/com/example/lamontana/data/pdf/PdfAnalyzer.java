@@ -0,0 +1,165 @@
+package com.example.lamontana.data.pdf;
+
+import android.content.ContentResolver;
+import android.database.Cursor;
+import android.graphics.pdf.PdfRenderer;
+import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+import android.provider.OpenableColumns;
+
+import androidx.annotation.Nullable;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * ============================================================
+ * Archivo: PdfAnalyzer.java
+ * Paquete: com.example.lamontana.data.pdf
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Analiza el archivo elegido en Servicios: nombre y tamaño
+ *     (ContentResolver), cantidad de páginas y tamaño de hoja.
+ *   - Las páginas las cuenta PdfPageCounter (archivo mapeado, lee
+ *     el trailer): milisegundos aunque el PDF pese 50 MB. Solo si
+ *     no puede se abre PdfRenderer.
+ *   - Reemplaza obtenerCarillasDesdePdf(), que abría el PDF en el
+ *     main thread dentro del callback del selector (ANR con tesis
+ *     y apuntes de cientos de páginas).
+ *
+ * ¿Qué métodos expone?
+ *   - PdfDocumentInfo analyze(Uri uri, AtomicBoolean cancelled,
+ *                             ProgressListener progress)
+ *   - PdfDocumentInfo describe(uri, paginas, anchoPt, altoPt): para
+ *     un archivo ya analizado, solo agrega nombre y tamaño.
+ *
+ * Notas:
+ *   - Es BLOQUEANTE: se llama desde un hilo de fondo
+ *     (PrintJobViewModel).
+ *   - Se puede cancelar: entre etapas revisa "cancelled" y corta
+ *     con CancellationException.
+ * ============================================================
+ */
+public final class PdfAnalyzer {
+
+    /** Avance del análisis (0..100), desde el hilo de fondo. */
+    public interface ProgressListener {
+        void onProgress(int percent);
+    }
+
+    private final ContentResolver resolver;
+    private final PdfPageCounter counter;
+
+    public PdfAnalyzer(ContentResolver resolver) {
+        this.resolver = resolver;
+        this.counter = new PdfPageCounter(resolver);
+    }
+
+    /**
+     * Analiza el documento.
+     *
+     * @throws IOException           si no se puede abrir o no es un PDF válido.
+     * @throws CancellationException si se canceló mientras corría.
+     */
+    public PdfDocumentInfo analyze(Uri uri,
+                                   AtomicBoolean cancelled,
+                                   ProgressListener progress) throws IOException {
+        progress.onProgress(0);
+
+        // 1) Metadatos del proveedor (nombre visible y tamaño)
+        Metadata meta = queryMetadata(uri);
+        String nombre = meta.nombre;
+        long tamano = meta.tamano;
+        checkCancelled(cancelled);
+        progress.onProgress(20);
+
+        // 2) Páginas y tamaño de hoja: primero el conteo rápido
+        PdfPageCounter.Result rapido = counter.count(uri);
+        if (rapido != null) {
+            checkCancelled(cancelled);
+            progress.onProgress(100);
+            return new PdfDocumentInfo(uri.toString(), nombre, tamano,
+                    rapido.paginas, rapido.anchoPt, rapido.altoPt);
+        }
+
+        // 3) Fallback: PdfRenderer (xref comprimida, cifrado, etc.)
+        ParcelFileDescriptor pfd = openFile(uri);
+        try (PdfRenderer renderer = new PdfRenderer(pfd)) {
+            checkCancelled(cancelled);
+            progress.onProgress(60);
+
+            int paginas = renderer.getPageCount();
+            int ancho = 0;
+            int alto = 0;
+            if (paginas > 0) {
+                try (PdfRenderer.Page first = renderer.openPage(0)) {
+                    ancho = first.getWidth();
+                    alto = first.getHeight();
+                }
+            }
+            checkCancelled(cancelled);
+            progress.onProgress(100);
+
+            if (tamano < 0) tamano = pfd.getStatSize();
+            return new PdfDocumentInfo(uri.toString(), nombre, tamano, paginas, ancho, alto);
+        } catch (SecurityException e) {
+            // PDF protegido con contraseña
+            throw new IOException("PDF protegido", e);
+        } finally {
+            pfd.close();
+        }
+    }
+
+    /**
+     * Info de un archivo ya analizado (PdfAnalysisCache): solo consulta
+     * nombre y tamaño al proveedor, sin abrir el PDF.
+     */
+    public PdfDocumentInfo describe(Uri uri, int paginas, int anchoPt, int altoPt) {
+        Metadata meta = queryMetadata(uri);
+        return new PdfDocumentInfo(uri.toString(), meta.nombre, meta.tamano, paginas, anchoPt, altoPt);
+    }
+
+    // ------------------------------
+    // Utilitarios
+    // ------------------------------
+
+    /** Nombre visible y tamaño según el proveedor. */
+    private static final class Metadata {
+        String nombre;
+        long tamano = -1;
+    }
+
+    private Metadata queryMetadata(Uri uri) {
+        Metadata meta = new Metadata();
+        meta.nombre = uri.getLastPathSegment();
+        try (Cursor c = resolver.query(uri,
+                new String[]{OpenableColumns.DISPLAY_NAME, OpenableColumns.SIZE},
+                null, null, null)) {
+            if (c != null && c.moveToFirst()) {
+                int nameIdx = c.getColumnIndex(OpenableColumns.DISPLAY_NAME);
+                int sizeIdx = c.getColumnIndex(OpenableColumns.SIZE);
+                if (nameIdx >= 0 && !c.isNull(nameIdx)) meta.nombre = c.getString(nameIdx);
+                if (sizeIdx >= 0 && !c.isNull(sizeIdx)) meta.tamano = c.getLong(sizeIdx);
+            }
+        } catch (RuntimeException ignored) {
+            // Algunos proveedores no soportan la consulta: seguimos sin metadatos.
+        }
+        return meta;
+    }
+
+    private ParcelFileDescriptor openFile(Uri uri) throws IOException {
+        @Nullable ParcelFileDescriptor pfd = resolver.openFileDescriptor(uri, "r");
+        if (pfd == null) {
+            throw new FileNotFoundException("No se pudo abrir " + uri);
+        }
+        return pfd;
+    }
+
+    static void checkCancelled(AtomicBoolean cancelled) {
+        if (cancelled.get() || Thread.currentThread().isInterrupted()) {
+            throw new CancellationException();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.lamontana.data.pdf;
+
+/*
+ * ============================================================
+ * Archivo: PdfDocumentInfo.java
+ * Paquete: com.example.lamontana.data.pdf
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Resultado inmutable del análisis de un archivo elegido en
+ *     Servicios (PdfAnalyzer):
+ *       · uri        → origen (texto de la Uri).
+ *       · nombre     → nombre visible (OpenableColumns).
+ *       · tamanoBytes→ tamaño del archivo (-1 si no se conoce).
+ *       · paginas    → cantidad de páginas.
+ *       · anchoPt / altoPt → tamaño de hoja en puntos PDF (1/72"):
+ *                      /MediaBox del árbol de páginas o primera
+ *                      página; 0 si no se pudo leer.
+ * ============================================================
+ */
+public final class PdfDocumentInfo {
+
+    public final String uri;
+    public final String nombre;
+    public final long tamanoBytes;
+    public final int paginas;
+    public final int anchoPt;
+    public final int altoPt;
+
+    public PdfDocumentInfo(String uri,
+                           String nombre,
+                           long tamanoBytes,
+                           int paginas,
+                           int anchoPt,
+                           int altoPt) {
+        this.uri = uri;
+        this.nombre = nombre != null ? nombre : "";
+        this.tamanoBytes = tamanoBytes;
+        this.paginas = Math.max(0, paginas);
+        this.anchoPt = anchoPt;
+        this.altoPt = altoPt;
+    }
+}
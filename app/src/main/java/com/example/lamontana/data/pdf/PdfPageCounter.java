@@ -0,0 +1,557 @@
+package com.example.lamontana.data.pdf;
+
+import android.content.ContentResolver;
+import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+
+/*
+ * ============================================================
+ * Archivo: PdfPageCounter.java
+ * Paquete: com.example.lamontana.data.pdf
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Cuenta las páginas de un PDF SIN PdfRenderer: mapea el
+ *     archivo en memoria (FileChannel.map) y lee solo lo necesario.
+ *   - Dos caminos, del más barato al más caro:
+ *       1) Trailer: "startxref" → tabla xref → /Root → catálogo →
+ *          /Pages → /Count (y /MediaBox si está). Lee unos pocos KB
+ *          aunque el archivo pese 50 MB. Sigue la cadena /Prev de
+ *          las actualizaciones incrementales.
+ *       2) Barrido (xref rota o con offsets corridos): ubica el
+ *          trailer más nuevo y su catálogo buscando los "n g obj" en
+ *          el archivo, y toma el /Count del nodo /Pages que ese
+ *          catálogo referencia, solo si no tiene /Parent. Si otra
+ *          raíz (/Pages sin /Parent) dice otra cosa, no se adivina.
+ *   - Si ninguno funciona devuelve null y PdfAnalyzer recurre a
+ *     PdfRenderer.
+ *
+ * ¿Qué métodos expone?
+ *   - Result count(Uri uri): páginas y tamaño de hoja, o null.
+ *
+ * Notas:
+ *   - No soporta xref comprimidas (PDF 1.5+ con "/Type /XRef") ni
+ *     objetos dentro de object streams: ahí el barrido no encuentra
+ *     nada y se usa el fallback.
+ *   - Un PDF cifrado (/Encrypt) también va al fallback, para que
+ *     PdfRenderer lo rechace como "PDF protegido".
+ *   - Es BLOQUEANTE: se llama desde el hilo de análisis.
+ * ============================================================
+ */
+public final class PdfPageCounter {
+
+    private static final String TAG = "PdfPageCounter";
+
+    /** Bytes del final del archivo donde se busca "startxref". */
+    private static final int TAIL_BYTES = 2048;
+
+    /** Hasta dónde se busca hacia atrás el "obj" de un diccionario. */
+    private static final int HEADER_BYTES = 4096;
+
+    /** Largo estándar de una entrada de la tabla xref. */
+    private static final int XREF_ENTRY = 20;
+
+    private static final byte[] STARTXREF = ascii("startxref");
+    private static final byte[] XREF = ascii("xref");
+    private static final byte[] TRAILER = ascii("trailer");
+    private static final byte[] OBJ = ascii("obj");
+    private static final byte[] ENDOBJ = ascii("endobj");
+    private static final byte[] STREAM = ascii("stream");
+    private static final byte[] KEY_ROOT = ascii("/Root");
+    private static final byte[] KEY_PAGES = ascii("/Pages");
+    private static final byte[] KEY_TYPE = ascii("/Type");
+    private static final byte[] KEY_COUNT = ascii("/Count");
+    private static final byte[] KEY_PREV = ascii("/Prev");
+    private static final byte[] KEY_PARENT = ascii("/Parent");
+    private static final byte[] KEY_XREF = ascii("/XRef");
+    private static final byte[] KEY_ENCRYPT = ascii("/Encrypt");
+    private static final byte[] KEY_MEDIABOX = ascii("/MediaBox");
+
+    /** Resultado del conteo. */
+    public static final class Result {
+        public final int paginas;
+        /** Tamaño de hoja en puntos (0 si no se encontró /MediaBox). */
+        public final int anchoPt;
+        public final int altoPt;
+
+        Result(int paginas, int anchoPt, int altoPt) {
+            this.paginas = paginas;
+            this.anchoPt = anchoPt;
+            this.altoPt = altoPt;
+        }
+    }
+
+    private final ContentResolver resolver;
+
+    public PdfPageCounter(ContentResolver resolver) {
+        this.resolver = resolver;
+    }
+
+    /**
+     * Cuenta las páginas leyendo el archivo mapeado.
+     *
+     * @return el resultado, o null si no se pudo (archivo no mapeable,
+     *         xref comprimida, cifrado o PDF roto).
+     */
+    @Nullable
+    public Result count(Uri uri) {
+        try {
+            ParcelFileDescriptor pfd = resolver.openFileDescriptor(uri, "r");
+            if (pfd == null) return null;
+
+            try (FileChannel channel = new ParcelFileDescriptor.AutoCloseInputStream(pfd).getChannel()) {
+                long size = channel.size();
+                if (size <= 0 || size > Integer.MAX_VALUE) return null;
+
+                return parse(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+            }
+        } catch (IOException | RuntimeException e) {
+            // Proveedores sin archivo real (pipes), PDFs truncados, etc.
+            Log.d(TAG, "Sin conteo rápido para " + uri + ": " + e);
+            return null;
+        }
+    }
+
+    /** Los dos caminos sobre el PDF ya en memoria (separado para los tests). */
+    @Nullable
+    static Result parse(ByteBuffer buf) {
+        Parser parser = new Parser(buf);
+        Result result = parser.fromTrailer();
+        if (result == null && !parser.encrypted) {
+            result = parser.fromScan();
+        }
+        return result;
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    // ------------------------------
+    // Lectura del PDF mapeado
+    // ------------------------------
+
+    /**
+     * Lector mínimo sobre el buffer: solo enteros, referencias
+     * "n g R" y búsqueda de claves. No arma objetos.
+     */
+    private static final class Parser {
+
+        private final ByteBuffer buf;
+        private final int limit;
+        private int pos;
+
+        boolean encrypted;
+
+        Parser(ByteBuffer buf) {
+            this.buf = buf;
+            this.limit = buf.limit();
+        }
+
+        // ---- Camino 1: trailer + xref ----
+
+        @Nullable
+        Result fromTrailer() {
+            int sx = lastIndexOf(STARTXREF, Math.max(0, limit - TAIL_BYTES));
+            if (sx < 0) return null;
+            pos = sx + STARTXREF.length;
+            long xref = readLong();
+            if (xref < 0 || xref >= limit) return null;
+
+            // Trailer más nuevo: todo trailer repite /Root
+            int trailer = trailerOf((int) xref);
+            if (trailer < 0) return null;
+            int end = trailerEnd(trailer);
+            if (keyIn(KEY_ENCRYPT, trailer, end) >= 0) {
+                encrypted = true;
+                return null;
+            }
+            long[] root = refAfter(KEY_ROOT, trailer, end);
+            if (root == null) return null;
+
+            int[] catalog = objectSpan((int) root[0], xref);
+            if (catalog == null) return null;
+            long[] pages = refAfter(KEY_PAGES, catalog[0], catalog[1]);
+            if (pages == null) return null;
+
+            int[] tree = objectSpan((int) pages[0], xref);
+            if (tree == null) return null;
+            long count = longAfter(KEY_COUNT, tree[0], tree[1]);
+            if (count <= 0 || count > Integer.MAX_VALUE) return null;
+
+            int[] box = mediaBox(tree[0], tree[1]);
+            return new Result((int) count, box[0], box[1]);
+        }
+
+        /**
+         * Posición siguiente a "trailer" de la sección xref en "offset"
+         * (-1 si no es una tabla clásica). Salta las subsecciones por
+         * su largo fijo, sin recorrer las entradas.
+         */
+        private int trailerOf(int offset) {
+            pos = offset;
+            skipWhitespace();
+            if (!startsWith(XREF, pos)) return -1; // xref comprimida
+            pos += XREF.length;
+            while (true) {
+                skipWhitespace();
+                if (pos >= limit) return -1;
+                if (startsWith(TRAILER, pos)) return pos + TRAILER.length;
+                readLong();
+                long n = readLong();
+                if (n < 0) return -1;
+                skipWhitespace();
+                pos += (int) n * XREF_ENTRY;
+            }
+        }
+
+        /** Fin del diccionario del trailer (su "startxref"). */
+        private int trailerEnd(int trailer) {
+            int end = indexOf(STARTXREF, trailer, limit);
+            return end < 0 ? limit : end;
+        }
+
+        /**
+         * Rango [inicio, fin) del cuerpo del objeto "num", buscándolo
+         * en la cadena de tablas xref desde la más nueva.
+         */
+        @Nullable
+        private int[] objectSpan(int num, long newestXref) {
+            long offset = -1;
+            Set<Long> visitados = new HashSet<>();
+            long section = newestXref;
+            while (offset < 0 && section >= 0 && visitados.add(section)) {
+                offset = lookupInSection((int) section, num);
+                int trailer = trailerOf((int) section);
+                if (trailer < 0) return null;
+                section = longAfter(KEY_PREV, trailer, trailerEnd(trailer));
+            }
+            if (offset <= 0 || offset >= limit) return null;
+
+            // "num gen obj" ... "endobj"
+            pos = (int) offset;
+            if (readLong() != num) return null;
+            readLong();
+            skipWhitespace();
+            if (!startsWith(OBJ, pos)) return null;
+            int start = pos + OBJ.length;
+            int end = indexOf(ENDOBJ, start, limit);
+            return end < 0 ? null : new int[]{start, end};
+        }
+
+        /**
+         * Offset del objeto en UNA sección xref: salta directo a la
+         * entrada (largo fijo) sin leer la tabla entera.
+         */
+        private long lookupInSection(int section, int num) {
+            pos = section + XREF.length;
+            while (true) {
+                skipWhitespace();
+                if (pos >= limit || startsWith(TRAILER, pos)) return -1;
+                long first = readLong();
+                long n = readLong();
+                if (first < 0 || n < 0) return -1;
+                skipWhitespace();
+                int entries = pos;
+                if (num >= first && num < first + n) {
+                    pos = entries + (int) (num - first) * XREF_ENTRY;
+                    long offset = readLong();
+                    readLong();
+                    skipWhitespace();
+                    return pos < limit && buf.get(pos) == 'n' ? offset : -1;
+                }
+                pos = entries + (int) n * XREF_ENTRY;
+            }
+        }
+
+        // ---- Camino 2: barrido ----
+
+        /**
+         * Solo confía en el /Count de la raíz que referencia el catálogo
+         * del trailer más nuevo; ante cualquier duda devuelve null (el
+         * fallback, PdfRenderer, es más lento pero no se equivoca).
+         */
+        @Nullable
+        Result fromScan() {
+            int[] trailer = newestTrailer();
+            if (trailer == null) return null;
+            if (keyIn(KEY_ENCRYPT, trailer[0], trailer[1]) >= 0) {
+                encrypted = true;
+                return null;
+            }
+            long[] root = refAfter(KEY_ROOT, trailer[0], trailer[1]);
+            if (root == null) return null;
+
+            int[] catalog = lastDefinition(root[0]);
+            if (catalog == null) return null;
+            long[] pages = refAfter(KEY_PAGES, catalog[0], catalog[1]);
+            if (pages == null) return null;
+
+            int[] tree = lastDefinition(pages[0]);
+            if (tree == null || !isPagesNode(tree[0], tree[1])
+                    || keyIn(KEY_PARENT, tree[0], tree[1]) >= 0) return null;
+            long count = longAfter(KEY_COUNT, tree[0], tree[1]);
+            if (count <= 0 || count > Integer.MAX_VALUE) return null;
+
+            // Otra raíz con otro /Count (árbol huérfano, archivo pegado
+            // a otro...): no se sabe cuál es la buena.
+            int at = 0;
+            while ((at = indexOf(KEY_TYPE, at, limit)) >= 0) {
+                pos = at + KEY_TYPE.length;
+                at = pos;
+                skipWhitespace();
+                if (!startsWith(KEY_PAGES, pos) || !isDelimiter(pos + KEY_PAGES.length)) continue;
+
+                // Diccionario del nodo: desde su "obj" hasta "endobj"
+                int header = lastIndexOf(OBJ, Math.max(0, at - HEADER_BYTES), at);
+                int end = indexOf(ENDOBJ, at, limit);
+                if (header < 0 || end < 0) return null;
+                if (keyIn(KEY_PARENT, header, end) >= 0) continue;
+                // Versiones anteriores de la misma raíz (actualizaciones incrementales)
+                if (objectNumber(header) == pages[0]) continue;
+                if (longAfter(KEY_COUNT, header, end) != count) return null;
+            }
+
+            int[] box = mediaBox(tree[0], tree[1]);
+            return new Result((int) count, box[0], box[1]);
+        }
+
+        /**
+         * Diccionario del trailer más nuevo: el del último "trailer"
+         * o, si está después, el del último objeto "/Type /XRef"
+         * (hasta su "stream"). null si no hay ninguno.
+         */
+        @Nullable
+        private int[] newestTrailer() {
+            int classic = lastIndexOf(TRAILER, 0);
+            int xref = lastKey(KEY_XREF);
+            if (xref > classic) {
+                int header = lastIndexOf(OBJ, Math.max(0, xref - HEADER_BYTES), xref);
+                int end = indexOf(STREAM, xref, limit);
+                return header < 0 || end < 0 ? null : new int[]{header + OBJ.length, end};
+            }
+            if (classic < 0) return null;
+            int start = classic + TRAILER.length;
+            return new int[]{start, trailerEnd(start)};
+        }
+
+        /**
+         * Cuerpo de la ÚLTIMA definición "num g obj" del archivo (la
+         * de la actualización más nueva), o null.
+         */
+        @Nullable
+        private int[] lastDefinition(long num) {
+            int to = limit;
+            int at;
+            while ((at = lastIndexOf(OBJ, 0, to)) >= 0) {
+                to = at - 1;
+                if (at > 0 && buf.get(at - 1) == 'd') continue; // "endobj"
+                if (!isDelimiter(at + OBJ.length) || objectNumber(at) != num) continue;
+                int start = at + OBJ.length;
+                int end = indexOf(ENDOBJ, start, limit);
+                return end < 0 ? null : new int[]{start, end};
+            }
+            return null;
+        }
+
+        /** Número de objeto de la cabecera "num gen obj" (-1 si no lo es). */
+        private long objectNumber(int objAt) {
+            int i = skipWhitespaceBack(objAt - 1);
+            int genEnd = i;
+            while (i >= 0 && isDigit(buf.get(i))) i--;
+            if (i == genEnd) return -1;
+            int j = skipWhitespaceBack(i);
+            if (j == i) return -1;
+            int numEnd = j;
+            while (j >= 0 && isDigit(buf.get(j))) j--;
+            if (j == numEnd) return -1;
+            pos = j + 1;
+            return readLong();
+        }
+
+        private boolean isPagesNode(int from, int to) {
+            int at = keyIn(KEY_TYPE, from, to);
+            if (at < 0) return false;
+            pos = at;
+            skipWhitespace();
+            return startsWith(KEY_PAGES, pos) && isDelimiter(pos + KEY_PAGES.length);
+        }
+
+        // ---- Claves y valores ----
+
+        /** Inicio del valor de la clave en [from, to), o -1. */
+        private int keyIn(byte[] key, int from, int to) {
+            int at = from;
+            while ((at = indexOf(key, at, to)) >= 0) {
+                int after = at + key.length;
+                // "/Pages" no debe matchear "/PageLayout" ni "/PagesX"
+                if (isDelimiter(after)) return after;
+                at = after;
+            }
+            return -1;
+        }
+
+        /** Entero directo de la clave (-1 si falta o es una referencia). */
+        private long longAfter(byte[] key, int from, int to) {
+            int at = keyIn(key, from, to);
+            if (at < 0) return -1;
+            pos = at;
+            long value = readLong();
+            int save = pos;
+            skipWhitespace();
+            if (pos < limit && isDigit(buf.get(pos))) return -1; // "n g R"
+            pos = save;
+            return value;
+        }
+
+        /** Referencia "num gen R" de la clave, o null. */
+        @Nullable
+        private long[] refAfter(byte[] key, int from, int to) {
+            int at = keyIn(key, from, to);
+            if (at < 0) return null;
+            pos = at;
+            long num = readLong();
+            long gen = readLong();
+            skipWhitespace();
+            if (num < 0 || gen < 0 || pos >= limit || buf.get(pos) != 'R') return null;
+            return new long[]{num, gen};
+        }
+
+        /** Ancho y alto de "/MediaBox [x0 y0 x1 y1]" (0,0 si no está). */
+        private int[] mediaBox(int from, int to) {
+            int at = keyIn(KEY_MEDIABOX, from, to);
+            if (at < 0) return new int[]{0, 0};
+            pos = at;
+            skipWhitespace();
+            if (pos >= limit || buf.get(pos) != '[') return new int[]{0, 0};
+            pos++;
+            double x0 = readNumber();
+            double y0 = readNumber();
+            double x1 = readNumber();
+            double y1 = readNumber();
+            if (Double.isNaN(x0) || Double.isNaN(y0) || Double.isNaN(x1) || Double.isNaN(y1)) {
+                return new int[]{0, 0};
+            }
+            return new int[]{
+                    (int) Math.round(Math.abs(x1 - x0)),
+                    (int) Math.round(Math.abs(y1 - y0))};
+        }
+
+        // ---- Tokens ----
+
+        private long readLong() {
+            skipWhitespace();
+            long value = 0;
+            int digits = 0;
+            while (pos < limit && isDigit(buf.get(pos)) && digits < 18) {
+                value = value * 10 + (buf.get(pos) - '0');
+                pos++;
+                digits++;
+            }
+            return digits == 0 ? -1 : value;
+        }
+
+        /** Número PDF (entero o real, con signo); NaN si no hay. */
+        private double readNumber() {
+            skipWhitespace();
+            int start = pos;
+            if (pos < limit && (buf.get(pos) == '-' || buf.get(pos) == '+')) pos++;
+            while (pos < limit && (isDigit(buf.get(pos)) || buf.get(pos) == '.')) pos++;
+            if (pos == start) return Double.NaN;
+            byte[] text = new byte[pos - start];
+            for (int i = 0; i < text.length; i++) text[i] = buf.get(start + i);
+            try {
+                return Double.parseDouble(new String(text, StandardCharsets.US_ASCII));
+            } catch (NumberFormatException e) {
+                return Double.NaN;
+            }
+        }
+
+        /** Primer índice hacia atrás desde "at" que no es espacio. */
+        private int skipWhitespaceBack(int at) {
+            while (at >= 0 && isWhitespace(buf.get(at))) at--;
+            return at;
+        }
+
+        private void skipWhitespace() {
+            while (pos < limit) {
+                byte b = buf.get(pos);
+                if (b == '%') {
+                    // Comentario hasta fin de línea
+                    while (pos < limit && buf.get(pos) != '\n' && buf.get(pos) != '\r') pos++;
+                } else if (isWhitespace(b)) {
+                    pos++;
+                } else {
+                    return;
+                }
+            }
+        }
+
+        private boolean isDelimiter(int at) {
+            if (at >= limit) return true;
+            byte b = buf.get(at);
+            return isWhitespace(b) || b == '/' || b == '<' || b == '>'
+                    || b == '[' || b == ']' || b == '(' || b == ')';
+        }
+
+        private static boolean isWhitespace(byte b) {
+            return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == '\f' || b == 0;
+        }
+
+        private static boolean isDigit(byte b) {
+            return b >= '0' && b <= '9';
+        }
+
+        // ---- Búsqueda de bytes ----
+
+        private boolean startsWith(byte[] pattern, int at) {
+            if (at < 0 || at + pattern.length > limit) return false;
+            for (int i = 0; i < pattern.length; i++) {
+                if (buf.get(at + i) != pattern[i]) return false;
+            }
+            return true;
+        }
+
+        private int indexOf(byte[] pattern, int from, int to) {
+            int last = Math.min(to, limit) - pattern.length;
+            byte first = pattern[0];
+            for (int i = Math.max(0, from); i <= last; i++) {
+                if (buf.get(i) == first && startsWith(pattern, i)) return i;
+            }
+            return -1;
+        }
+
+        /** Última aparición de la clave como nombre completo (-1 si no está). */
+        private int lastKey(byte[] key) {
+            int to = limit;
+            int at;
+            while ((at = lastIndexOf(key, 0, to)) >= 0) {
+                if (isDelimiter(at + key.length)) return at;
+                to = at - 1;
+            }
+            return -1;
+        }
+
+        /** Última aparición que empieza en [from, limit). */
+        private int lastIndexOf(byte[] pattern, int from) {
+            return lastIndexOf(pattern, from, limit);
+        }
+
+        /** Última aparición que empieza en [from, to). */
+        private int lastIndexOf(byte[] pattern, int from, int to) {
+            for (int i = Math.min(to, limit - pattern.length); i >= Math.max(0, from); i--) {
+                if (startsWith(pattern, i)) return i;
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,396 @@
+package com.example.lamontana.data.pdf;
+
+import android.content.ContentResolver;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.pdf.PdfRenderer;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.ParcelFileDescriptor;
+import android.util.Log;
+import android.util.LruCache;
+
+import androidx.annotation.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/*
+ * ============================================================
+ * Archivo: PdfThumbnails.java
+ * Paquete: com.example.lamontana.data.pdf
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Miniaturas de las páginas del PDF elegido en Servicios, para
+ *     que el cliente confirme que subió el documento correcto.
+ *   - Cache en dos niveles, con clave "hash del contenido + página":
+ *       1) Memoria: LruCache medida en bytes (1/MEMORY_FRACTION del
+ *          heap).
+ *       2) Disco: cacheDir/pdf-thumbs/<hash>_<página>.jpg, con tope
+ *          de MAX_DISK_FILES (se borran las menos usadas).
+ *     Si no están en ninguno, se renderizan con PdfRenderer.
+ *   - Solo se trabaja para las miniaturas pedidas (las que están en
+ *     pantalla): request() al bindear, cancel() al reciclar. La cola
+ *     es LIFO: al scrollear rápido se atiende primero lo último que
+ *     apareció.
+ *
+ * Bitmaps:
+ *   - Todas las miniaturas miden THUMB_W x THUMB_H (la página se
+ *     centra sobre blanco) y salen de un BitmapPool: tanto el render
+ *     como la lectura de disco (inBitmap) reusan bitmaps.
+ *   - Al salir del LruCache un bitmap vuelve al pool, salvo que
+ *     esté a la vista (attach/detach): en ese caso vuelve cuando la
+ *     vista lo suelta.
+ *
+ * ¿Qué métodos expone? (main thread)
+ *   - void open(Uri, @Nullable String hash): documento vigente.
+ *   - Bitmap peek(page) / void request(page, Callback) / cancel(page)
+ *   - void attach(Bitmap) / detach(Bitmap)
+ *   - void close(): libera todo (onCleared del ViewModel).
+ *
+ * Notas:
+ *   - Sin hash (falló ContentHasher) no se usa el disco: la Uri no
+ *     garantiza que el contenido sea el mismo.
+ * ============================================================
+ */
+public final class PdfThumbnails {
+
+    private static final String TAG = "PdfThumbnails";
+
+    public static final int THUMB_W = 120;
+    public static final int THUMB_H = 170;
+
+    private static final int MEMORY_FRACTION = 16;
+    private static final int POOL_CAPACITY = 8;
+
+    private static final String DISK_DIR = "pdf-thumbs";
+    private static final int MAX_DISK_FILES = 1000;
+    private static final int JPEG_QUALITY = 80;
+
+    /** Entrega de una miniatura (main thread). */
+    public interface Callback {
+        void onThumbnail(int page, Bitmap bitmap);
+    }
+
+    /** Documento vigente; se reemplaza entero en open(). */
+    private static final class Document {
+        final Uri uri;
+        @Nullable final String hash;
+        final String keyPrefix;
+
+        Document(Uri uri, @Nullable String hash) {
+            this.uri = uri;
+            this.hash = hash;
+            this.keyPrefix = (hash != null ? hash : uri.toString()) + "_";
+        }
+    }
+
+    private final ContentResolver resolver;
+    private final File diskDir;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final BitmapPool pool = new BitmapPool(THUMB_W, THUMB_H, POOL_CAPACITY);
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "pdf-thumbs");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // ---- Estado del main thread ----
+    private final LruCache<String, Bitmap> memory;
+    private final Set<Bitmap> attached = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<Bitmap> releaseOnDetach = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Map<Integer, Callback> callbacks = new HashMap<>();
+    @Nullable private Document document;
+
+    // ---- Compartido (bajo lock de "pending") ----
+    private final ArrayDeque<Integer> pending = new ArrayDeque<>();
+    @Nullable private Document pendingDocument;
+    private boolean draining;
+
+    // ---- Estado del hilo de render ----
+    @Nullable private Document rendererDocument;
+    @Nullable private ParcelFileDescriptor rendererFd;
+    @Nullable private PdfRenderer renderer;
+    private boolean diskTrimmed;
+
+    public PdfThumbnails(ContentResolver resolver, File cacheDir) {
+        this.resolver = resolver;
+        this.diskDir = new File(cacheDir, DISK_DIR);
+
+        int maxKb = (int) (Runtime.getRuntime().maxMemory() / 1024 / MEMORY_FRACTION);
+        this.memory = new LruCache<String, Bitmap>(maxKb) {
+            @Override
+            protected int sizeOf(String key, Bitmap value) {
+                return value.getByteCount() / 1024;
+            }
+
+            @Override
+            protected void entryRemoved(boolean evicted, String key, Bitmap oldValue, @Nullable Bitmap newValue) {
+                if (attached.contains(oldValue)) {
+                    releaseOnDetach.add(oldValue);
+                } else {
+                    pool.release(oldValue);
+                }
+            }
+        };
+    }
+
+    /** Cambia el documento: se descartan los pedidos del anterior. */
+    public void open(Uri uri, @Nullable String hash) {
+        Document doc = new Document(uri, hash);
+        document = doc;
+        callbacks.clear();
+        synchronized (pending) {
+            pending.clear();
+            pendingDocument = doc;
+        }
+    }
+
+    /** Miniatura ya en memoria, o null. */
+    @Nullable
+    public Bitmap peek(int page) {
+        Document doc = document;
+        return doc != null ? memory.get(doc.keyPrefix + page) : null;
+    }
+
+    /** Pide una miniatura; el callback llega en el main thread. */
+    public void request(int page, Callback callback) {
+        Document doc = document;
+        if (doc == null) return;
+
+        Bitmap cached = memory.get(doc.keyPrefix + page);
+        if (cached != null) {
+            callback.onThumbnail(page, cached);
+            return;
+        }
+
+        callbacks.put(page, callback);
+        synchronized (pending) {
+            pending.remove(page);
+            pending.addFirst(page);
+            if (draining) return;
+            draining = true;
+        }
+        worker.execute(this::drain);
+    }
+
+    /** La miniatura dejó de estar en pantalla antes de llegar. */
+    public void cancel(int page) {
+        callbacks.remove(page);
+        synchronized (pending) {
+            pending.remove(page);
+        }
+    }
+
+    public void attach(Bitmap bitmap) {
+        attached.add(bitmap);
+    }
+
+    public void detach(Bitmap bitmap) {
+        attached.remove(bitmap);
+        if (releaseOnDetach.remove(bitmap)) {
+            pool.release(bitmap);
+        }
+    }
+
+    public void close() {
+        document = null;
+        callbacks.clear();
+        synchronized (pending) {
+            pending.clear();
+            pendingDocument = null;
+        }
+        worker.execute(this::closeRenderer);
+        worker.shutdown();
+        mainHandler.removeCallbacksAndMessages(null);
+        memory.evictAll();
+        pool.clear();
+    }
+
+    // ------------------------------
+    // Hilo de render
+    // ------------------------------
+
+    private void drain() {
+        while (true) {
+            int page;
+            Document doc;
+            synchronized (pending) {
+                Integer next = pending.pollFirst();
+                if (next == null) {
+                    draining = false;
+                    return;
+                }
+                page = next;
+                doc = pendingDocument;
+            }
+            if (doc == null) continue;
+
+            Bitmap bitmap = load(doc, page);
+            if (bitmap != null) {
+                deliver(doc, page, bitmap);
+            }
+        }
+    }
+
+    @Nullable
+    private Bitmap load(Document doc, int page) {
+        Bitmap fromDisk = readDisk(doc, page);
+        if (fromDisk != null) return fromDisk;
+
+        Bitmap rendered = render(doc, page);
+        if (rendered != null) writeDisk(doc, page, rendered);
+        return rendered;
+    }
+
+    private void deliver(Document doc, int page, Bitmap bitmap) {
+        mainHandler.post(() -> {
+            if (doc != document) {
+                pool.release(bitmap); // llegó tarde: otro documento
+                return;
+            }
+            memory.put(doc.keyPrefix + page, bitmap);
+            Callback cb = callbacks.remove(page);
+            if (cb != null) cb.onThumbnail(page, bitmap);
+        });
+    }
+
+    @Nullable
+    private Bitmap render(Document doc, int page) {
+        Bitmap bitmap = null;
+        try {
+            PdfRenderer r = rendererFor(doc);
+            if (page < 0 || page >= r.getPageCount()) return null;
+
+            bitmap = pool.acquire();
+            bitmap.eraseColor(Color.WHITE);
+            try (PdfRenderer.Page p = r.openPage(page)) {
+                // Página entera centrada, sin deformar
+                float scale = Math.min((float) THUMB_W / p.getWidth(), (float) THUMB_H / p.getHeight());
+                Matrix matrix = new Matrix();
+                matrix.setScale(scale, scale);
+                matrix.postTranslate((THUMB_W - p.getWidth() * scale) / 2f,
+                        (THUMB_H - p.getHeight() * scale) / 2f);
+                p.render(bitmap, null, matrix, PdfRenderer.Page.RENDER_MODE_FOR_DISPLAY);
+            }
+            return bitmap;
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "No se pudo renderizar la página " + page, e);
+            if (bitmap != null) pool.release(bitmap);
+            return null;
+        }
+    }
+
+    /** PdfRenderer abierto del documento (se reabre al cambiar). */
+    private PdfRenderer rendererFor(Document doc) throws IOException {
+        if (renderer != null && rendererDocument == doc) return renderer;
+
+        closeRenderer();
+        ParcelFileDescriptor fd = resolver.openFileDescriptor(doc.uri, "r");
+        if (fd == null) throw new FileNotFoundException("No se pudo abrir " + doc.uri);
+        try {
+            renderer = new PdfRenderer(fd);
+        } catch (IOException | RuntimeException e) {
+            fd.close();
+            throw e;
+        }
+        rendererFd = fd;
+        rendererDocument = doc;
+        return renderer;
+    }
+
+    private void closeRenderer() {
+        if (renderer != null) renderer.close();
+        if (rendererFd != null) {
+            try {
+                rendererFd.close();
+            } catch (IOException ignored) {
+                // nada que hacer
+            }
+        }
+        renderer = null;
+        rendererFd = null;
+        rendererDocument = null;
+    }
+
+    // ------------------------------
+    // Disco
+    // ------------------------------
+
+    @Nullable
+    private File diskFile(Document doc, int page) {
+        return doc.hash != null ? new File(diskDir, doc.keyPrefix + page + ".jpg") : null;
+    }
+
+    @Nullable
+    private Bitmap readDisk(Document doc, int page) {
+        File file = diskFile(doc, page);
+        if (file == null || !file.isFile()) return null;
+
+        Bitmap reuse = pool.acquire();
+        BitmapFactory.Options opts = new BitmapFactory.Options();
+        opts.inMutable = true;
+        opts.inBitmap = reuse;
+        try {
+            Bitmap bitmap = BitmapFactory.decodeFile(file.getPath(), opts);
+            if (bitmap == null) {
+                pool.release(reuse);
+                return null;
+            }
+            file.setLastModified(System.currentTimeMillis());
+            return bitmap;
+        } catch (IllegalArgumentException e) {
+            // Tamaño distinto (archivo de otra versión): se re-renderiza
+            pool.release(reuse);
+            file.delete();
+            return null;
+        }
+    }
+
+    private void writeDisk(Document doc, int page, Bitmap bitmap) {
+        File file = diskFile(doc, page);
+        if (file == null) return;
+        if (!diskDir.isDirectory() && !diskDir.mkdirs()) return;
+        trimDiskOnce();
+
+        File tmp = new File(file.getPath() + ".tmp");
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(tmp))) {
+            bitmap.compress(Bitmap.CompressFormat.JPEG, JPEG_QUALITY, out);
+        } catch (IOException e) {
+            Log.w(TAG, "No se pudo guardar la miniatura", e);
+            tmp.delete();
+            return;
+        }
+        if (!tmp.renameTo(file)) tmp.delete();
+    }
+
+    /** Una vez por proceso: deja a lo sumo MAX_DISK_FILES miniaturas. */
+    private void trimDiskOnce() {
+        if (diskTrimmed) return;
+        diskTrimmed = true;
+
+        File[] files = diskDir.listFiles();
+        if (files == null || files.length <= MAX_DISK_FILES) return;
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (int i = 0; i < files.length - MAX_DISK_FILES; i++) {
+            files[i].delete();
+        }
+    }
+}
@@ -0,0 +1,403 @@
+package com.example.lamontana.data.pdf;
+
+import android.content.ContentResolver;
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.pdf.PdfRenderer;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.ParcelFileDescriptor;
+import android.util.Log;
+import android.util.LongSparseArray;
+
+import androidx.annotation.Nullable;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/*
+ * ============================================================
+ * Archivo: PdfTileRenderer.java
+ * Paquete: com.example.lamontana.data.pdf
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Renderiza UNA página de un PDF por partes (tiles de
+ *     TILE_SIZE x TILE_SIZE) para el visor con zoom: a 8x una hoja
+ *     A4 entera pesaría cientos de MB; los tiles visibles, unos
+ *     pocos.
+ *   - Dos capas:
+ *       1) Base: la página entera a baja resolución (lado mayor =
+ *          baseMaxPx). Se muestra escalada mientras llegan los tiles.
+ *       2) Tiles del "nivel" de zoom vigente: el nivel L renderiza a
+ *          escala × 2^L, así se re-renderiza solo al cruzar 2x, 4x…
+ *   - Solo se renderizan los tiles del viewport (setViewport): los
+ *     pedidos que salieron de pantalla se descartan y los tiles fuera
+ *     del viewport (más un margen de RETAIN_MARGIN) vuelven al pool.
+ *
+ * Hilos y memoria:
+ *   - Un hilo propio con su PdfRenderer y la página abierta.
+ *   - Los tiles salen de un BitmapPool (tamaño fijo); el bitmap base
+ *     se reusa entre páginas del mismo tamaño.
+ *
+ * ¿Qué métodos expone? (main thread)
+ *   - void showPage(page, baseMaxPx)
+ *   - void setViewport(level, scale, firstCol, firstRow, lastCol, lastRow)
+ *   - Bitmap getBase() / getTile(level, col, row)
+ *   - int getPageWidthPt() / getPageHeightPt()
+ *   - void close()
+ * ============================================================
+ */
+public final class PdfTileRenderer {
+
+    private static final String TAG = "PdfTileRenderer";
+
+    public static final int TILE_SIZE = 256;
+
+    /** Tiles de más (por lado) que se conservan alrededor del viewport. */
+    private static final int RETAIN_MARGIN = 1;
+
+    private static final int POOL_CAPACITY = 48;
+
+    /** Avisos del renderer (main thread). */
+    public interface Listener {
+        /** Llegó la capa base: ya se conocen las medidas de la página. */
+        void onPageReady(int page);
+
+        /** Llegó un tile del viewport vigente. */
+        void onTileReady();
+
+        /** No se pudo abrir o renderizar el documento. */
+        void onRenderError();
+    }
+
+    private final ContentResolver resolver;
+    private final Uri uri;
+    private final Listener listener;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final BitmapPool pool = new BitmapPool(TILE_SIZE, TILE_SIZE, POOL_CAPACITY);
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "pdf-tiles");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // ---- Estado del main thread ----
+    private final LongSparseArray<Bitmap> tiles = new LongSparseArray<>();
+    private int page = -1;
+    @Nullable private Bitmap base;
+    private int pageWidthPt;
+    private int pageHeightPt;
+    private int level = -1;
+    private int firstCol, firstRow, lastCol, lastRow;
+    private boolean closed;
+
+    // ---- Compartido (bajo lock de "queue") ----
+    private final ArrayDeque<Long> queue = new ArrayDeque<>();
+    private int generation;
+    private int queuePage = -1;
+    private int queueBaseMaxPx;
+    private boolean basePending;
+    private float queueScale;
+    @Nullable private Bitmap spareBase;
+    private boolean draining;
+
+    // ---- Estado del hilo de render ----
+    @Nullable private ParcelFileDescriptor fd;
+    @Nullable private PdfRenderer renderer;
+    @Nullable private PdfRenderer.Page openPage;
+    private final Matrix matrix = new Matrix();
+
+    public PdfTileRenderer(ContentResolver resolver, Uri uri, Listener listener) {
+        this.resolver = resolver;
+        this.uri = uri;
+        this.listener = listener;
+    }
+
+    // ------------------------------
+    // API (main thread)
+    // ------------------------------
+
+    /** Cambia de página: se descartan tiles y pedidos de la anterior. */
+    public void showPage(int page, int baseMaxPx) {
+        if (closed) return;
+        this.page = page;
+        this.level = -1;
+        releaseTiles();
+
+        Bitmap oldBase = base;
+        base = null;
+        synchronized (queue) {
+            generation++;
+            queue.clear();
+            queuePage = page;
+            queueBaseMaxPx = baseMaxPx;
+            basePending = true;
+            if (oldBase != null) {
+                if (spareBase != null) spareBase.recycle();
+                spareBase = oldBase;
+            }
+        }
+        wake();
+    }
+
+    /**
+     * Tiles visibles del nivel "level" (renderizado a "scale" píxeles
+     * por punto PDF). Reemplaza los pedidos anteriores.
+     */
+    public void setViewport(int level, float scale, int firstCol, int firstRow, int lastCol, int lastRow) {
+        if (closed || base == null) return;
+        if (level == this.level
+                && firstCol == this.firstCol && firstRow == this.firstRow
+                && lastCol == this.lastCol && lastRow == this.lastRow) return;
+
+        this.level = level;
+        this.firstCol = firstCol;
+        this.firstRow = firstRow;
+        this.lastCol = lastCol;
+        this.lastRow = lastRow;
+
+        // Fuera del viewport (con margen) o de otro nivel: al pool
+        for (int i = tiles.size() - 1; i >= 0; i--) {
+            long key = tiles.keyAt(i);
+            if (!isRetained(key)) {
+                pool.release(tiles.valueAt(i));
+                tiles.removeAt(i);
+            }
+        }
+
+        synchronized (queue) {
+            queue.clear();
+            queueScale = scale;
+            for (int row = firstRow; row <= lastRow; row++) {
+                for (int col = firstCol; col <= lastCol; col++) {
+                    long key = key(level, col, row);
+                    if (tiles.get(key) == null) queue.addLast(key);
+                }
+            }
+        }
+        wake();
+    }
+
+    @Nullable
+    public Bitmap getBase() {
+        return base;
+    }
+
+    @Nullable
+    public Bitmap getTile(int level, int col, int row) {
+        return tiles.get(key(level, col, row));
+    }
+
+    public int getPageWidthPt() {
+        return pageWidthPt;
+    }
+
+    public int getPageHeightPt() {
+        return pageHeightPt;
+    }
+
+    /** Libera hilo, documento y bitmaps. */
+    public void close() {
+        if (closed) return;
+        closed = true;
+        releaseTiles();
+        synchronized (queue) {
+            generation++;
+            queue.clear();
+            basePending = false;
+            if (spareBase != null) spareBase.recycle();
+            spareBase = null;
+        }
+        if (base != null) base.recycle();
+        base = null;
+        mainHandler.removeCallbacksAndMessages(null);
+        worker.execute(this::closeRenderer);
+        worker.shutdown();
+        pool.clear();
+    }
+
+    // ------------------------------
+    // Internos (main thread)
+    // ------------------------------
+
+    private static long key(int level, int col, int row) {
+        return ((long) level << 48) | ((long) col << 24) | row;
+    }
+
+    private boolean isRetained(long key) {
+        int keyLevel = (int) (key >>> 48);
+        int col = (int) ((key >>> 24) & 0xFFFFFF);
+        int row = (int) (key & 0xFFFFFF);
+        return keyLevel == level
+                && col >= firstCol - RETAIN_MARGIN && col <= lastCol + RETAIN_MARGIN
+                && row >= firstRow - RETAIN_MARGIN && row <= lastRow + RETAIN_MARGIN;
+    }
+
+    private void releaseTiles() {
+        for (int i = 0; i < tiles.size(); i++) {
+            pool.release(tiles.valueAt(i));
+        }
+        tiles.clear();
+    }
+
+    private void wake() {
+        synchronized (queue) {
+            if (draining) return;
+            draining = true;
+        }
+        worker.execute(this::drain);
+    }
+
+    // ------------------------------
+    // Hilo de render
+    // ------------------------------
+
+    private void drain() {
+        while (true) {
+            int gen;
+            int pageIndex;
+            boolean doBase;
+            int baseMaxPx = 0;
+            Bitmap reuse = null;
+            long key = 0;
+            float scale = 0;
+            synchronized (queue) {
+                gen = generation;
+                pageIndex = queuePage;
+                doBase = basePending;
+                if (doBase) {
+                    basePending = false;
+                    baseMaxPx = queueBaseMaxPx;
+                    reuse = spareBase;
+                    spareBase = null;
+                } else {
+                    Long next = queue.pollFirst();
+                    if (next == null) {
+                        draining = false;
+                        return;
+                    }
+                    key = next;
+                    scale = queueScale;
+                }
+            }
+
+            try {
+                PdfRenderer.Page p = pageFor(pageIndex);
+                if (doBase) {
+                    renderBase(gen, pageIndex, p, baseMaxPx, reuse);
+                } else {
+                    renderTile(gen, p, key, scale);
+                }
+            } catch (IOException | RuntimeException e) {
+                Log.w(TAG, "No se pudo renderizar la página " + pageIndex, e);
+                if (reuse != null) reuse.recycle();
+                mainHandler.post(() -> {
+                    if (!closed) listener.onRenderError();
+                });
+                synchronized (queue) {
+                    queue.clear();
+                    draining = false;
+                }
+                return;
+            }
+        }
+    }
+
+    private void renderBase(int gen, int pageIndex, PdfRenderer.Page p, int baseMaxPx, @Nullable Bitmap reuse) {
+        int widthPt = p.getWidth();
+        int heightPt = p.getHeight();
+        float scale = Math.min((float) baseMaxPx / widthPt, (float) baseMaxPx / heightPt);
+        int w = Math.max(1, Math.round(widthPt * scale));
+        int h = Math.max(1, Math.round(heightPt * scale));
+
+        Bitmap bitmap = reuse;
+        if (bitmap == null || bitmap.getWidth() != w || bitmap.getHeight() != h) {
+            if (bitmap != null) bitmap.recycle();
+            bitmap = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
+        }
+        bitmap.eraseColor(Color.WHITE);
+        matrix.setScale((float) w / widthPt, (float) h / heightPt);
+        p.render(bitmap, null, matrix, PdfRenderer.Page.RENDER_MODE_FOR_DISPLAY);
+
+        final Bitmap result = bitmap;
+        mainHandler.post(() -> {
+            if (closed || !isCurrent(gen)) {
+                result.recycle();
+                return;
+            }
+            base = result;
+            pageWidthPt = widthPt;
+            pageHeightPt = heightPt;
+            listener.onPageReady(pageIndex);
+        });
+    }
+
+    private void renderTile(int gen, PdfRenderer.Page p, long key, float scale) {
+        int col = (int) ((key >>> 24) & 0xFFFFFF);
+        int row = (int) (key & 0xFFFFFF);
+
+        Bitmap bitmap = pool.acquire();
+        bitmap.eraseColor(Color.WHITE);
+        matrix.setScale(scale, scale);
+        matrix.postTranslate(-col * TILE_SIZE, -row * TILE_SIZE);
+        p.render(bitmap, null, matrix, PdfRenderer.Page.RENDER_MODE_FOR_DISPLAY);
+
+        mainHandler.post(() -> {
+            if (closed || !isCurrent(gen) || !isRetained(key) || tiles.get(key) != null) {
+                pool.release(bitmap);
+                return;
+            }
+            tiles.put(key, bitmap);
+            listener.onTileReady();
+        });
+    }
+
+    private boolean isCurrent(int gen) {
+        synchronized (queue) {
+            return gen == generation;
+        }
+    }
+
+    /** Página abierta en el renderer (PdfRenderer admite una a la vez). */
+    private PdfRenderer.Page pageFor(int pageIndex) throws IOException {
+        if (openPage != null && openPage.getIndex() == pageIndex) return openPage;
+        if (openPage != null) {
+            openPage.close();
+            openPage = null;
+        }
+        if (renderer == null) {
+            ParcelFileDescriptor opened = resolver.openFileDescriptor(uri, "r");
+            if (opened == null) throw new FileNotFoundException("No se pudo abrir " + uri);
+            try {
+                renderer = new PdfRenderer(opened);
+            } catch (IOException | RuntimeException e) {
+                opened.close();
+                throw e;
+            }
+            fd = opened;
+        }
+        openPage = renderer.openPage(pageIndex);
+        return openPage;
+    }
+
+    private void closeRenderer() {
+        if (openPage != null) openPage.close();
+        if (renderer != null) renderer.close();
+        if (fd != null) {
+            try {
+                fd.close();
+            } catch (IOException ignored) {
+                // nada que hacer
+            }
+        }
+        openPage = null;
+        renderer = null;
+        fd = null;
+    }
+}
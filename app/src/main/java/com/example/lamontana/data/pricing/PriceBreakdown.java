@@ -0,0 +1,51 @@
+package com.example.lamontana.data.pricing;
+
+import java.util.List;
+
+/*
+ * ============================================================
+ * Archivo: PriceBreakdown.java
+ * Paquete: com.example.lamontana.data.pricing
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Desglose inmutable del precio de un pedido, tal como lo
+ *     calcula PricingEngine:
+ *       · lines          → un renglón por producto, por trabajo de
+ *                          impresión y por envío (si se cobra).
+ *       · productsCents / printCents / shippingCents / totalCents
+ *       · formattedTotal → total ya formateado en ARS.
+ *       · cartVersion    → versión del carrito de origen.
+ *
+ * Notas:
+ *   - Todos los montos son CENTAVOS exactos (long): nunca double.
+ * ============================================================
+ */
+public final class PriceBreakdown {
+
+    public final List<PriceLine> lines;
+    public final long productsCents;
+    public final long printCents;
+    public final long shippingCents;
+    public final long totalCents;
+    public final String formattedTotal;
+    public final long cartVersion;
+
+    PriceBreakdown(List<PriceLine> lines,
+                   long productsCents,
+                   long printCents,
+                   long shippingCents,
+                   long cartVersion) {
+        this.lines = lines;
+        this.productsCents = productsCents;
+        this.printCents = printCents;
+        this.shippingCents = shippingCents;
+        this.totalCents = Math.addExact(Math.addExact(productsCents, printCents), shippingCents);
+        this.formattedTotal = PricingEngine.format(totalCents);
+        this.cartVersion = cartVersion;
+    }
+
+    /** true si no hay nada para cobrar. */
+    public boolean isEmpty() {
+        return totalCents <= 0;
+    }
+}
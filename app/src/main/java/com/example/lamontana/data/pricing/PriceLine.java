@@ -0,0 +1,34 @@
+package com.example.lamontana.data.pricing;
+
+/*
+ * ============================================================
+ * Archivo: PriceLine.java
+ * Paquete: com.example.lamontana.data.pricing
+ * ------------------------------------------------------------
+ * Renglón inmutable del desglose de precios (PriceBreakdown):
+ *   - tipo: PRODUCTO, IMPRESION o ENVIO.
+ *   - descripcion, cantidad, precio unitario y total en CENTAVOS.
+ * ============================================================
+ */
+public final class PriceLine {
+
+    public enum Tipo {
+        PRODUCTO,
+        IMPRESION,
+        ENVIO
+    }
+
+    public final Tipo tipo;
+    public final String descripcion;
+    public final int cantidad;
+    public final long unitCents;
+    public final long totalCents;
+
+    public PriceLine(Tipo tipo, String descripcion, int cantidad, long unitCents) {
+        this.tipo = tipo;
+        this.descripcion = descripcion != null ? descripcion : "";
+        this.cantidad = cantidad;
+        this.unitCents = unitCents;
+        this.totalCents = Math.multiplyExact(unitCents, (long) cantidad);
+    }
+}
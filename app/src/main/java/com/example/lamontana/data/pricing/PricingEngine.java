@@ -0,0 +1,181 @@
+package com.example.lamontana.data.pricing;
+
+import androidx.annotation.Nullable;
+
+import com.example.lamontana.data.shipping.ShippingQuote;
+import com.example.lamontana.model.CartItem;
+import com.example.lamontana.model.CartSnapshot;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/*
+ * ============================================================
+ * Archivo: PricingEngine.java
+ * Paquete: com.example.lamontana.data.pricing
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - ÚNICO lugar donde se calculan precios del pedido:
+ *       carrito (CartSnapshot) + trabajos de impresión (PrintJob)
+ *       + envío (ShippingQuote) → PriceBreakdown desglosado.
+ *   - Reemplaza las cuentas sueltas de Checkout (total del carrito
+ *     + extra SERVICIO_TOTAL) y de Servicios (doubles casteados a int).
+ *
+ * ¿Qué métodos expone?
+ *   - static PricingEngine get()
+ *   - PriceBreakdown price(snapshot, jobs, quote): desglose completo.
+ *     Las tarifas de impresión (en modo AUTOMATICO, B/N y color por
+ *     carilla según el PDF) salen de ServicePriceTable
+ *     (ServiciosRepository); si hay trabajos y la tabla todavía se
+ *     está cargando, devuelve null.
+ *   - static long pesosToCents(int) / static int centsToPesos(long)
+ *   - static String format(long cents): ARS, sin pasar por double.
+ *
+ * Cache:
+ *   - Se guarda el último desglose con su clave (versión del
+ *     carrito + trabajos + cotización de envío + tabla de precios). Re-dibujar el
+ *     label del total sin cambios en el carrito no recalcula nada.
+ *
+ * Notas:
+ *   - Dinero SIEMPRE en centavos (long) y con aritmética exacta
+ *     (Math.*Exact): un desborde es un error, no un total raro.
+ *   - Los precios de catálogo y de zonas de envío están en pesos
+ *     enteros; se pasan a centavos al entrar.
+ * ============================================================
+ */
+public final class PricingEngine {
+
+    private static final Locale LOCALE_AR = new Locale("es", "AR");
+
+    private static PricingEngine instance;
+
+    // Último desglose (clave: versión del carrito + trabajos + envío + tabla)
+    @Nullable private PriceBreakdown last;
+    private long lastVersion = -1;
+    @Nullable private List<PrintJob> lastJobs;
+    @Nullable private ShippingQuote lastQuote;
+    @Nullable private ServicePriceTable lastTable;
+
+    private PricingEngine() {
+    }
+
+    public static synchronized PricingEngine get() {
+        if (instance == null) {
+            instance = new PricingEngine();
+        }
+        return instance;
+    }
+
+    /**
+     * Calcula el desglose del pedido.
+     *
+     * @param snapshot carrito (inmutable).
+     * @param jobs     trabajos de impresión pendientes (puede estar vacía).
+     * @param quote    cotización de envío; null o sin cobertura = sin envío.
+     * @return el desglose, o null si hay trabajos de impresión y la
+     *         tabla de servicios todavía no se cargó.
+     */
+    @Nullable
+    public PriceBreakdown price(CartSnapshot snapshot,
+                                List<PrintJob> jobs,
+                                @Nullable ShippingQuote quote) {
+        return price(snapshot, jobs, quote, ServiciosRepository.getInstance().getCurrent());
+    }
+
+    /** Igual que price(snapshot, jobs, quote), con la tabla dada (tests). */
+    @Nullable
+    synchronized PriceBreakdown price(CartSnapshot snapshot,
+                                      List<PrintJob> jobs,
+                                      @Nullable ShippingQuote quote,
+                                      @Nullable ServicePriceTable table) {
+        if (table == null && hasPrintWork(jobs)) return null;
+        if (last != null
+                && lastVersion == snapshot.getVersion()
+                && lastQuote == quote
+                && lastTable == table
+                && jobs.equals(lastJobs)) {
+            return last;
+        }
+
+        List<PriceLine> lines = new ArrayList<>(snapshot.getItems().size() + jobs.size() + 1);
+
+        long products = 0;
+        for (CartItem item : snapshot.getItems()) {
+            PriceLine line = new PriceLine(PriceLine.Tipo.PRODUCTO,
+                    item.product.name, item.qty, pesosToCents(item.product.price));
+            lines.add(line);
+            products = Math.addExact(products, line.totalCents);
+        }
+
+        long print = 0;
+        for (PrintJob job : jobs) {
+            if (job.isEmpty()) continue;
+            PriceLine line = new PriceLine(PriceLine.Tipo.IMPRESION,
+                    describe(table, job), 1, table.printJobCents(job));
+            lines.add(line);
+            print = Math.addExact(print, line.totalCents);
+        }
+
+        long shipping = 0;
+        if (quote != null && quote.isCovered() && quote.amount > 0) {
+            PriceLine line = new PriceLine(PriceLine.Tipo.ENVIO,
+                    "Envío a " + quote.zone.nombre, 1, pesosToCents(quote.amount));
+            lines.add(line);
+            shipping = line.totalCents;
+        }
+
+        last = new PriceBreakdown(Collections.unmodifiableList(lines),
+                products, print, shipping, snapshot.getVersion());
+        lastVersion = snapshot.getVersion();
+        lastJobs = new ArrayList<>(jobs);
+        lastQuote = quote;
+        lastTable = table;
+        return last;
+    }
+
+    private static boolean hasPrintWork(List<PrintJob> jobs) {
+        for (PrintJob job : jobs) {
+            if (!job.isEmpty()) return true;
+        }
+        return false;
+    }
+
+    private static String describe(ServicePriceTable table, PrintJob job) {
+        String papel = table.getPaperLabel(table.paperIndex(job.papel));
+        if (job.modo == PrintJob.Modo.AUTOMATICO) {
+            return "Trabajo de impresión (" + job.carillas + " carillas " + papel + ", "
+                    + job.carillasColor + " a color)";
+        }
+        return "Trabajo de impresión (" + job.carillas + " carillas " + papel + ")";
+    }
+
+    // ------------------------------
+    // Conversión y formato
+    // ------------------------------
+
+    public static long pesosToCents(int pesos) {
+        return Math.multiplyExact((long) pesos, 100L);
+    }
+
+    /**
+     * Centavos → pesos enteros (para los campos en pesos de Firestore).
+     * Redondea al peso más cercano; con las tarifas actuales (todas en
+     * pesos enteros) la conversión es exacta.
+     */
+    public static int centsToPesos(long cents) {
+        return BigDecimal.valueOf(cents, 2)
+                .setScale(0, RoundingMode.HALF_UP)
+                .intValueExact();
+    }
+
+    /** Monto en ARS (ej. "$ 1.234,50") sin pasar por double. */
+    public static String format(long cents) {
+        NumberFormat ars = NumberFormat.getCurrencyInstance(LOCALE_AR);
+        return ars.format(BigDecimal.valueOf(cents, 2));
+    }
+}
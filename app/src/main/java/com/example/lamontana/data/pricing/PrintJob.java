@@ -0,0 +1,140 @@
+package com.example.lamontana.data.pricing;
+
+import androidx.annotation.Nullable;
+
+import java.util.Objects;
+
+/*
+ * ============================================================
+ * Archivo: PrintJob.java
+ * Paquete: com.example.lamontana.data.pricing
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Foto inmutable de un trabajo de impresión armado en
+ *     ServiciosFragment: carillas, modo (B/N, color o automático
+ *     por página), doble faz y terminaciones (anillado /
+ *     encuadernado).
+ *   - En modo AUTOMATICO, carillasColor dice cuántas carillas
+ *     tienen color (PageColorClassifier); el resto se cobra B/N.
+ *   - papel: id del tamaño de hoja ("papel_a4", ...; ver
+ *     ServicePriceTable). null = el primero de la tabla.
+ *   - archivo: path en Storage del PDF elegido (null si no hay);
+ *     viaja en la línea del pedido para que el local lo imprima.
+ *     Se conoce recién con el hash del archivo: withArchivo() lo
+ *     completa en el trabajo ya armado.
+ *   - PricingEngine le pone precio (con ServicePriceTable); CheckoutViewModel lo guarda
+ *     hasta confirmar el pedido.
+ *
+ * Notas:
+ *   - Implementa equals/hashCode: PricingEngine lo usa como parte
+ *     de la clave de su cache.
+ * ============================================================
+ */
+public final class PrintJob {
+
+    /** Modo de impresión elegido en el RadioGroup. */
+    public enum Modo {
+        SIN_ELEGIR,
+        BN,
+        COLOR,
+        /** Color o B/N según cada página (PageColorMap del PDF). */
+        AUTOMATICO
+    }
+
+    public final int carillas;
+    public final Modo modo;
+    public final boolean dobleFaz;
+    public final boolean anillado;
+    public final boolean encuadernado;
+    /** Carillas a color (solo en AUTOMATICO; nunca más que carillas). */
+    public final int carillasColor;
+    @Nullable public final String papel;
+    @Nullable public final String archivo;
+
+    public PrintJob(int carillas,
+                    Modo modo,
+                    boolean dobleFaz,
+                    boolean anillado,
+                    boolean encuadernado) {
+        this(carillas, modo, 0, dobleFaz, anillado, encuadernado);
+    }
+
+    public PrintJob(int carillas,
+                    Modo modo,
+                    int carillasColor,
+                    boolean dobleFaz,
+                    boolean anillado,
+                    boolean encuadernado) {
+        this(carillas, modo, carillasColor, dobleFaz, anillado, encuadernado, null, null);
+    }
+
+    public PrintJob(int carillas,
+                    Modo modo,
+                    int carillasColor,
+                    boolean dobleFaz,
+                    boolean anillado,
+                    boolean encuadernado,
+                    @Nullable String papel,
+                    @Nullable String archivo) {
+        this.carillas = Math.max(0, carillas);
+        this.modo = modo != null ? modo : Modo.SIN_ELEGIR;
+        this.carillasColor = this.modo == Modo.AUTOMATICO
+                ? Math.min(this.carillas, Math.max(0, carillasColor))
+                : 0;
+        this.dobleFaz = dobleFaz;
+        this.anillado = anillado;
+        this.encuadernado = encuadernado;
+        this.papel = papel;
+        this.archivo = archivo;
+    }
+
+    /** true si no hay nada que cobrar (sin carillas ni terminaciones). */
+    public boolean isEmpty() {
+        return carillas == 0 && !anillado && !encuadernado;
+    }
+
+    /** El mismo trabajo con otro archivo (o sin archivo). */
+    public PrintJob withArchivo(@Nullable String nuevo) {
+        if (Objects.equals(archivo, nuevo)) return this;
+        return new PrintJob(carillas, modo, carillasColor, dobleFaz, anillado, encuadernado, papel, nuevo);
+    }
+
+    /** Carillas que se cobran como B/N en modo AUTOMATICO. */
+    public int carillasBn() {
+        return carillas - carillasColor;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PrintJob)) return false;
+        PrintJob other = (PrintJob) o;
+        return carillas == other.carillas
+                && modo == other.modo
+                && carillasColor == other.carillasColor
+                && dobleFaz == other.dobleFaz
+                && anillado == other.anillado
+                && encuadernado == other.encuadernado
+                && Objects.equals(papel, other.papel)
+                && Objects.equals(archivo, other.archivo);
+    }
+
+    @Override
+    public int hashCode() {
+        int h = carillas;
+        h = 31 * h + modo.hashCode();
+        h = 31 * h + carillasColor;
+        h = 31 * h + (dobleFaz ? 1 : 0);
+        h = 31 * h + (anillado ? 1 : 0);
+        h = 31 * h + (encuadernado ? 1 : 0);
+        h = 31 * h + Objects.hashCode(papel);
+        h = 31 * h + Objects.hashCode(archivo);
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        return "PrintJob{carillas=" + carillas + ", modo=" + modo
+                + ", color=" + carillasColor + "}";
+    }
+}
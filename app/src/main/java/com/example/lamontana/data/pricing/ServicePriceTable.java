@@ -0,0 +1,223 @@
+package com.example.lamontana.data.pricing;
+
+import androidx.annotation.Nullable;
+
+import com.example.lamontana.data.Servicio;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * ============================================================
+ * Archivo: ServicePriceTable.java
+ * Paquete: com.example.lamontana.data.pricing
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Tabla de precios de impresión, compilada UNA vez a partir de
+ *     la lista de Servicio (colección "servicios") en:
+ *       · long[] perCarilla: centavos por carilla para CADA
+ *         combinación papel × modo × doble faz (base + modo +
+ *         recargo doble faz + recargo del papel, ya sumados).
+ *       · centavos por carilla B/N y color del modo AUTOMATICO.
+ *       · centavos de las terminaciones (por trabajo).
+ *   - printJobCents(...) es una multiplicación y unas sumas sobre
+ *     esos valores: sin búsquedas ni objetos por cálculo (se llama
+ *     en cada tecla de edtCarillas).
+ *
+ * Ids de servicio:
+ *   - Obligatorios: carilla, fotocopiado_bn, fotocopiado_color,
+ *     doble_faz, anillado, encuadernado.
+ *   - Tamaños de hoja: "papel_*" (al menos uno disponible), en el
+ *     orden del campo "orden". Su precio es un recargo por carilla.
+ *   - Un servicio con disponible = false se sigue cotizando; la
+ *     pantalla lo deshabilita (isDisponible). Los papeles no
+ *     disponibles directamente no se ofrecen.
+ * ============================================================
+ */
+public final class ServicePriceTable {
+
+    public static final String CARILLA = "carilla";
+    public static final String BN = "fotocopiado_bn";
+    public static final String COLOR = "fotocopiado_color";
+    public static final String DOBLE_FAZ = "doble_faz";
+    public static final String ANILLADO = "anillado";
+    public static final String ENCUADERNADO = "encuadernado";
+    public static final String PAPER_PREFIX = "papel_";
+
+    private static final int MODES = PrintJob.Modo.values().length;
+
+    private final long[] perCarilla;
+    private final long autoBnCents;
+    private final long autoColorCents;
+    private final long anilladoCents;
+    private final long encuadernadoCents;
+
+    private final String[] paperIds;
+    private final String[] paperLabels;
+    private final Map<String, Boolean> disponibles;
+
+    private ServicePriceTable(long[] perCarilla,
+                              long autoBnCents,
+                              long autoColorCents,
+                              long anilladoCents,
+                              long encuadernadoCents,
+                              String[] paperIds,
+                              String[] paperLabels,
+                              Map<String, Boolean> disponibles) {
+        this.perCarilla = perCarilla;
+        this.autoBnCents = autoBnCents;
+        this.autoColorCents = autoColorCents;
+        this.anilladoCents = anilladoCents;
+        this.encuadernadoCents = encuadernadoCents;
+        this.paperIds = paperIds;
+        this.paperLabels = paperLabels;
+        this.disponibles = disponibles;
+    }
+
+    /**
+     * Compila la tabla.
+     *
+     * @throws IllegalArgumentException si falta un servicio obligatorio,
+     *                                  no hay papeles o un precio es
+     *                                  negativo.
+     */
+    public static ServicePriceTable compile(List<Servicio> servicios) {
+        Map<String, Servicio> byId = new HashMap<>();
+        List<Servicio> papers = new ArrayList<>();
+        Map<String, Boolean> disponibles = new HashMap<>();
+        for (Servicio s : servicios) {
+            if (s.precio < 0) {
+                throw new IllegalArgumentException("Precio negativo en " + s.id);
+            }
+            byId.put(s.id, s);
+            disponibles.put(s.id, s.disponible);
+            if (s.id.startsWith(PAPER_PREFIX) && s.disponible) papers.add(s);
+        }
+        if (papers.isEmpty()) {
+            throw new IllegalArgumentException("No hay tamaños de hoja disponibles");
+        }
+        Collections.sort(papers, (a, b) -> Integer.compare(a.orden, b.orden));
+
+        long base = cents(require(byId, CARILLA));
+        long bn = cents(require(byId, BN));
+        long color = cents(require(byId, COLOR));
+        long dobleFaz = cents(require(byId, DOBLE_FAZ));
+        long anillado = cents(require(byId, ANILLADO));
+        long encuadernado = cents(require(byId, ENCUADERNADO));
+
+        String[] paperIds = new String[papers.size()];
+        String[] paperLabels = new String[papers.size()];
+        long[] perCarilla = new long[papers.size() * MODES * 2];
+        for (int p = 0; p < papers.size(); p++) {
+            Servicio paper = papers.get(p);
+            paperIds[p] = paper.id;
+            paperLabels[p] = paper.nombre;
+            for (PrintJob.Modo modo : PrintJob.Modo.values()) {
+                // AUTOMATICO suma B/N o color aparte, carilla por carilla
+                long forMode = modo == PrintJob.Modo.BN ? bn
+                        : modo == PrintJob.Modo.COLOR ? color
+                        : 0;
+                long simple = Math.addExact(Math.addExact(base, cents(paper)), forMode);
+                perCarilla[index(p, modo, false)] = simple;
+                perCarilla[index(p, modo, true)] = Math.addExact(simple, dobleFaz);
+            }
+        }
+
+        return new ServicePriceTable(perCarilla, bn, color, anillado, encuadernado,
+                paperIds, paperLabels, disponibles);
+    }
+
+    /**
+     * Precio de un trabajo de impresión, en centavos. No crea objetos.
+     *
+     * @param paper índice de papel (ver paperIndex); fuera de rango se
+     *              toma el primero.
+     */
+    public long printJobCents(int paper,
+                              PrintJob.Modo modo,
+                              int carillas,
+                              int carillasColor,
+                              boolean dobleFaz,
+                              boolean anillado,
+                              boolean encuadernado) {
+        if (paper < 0 || paper >= paperIds.length) paper = 0;
+
+        long total = Math.multiplyExact((long) carillas, perCarilla[index(paper, modo, dobleFaz)]);
+
+        // Automático: cada carilla paga B/N o color según su página
+        if (modo == PrintJob.Modo.AUTOMATICO) {
+            total = Math.addExact(total, Math.multiplyExact((long) (carillas - carillasColor), autoBnCents));
+            total = Math.addExact(total, Math.multiplyExact((long) carillasColor, autoColorCents));
+        }
+
+        // Terminaciones (por trabajo)
+        if (anillado) total = Math.addExact(total, anilladoCents);
+        if (encuadernado) total = Math.addExact(total, encuadernadoCents);
+        return total;
+    }
+
+    /** Precio de un PrintJob ya armado (checkout). */
+    public long printJobCents(PrintJob job) {
+        return printJobCents(paperIndex(job.papel), job.modo, job.carillas, job.carillasColor,
+                job.dobleFaz, job.anillado, job.encuadernado);
+    }
+
+    // ------------------------------
+    // Papeles y disponibilidad
+    // ------------------------------
+
+    public int getPaperCount() {
+        return paperIds.length;
+    }
+
+    public String getPaperId(int index) {
+        return paperIds[index];
+    }
+
+    public String getPaperLabel(int index) {
+        return paperLabels[index];
+    }
+
+    /** Índice del papel con ese id (0, el primero, si no está). */
+    public int paperIndex(@Nullable String paperId) {
+        if (paperId == null) return 0;
+        for (int i = 0; i < paperIds.length; i++) {
+            if (paperIds[i].equals(paperId)) return i;
+        }
+        return 0;
+    }
+
+    /** true si el servicio existe y está disponible. */
+    public boolean isDisponible(String id) {
+        return Boolean.TRUE.equals(disponibles.get(id));
+    }
+
+    // ------------------------------
+    // Internos
+    // ------------------------------
+
+    private static int index(int paper, PrintJob.Modo modo, boolean dobleFaz) {
+        return ((paper * MODES + modo.ordinal()) << 1) | (dobleFaz ? 1 : 0);
+    }
+
+    private static Servicio require(Map<String, Servicio> byId, String id) {
+        Servicio s = byId.get(id);
+        if (s == null) {
+            throw new IllegalArgumentException("Falta el servicio " + id);
+        }
+        return s;
+    }
+
+    /** Pesos (Firestore admite decimales) → centavos, redondeando. */
+    private static long cents(Servicio s) {
+        return BigDecimal.valueOf(s.precio)
+                .movePointRight(2)
+                .setScale(0, RoundingMode.HALF_UP)
+                .longValueExact();
+    }
+}
@@ -0,0 +1,267 @@
+package com.example.lamontana.data.pricing;
+
+import android.content.Context;
+import android.content.res.AssetManager;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.example.lamontana.data.Servicio;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/*
+ * ============================================================
+ * Archivo: ServiciosRepository.java
+ * Paquete: com.example.lamontana.data.pricing
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Tabla de precios de impresión (ServicePriceTable), a partir
+ *     de la colección "servicios" de Firestore. Cambiar un precio
+ *     en Firestore no requiere publicar la app.
+ *   - Al arrancar (init, desde LaMontanaApp), en un hilo propio:
+ *       1) Publica la última tabla guardada en el equipo
+ *          (filesDir/servicios.json) o, la primera vez, la que viene
+ *          en assets/servicios.json.
+ *       2) Trae "servicios" de Firestore; si compila bien, la
+ *          publica y la guarda para el próximo arranque.
+ *
+ * ¿Qué métodos expone?
+ *   - static void init(Context) / static ServiciosRepository getInstance()
+ *   - LiveData<ServicePriceTable> getTable(): tabla vigente.
+ *   - ServicePriceTable getCurrent(): lectura inmediata (null si
+ *     todavía no hay tabla).
+ *
+ * Notas:
+ *   - Una colección vacía o incompleta (ej. todavía sin cargar en
+ *     el proyecto) no pisa la tabla vigente. Tampoco una con algún
+ *     documento sin "precio" o con un tipo que no es el esperado:
+ *     se descarta entera, nunca se cobra 0 por un dato mal cargado.
+ *   - getCurrent() nunca lee archivos (se llama desde el main
+ *     thread): antes de que termine el paso 1 devuelve null y quien
+ *     la necesite espera a getTable(), como ShippingQuoteEngine.
+ * ============================================================
+ */
+public final class ServiciosRepository {
+
+    private static final String TAG = "ServiciosRepository";
+
+    private static final String COLLECTION_SERVICIOS = "servicios";
+    private static final String ASSET_SERVICIOS = "servicios.json";
+    private static final String CACHE_FILE = "servicios.json";
+
+    private static ServiciosRepository instance;
+
+    private final AssetManager assets;
+    private final File cacheFile;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "servicios");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final MutableLiveData<ServicePriceTable> tableLiveData = new MutableLiveData<>();
+    @Nullable private volatile ServicePriceTable table;
+
+    private ServiciosRepository(Context appContext) {
+        assets = appContext.getAssets();
+        cacheFile = new File(appContext.getFilesDir(), CACHE_FILE);
+    }
+
+    /**
+     * Crea el repositorio, publica la tabla local y pide la de
+     * Firestore. Idempotente.
+     */
+    public static synchronized void init(Context context) {
+        if (instance != null) return;
+
+        instance = new ServiciosRepository(context.getApplicationContext());
+        instance.executor.execute(instance::loadLocalTable);
+        instance.fetchRemote();
+    }
+
+    public static ServiciosRepository getInstance() {
+        if (instance == null) {
+            throw new IllegalStateException("ServiciosRepository.init() no fue llamado (LaMontanaApp)");
+        }
+        return instance;
+    }
+
+    public LiveData<ServicePriceTable> getTable() {
+        return tableLiveData;
+    }
+
+    /** Última tabla publicada (null mientras se carga la local). */
+    @Nullable
+    public ServicePriceTable getCurrent() {
+        return table;
+    }
+
+    // ------------------------------
+    // Tabla local
+    // ------------------------------
+
+    /** Hilo "servicios": paso 1 (si Firestore no ganó de mano). */
+    private void loadLocalTable() {
+        ServicePriceTable local = loadLocal();
+        synchronized (this) {
+            if (table != null) return;
+            table = local;
+        }
+        tableLiveData.postValue(local);
+    }
+
+    /** Copia guardada o, si no hay (o está rota), la de assets. */
+    private ServicePriceTable loadLocal() {
+        if (cacheFile.isFile()) {
+            try (InputStream in = new FileInputStream(cacheFile)) {
+                return ServicePriceTable.compile(parseJson(readAll(in)));
+            } catch (IOException | JSONException | RuntimeException e) {
+                Log.w(TAG, "Copia local de servicios inválida, se usa la de assets", e);
+            }
+        }
+        try (InputStream in = assets.open(ASSET_SERVICIOS)) {
+            return ServicePriceTable.compile(parseJson(readAll(in)));
+        } catch (IOException | JSONException e) {
+            // assets/servicios.json viaja con la app: no puede faltar
+            throw new IllegalStateException("No se pudo leer " + ASSET_SERVICIOS, e);
+        }
+    }
+
+    // ------------------------------
+    // Firestore
+    // ------------------------------
+
+    private void fetchRemote() {
+        FirebaseFirestore.getInstance()
+                .collection(COLLECTION_SERVICIOS)
+                .get()
+                .addOnSuccessListener(executor, this::applyRemote)
+                .addOnFailureListener(executor, e ->
+                        Log.w(TAG, "Sin acceso a servicios, se usan los precios guardados", e));
+    }
+
+    /** Hilo "servicios": compila, publica y guarda. */
+    private void applyRemote(QuerySnapshot snapshot) {
+        List<Servicio> servicios = new ArrayList<>(snapshot.size());
+        ServicePriceTable remote;
+        try {
+            for (DocumentSnapshot doc : snapshot.getDocuments()) {
+                servicios.add(fromDocument(doc));
+            }
+            remote = ServicePriceTable.compile(servicios);
+        } catch (RuntimeException e) {
+            // Dato faltante o de otro tipo (getX lanza RuntimeException):
+            // acá no puede escapar, tiraría abajo la app desde este hilo.
+            Log.w(TAG, "Tabla de servicios inválida en Firestore, se mantiene la vigente", e);
+            return;
+        }
+
+        synchronized (this) {
+            table = remote;
+        }
+        tableLiveData.postValue(remote);
+        saveLocal(servicios);
+    }
+
+    /**
+     * @throws IllegalArgumentException si "precio" falta o no es un
+     *         número finito (los getX tipados lanzan RuntimeException
+     *         si el campo es de otro tipo).
+     */
+    private static Servicio fromDocument(DocumentSnapshot doc) {
+        Object precio = doc.get("precio");
+        if (!(precio instanceof Number) || !Double.isFinite(((Number) precio).doubleValue())) {
+            throw new IllegalArgumentException("Servicio " + doc.getId() + " sin precio válido: " + precio);
+        }
+        Boolean disponible = doc.getBoolean("disponible");
+        Long orden = doc.getLong("orden");
+        return new Servicio(
+                doc.getId(),
+                doc.getString("nombre"),
+                doc.getString("descripcion"),
+                disponible == null || disponible,
+                ((Number) precio).doubleValue(),
+                orden != null ? orden.intValue() : 0
+        );
+    }
+
+    // ------------------------------
+    // JSON (assets y copia local)
+    // ------------------------------
+
+    private static List<Servicio> parseJson(String json) throws JSONException {
+        JSONArray array = new JSONObject(json).getJSONArray("servicios");
+        List<Servicio> servicios = new ArrayList<>(array.length());
+        for (int i = 0; i < array.length(); i++) {
+            JSONObject s = array.getJSONObject(i);
+            servicios.add(new Servicio(
+                    s.getString("id"),
+                    s.optString("nombre", null),
+                    s.optString("descripcion", ""),
+                    s.optBoolean("disponible", true),
+                    s.getDouble("precio"),
+                    s.optInt("orden", 0)
+            ));
+        }
+        return servicios;
+    }
+
+    /** Escribe la copia local (tmp + rename: nunca queda a medias). */
+    private void saveLocal(List<Servicio> servicios) {
+        File tmp = new File(cacheFile.getPath() + ".tmp");
+        try {
+            JSONArray array = new JSONArray();
+            for (Servicio s : servicios) {
+                array.put(new JSONObject()
+                        .put("id", s.id)
+                        .put("nombre", s.nombre)
+                        .put("descripcion", s.descripcion)
+                        .put("disponible", s.disponible)
+                        .put("precio", s.precio)
+                        .put("orden", s.orden));
+            }
+            byte[] bytes = new JSONObject().put("servicios", array).toString()
+                    .getBytes(StandardCharsets.UTF_8);
+            try (OutputStream out = new FileOutputStream(tmp)) {
+                out.write(bytes);
+            }
+            if (!tmp.renameTo(cacheFile)) {
+                throw new IOException("No se pudo reemplazar " + cacheFile);
+            }
+        } catch (IOException | JSONException e) {
+            Log.w(TAG, "No se pudo guardar la copia local de servicios", e);
+            tmp.delete();
+        }
+    }
+
+    private static String readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[4096];
+        int n;
+        while ((n = in.read(buf)) != -1) {
+            out.write(buf, 0, n);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
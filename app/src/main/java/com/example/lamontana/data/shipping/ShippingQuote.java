@@ -0,0 +1,46 @@
+package com.example.lamontana.data.shipping;
+
+import androidx.annotation.Nullable;
+
+/*
+ * ============================================================
+ * Archivo: ShippingQuote.java
+ * Paquete: com.example.lamontana.data.shipping
+ * ------------------------------------------------------------
+ * Resultado inmutable de una cotización de envío:
+ *   - postalCode: código consultado (4 dígitos).
+ *   - zone: zona encontrada, o null si no hay cobertura.
+ *   - amount: costo en pesos (0 si no hay cobertura).
+ *   - cartVersion / pages: estado para el que se calculó.
+ * ============================================================
+ */
+public final class ShippingQuote {
+
+    public final String postalCode;
+    @Nullable public final ShippingZone zone;
+    public final int amount;
+    public final long cartVersion;
+    public final int pages;
+
+    ShippingQuote(String postalCode,
+                  @Nullable ShippingZone zone,
+                  int amount,
+                  long cartVersion,
+                  int pages) {
+        this.postalCode = postalCode;
+        this.zone = zone;
+        this.amount = amount;
+        this.cartVersion = cartVersion;
+        this.pages = pages;
+    }
+
+    /** true si se hacen envíos a ese código postal. */
+    public boolean isCovered() {
+        return zone != null;
+    }
+
+    /** true si el envío no tiene costo. */
+    public boolean isFree() {
+        return zone != null && amount == 0;
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.lamontana.data.shipping;
+
+import android.content.Context;
+import android.content.res.AssetManager;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.example.lamontana.model.CartSnapshot;
+
+import org.json.JSONException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/*
+ * ============================================================
+ * Archivo: ShippingQuoteEngine.java
+ * Paquete: com.example.lamontana.data.shipping
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Cotizar el envío de un pedido a partir del código postal:
+ *       zona (ShippingZoneTable, acceso O(1) por CP)
+ *       + recargo por unidades del carrito
+ *       + recargo por carillas del trabajo de impresión.
+ *   - Carga la tabla desde assets/shipping_zones.json en un hilo
+ *     propio al arrancar la app (init, desde LaMontanaApp).
+ *
+ * ¿Qué métodos expone?
+ *   - static void init(Context ctx) / static ShippingQuoteEngine get()
+ *   - ShippingQuote quote(String cp, CartSnapshot snapshot, int pages)
+ *   - boolean isLoading(): la tabla todavía se está leyendo.
+ *   - static int parsePostalCode(String cp): -1 si no son 4 dígitos.
+ *
+ * Cache:
+ *   - Se guarda la última cotización con su clave (CP + versión del
+ *     carrito + carillas). Mientras el carrito no cambie, volver a
+ *     cotizar (re-dibujos, rotaciones, ir y volver al checkout) no
+ *     recalcula nada.
+ *
+ * Notas:
+ *   - quote() nunca lee el archivo (se llama desde el main thread):
+ *     si la tabla todavía no terminó de cargarse devuelve null, e
+ *     isLoading() lo distingue de un CP inválido.
+ * ============================================================
+ */
+public final class ShippingQuoteEngine {
+
+    private static final String TAG = "ShippingQuote";
+    private static final String ASSET_ZONES = "shipping_zones.json";
+
+    private static ShippingQuoteEngine instance;
+
+    private final AssetManager assets;
+
+    @Nullable private volatile ShippingZoneTable table;
+    private volatile boolean loading = true;
+
+    // Última cotización (clave: CP + versión del carrito + carillas)
+    @Nullable private ShippingQuote lastQuote;
+
+    private ShippingQuoteEngine(Context appContext) {
+        assets = appContext.getAssets();
+    }
+
+    /**
+     * Crea el motor y carga la tabla de zonas en segundo plano. Idempotente.
+     */
+    public static synchronized void init(Context context) {
+        if (instance != null) return;
+
+        instance = new ShippingQuoteEngine(context.getApplicationContext());
+        Thread loader = new Thread(instance::load, "shipping-zones");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    public static ShippingQuoteEngine get() {
+        if (instance == null) {
+            throw new IllegalStateException("ShippingQuoteEngine.init() no fue llamado (LaMontanaApp)");
+        }
+        return instance;
+    }
+
+    /** true mientras la tabla de zonas se lee en segundo plano. */
+    public boolean isLoading() {
+        return loading;
+    }
+
+    /**
+     * Convierte el texto del formulario a código postal.
+     *
+     * @return 0..9999, o -1 si no son exactamente 4 dígitos.
+     */
+    public static int parsePostalCode(@Nullable String cp) {
+        if (cp == null || cp.length() != 4) return -1;
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            char c = cp.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Cotiza el envío del carrito (snapshot) y del trabajo de impresión
+     * (pages carillas) al código postal cp.
+     *
+     * @return la cotización, o null si cp no es válido o la tabla de
+     *         zonas no está (cargando, ver isLoading(), o ilegible).
+     */
+    @Nullable
+    public synchronized ShippingQuote quote(String cp, CartSnapshot snapshot, int pages) {
+        int code = parsePostalCode(cp);
+        if (code < 0) return null;
+
+        ShippingQuote cached = lastQuote;
+        if (cached != null
+                && cached.postalCode.equals(cp)
+                && cached.cartVersion == snapshot.getVersion()
+                && cached.pages == pages) {
+            return cached;
+        }
+
+        ShippingZoneTable zones = table;
+        if (zones == null) return null;
+
+        ShippingZone zone = zones.zoneFor(code);
+        int amount = zone != null ? zone.priceFor(snapshot.getTotalQty(), pages) : 0;
+
+        lastQuote = new ShippingQuote(cp, zone, amount, snapshot.getVersion(), pages);
+        return lastQuote;
+    }
+
+    // ------------------------------
+    // Carga de la tabla
+    // ------------------------------
+
+    /** Hilo "shipping-zones": publica la tabla (o nada, si falló). */
+    private void load() {
+        table = loadFromAssets();
+        loading = false;
+    }
+
+    @Nullable
+    private ShippingZoneTable loadFromAssets() {
+        try (InputStream in = assets.open(ASSET_ZONES)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[4096];
+            int n;
+            while ((n = in.read(buf)) != -1) {
+                out.write(buf, 0, n);
+            }
+            ShippingZoneTable t = ShippingZoneTable.parse(
+                    new String(out.toByteArray(), StandardCharsets.UTF_8));
+            Log.d(TAG, "Tabla de zonas cargada (versión " + t.version + ")");
+            return t;
+        } catch (IOException | JSONException e) {
+            Log.e(TAG, "No se pudo cargar la tabla de zonas de envío", e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.lamontana.data.shipping;
+
+/*
+ * ============================================================
+ * Archivo: ShippingZone.java
+ * Paquete: com.example.lamontana.data.shipping
+ * ------------------------------------------------------------
+ * Tarifa de una zona de envío (valores en pesos):
+ *   - base: costo fijo del envío a la zona.
+ *   - unidadesIncluidas / porUnidad: recargo por cada unidad del
+ *     carrito por encima de las incluidas (peso del paquete).
+ *   - porCienCarillas: recargo por cada bloque (o fracción) de
+ *     100 carillas del trabajo de impresión.
+ * ============================================================
+ */
+public final class ShippingZone {
+
+    public final int id;
+    public final String nombre;
+    public final int base;
+    public final int unidadesIncluidas;
+    public final int porUnidad;
+    public final int porCienCarillas;
+
+    public ShippingZone(int id,
+                        String nombre,
+                        int base,
+                        int unidadesIncluidas,
+                        int porUnidad,
+                        int porCienCarillas) {
+        this.id = id;
+        this.nombre = nombre;
+        this.base = base;
+        this.unidadesIncluidas = unidadesIncluidas;
+        this.porUnidad = porUnidad;
+        this.porCienCarillas = porCienCarillas;
+    }
+
+    /**
+     * Costo de envío para un pedido con units unidades de producto y
+     * pages carillas impresas.
+     */
+    public int priceFor(int units, int pages) {
+        int extraUnits = Math.max(0, units - unidadesIncluidas);
+        int pageBlocks = (Math.max(0, pages) + 99) / 100;
+        return base + extraUnits * porUnidad + pageBlocks * porCienCarillas;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.lamontana.data.shipping;
+
+import androidx.annotation.Nullable;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/*
+ * ============================================================
+ * Archivo: ShippingZoneTable.java
+ * Paquete: com.example.lamontana.data.shipping
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Tabla de zonas de envío por código postal (4 dígitos).
+ *   - Se compila UNA vez, a partir del JSON de zonas/rangos, en:
+ *       · byte[10000] zoneByCp: índice de zona para CADA código
+ *         0000..9999 (0 = sin cobertura).
+ *       · ShippingZone[] zones: tarifas, indexadas por id de zona.
+ *   - zoneFor(cp) es un acceso directo a los dos arrays: tiempo
+ *     constante, sin búsquedas ni parsing en cada cotización.
+ *
+ * Formato del JSON (assets/shipping_zones.json):
+ *   {
+ *     "version": n,
+ *     "zonas":  [ { id, nombre, base, unidadesIncluidas,
+ *                   porUnidad, porCienCarillas }, ... ],
+ *     "rangos": [ [desde, hasta, idZona], ... ]   (inclusive)
+ *   }
+ *   - Si dos rangos se superponen, gana el último.
+ *   - Los ids de zona van de 1 a 127.
+ * ============================================================
+ */
+public final class ShippingZoneTable {
+
+    /** Cantidad de códigos postales posibles (0000..9999). */
+    public static final int CP_COUNT = 10_000;
+
+    private final byte[] zoneByCp;
+    private final ShippingZone[] zones;
+    public final int version;
+
+    private ShippingZoneTable(byte[] zoneByCp, ShippingZone[] zones, int version) {
+        this.zoneByCp = zoneByCp;
+        this.zones = zones;
+        this.version = version;
+    }
+
+    /**
+     * Compila la tabla a partir del JSON.
+     *
+     * @throws JSONException si el formato es inválido.
+     */
+    public static ShippingZoneTable parse(String json) throws JSONException {
+        JSONObject root = new JSONObject(json);
+
+        JSONArray zonas = root.getJSONArray("zonas");
+        int maxId = 0;
+        for (int i = 0; i < zonas.length(); i++) {
+            maxId = Math.max(maxId, zonas.getJSONObject(i).getInt("id"));
+        }
+        if (maxId > Byte.MAX_VALUE) {
+            throw new JSONException("Id de zona fuera de rango: " + maxId);
+        }
+
+        ShippingZone[] zones = new ShippingZone[maxId + 1];
+        for (int i = 0; i < zonas.length(); i++) {
+            JSONObject z = zonas.getJSONObject(i);
+            int id = z.getInt("id");
+            if (id <= 0) {
+                throw new JSONException("Id de zona inválido: " + id);
+            }
+            zones[id] = new ShippingZone(
+                    id,
+                    z.getString("nombre"),
+                    z.optInt("base", 0),
+                    z.optInt("unidadesIncluidas", 0),
+                    z.optInt("porUnidad", 0),
+                    z.optInt("porCienCarillas", 0)
+            );
+        }
+
+        byte[] zoneByCp = new byte[CP_COUNT];
+        JSONArray rangos = root.getJSONArray("rangos");
+        for (int i = 0; i < rangos.length(); i++) {
+            JSONArray r = rangos.getJSONArray(i);
+            int from = Math.max(0, r.getInt(0));
+            int to = Math.min(CP_COUNT - 1, r.getInt(1));
+            int zone = r.getInt(2);
+            if (zone <= 0 || zone >= zones.length || zones[zone] == null) {
+                throw new JSONException("Rango con zona desconocida: " + zone);
+            }
+            for (int cp = from; cp <= to; cp++) {
+                zoneByCp[cp] = (byte) zone;
+            }
+        }
+
+        return new ShippingZoneTable(zoneByCp, zones, root.optInt("version", 0));
+    }
+
+    /**
+     * Zona del código postal, o null si no hay cobertura o el código
+     * está fuera de 0000..9999.
+     */
+    @Nullable
+    public ShippingZone zoneFor(int cp) {
+        if (cp < 0 || cp >= CP_COUNT) return null;
+        int id = zoneByCp[cp];
+        return id == 0 ? null : zones[id];
+    }
+}
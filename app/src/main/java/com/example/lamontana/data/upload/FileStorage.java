@@ -0,0 +1,85 @@
+package com.example.lamontana.data.upload;
+
+import android.net.Uri;
+
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * ============================================================
+ * Archivo: FileStorage.java
+ * Paquete: com.example.lamontana.data.upload
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Contrato del almacenamiento donde ResumableUploader deja los
+ *     archivos de impresión, pensado como una subida REANUDABLE:
+ *       · upload() sube el archivo completo. Apenas el backend abre
+ *         la sesión, la informa (SessionListener) para guardarla.
+ *       · Con la sesión de un intento anterior, upload() retoma
+ *         desde los bytes que el backend ya confirmó. Si el backend
+ *         ya no la reconoce (venció, se invalidó), lanza
+ *         SessionExpiredException: solo entonces se descarta.
+ *   - exists() confirma que un archivo subido antes sigue estando
+ *     (el backend puede borrarlo o vencerlo).
+ *
+ * Implementaciones:
+ *   - FirebaseFileStorage: Firebase Storage (SDK firebase-storage).
+ *
+ * Notas:
+ *   - upload() es BLOQUEANTE (hilo de subida). La lectura del
+ *     archivo y el partido en chunks los hace la implementación.
+ *   - El id de sesión es texto: ResumableUploader lo persiste para
+ *     retomar aunque el proceso muera.
+ * ============================================================
+ */
+public interface FileStorage {
+
+    /** Sesión abierta por el backend (se informa una vez por upload). */
+    interface SessionListener {
+        void onSession(String sessionId);
+    }
+
+    /** Avance en bytes (total = -1 si no se conoce). */
+    interface ProgressListener {
+        void onProgress(long sent, long total);
+    }
+
+    /**
+     * La sesión a retomar ya no existe en el backend. A diferencia de
+     * un IOException común (corte de red), no tiene sentido volver a
+     * intentar con ella.
+     */
+    class SessionExpiredException extends IOException {
+        public SessionExpiredException(String message, @Nullable Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    /**
+     * Sube uri a "path".
+     *
+     * @param resumeSession sesión de un intento anterior (null: nueva).
+     * @throws SessionExpiredException                     si resumeSession ya no
+     *                                                     es válida.
+     * @throws IOException                                 si falla (la sesión
+     *                                                     informada puede seguir
+     *                                                     sirviendo para retomar).
+     * @throws java.util.concurrent.CancellationException  si cancelled se activa.
+     */
+    void upload(Uri uri,
+                String path,
+                String contentType,
+                @Nullable String resumeSession,
+                AtomicBoolean cancelled,
+                SessionListener sessionListener,
+                ProgressListener progress) throws IOException;
+
+    /**
+     * true si "path" existe en el backend. BLOQUEANTE.
+     *
+     * @throws IOException si no se pudo consultar (ej. sin red).
+     */
+    boolean exists(String path) throws IOException;
+}
@@ -0,0 +1,155 @@
+package com.example.lamontana.data.upload;
+
+import android.net.Uri;
+
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.storage.FirebaseStorage;
+import com.google.firebase.storage.StorageException;
+import com.google.firebase.storage.StorageMetadata;
+import com.google.firebase.storage.StorageReference;
+import com.google.firebase.storage.UploadTask;
+
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * ============================================================
+ * Archivo: FirebaseFileStorage.java
+ * Paquete: com.example.lamontana.data.upload
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - FileStorage de producción: Firebase Storage del proyecto
+ *     (bucket de google-services.json) con el SDK firebase-storage.
+ *       · putFile(uri, metadata): sesión nueva. El SDK lee el
+ *         archivo por chunks y reintenta los cortes cortos.
+ *       · getUploadSessionUri(): se informa apenas existe, para
+ *         retomar aunque el proceso muera.
+ *       · putFile(uri, metadata, sessionUri): retoma desde lo que
+ *         el servidor ya confirmó. Si el servidor responde 404/410
+ *         a esa sesión, venció: SessionExpiredException.
+ *   - exists(): getMetadata() del objeto (ERROR_OBJECT_NOT_FOUND =
+ *     no está).
+ *   - Autenticación y reglas de seguridad: las del SDK (usuario de
+ *     FirebaseAuth).
+ *
+ * Notas:
+ *   - Cancelar PAUSA la tarea (no la cancela): la sesión sigue
+ *     válida en el servidor y se retoma con su URI.
+ * ============================================================
+ */
+public final class FirebaseFileStorage implements FileStorage {
+
+    /** Respuestas del servidor a una sesión de subida que ya no existe. */
+    private static final int HTTP_NOT_FOUND = 404;
+    private static final int HTTP_GONE = 410;
+
+    /** Tope de espera de getMetadata() en exists(). */
+    private static final long METADATA_TIMEOUT_S = 30;
+
+    /** Cada cuánto se revisa la bandera de cancelación. */
+    private static final long POLL_MS = 250;
+
+    /** Los listeners corren en el hilo del SDK (solo guardan/avisan). */
+    private static final Executor DIRECT = Runnable::run;
+
+    private final FirebaseStorage storage;
+
+    public FirebaseFileStorage() {
+        String configured = FirebaseApp.getInstance().getOptions().getStorageBucket();
+        if (configured == null || configured.isEmpty()) {
+            throw new IllegalStateException("El proyecto de Firebase no tiene bucket de Storage");
+        }
+        this.storage = FirebaseStorage.getInstance();
+    }
+
+    @Override
+    public void upload(Uri uri,
+                       String path,
+                       String contentType,
+                       @Nullable String resumeSession,
+                       AtomicBoolean cancelled,
+                       SessionListener sessionListener,
+                       ProgressListener progress) throws IOException {
+        StorageReference ref = storage.getReference().child(path);
+        StorageMetadata metadata = new StorageMetadata.Builder()
+                .setContentType(contentType)
+                .build();
+
+        final UploadTask task = resumeSession != null
+                ? ref.putFile(uri, metadata, Uri.parse(resumeSession))
+                : ref.putFile(uri, metadata);
+
+        final AtomicBoolean sessionReported = new AtomicBoolean(resumeSession != null);
+        task.addOnProgressListener(DIRECT, snapshot -> {
+            Uri session = snapshot.getUploadSessionUri();
+            if (session != null && sessionReported.compareAndSet(false, true)) {
+                sessionListener.onSession(session.toString());
+            }
+            progress.onProgress(snapshot.getBytesTransferred(), snapshot.getTotalByteCount());
+        });
+
+        try {
+            while (true) {
+                if (cancelled.get() || Thread.currentThread().isInterrupted()) {
+                    task.pause();
+                    throw new CancellationException();
+                }
+                try {
+                    Tasks.await(task, POLL_MS, TimeUnit.MILLISECONDS);
+                    return;
+                } catch (TimeoutException e) {
+                    // Sigue subiendo: se vuelve a mirar la cancelación
+                }
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof StorageException
+                    && ((StorageException) cause).getErrorCode() == StorageException.ERROR_CANCELED) {
+                throw new CancellationException();
+            }
+            if (resumeSession != null && isSessionGone(cause)) {
+                throw new SessionExpiredException("Sesión vencida subiendo " + path, cause);
+            }
+            throw new IOException("No se pudo subir " + path, cause);
+        } catch (InterruptedException e) {
+            task.pause();
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        }
+    }
+
+    @Override
+    public boolean exists(String path) throws IOException {
+        try {
+            Tasks.await(storage.getReference().child(path).getMetadata(),
+                    METADATA_TIMEOUT_S, TimeUnit.SECONDS);
+            return true;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof StorageException
+                    && ((StorageException) cause).getErrorCode() == StorageException.ERROR_OBJECT_NOT_FOUND) {
+                return false;
+            }
+            throw new IOException("No se pudo consultar " + path, cause);
+        } catch (TimeoutException e) {
+            throw new IOException("Sin respuesta consultando " + path, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        }
+    }
+
+    private static boolean isSessionGone(@Nullable Throwable cause) {
+        if (!(cause instanceof StorageException)) return false;
+        int http = ((StorageException) cause).getHttpResultCode();
+        return http == HTTP_NOT_FOUND || http == HTTP_GONE;
+    }
+}
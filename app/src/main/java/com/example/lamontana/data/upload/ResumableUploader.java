@@ -0,0 +1,143 @@
+package com.example.lamontana.data.upload;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.net.Uri;
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * ============================================================
+ * Archivo: ResumableUploader.java
+ * Paquete: com.example.lamontana.data.upload
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Sube el archivo de un pedido a un FileStorage (el SDK lo lee
+ *     por chunks: la memoria no depende del tamaño del PDF).
+ *   - Reanudable: el id de la sesión se guarda en SharedPreferences
+ *     por path apenas el backend lo da. Tras un corte de red (o si
+ *     el proceso muere), la próxima subida del mismo path sigue
+ *     desde lo que el backend ya confirmó.
+ *   - Reintenta con backoff exponencial (+ jitter), como WriteOutbox.
+ *     Un corte de red NO descarta la sesión: el próximo intento (o
+ *     la próxima subida, aunque sea tras reiniciar) sigue desde el
+ *     último chunk confirmado. Solo si el backend dice que la sesión
+ *     ya no existe (SessionExpiredException) se descarta y se abre
+ *     otra, sin esperar.
+ *
+ * ¿Qué métodos expone?
+ *   - void upload(Uri, path, contentType, cancelled, ProgressListener)
+ *
+ * Notas:
+ *   - Es BLOQUEANTE: corre en el hilo de subida de PrintJobViewModel.
+ *   - Un path ya subido no se vuelve a subir (los paths llevan el
+ *     hash del contenido, ver PrintJobViewModel), siempre que siga
+ *     en el backend (FileStorage.exists): si se borró o venció, la
+ *     marca local se descarta y se sube de nuevo.
+ * ============================================================
+ */
+public final class ResumableUploader {
+
+    private static final String TAG = "ResumableUploader";
+
+    private static final String PREFS_NAME = "upload_sessions";
+    private static final String KEY_SESSION = "session:";
+    private static final String KEY_DONE = "done:";
+
+    /** El SDK ya reintenta cortes breves: estos intentos son para cortes largos. */
+    private static final int MAX_ATTEMPTS = 4;
+    private static final long BASE_BACKOFF_MS = 2_000;
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    private final SharedPreferences prefs;
+    private final FileStorage storage;
+    private final long baseBackoffMs;
+    private final Random random = new Random();
+
+    public ResumableUploader(Context context, FileStorage storage) {
+        this(context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE),
+                storage, BASE_BACKOFF_MS);
+    }
+
+    /** Con preferencias y backoff dados (tests). */
+    ResumableUploader(SharedPreferences prefs, FileStorage storage, long baseBackoffMs) {
+        this.prefs = prefs;
+        this.storage = storage;
+        this.baseBackoffMs = baseBackoffMs;
+    }
+
+    /**
+     * Sube (o termina de subir) el archivo a "path".
+     *
+     * @throws IOException           si falla después de MAX_ATTEMPTS.
+     * @throws CancellationException si se canceló (la sesión queda
+     *                               guardada para retomarla).
+     */
+    public synchronized void upload(Uri uri,
+                                    String path,
+                                    String contentType,
+                                    AtomicBoolean cancelled,
+                                    FileStorage.ProgressListener progress) throws IOException {
+        int attempt = 0;
+        while (true) {
+            checkCancelled(cancelled);
+            String session = prefs.getString(KEY_SESSION + path, null);
+            try {
+                if (prefs.getBoolean(KEY_DONE + path, false)) {
+                    if (storage.exists(path)) {
+                        progress.onProgress(1, 1);
+                        return;
+                    }
+                    // Ya no está en el backend: la marca local quedó vieja
+                    prefs.edit().remove(KEY_DONE + path).apply();
+                }
+                storage.upload(uri, path, contentType, session, cancelled,
+                        // commit(): la sesión tiene que sobrevivir a un kill del proceso
+                        id -> prefs.edit().putString(KEY_SESSION + path, id).commit(),
+                        progress);
+
+                prefs.edit()
+                        .remove(KEY_SESSION + path)
+                        .putBoolean(KEY_DONE + path, true)
+                        .apply();
+                return;
+            } catch (FileStorage.SessionExpiredException e) {
+                // El backend ya no la conoce: el próximo intento abre otra
+                prefs.edit().remove(KEY_SESSION + path).commit();
+                if (++attempt >= MAX_ATTEMPTS) throw e;
+                Log.w(TAG, "Sesión vencida subiendo " + path + ", se empieza de nuevo", e);
+            } catch (IOException e) {
+                // Corte de red: la sesión se conserva para retomar
+                if (++attempt >= MAX_ATTEMPTS) throw e;
+                Log.w(TAG, "Corte subiendo " + path + " (intento " + attempt + "), se retoma", e);
+                sleepBackoff(attempt, cancelled);
+            }
+        }
+    }
+
+    // ------------------------------
+    // Internos
+    // ------------------------------
+
+    private void sleepBackoff(int attempt, AtomicBoolean cancelled) {
+        long delay = Math.min(MAX_BACKOFF_MS, baseBackoffMs << (attempt - 1));
+        delay += random.nextInt((int) (delay / 2) + 1);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        }
+        checkCancelled(cancelled);
+    }
+
+    private static void checkCancelled(AtomicBoolean cancelled) {
+        if (cancelled.get() || Thread.currentThread().isInterrupted()) {
+            throw new CancellationException();
+        }
+    }
+}
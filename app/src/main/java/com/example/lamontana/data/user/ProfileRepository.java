@@ -0,0 +1,166 @@
+package com.example.lamontana.data.user;
+
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.example.lamontana.model.UserProfile;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+
+/*
+ * ============================================================
+ * Archivo: ProfileRepository.java
+ * Paquete: com.example.lamontana.data.user
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Cache reactiva y compartida del perfil del usuario logueado
+ *     (documento usuarios/{uid}).
+ *   - Mantiene UN solo snapshot listener por usuario: se engancha
+ *     al iniciar sesión y se suelta al cerrarla (AuthStateListener).
+ *     Checkout y Mis datos leen el mismo UserProfile inmutable en
+ *     memoria, sin lecturas de red al abrir la pantalla ni al marcar
+ *     "usar mi dirección guardada".
+ *   - Cada snapshot también completa UserStore (todos los campos),
+ *     para el código que todavía lee de ahí.
+ *
+ * ¿Qué métodos expone?
+ *   - static void init(): una sola vez, desde LaMontanaApp.
+ *   - static ProfileRepository getInstance()
+ *   - LiveData<UserProfile> getProfile(): perfil vigente.
+ *   - UserProfile getCurrent(): lectura inmediata (nunca null).
+ *   - void applyLocalEdit(nombre, apellido, telefono, direccion):
+ *       refleja al instante un guardado local (la escritura real
+ *       viaja por WriteOutbox y puede tardar si no hay red).
+ *
+ * Notas:
+ *   - Se usa desde el main thread (los callbacks de Firestore y de
+ *     Auth llegan ahí).
+ * ============================================================
+ */
+public class ProfileRepository {
+
+    private static final String TAG = "ProfileRepository";
+    private static final String COLLECTION_USUARIOS = "usuarios";
+
+    // Singleton
+    private static ProfileRepository instance;
+
+    private final FirebaseFirestore firestore;
+    private final MutableLiveData<UserProfile> profileLiveData =
+            new MutableLiveData<>(UserProfile.empty());
+
+    @Nullable private String uid;
+    @Nullable private ListenerRegistration registration;
+
+    private ProfileRepository() {
+        firestore = FirebaseFirestore.getInstance();
+    }
+
+    /**
+     * Crea el repositorio y lo engancha a FirebaseAuth. Idempotente.
+     */
+    public static synchronized void init() {
+        if (instance != null) return;
+
+        instance = new ProfileRepository();
+        FirebaseAuth.getInstance().addAuthStateListener(auth ->
+                instance.switchUser(auth.getCurrentUser()));
+    }
+
+    public static ProfileRepository getInstance() {
+        if (instance == null) {
+            throw new IllegalStateException("ProfileRepository.init() no fue llamado (LaMontanaApp)");
+        }
+        return instance;
+    }
+
+    public LiveData<UserProfile> getProfile() {
+        return profileLiveData;
+    }
+
+    /** Perfil vigente (UserProfile.empty() si no hay sesión). */
+    public UserProfile getCurrent() {
+        UserProfile p = profileLiveData.getValue();
+        return p != null ? p : UserProfile.empty();
+    }
+
+    /**
+     * Publica de inmediato los campos recién guardados por el usuario.
+     */
+    public void applyLocalEdit(String nombre, String apellido, String telefono, String direccion) {
+        UserProfile current = getCurrent();
+        if (current.isEmpty()) return;
+        publish(current.withEditableFields(nombre, apellido, telefono, direccion));
+    }
+
+    // ------------------------------
+    // Listener por usuario
+    // ------------------------------
+
+    private void switchUser(@Nullable FirebaseUser user) {
+        String newUid = user != null ? user.getUid() : null;
+        if (newUid != null && newUid.equals(uid)) return;
+
+        if (registration != null) {
+            registration.remove();
+            registration = null;
+        }
+        uid = newUid;
+
+        if (user == null) {
+            profileLiveData.setValue(UserProfile.empty());
+            return;
+        }
+
+        // Mientras llega el primer snapshot: lo que ya sabe Auth.
+        final String authEmail = user.getEmail();
+        publish(new UserProfile(newUid, "", "", authEmail, "", ""));
+
+        registration = firestore.collection(COLLECTION_USUARIOS)
+                .document(newUid)
+                .addSnapshotListener((doc, error) -> {
+                    if (error != null) {
+                        Log.w(TAG, "Sin acceso al perfil, se usa la copia en memoria", error);
+                        return;
+                    }
+                    if (doc != null && doc.exists()) {
+                        publish(fromDocument(newUid, authEmail, doc));
+                    }
+                });
+    }
+
+    private void publish(UserProfile profile) {
+        // Compatibilidad: UserStore queda completo (siempre, por si alguien
+        // lo pisó parcialmente, ej. el login con nombre vacío).
+        UserStore store = UserStore.get();
+        store.setBasicData(profile.uid, profile.nombre, profile.email);
+        store.setOptionalData(profile.apellido, profile.telefono, profile.direccion);
+
+        UserProfile current = profileLiveData.getValue();
+        if (current != null && current.uid.equals(profile.uid) && current.sameFieldsAs(profile)) {
+            return; // sin cambios visibles
+        }
+        profileLiveData.setValue(profile);
+    }
+
+    private static UserProfile fromDocument(String uid,
+                                            @Nullable String authEmail,
+                                            DocumentSnapshot doc) {
+        String email = doc.getString("email");
+        if (email == null || email.isEmpty()) email = authEmail;
+        return new UserProfile(
+                uid,
+                doc.getString("nombre"),
+                doc.getString("apellido"),
+                email,
+                doc.getString("telefono"),
+                doc.getString("direccion")
+        );
+    }
+}
@@ -1,10 +1,6 @@
 package com.example.lamontana.data.user;
 
-import com.google.android.gms.tasks.Task;
-import com.google.firebase.firestore.CollectionReference;
-import com.google.firebase.firestore.FieldValue;
-import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.SetOptions;
+import com.example.lamontana.data.outbox.WriteOutbox;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -38,7 +34,7 @@ import java.util.Map;
 // Alcance:
 //   - Usado principalmente por SignupViewModel (tras un registro exitoso en
 //     Firebase Auth) para guardar el perfil básico del usuario en Firestore.
-//   - Usado por pantallas como ProfileActivity para actualizar datos de perfil
+//   - Usado por pantallas como ProfileFragment para actualizar datos de perfil
 //     mediante updateUserProfile(...) sin preocuparse por campos de auditoría.
 //
 // Métodos presentes:
@@ -51,11 +47,17 @@ import java.util.Map;
 //                       String telefono, String direccion):
 //       Actualiza sólo los campos de perfil indicados y refresca actualizadoEn.
 //       No pisa creadoEn ni passwordHash.
+//   - updatePasswordHash(String uid):
+//       Tras un cambio de contraseña en Auth: deja passwordHash vacío (como
+//       en el alta) y refresca actualizadoEn.
 //
 // Notas:
-//   - Firestore se obtiene vía FirebaseFirestore.getInstance(),
-//   - Se usa SetOptions.merge() para no pisar campos existentes si el documento
-//     ya existía.
+//   - Las escrituras NO van directo a Firestore: se encolan en WriteOutbox
+//     (bandeja durable con reintentos), que las sube como set(merge) aunque
+//     en ese momento no haya red. Por eso los métodos no devuelven Task:
+//     al volver, el cambio está ENCOLADO (no subido). El estado pendiente o
+//     fallido se ve en WriteOutbox.getPendingCount() / getFailedCount().
+//   - Varias escrituras seguidas al mismo usuarios/{uid} se fusionan en una.
 // -----------------------------------------------------------------------------
 public class UserRepository {
 
@@ -64,13 +66,7 @@ public class UserRepository {
     // Singleton
     private static UserRepository instance;
 
-    // Referencias a Firestore
-    private final FirebaseFirestore firestore;
-    private final CollectionReference usuariosRef;
-
     private UserRepository() {
-        firestore = FirebaseFirestore.getInstance();
-        usuariosRef = firestore.collection(COLLECTION_USUARIOS);
     }
 
     public static synchronized UserRepository getInstance() {
@@ -93,15 +89,14 @@ public class UserRepository {
      *   - telefono:      string vacío por defecto
      *   - direccion:     string vacío por defecto
      *   - passwordHash:  string vacío (la autenticación real la maneja Auth)
-     *   - creadoEn:      FieldValue.serverTimestamp() (solo la primera vez)
+     *   - creadoEn:      FieldValue.serverTimestamp()
      *   - actualizadoEn: FieldValue.serverTimestamp()
      *
      * @param uid    UID del usuario (FirebaseAuth.getCurrentUser().getUid()).
      * @param nombre Nombre completo del usuario.
      * @param email  Email del usuario.
-     * @return Task<Void> para poder escuchar éxito/fracaso desde el ViewModel.
      */
-    public Task<Void> createUserProfile(String uid, String nombre, String email) {
+    public void createUserProfile(String uid, String nombre, String email) {
         if (uid == null || uid.trim().isEmpty()) {
             throw new IllegalArgumentException("El uid del usuario no puede ser nulo ni vacío");
         }
@@ -121,12 +116,9 @@ public class UserRepository {
 
         data.put("passwordHash", "");
 
-        // Campos de auditoría: timestamps de servidor
-        data.put("creadoEn", FieldValue.serverTimestamp());
-        data.put("actualizadoEn", FieldValue.serverTimestamp());
-
         // Usamos el uid como ID de documento para vincular 1:1 Auth ↔ Firestore.
-        return usuariosRef.document(uid).set(data, SetOptions.merge());
+        // Campos de auditoría: timestamps de servidor (los pone la bandeja al subir).
+        WriteOutbox.get().enqueueMerge(uid, userPath(uid), data, "creadoEn", "actualizadoEn");
     }
 
     /**
@@ -149,9 +141,8 @@ public class UserRepository {
      * @param apellido  Apellido del usuario (puede ser null para no modificarlo).
      * @param telefono  Teléfono del usuario (puede ser null para no modificarlo).
      * @param direccion Dirección del usuario (puede ser null para no modificarlo).
-     * @return Task<Void> para escuchar éxito o error en la capa superior.
      */
-    public Task<Void> updateUserProfile(
+    public void updateUserProfile(
             String uid,
             String nombre,
             String apellido,
@@ -177,10 +168,30 @@ public class UserRepository {
             data.put("direccion", direccion);
         }
 
+        // Merge: actualiza solo los campos del mapa, preserva el resto del documento.
         // Campo de auditoría: cada actualización refresca actualizadoEn.
-        data.put("actualizadoEn", FieldValue.serverTimestamp());
+        WriteOutbox.get().enqueueMerge(uid, userPath(uid), data, "actualizadoEn");
+    }
 
-        // Merge: actualiza solo los campos del mapa, preserva el resto del documento.
-        return usuariosRef.document(uid).set(data, SetOptions.merge());
+    /**
+     * Actualiza el campo de compatibilidad passwordHash tras un cambio de
+     * contraseña en Firebase Auth. Queda vacío, igual que en
+     * createUserProfile: la contraseña (ni un hash suyo) no sale de Auth.
+     *
+     * @param uid UID del usuario (documento usuarios/{uid}).
+     */
+    public void updatePasswordHash(String uid) {
+        if (uid == null || uid.trim().isEmpty()) {
+            throw new IllegalArgumentException("El uid del usuario no puede ser nulo ni vacío");
+        }
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("passwordHash", "");
+
+        WriteOutbox.get().enqueueMerge(uid, userPath(uid), data, "actualizadoEn");
+    }
+
+    private static String userPath(String uid) {
+        return COLLECTION_USUARIOS + "/" + uid;
     }
 }
@@ -0,0 +1,135 @@
+package com.example.lamontana.model;
+
+import androidx.annotation.Nullable;
+
+import java.util.Collections;
+import java.util.List;
+
+/*
+ * ============================================================
+ * Archivo: CartChange.java
+ * Paquete: com.example.lamontana.model
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Describe UN cambio puntual del carrito publicado por
+ *     CartStore a sus listeners:
+ *       · LINE_ADDED   → se agregó una línea nueva.
+ *       · QTY_CHANGED  → cambió la cantidad de una línea.
+ *       · LINE_REMOVED → se quitó una línea.
+ *       · CLEARED      → se vació el carrito.
+ *       · BATCH        → se aplicó un lote (CartStore.apply).
+ *   - Lleva solo lo que cambió (línea + posición) y los totales
+ *     nuevos, para que badge y totales se actualicen sin volver
+ *     a leer todo el carrito.
+ *
+ * ¿Qué clase contiene?
+ *   - CartChange: clase pública inmutable con enum Type anidado.
+ *
+ * Notas:
+ *   - item es la línea DESPUÉS del cambio (en LINE_REMOVED es la
+ *     línea quitada; en CLEARED es null).
+ *   - position es el índice de la línea en el snapshot anterior
+ *     (LINE_REMOVED) o nuevo (resto); -1 en CLEARED y BATCH.
+ *   - En BATCH, item es null y el detalle viene en:
+ *       · clearedFirst → el lote vació el carrito antes del resto.
+ *       · upserts      → líneas nuevas o con cantidad distinta.
+ *       · removals     → productos cuyas líneas se quitaron.
+ * ============================================================
+ */
+public final class CartChange {
+
+    public enum Type {
+        LINE_ADDED,
+        QTY_CHANGED,
+        LINE_REMOVED,
+        CLEARED,
+        BATCH
+    }
+
+    /** Tipo de cambio. */
+    public final Type type;
+
+    /** Posición de la línea afectada (-1 si no aplica). */
+    public final int position;
+
+    /** Línea afectada (null en CLEARED). */
+    @Nullable
+    public final CartItem item;
+
+    /** Total en pesos luego del cambio. */
+    public final int totalAmount;
+
+    /** Cantidad de unidades luego del cambio. */
+    public final int totalQty;
+
+    /** Versión del carrito luego del cambio. */
+    public final long version;
+
+    /** BATCH: true si el lote vació el carrito antes de aplicar el resto. */
+    public final boolean clearedFirst;
+
+    /** BATCH: líneas agregadas o con cantidad nueva (vacía en el resto). */
+    public final List<CartItem> upserts;
+
+    /** BATCH: productos cuyas líneas se quitaron (vacía en el resto). */
+    public final List<Product> removals;
+
+    public CartChange(Type type,
+                      int position,
+                      @Nullable CartItem item,
+                      int totalAmount,
+                      int totalQty,
+                      long version) {
+        this(type, position, item, totalAmount, totalQty, version,
+                false, Collections.emptyList(), Collections.emptyList());
+    }
+
+    private CartChange(Type type,
+                       int position,
+                       @Nullable CartItem item,
+                       int totalAmount,
+                       int totalQty,
+                       long version,
+                       boolean clearedFirst,
+                       List<CartItem> upserts,
+                       List<Product> removals) {
+        if (type == null) {
+            throw new IllegalArgumentException("El tipo de cambio no puede ser null");
+        }
+        this.type = type;
+        this.position = position;
+        this.item = item;
+        this.totalAmount = totalAmount;
+        this.totalQty = totalQty;
+        this.version = version;
+        this.clearedFirst = clearedFirst;
+        this.upserts = upserts;
+        this.removals = removals;
+    }
+
+    /**
+     * Crea el evento único de un lote aplicado con CartStore.apply().
+     */
+    public static CartChange batch(boolean clearedFirst,
+                                   List<CartItem> upserts,
+                                   List<Product> removals,
+                                   int totalAmount,
+                                   int totalQty,
+                                   long version) {
+        return new CartChange(Type.BATCH, -1, null, totalAmount, totalQty, version,
+                clearedFirst,
+                Collections.unmodifiableList(upserts),
+                Collections.unmodifiableList(removals));
+    }
+
+    @Override
+    public String toString() {
+        return "CartChange{" + type +
+                ", pos=" + position +
+                ", item=" + item +
+                ", qty=" + totalQty +
+                ", total=" + totalAmount +
+                ", v=" + version +
+                "}";
+    }
+}
@@ -15,21 +15,27 @@ package com.example.lamontana.model;
  * ¿Qué atributos tiene?
  *   - Product product → referencia al producto asociado.
  *   - int qty → cantidad de unidades del producto en el carrito.
+ *   - int subtotal → qty * product.price, precalculado al construir.
  *
  * ¿Qué métodos expone?
  *   - Constructor CartItem(Product product, int qty)
  *     Crea un ítem de carrito con validaciones básicas.
+ *   - CartItem withQty(int qty)
+ *     Devuelve una nueva línea con otra cantidad (la actual no cambia).
  *
  * ¿Qué función cumple en las vistas?
  *   - En la vista Catálogo (MainActivity):
  *       * Se crea indirectamente al agregar productos al carrito
  *         mediante CartStore.add() o inc().
- *   - En la vista Carrito (CartActivity):
+ *   - En la vista Carrito (CartFragment):
  *       * Se muestra cada CartItem como una fila del listado dinámico.
- *       * Los botones +, -, o Subir PDF modifican su qty.
+ *       * Los botones +, -, o Subir PDF generan nuevas líneas
+ *         a través de CartStore (nunca se modifica una existente).
  *
  * Notas:
  *   - La validación en el constructor previene estados inválidos.
+ *   - Es inmutable: se comparte entre snapshots del carrito y entre
+ *     hilos sin copias ni locks.
  * ============================================================
  */
 
@@ -39,7 +45,10 @@ public class CartItem {
     public final Product product;
 
     /** Cantidad de unidades del producto (mínimo 1). */
-    public int qty;
+    public final int qty;
+
+    /** Subtotal de la línea (qty * product.price). */
+    public final int subtotal;
 
     /**
      * Crea un nuevo ítem del carrito.
@@ -54,6 +63,16 @@ public class CartItem {
         }
         this.product = product;
         this.qty = (qty < 1) ? 1 : qty;
+        this.subtotal = this.qty * product.price;
+    }
+
+    /**
+     * Devuelve una nueva línea con el mismo producto y otra cantidad.
+     *
+     * @param newQty nueva cantidad (se normaliza igual que en el constructor)
+     */
+    public CartItem withQty(int newQty) {
+        return new CartItem(product, newQty);
     }
 
     /**
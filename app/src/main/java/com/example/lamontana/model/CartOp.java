@@ -0,0 +1,95 @@
+package com.example.lamontana.model;
+
+import androidx.annotation.Nullable;
+
+/*
+ * ============================================================
+ * Archivo: CartOp.java
+ * Paquete: com.example.lamontana.model
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Describe UNA operación sobre el carrito para aplicarla en
+ *     lote con CartStore.apply(List<CartOp>):
+ *       · ADD / INC → suma 1 unidad (crea la línea si no existe).
+ *       · DEC       → resta 1 unidad (quita la línea si llega a 0).
+ *       · SET_QTY   → fija la cantidad (0 quita la línea).
+ *       · REMOVE    → quita la línea.
+ *       · UPDATE_PRODUCT → reemplaza los datos del producto (ej.
+ *                      precio revalidado) conservando la cantidad;
+ *                      si la línea no existe, no hace nada.
+ *       · CLEAR     → vacía el carrito.
+ *
+ * ¿Qué métodos expone?
+ *   - Fábricas estáticas: add(p), inc(p), dec(p), setQty(p, qty),
+ *     remove(p), updateProduct(p), clear().
+ *
+ * ¿Cuándo se usa?
+ *   - Flujos que aplican muchos cambios juntos ("repetir pedido",
+ *     importar una lista de trabajos, vaciar y volver a cargar):
+ *     el lote se valida y aplica de una sola vez, con un único
+ *     recálculo de totales y una única notificación.
+ * ============================================================
+ */
+public final class CartOp {
+
+    public enum Type {
+        ADD,
+        INC,
+        DEC,
+        SET_QTY,
+        REMOVE,
+        UPDATE_PRODUCT,
+        CLEAR
+    }
+
+    public final Type type;
+
+    /** Producto afectado (null solo en CLEAR). */
+    @Nullable
+    public final Product product;
+
+    /** Cantidad para SET_QTY (ignorada en el resto). */
+    public final int qty;
+
+    private CartOp(Type type, @Nullable Product product, int qty) {
+        this.type = type;
+        this.product = product;
+        this.qty = qty;
+    }
+
+    public static CartOp add(Product p) {
+        return new CartOp(Type.ADD, p, 0);
+    }
+
+    public static CartOp inc(Product p) {
+        return new CartOp(Type.INC, p, 0);
+    }
+
+    public static CartOp dec(Product p) {
+        return new CartOp(Type.DEC, p, 0);
+    }
+
+    public static CartOp setQty(Product p, int qty) {
+        return new CartOp(Type.SET_QTY, p, qty);
+    }
+
+    public static CartOp remove(Product p) {
+        return new CartOp(Type.REMOVE, p, 0);
+    }
+
+    public static CartOp updateProduct(Product p) {
+        return new CartOp(Type.UPDATE_PRODUCT, p, 0);
+    }
+
+    public static CartOp clear() {
+        return new CartOp(Type.CLEAR, null, 0);
+    }
+
+    @Override
+    public String toString() {
+        return "CartOp{" + type +
+                (product != null ? ", " + product.name : "") +
+                (type == Type.SET_QTY ? ", qty=" + qty : "") +
+                "}";
+    }
+}
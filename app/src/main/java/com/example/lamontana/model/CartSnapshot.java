@@ -0,0 +1,176 @@
+package com.example.lamontana.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/*
+ * ============================================================
+ * Archivo: CartSnapshot.java
+ * Paquete: com.example.lamontana.model
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Representa el estado COMPLETO del carrito en un instante:
+ *       · Lista de líneas (CartItem inmutables).
+ *       · Total en pesos y cantidad de unidades precalculados.
+ *       · Número de versión (crece en cada mutación).
+ *
+ * ¿Qué clase contiene?
+ *   - CartSnapshot: clase pública inmutable.
+ *
+ * ¿Qué métodos expone?
+ *   - static CartSnapshot empty(): carrito vacío (versión 0).
+ *   - List<CartItem> getItems(): líneas (lista no modificable, sin copia).
+ *   - int getTotalAmount() / int getTotalQty() / long getVersion()
+ *   - int indexOf(String name) / CartItem find(String name)
+ *   - CartSnapshot withItemAt / withItemAdded / withItemRemovedAt:
+ *       devuelven un snapshot NUEVO con el cambio aplicado.
+ *   - CartSnapshot withItems(List<CartItem>): reemplaza todas las
+ *       líneas de una vez (lotes), recalculando totales una sola vez.
+ *
+ * ¿Cómo se relaciona con las vistas?
+ *   - CartStore publica un snapshot nuevo en cada mutación.
+ *   - CartViewModel / CatalogFragment / CheckoutFragment lo leen
+ *     directamente: como nunca cambia, no hace falta copiarlo
+ *     ni tomar locks para leerlo.
+ *
+ * Notas:
+ *   - Las búsquedas se hacen por nombre de producto (p.name),
+ *     igual que en CartStore.
+ * ============================================================
+ */
+public final class CartSnapshot {
+
+    private static final CartSnapshot EMPTY =
+            new CartSnapshot(Collections.emptyList(), 0, 0, 0L);
+
+    private final List<CartItem> items;
+    private final int totalAmount;
+    private final int totalQty;
+    private final long version;
+
+    private CartSnapshot(List<CartItem> items, int totalAmount, int totalQty, long version) {
+        this.items = items;
+        this.totalAmount = totalAmount;
+        this.totalQty = totalQty;
+        this.version = version;
+    }
+
+    /** Carrito vacío inicial. */
+    public static CartSnapshot empty() {
+        return EMPTY;
+    }
+
+    // ------------------------------
+    // Lecturas
+    // ------------------------------
+
+    /** Líneas del carrito (no modificable, se devuelve sin copiar). */
+    public List<CartItem> getItems() {
+        return items;
+    }
+
+    /** Monto total (sumatoria de subtotales). */
+    public int getTotalAmount() {
+        return totalAmount;
+    }
+
+    /** Cantidad total de unidades. */
+    public int getTotalQty() {
+        return totalQty;
+    }
+
+    /** Versión del carrito; cambia en cada mutación publicada. */
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+
+    /** Posición de la línea cuyo producto se llama name, o -1. */
+    public int indexOf(String name) {
+        if (name == null) return -1;
+        for (int i = 0; i < items.size(); i++) {
+            CartItem ci = items.get(i);
+            if (name.equals(ci.product.name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Línea cuyo producto se llama name, o null. */
+    public CartItem find(String name) {
+        int index = indexOf(name);
+        return index >= 0 ? items.get(index) : null;
+    }
+
+    // ------------------------------
+    // Derivación de nuevos snapshots
+    // ------------------------------
+
+    /** Nuevo snapshot reemplazando la línea de la posición index. */
+    public CartSnapshot withItemAt(int index, CartItem item) {
+        List<CartItem> next = new ArrayList<>(items);
+        CartItem previous = next.set(index, item);
+        return new CartSnapshot(
+                Collections.unmodifiableList(next),
+                totalAmount - previous.subtotal + item.subtotal,
+                totalQty - previous.qty + item.qty,
+                version + 1
+        );
+    }
+
+    /** Nuevo snapshot con la línea agregada al final. */
+    public CartSnapshot withItemAdded(CartItem item) {
+        List<CartItem> next = new ArrayList<>(items.size() + 1);
+        next.addAll(items);
+        next.add(item);
+        return new CartSnapshot(
+                Collections.unmodifiableList(next),
+                totalAmount + item.subtotal,
+                totalQty + item.qty,
+                version + 1
+        );
+    }
+
+    /** Nuevo snapshot sin la línea de la posición index. */
+    public CartSnapshot withItemRemovedAt(int index) {
+        List<CartItem> next = new ArrayList<>(items);
+        CartItem removed = next.remove(index);
+        return new CartSnapshot(
+                Collections.unmodifiableList(next),
+                totalAmount - removed.subtotal,
+                totalQty - removed.qty,
+                version + 1
+        );
+    }
+
+    /** Nuevo snapshot con todas las líneas reemplazadas (un único recálculo). */
+    public CartSnapshot withItems(List<CartItem> newItems) {
+        List<CartItem> next = new ArrayList<>(newItems);
+        int amount = 0;
+        int qty = 0;
+        for (CartItem ci : next) {
+            amount += ci.subtotal;
+            qty += ci.qty;
+        }
+        return new CartSnapshot(Collections.unmodifiableList(next), amount, qty, version + 1);
+    }
+
+    /** Nuevo snapshot vacío (conserva la secuencia de versiones). */
+    public CartSnapshot cleared() {
+        return new CartSnapshot(Collections.emptyList(), 0, 0, version + 1);
+    }
+
+    @Override
+    public String toString() {
+        return "CartSnapshot{v=" + version +
+                ", items=" + items.size() +
+                ", qty=" + totalQty +
+                ", total=" + totalAmount +
+                "}";
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.lamontana.model;
+
+/*
+ * ============================================================
+ * Archivo: OrderLine.java
+ * Paquete: com.example.lamontana.model
+ * ------------------------------------------------------------
+ * Línea inmutable de un pedido guardado
+ * (usuarios/{uid}/pedidos/{id}/lineas/{nnn}):
+ *   - tipo: "producto" o "impresion".
+ *   - nombre, cantidad, precio unitario y subtotal en centavos.
+ * ============================================================
+ */
+public final class OrderLine {
+
+    public final String tipo;
+    public final String nombre;
+    public final int cantidad;
+    public final long precioCents;
+    public final long subtotalCents;
+
+    public OrderLine(String tipo, String nombre, int cantidad, long precioCents, long subtotalCents) {
+        this.tipo = tipo != null ? tipo : "producto";
+        this.nombre = nombre != null ? nombre : "";
+        this.cantidad = cantidad;
+        this.precioCents = precioCents;
+        this.subtotalCents = subtotalCents;
+    }
+}
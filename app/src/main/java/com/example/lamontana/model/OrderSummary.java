@@ -0,0 +1,54 @@
+package com.example.lamontana.model;
+
+/*
+ * ============================================================
+ * Archivo: OrderSummary.java
+ * Paquete: com.example.lamontana.model
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Cabecera inmutable de un pedido del historial
+ *     (usuarios/{uid}/pedidos/{id}), sin sus líneas: es lo único
+ *     que se baja al listar. Las líneas (OrderLine) se piden recién
+ *     al expandir el pedido.
+ *   - Importes en centavos (totalCents, costoEnvioCents): se pasan
+ *     a pesos solo al mostrarlos.
+ * ============================================================
+ */
+public final class OrderSummary {
+
+    public final String id;
+    public final long createdAt;
+    public final String estado;
+    public final long totalCents;
+    public final long costoEnvioCents;
+    public final int cantidadUnidades;
+    public final int cantidadLineas;
+
+    public OrderSummary(String id,
+                        long createdAt,
+                        String estado,
+                        long totalCents,
+                        long costoEnvioCents,
+                        int cantidadUnidades,
+                        int cantidadLineas) {
+        this.id = id;
+        this.createdAt = createdAt;
+        this.estado = estado != null ? estado : "";
+        this.totalCents = totalCents;
+        this.costoEnvioCents = costoEnvioCents;
+        this.cantidadUnidades = cantidadUnidades;
+        this.cantidadLineas = cantidadLineas;
+    }
+
+    /** true si los datos visibles coinciden (para DiffUtil). */
+    public boolean sameContentAs(OrderSummary other) {
+        return other != null
+                && id.equals(other.id)
+                && createdAt == other.createdAt
+                && estado.equals(other.estado)
+                && totalCents == other.totalCents
+                && costoEnvioCents == other.costoEnvioCents
+                && cantidadUnidades == other.cantidadUnidades
+                && cantidadLineas == other.cantidadLineas;
+    }
+}
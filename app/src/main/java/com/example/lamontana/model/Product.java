@@ -1,5 +1,7 @@
 package com.example.lamontana.model;
 
+import androidx.annotation.Nullable;
+
 /*
  * ============================================================
  * Archivo: Product.java
@@ -7,7 +9,8 @@ package com.example.lamontana.model;
  * ------------------------------------------------------------
  * Representa un producto disponible en el Catálogo.
  * Ahora incluye soporte para URL remota de imagen (imageUrl)
- * proveniente de Firebase Storage.
+ * proveniente de Firebase Storage y el ID de su documento en
+ * "productos" (id), que usa la revalidación del checkout.
  * ============================================================
  */
 
@@ -35,7 +38,14 @@ public class Product {
     public final String imageUrl;
 
     /**
-     * Constructor completo (7 parámetros).
+     * ID del documento en "productos" (null si se desconoce, ej. líneas
+     * guardadas por versiones anteriores de la app).
+     */
+    @Nullable
+    public final String id;
+
+    /**
+     * Constructor sin ID de documento (7 parámetros).
      */
     public Product(
             String name,
@@ -46,6 +56,22 @@ public class Product {
             boolean copyBased,
             String imageUrl
     ) {
+        this(null, name, desc, price, category, imageRes, copyBased, imageUrl);
+    }
+
+    /**
+     * Constructor completo (8 parámetros).
+     */
+    public Product(
+            @Nullable String id,
+            String name,
+            String desc,
+            int price,
+            Category category,
+            int imageRes,
+            boolean copyBased,
+            String imageUrl
+    ) {
 
         if (name == null || name.trim().isEmpty()) {
             throw new IllegalArgumentException("El nombre del producto no puede ser nulo ni vacío");
@@ -69,6 +95,14 @@ public class Product {
 
         // Nuevo campo
         this.imageUrl = imageUrl;  // puede ser null o una URL completa de Firebase Storage
+        this.id = id;
+    }
+
+    /**
+     * Devuelve el mismo producto con otro precio (el actual no cambia).
+     */
+    public Product withPrice(int newPrice) {
+        return new Product(id, name, desc, newPrice, category, imageRes, copyBased, imageUrl);
     }
 
     @Override
@@ -0,0 +1,81 @@
+package com.example.lamontana.model;
+
+/*
+ * ============================================================
+ * Archivo: UserProfile.java
+ * Paquete: com.example.lamontana.model
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Foto inmutable del perfil del usuario logueado (documento
+ *     usuarios/{uid}): nombre, apellido, email, teléfono y
+ *     dirección.
+ *   - La publica ProfileRepository; Checkout y Mis datos la leen
+ *     sin copiar ni tomar locks.
+ *
+ * Notas:
+ *   - Nunca tiene campos null: los faltantes son "".
+ *   - empty(): perfil vacío (sin sesión o todavía sin datos).
+ * ============================================================
+ */
+public final class UserProfile {
+
+    private static final UserProfile EMPTY = new UserProfile("", "", "", "", "", "");
+
+    public final String uid;
+    public final String nombre;
+    public final String apellido;
+    public final String email;
+    public final String telefono;
+    public final String direccion;
+
+    public UserProfile(String uid,
+                       String nombre,
+                       String apellido,
+                       String email,
+                       String telefono,
+                       String direccion) {
+        this.uid = uid != null ? uid : "";
+        this.nombre = nombre != null ? nombre : "";
+        this.apellido = apellido != null ? apellido : "";
+        this.email = email != null ? email : "";
+        this.telefono = telefono != null ? telefono : "";
+        this.direccion = direccion != null ? direccion : "";
+    }
+
+    public static UserProfile empty() {
+        return EMPTY;
+    }
+
+    /** true si no corresponde a ningún usuario. */
+    public boolean isEmpty() {
+        return uid.isEmpty();
+    }
+
+    /**
+     * Devuelve un perfil NUEVO con los campos editables reemplazados
+     * (los null conservan el valor actual).
+     */
+    public UserProfile withEditableFields(String nombre,
+                                          String apellido,
+                                          String telefono,
+                                          String direccion) {
+        return new UserProfile(
+                uid,
+                nombre != null ? nombre : this.nombre,
+                apellido != null ? apellido : this.apellido,
+                email,
+                telefono != null ? telefono : this.telefono,
+                direccion != null ? direccion : this.direccion
+        );
+    }
+
+    /** true si los campos visibles coinciden (ignora uid). */
+    public boolean sameFieldsAs(UserProfile other) {
+        return other != null
+                && nombre.equals(other.nombre)
+                && apellido.equals(other.apellido)
+                && email.equals(other.email)
+                && telefono.equals(other.telefono)
+                && direccion.equals(other.direccion);
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.lamontana.ui;
+
+import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.lamontana.R;
+import com.example.lamontana.model.Product;
+import com.example.lamontana.ui.cart.CartAdapter;
+import com.example.lamontana.ui.navbar.Destination;
+import com.example.lamontana.ui.navbar.Navigator;
+import com.example.lamontana.ui.rows.RowViewPool;
+import com.example.lamontana.viewmodel.CartState;
+import com.example.lamontana.viewmodel.CartViewModel;
+import com.google.android.material.button.MaterialButton;
+
+/*
+ * ============================================================
+ * Archivo: CartFragment.java
+ * Paquete: com.example.lamontana.ui
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Destino "Carrito" de MainActivity. Muestra los ítems agregados,
+ *     permite modificar cantidades (+/-), eliminar productos del carrito
+ *     y navegar al flujo de Checkout.
+ *   - Login, navbar y menú desplegable los resuelve MainActivity.
+ *   - Usa CartViewModel (alcance: MainActivity, compartido con
+ *     Catálogo y Checkout) como capa de estado del carrito, que
+ *     envuelve CartStore y expone un único LiveData de CartState
+ *     (líneas, total formateado y si se puede pasar al checkout).
+ *   - Muestra la lista en un RecyclerView (CartAdapter) con IDs
+ *     estables: un +/- solo re-dibuja la cantidad y el total de esa
+ *     fila, sin recargar su imagen (Glide) ni tocar las vecinas.
+ *   - Las filas salen de RowViewPool (pre-infladas en segundo plano)
+ *     y el RecyclerView usa el RecycledViewPool compartido de la app.
+ *   - El botón “Realizar todos los pedidos” navega al destino Checkout.
+ * ============================================================
+ */
+public class CartFragment extends Fragment {
+
+    // Lista del carrito y su adapter
+    private RecyclerView rvCartList;
+    private CartAdapter cartAdapter;
+
+    // Texto de total general ($) y botón "Realizar todos"
+    private TextView tvCartGrandTotal;
+    private MaterialButton btnPlaceAll;
+
+    // Navegación entre destinos (MainActivity)
+    private Navigator navigator;
+
+    // ViewModel del carrito (compartido)
+    private CartViewModel cartViewModel;
+
+    // Filas de carrito que se piden pre-infladas al abrir la pantalla
+    private static final int PREFETCH_ROWS = 6;
+
+    @Nullable
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater,
+                             @Nullable ViewGroup container,
+                             @Nullable Bundle savedInstanceState) {
+        return inflater.inflate(R.layout.fragment_cart, container, false);
+    }
+
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+        navigator = (Navigator) requireActivity();
+        cartViewModel = new ViewModelProvider(requireActivity()).get(CartViewModel.class);
+
+        // ---- Referencias de UI del carrito ----
+        rvCartList = view.findViewById(R.id.rvCartList);
+        tvCartGrandTotal = view.findViewById(R.id.tvCartGrandTotal);
+        btnPlaceAll = view.findViewById(R.id.btnPlaceAllOrders);
+
+        // ---- Lista: +, -, eliminar delegan en el ViewModel ----
+        cartAdapter = new CartAdapter(new CartAdapter.Listener() {
+            @Override
+            public void onIncrement(Product product) {
+                cartViewModel.inc(product);
+            }
+
+            @Override
+            public void onDecrement(Product product) {
+                cartViewModel.dec(product);
+            }
+
+            @Override
+            public void onRemove(Product product) {
+                confirmRemove(product);
+            }
+        });
+        if (rvCartList != null) {
+            // Filas pre-infladas + RecycledViewPool compartido de la app
+            RowViewPool rowPool = RowViewPool.get(requireContext());
+            rowPool.prefetch(R.layout.item_cart_detail, PREFETCH_ROWS);
+            rvCartList.setRecycledViewPool(rowPool.getRecycledViewPool());
+            rvCartList.setLayoutManager(new LinearLayoutManager(requireContext()));
+            rvCartList.setAdapter(cartAdapter);
+        }
+
+        // Botón “Volver al catálogo” → SIEMPRE ir al catálogo
+        MaterialButton btnBack = view.findViewById(R.id.btnBackToCatalog);
+        if (btnBack != null) {
+            btnBack.setOnClickListener(v -> navigator.navigateTo(Destination.CATALOG));
+        }
+
+        // Botón “Realizar todos los pedidos” → ir a Checkout
+        if (btnPlaceAll != null) {
+            btnPlaceAll.setOnClickListener(v -> {
+                CartState state = cartViewModel.getState().getValue();
+                if (state == null || !state.checkoutEnabled) {
+                    // Si por cualquier motivo se toca con carrito vacío, no hacemos nada.
+                    return;
+                }
+                navigator.navigateTo(Destination.CHECKOUT);
+            });
+        }
+
+        // Un único CartState por cambio (también si vino de otra pantalla):
+        //  - el adapter calcula el diff y re-dibuja solo lo que cambió
+        //  - total y botón salen del MISMO estado que la lista
+        cartViewModel.getState().observe(getViewLifecycleOwner(), state -> {
+            cartAdapter.submitList(state.lines);
+            updateGrandTotal(state);
+        });
+    }
+
+    @Override
+    public void onDestroyView() {
+        // Devuelve las filas al RecycledViewPool compartido (sin listeners)
+        // para que la próxima apertura del carrito las reutilice.
+        if (rvCartList != null) {
+            rvCartList.setAdapter(null);
+        }
+        super.onDestroyView();
+    }
+
+    /**
+     * Confirma y quita un producto del carrito.
+     */
+    private void confirmRemove(Product p) {
+        new android.app.AlertDialog.Builder(requireContext())
+                .setTitle("Eliminar producto")
+                .setMessage("¿Deseás quitar \"" + p.name + "\" del carrito?")
+                .setPositiveButton("Eliminar", (dialog, which) -> {
+                    cartViewModel.remove(p);
+                })
+                .setNegativeButton("Cancelar", null)
+                .show();
+    }
+
+    /**
+     * Actualiza el total global y el estado del botón "Realizar todos".
+     */
+    private void updateGrandTotal(CartState state) {
+        if (tvCartGrandTotal != null) {
+            tvCartGrandTotal.setText(
+                    getString(R.string.cart_total_label_format, state.formattedTotal)
+            );
+        }
+
+        if (btnPlaceAll != null) {
+            boolean enabled = state.checkoutEnabled;
+            btnPlaceAll.setEnabled(enabled);
+            btnPlaceAll.setAlpha(enabled ? 1f : 0.5f);
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package com.example.lamontana.ui;
+
+import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.fragment.app.Fragment;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.ViewModelProvider;
+
+import com.bumptech.glide.Glide;
+import com.example.lamontana.R;
+import com.example.lamontana.model.CartSnapshot;
+import com.example.lamontana.model.Category;
+import com.example.lamontana.model.Product;
+import com.example.lamontana.ui.cart.CartSummaryUpdater;
+import com.example.lamontana.ui.navbar.Destination;
+import com.example.lamontana.ui.navbar.Navigator;
+import com.example.lamontana.ui.rows.RowViewPool;
+import com.example.lamontana.viewmodel.CartViewModel;
+import com.example.lamontana.viewmodel.CatalogViewModel;
+import com.google.android.material.button.MaterialButton;
+
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/*
+ * ============================================================
+ * Archivo: CatalogFragment.java
+ * Paquete: com.example.lamontana.ui
+ *
+ * ¿De qué se encarga este archivo?
+ *  - Implementa el destino Catálogo (inicio) de MainActivity
+ *    en la app "La Montaña".
+ *  - Muestra productos/servicios traídos desde Firestore,
+ *    permite filtrarlos y agregarlos al carrito.
+ *  - Presenta, en el panel superior, un resumen rápido del
+ *    carrito (cantidad y total).
+ *  - Login, navbar y menú desplegable los resuelve MainActivity
+ *    una sola vez para todas las pantallas.
+ *
+ * Relación con otras clases:
+ *  - CatalogViewModel:
+ *      * Carga los productos desde Firestore (colección
+ *        "productos") y expone List<Product> por LiveData.
+ *  - Product:
+ *      * Incluye tanto imageRes (drawable local) como imageUrl
+ *        (URL remota de Firebase Storage).
+ *  - CartViewModel / CartStore / CartFragment:
+ *      * Reciben los Product seleccionados y gestionan el
+ *        estado del carrito. El resumen superior se
+ *        redibuja vía CartSummaryUpdater, agrupando los
+ *        CartChange de CartStore en un dibujo por frame.
+ *  - Navigator (MainActivity):
+ *      * "Ver carrito" y "Servicios" navegan a esos destinos
+ *        con una transacción de fragments.
+ *
+ * Métodos presentes:
+ *  - onViewCreated(View, Bundle):
+ *      * Inicializa vistas y listeners.
+ *      * Conecta CatalogViewModel y CartViewModel con alcance de
+ *        MainActivity (compartidos: no se recargan al volver).
+ *  - renderCatalog(List<Product>):
+ *      * Dibuja la lista de productos en item_catalog.xml
+ *        (filas pre-infladas de RowViewPool),
+ *        usando Glide con imageUrl si está disponible, o
+ *        imageRes como fallback.
+ *  - filterAndRender(Category):
+ *      * Aplica un filtro por categoría sobre la lista
+ *        completa cargada desde el ViewModel.
+ *  - onHiddenChanged(boolean):
+ *      * Oculto, el resumen del carrito deja de escuchar
+ *        CartStore; al volver se engancha y redibuja.
+ *  - renderCartSummary(CartSnapshot):
+ *      * Dibuja el panel superior del carrito (cantidad y
+ *        total). CartSummaryUpdater lo llama como máximo una
+ *        vez por frame; las mutaciones igual se aplican al
+ *        instante en CartStore.
+ * ============================================================
+ */
+
+public class CatalogFragment extends Fragment implements CartSummaryUpdater.Renderer {
+
+    // ---------- Referencias de UI ----------
+    private LinearLayout llCatalogContainer;
+    private TextView tvTotal;
+    private TextView tvCartCount;
+
+    private MaterialButton btnAll, btnPrint, btnBinding;
+    private MaterialButton btnClearCart, btnViewCart;
+
+    // Navegación entre destinos (MainActivity)
+    private Navigator navigator;
+
+    // ---------- Soporte ----------
+    /** Lista completa de productos cargados desde Firestore vía ViewModel. */
+    private final List<Product> fullProductList = new ArrayList<>();
+
+    /** Filas pre-infladas (compartidas con carrito y checkout). */
+    private RowViewPool rowPool;
+
+    // Filas que se piden pre-infladas mientras cargan los productos
+    private static final int PREFETCH_CATALOG_ROWS = 8;
+    private static final int PREFETCH_CART_ROWS = 4;
+    private final NumberFormat ars =
+            NumberFormat.getCurrencyInstance(new Locale("es", "AR"));
+
+    /** ViewModel responsable de cargar los productos desde Firestore. */
+    private CatalogViewModel catalogViewModel;
+
+    /** ViewModel del carrito: operaciones sobre CartStore. */
+    private CartViewModel cartViewModel;
+
+    /** Agrupa por frame las actualizaciones del resumen del carrito. */
+    private CartSummaryUpdater cartSummary;
+
+    @Nullable
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater,
+                             @Nullable ViewGroup container,
+                             @Nullable Bundle savedInstanceState) {
+        return inflater.inflate(R.layout.fragment_catalog, container, false);
+    }
+
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+        navigator = (Navigator) requireActivity();
+
+        // ---------- Bind de vistas del catálogo ----------
+        // Mientras Firestore responde, inflamos filas en segundo plano.
+        // También las del carrito: suele ser la pantalla siguiente.
+        rowPool = RowViewPool.get(requireContext());
+        rowPool.prefetch(R.layout.item_catalog, PREFETCH_CATALOG_ROWS);
+        rowPool.prefetch(R.layout.item_cart_detail, PREFETCH_CART_ROWS);
+        llCatalogContainer = view.findViewById(R.id.llCatalogContainer);
+        tvTotal = view.findViewById(R.id.tvTotal);
+        tvCartCount = view.findViewById(R.id.tvCartCount);
+
+        btnAll = view.findViewById(R.id.btnFilterAll);
+        btnPrint = view.findViewById(R.id.btnFilterPrint);
+//        boton de servicios
+        btnBinding = view.findViewById(R.id.btnFilterBinding);
+
+        btnClearCart = view.findViewById(R.id.btnClearCart);
+        btnViewCart = view.findViewById(R.id.btnViewCart);
+
+        // ---------- ViewModels compartidos (alcance: MainActivity) ----------
+        catalogViewModel = new ViewModelProvider(requireActivity()).get(CatalogViewModel.class);
+        cartViewModel = new ViewModelProvider(requireActivity()).get(CartViewModel.class);
+
+        // Observamos la lista de productos: cuando cambie, actualizamos la lista local y renderizamos.
+        catalogViewModel.getProducts().observe(getViewLifecycleOwner(), products -> {
+            fullProductList.clear();
+            if (products != null) {
+                fullProductList.addAll(products);
+            }
+            // Renderizamos la lista completa por defecto
+            renderCatalog(fullProductList);
+        });
+
+        // Observamos errores para mostrar un mensaje simple al usuario.
+        catalogViewModel.getErrorMessage().observe(getViewLifecycleOwner(), msg -> {
+            if (msg != null && !msg.trim().isEmpty()) {
+                Toast.makeText(requireContext(), msg, Toast.LENGTH_LONG).show();
+            }
+        });
+
+        // Disparar la carga de productos sólo si es necesario
+        catalogViewModel.loadProductsIfNeeded();
+
+        // ---------- Listeners de filtros y acciones de carrito ----------
+        if (btnAll != null) {
+            btnAll.setOnClickListener(v -> renderCatalog(fullProductList));
+        }
+        if (btnPrint != null) {
+            btnPrint.setOnClickListener(v -> filterAndRender(Category.PRINT));
+        }
+
+//        boton ir a servicios
+        if (btnBinding != null) {
+            btnBinding.setOnClickListener(v -> navigator.navigateTo(Destination.SERVICIOS));
+        }
+
+        if (btnClearCart != null) {
+            btnClearCart.setOnClickListener(v -> cartViewModel.clear());
+        }
+
+
+//       boton ir al carrito
+        if (btnViewCart != null) {
+            btnViewCart.setOnClickListener(v -> navigator.navigateTo(Destination.CART));
+        }
+
+        // Resumen de carrito: un dibujo por frame aunque se toque "Agregar"
+        // muchas veces seguidas (se engancha en onStart() si está visible).
+        cartSummary = new CartSummaryUpdater(this);
+    }
+
+    @Override
+    public void onDestroyView() {
+        if (llCatalogContainer != null) {
+            rowPool.releaseAll(llCatalogContainer, R.layout.item_catalog);
+        }
+        super.onDestroyView();
+    }
+
+    /**
+     * Renderiza la lista de productos (catálogo) en el contenedor vertical.
+     * Usa Glide para cargar imageUrl de Firebase Storage si está disponible;
+     * en caso contrario, recurre al drawable local imageRes.
+     */
+    private void renderCatalog(List<Product> list) {
+        if (llCatalogContainer == null) return;
+
+        // Las filas actuales vuelven al pool y se re-bindean abajo.
+        rowPool.releaseAll(llCatalogContainer, R.layout.item_catalog);
+
+        for (Product p : list) {
+            final View item = rowPool.obtain(R.layout.item_catalog, llCatalogContainer);
+
+            ImageView iv = item.findViewById(R.id.ivThumb);
+            TextView tvName = item.findViewById(R.id.tvName);
+            TextView tvDesc = item.findViewById(R.id.tvDesc);
+            TextView tvPrice = item.findViewById(R.id.tvPrice);
+            MaterialButton btnAdd = item.findViewById(R.id.btnAdd);
+
+            if (tvName != null) tvName.setText(p.name);
+            if (tvDesc != null) tvDesc.setText(p.desc);
+            if (tvPrice != null) tvPrice.setText(ars.format(p.price));
+
+            if (iv != null) {
+                if (p.imageUrl != null) {
+                    // Imagen remota desde Firebase Storage
+                    Glide.with(this)
+                            .load(p.imageUrl)
+                            .placeholder(p.imageRes != 0 ? p.imageRes : R.drawable.sample_print_bw)
+                            .error(p.imageRes != 0 ? p.imageRes : R.drawable.sample_print_bw)
+                            .into(iv);
+                } else {
+                    // Fallback: drawable local (cancelando una carga previa
+                    // si la fila viene reutilizada del pool)
+                    Glide.with(this).clear(iv);
+                    iv.setImageResource(p.imageRes);
+                }
+            }
+
+            if (btnAdd != null) {
+                btnAdd.setOnClickListener(v -> cartViewModel.add(p));
+            }
+
+            llCatalogContainer.addView(item);
+        }
+    }
+
+    /**
+     * Aplica un filtro por categoría y vuelve a renderizar el catálogo.
+     */
+    private void filterAndRender(Category category) {
+        List<Product> filtered = new ArrayList<>();
+        for (Product p : fullProductList) {
+            if (p.category == category) filtered.add(p);
+        }
+        renderCatalog(filtered);
+    }
+
+    @Override
+    public void onStart() {
+        super.onStart();
+        if (cartSummary != null && !isHidden()) cartSummary.start();
+    }
+
+    @Override
+    public void onStop() {
+        if (cartSummary != null) cartSummary.stop();
+        super.onStop();
+    }
+
+    /**
+     * MainActivity oculta los destinos sin detenerlos (siguen en
+     * STARTED): el resumen deja de escuchar CartStore mientras el
+     * catálogo no se ve y se redibuja al volver.
+     */
+    @Override
+    public void onHiddenChanged(boolean hidden) {
+        super.onHiddenChanged(hidden);
+        if (cartSummary == null) return;
+        if (hidden) {
+            cartSummary.stop();
+        } else if (isAdded() && getLifecycle().getCurrentState().isAtLeast(Lifecycle.State.STARTED)) {
+            cartSummary.start();
+        }
+    }
+
+    /**
+     * Dibuja el panel superior del carrito (cantidad y monto total).
+     * Lo invoca CartSummaryUpdater, como máximo una vez por frame.
+     */
+    @Override
+    public void renderCartSummary(CartSnapshot snapshot) {
+        if (tvCartCount != null) {
+            tvCartCount.setText(getString(R.string.cart_items_format, snapshot.getTotalQty()));
+        }
+        if (tvTotal != null) {
+            tvTotal.setText(ars.format(snapshot.getTotalAmount()));
+        }
+    }
+}
+
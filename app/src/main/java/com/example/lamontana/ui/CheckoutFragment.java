@@ -0,0 +1,522 @@
+package com.example.lamontana.ui;
+
+import android.content.Intent;
+import android.os.Bundle;
+import android.text.TextUtils;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.CheckBox;
+import android.widget.EditText;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.appcompat.app.AlertDialog;
+import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
+
+import com.example.lamontana.R;
+import com.example.lamontana.data.cart.CartRevalidation;
+import com.example.lamontana.data.pricing.PriceBreakdown;
+import com.example.lamontana.data.pricing.ServiciosRepository;
+import com.example.lamontana.data.shipping.ShippingQuote;
+import com.example.lamontana.data.shipping.ShippingQuoteEngine;
+import com.example.lamontana.model.CartItem;
+import com.example.lamontana.model.Product;
+import com.example.lamontana.model.UserProfile;
+import com.example.lamontana.ui.navbar.Destination;
+import com.example.lamontana.ui.navbar.Navigator;
+import com.example.lamontana.ui.rows.RowViewPool;
+import com.example.lamontana.viewmodel.CartViewModel;
+import com.example.lamontana.viewmodel.CheckoutViewModel;
+import com.example.lamontana.viewmodel.PrintJobViewModel;
+import com.google.android.material.button.MaterialButton;
+
+import java.text.NumberFormat;
+import java.util.List;
+import java.util.Locale;
+
+/*
+ * ============================================================
+ * Archivo: CheckoutFragment.java
+ * Paquete: com.example.lamontana.ui
+ * ------------------------------------------------------------
+ * Responsabilidad:
+ *   - Destino Checkout de MainActivity (paso siguiente al carrito).
+ *   - Muestra:
+ *       · Formulario de envío (dirección, CP, teléfono, notas).
+ *       · Checkbox "usar mi dirección guardada".
+ *       · Lista de productos que ya están en el carrito.
+ *       · Costo de envío según el CP (ShippingQuoteEngine: tabla
+ *         de zonas + recargos por unidades y carillas).
+ *       · Total final del pedido (productos + impresión + envío).
+ *       · Botón para confirmar compra.
+ *   - Usa CheckoutViewModel (alcance: MainActivity) para obtener
+ *     dirección/teléfono del perfil en memoria (ProfileRepository,
+ *     sin lecturas de red) y para recibir el trabajo de impresión
+ *     armado en ServiciosFragment (antes, extra SERVICIO_TOTAL).
+ *   - El total sale del desglose de PricingEngine (centavos exactos,
+ *     memorizado por versión del carrito): re-dibujar el label sin
+ *     cambios no recalcula nada.
+ *   - Antes de confirmar, revalida precios y disponibilidad contra
+ *     "productos" (CheckoutViewModel.revalidateCart, un solo viaje a
+ *     Firestore) y, si algo cambió, lo muestra para que el usuario
+ *     acepte el carrito actualizado.
+ *   - Si la impresión lleva archivo, muestra su subida a Storage
+ *     (PrintJobViewModel, la arranca Servicios al pagar) y no deja
+ *     confirmar hasta que termine; un error se reintenta al tocar
+ *     "Realizar el pago".
+ *   - El diálogo de confirmación muestra el total cotizado con el CP
+ *     escrito (CheckoutViewModel.quoteOrder) y ese mismo desglose es
+ *     el que se envía.
+ *   - Al confirmar, delega en CheckoutViewModel.placeOrder(): el
+ *     pedido (cabecera + líneas + impresión) se guarda en Firestore
+ *     en un único WriteBatch con un ID generado en el cliente, y
+ *     SuccessActivity muestra ese ID.
+ *   - Usa CartStore como fuente de verdad del carrito; la lista
+ *     y el total se re-dibujan ante cada cambio publicado (vía
+ *     CartViewModel).
+ *   - Login, navbar y menú desplegable los resuelve MainActivity.
+ * ============================================================
+ */
+public class CheckoutFragment extends Fragment {
+
+    // ---------- ViewModel ----------
+    private CheckoutViewModel checkoutViewModel;
+    private CartViewModel cartViewModel;
+    private PrintJobViewModel printJobViewModel;
+
+    // ---------- UI: lista de productos ----------
+    private LinearLayout llDetailProducts;
+    private TextView tvFinalTotal;
+    private TextView tvUploadStatus;
+
+    // ---------- UI: formulario de envío ----------
+    private CheckBox cbUseSavedAddress;
+    private EditText etAddress;
+    private EditText etPostalCode;
+    private EditText etPhone;
+    private EditText etNotes;
+
+    private MaterialButton btnCalculateShipping;
+    private MaterialButton btnGoToPayment;
+    private MaterialButton btnBackToCart;
+
+    // ---------- Navegación entre destinos (MainActivity) ----------
+    private Navigator navigator;
+
+    // ---------- Soporte ----------
+    /** Filas pre-infladas (compartidas con catálogo y carrito). */
+    private RowViewPool rowPool;
+
+    // Filas de detalle que se piden pre-infladas al abrir la pantalla
+    private static final int PREFETCH_ROWS = 4;
+    private final NumberFormat ars =
+            NumberFormat.getCurrencyInstance(new Locale("es", "AR"));
+
+    @Nullable
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater,
+                             @Nullable ViewGroup container,
+                             @Nullable Bundle savedInstanceState) {
+        return inflater.inflate(R.layout.fragment_checkout, container, false);
+    }
+
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+        navigator = (Navigator) requireActivity();
+
+        // 1) ViewModels compartidos (alcance: MainActivity)
+        checkoutViewModel = new ViewModelProvider(requireActivity()).get(CheckoutViewModel.class);
+        cartViewModel = new ViewModelProvider(requireActivity()).get(CartViewModel.class);
+        printJobViewModel = new ViewModelProvider(requireActivity()).get(PrintJobViewModel.class);
+
+        // 2) Bind de vistas de checkout
+        initViews(view);
+
+        // 3) Observers
+        setupObservers();
+
+        // 4) Render del carrito: inicial y ante cada cambio del store
+        rowPool = RowViewPool.get(requireContext());
+        rowPool.prefetch(R.layout.item_product_checkout, PREFETCH_ROWS);
+        cartViewModel.getState().observe(getViewLifecycleOwner(), state -> {
+            renderCheckoutItems(state.lines);
+            // El envío depende de las unidades: se re-cotiza (cache por versión)
+            checkoutViewModel.refreshShippingQuote();
+            updateTotalLabel();
+        });
+
+        // 5) Trabajo de impresión pendiente (lo carga ServiciosFragment)
+        checkoutViewModel.getPrintJob().observe(getViewLifecycleOwner(), job -> {
+            updateTotalLabel();
+            updateUploadStatus();
+        });
+        observeUpload();
+
+        // 6) Costo de envío cotizado (se suma al total)
+        checkoutViewModel.getShippingQuote().observe(getViewLifecycleOwner(),
+                quote -> updateTotalLabel());
+
+        // 7) Tabla de precios de impresión (al terminar de cargar o si cambió)
+        ServiciosRepository.getInstance().getTable().observe(getViewLifecycleOwner(),
+                table -> updateTotalLabel());
+    }
+
+    @Override
+    public void onDestroyView() {
+        if (llDetailProducts != null) {
+            rowPool.releaseAll(llDetailProducts, R.layout.item_product_checkout);
+        }
+        super.onDestroyView();
+    }
+
+    // ----------------------------------------------------------
+    // Bind de vistas y listeners de la pantalla de checkout
+    // ----------------------------------------------------------
+    private void initViews(View view) {
+        // Botón para volver al carrito
+        btnBackToCart = view.findViewById(R.id.btnBackToCart);
+        if (btnBackToCart != null) {
+            btnBackToCart.setOnClickListener(v -> navigator.navigateTo(Destination.CART));
+        }
+
+        // Contenedor de productos y total
+        llDetailProducts = view.findViewById(R.id.llDetailProducts);
+        tvFinalTotal = view.findViewById(R.id.tvFinalTotal);
+        tvUploadStatus = view.findViewById(R.id.tvUploadStatus);
+
+        // Formulario de envío
+        cbUseSavedAddress = view.findViewById(R.id.cbUseSavedAddress);
+        etAddress = view.findViewById(R.id.etAddress);
+        etPostalCode = view.findViewById(R.id.etPostalCode);
+        etPhone = view.findViewById(R.id.etPhone);
+        etNotes = view.findViewById(R.id.etNotes);
+
+        btnCalculateShipping = view.findViewById(R.id.btnCalculateShipping);
+        btnGoToPayment = view.findViewById(R.id.btnGoToPayment);
+
+        // Listener del checkbox: completa al instante desde el perfil en
+        // memoria (ProfileRepository lo mantiene al día, sin leer la red)
+        if (cbUseSavedAddress != null) {
+            cbUseSavedAddress.setOnCheckedChangeListener((buttonView, isChecked) -> {
+                if (isChecked) {
+                    fillFromSavedProfile(checkoutViewModel.getSavedProfile());
+                }
+                // Si se desmarca, dejamos que el usuario edite manualmente
+            });
+        }
+
+        // Botón "Calcular envío"
+        if (btnCalculateShipping != null) {
+            btnCalculateShipping.setOnClickListener(v -> onCalculateShippingClicked());
+        }
+
+        // Botón "Realizar el pago"
+        if (btnGoToPayment != null) {
+            btnGoToPayment.setOnClickListener(v -> onPlaceAllOrders());
+        }
+    }
+
+    private void fillFromSavedProfile(UserProfile profile) {
+        if (etAddress != null && !TextUtils.isEmpty(profile.direccion)) {
+            etAddress.setText(profile.direccion);
+        }
+        if (etPhone != null && !TextUtils.isEmpty(profile.telefono)) {
+            etPhone.setText(profile.telefono);
+        }
+    }
+
+    // ----------------------------------------------------------
+    // Observa LiveData del CheckoutViewModel
+    // ----------------------------------------------------------
+    private void setupObservers() {
+        // Dirección del perfil compartido (cambia si se edita en Mis datos)
+        checkoutViewModel.getAddress().observe(getViewLifecycleOwner(), value -> {
+            // Si el checkbox está marcado y hay dirección -> autocompletar
+            if (cbUseSavedAddress != null
+                    && cbUseSavedAddress.isChecked()
+                    && !TextUtils.isEmpty(value)
+                    && etAddress != null) {
+
+                etAddress.setText(value);
+            }
+        });
+
+        // Teléfono del perfil compartido
+        checkoutViewModel.getPhone().observe(getViewLifecycleOwner(), value -> {
+            if (cbUseSavedAddress != null
+                    && cbUseSavedAddress.isChecked()
+                    && !TextUtils.isEmpty(value)
+                    && etPhone != null) {
+
+                etPhone.setText(value);
+            }
+        });
+
+        // Envío del pedido: el botón queda deshabilitado mientras está en curso
+        checkoutViewModel.getPlacingOrder().observe(getViewLifecycleOwner(),
+                placing -> updatePaymentButton());
+        checkoutViewModel.getRevalidating().observe(getViewLifecycleOwner(),
+                revalidating -> updatePaymentButton());
+
+        // Resultado de revalidar el carrito: confirmar o mostrar cambios
+        checkoutViewModel.getRevalidation().observe(getViewLifecycleOwner(), result -> {
+            if (result == null) return;
+            checkoutViewModel.onRevalidationHandled();
+            if (result.isClean()) {
+                showConfirmDialog();
+            } else {
+                showCartChangesDialog(result);
+            }
+        });
+
+        checkoutViewModel.getPlacedOrderId().observe(getViewLifecycleOwner(), orderId -> {
+            if (orderId == null) return;
+            checkoutViewModel.onPlacedOrderHandled();
+            openSuccess(orderId, !checkoutViewModel.isPlacedOrderSynced());
+        });
+
+        checkoutViewModel.getOrderError().observe(getViewLifecycleOwner(), message -> {
+            if (message != null) {
+                Toast.makeText(requireContext(), message, Toast.LENGTH_LONG).show();
+            }
+        });
+    }
+
+    // ----------------------------------------------------------
+    // Subida del archivo de impresión (PrintJobViewModel)
+    // ----------------------------------------------------------
+    private void observeUpload() {
+        // Path del archivo elegido: llega con el hash o cambia con otro archivo
+        printJobViewModel.getUploadPathLive().observe(getViewLifecycleOwner(), path -> {
+            checkoutViewModel.setPrintFile(printJobViewModel.getCurrentUri() != null, path);
+            updateUploadStatus();
+        });
+        printJobViewModel.getUploadedPath().observe(getViewLifecycleOwner(), path -> {
+            checkoutViewModel.setUploadedFile(path);
+            updateUploadStatus();
+            updatePaymentButton();
+        });
+        printJobViewModel.getUploading().observe(getViewLifecycleOwner(), uploading -> {
+            updateUploadStatus();
+            updatePaymentButton();
+        });
+        printJobViewModel.getUploadProgress().observe(getViewLifecycleOwner(),
+                percent -> updateUploadStatus());
+        printJobViewModel.getUploadError().observe(getViewLifecycleOwner(),
+                msg -> updateUploadStatus());
+    }
+
+    private void updateUploadStatus() {
+        if (tvUploadStatus == null) return;
+        if (!checkoutViewModel.isWaitingForFile()) {
+            tvUploadStatus.setVisibility(View.GONE);
+            return;
+        }
+        String error = printJobViewModel.getUploadError().getValue();
+        String blocker = printJobViewModel.getUploadBlocker();
+        if (blocker != null) {
+            tvUploadStatus.setText(blocker);
+        } else if (Boolean.TRUE.equals(printJobViewModel.getUploading().getValue())) {
+            Integer percent = printJobViewModel.getUploadProgress().getValue();
+            tvUploadStatus.setText("Subiendo archivo… " + (percent != null ? percent : 0) + "%");
+        } else if (error != null) {
+            tvUploadStatus.setText(error);
+        } else {
+            tvUploadStatus.setText("Preparando el archivo…");
+        }
+        tvUploadStatus.setVisibility(View.VISIBLE);
+    }
+
+    // ----------------------------------------------------------
+    // Renderiza las líneas de detalle del carrito en llDetailProducts
+    // usando item_product_checkout.xml
+    // ----------------------------------------------------------
+    private void renderCheckoutItems(List<CartItem> items) {
+        if (llDetailProducts == null) return;
+
+        rowPool.releaseAll(llDetailProducts, R.layout.item_product_checkout);
+        if (items == null || items.isEmpty()) {
+            // Podrías mostrar un mensaje de "Carrito vacío" aquí si lo necesitás.
+            return;
+        }
+
+        for (CartItem item : items) {
+            View row = rowPool.obtain(R.layout.item_product_checkout, llDetailProducts);
+
+            TextView tvName = row.findViewById(R.id.tvCheckoutName);
+            TextView tvQty = row.findViewById(R.id.tvCheckoutQty);
+            TextView tvSubtotal = row.findViewById(R.id.tvCheckoutTotal);
+
+            if (tvName != null) {
+                tvName.setText(item.product.name);
+            }
+            if (tvQty != null) {
+                tvQty.setText("Cantidad: " + item.qty);
+            }
+            if (tvSubtotal != null) {
+                tvSubtotal.setText("Subtotal: " + ars.format(item.subtotal));
+            }
+
+            llDetailProducts.addView(row);
+        }
+    }
+
+    // ----------------------------------------------------------
+    // Actualiza el label de total general del checkout
+    // ----------------------------------------------------------
+    /** null mientras se cargan los precios de impresión. */
+    @Nullable
+    private PriceBreakdown updateTotalLabel() {
+        // Carrito + impresión + envío (cache del motor si nada cambió)
+        PriceBreakdown pricing = checkoutViewModel.getPricing();
+
+        if (tvFinalTotal != null) {
+            tvFinalTotal.setText(pricing != null
+                    ? "Total: " + pricing.formattedTotal
+                    : "Total: calculando…");
+        }
+
+        return pricing;
+    }
+
+    private boolean hasSomethingToPay() {
+        PriceBreakdown pricing = updateTotalLabel();
+        return pricing != null && !pricing.isEmpty();
+    }
+
+    // ----------------------------------------------------------
+    // Acción “Realizar todos los pedidos”
+    // ----------------------------------------------------------
+    private void onPlaceAllOrders() {
+        if (!hasSomethingToPay()) return;
+
+        // Archivo sin subir: se (re)intenta la subida y se espera.
+        if (checkoutViewModel.isWaitingForFile()) {
+            printJobViewModel.upload();
+            String blocker = printJobViewModel.getUploadBlocker();
+            Toast.makeText(requireContext(),
+                    blocker != null ? blocker : "Esperá a que termine de subirse el archivo",
+                    Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        // Primero se revalidan precios y disponibilidad; el resultado
+        // llega por getRevalidation() (confirmación o lista de cambios).
+        checkoutViewModel.revalidateCart();
+    }
+
+    /** Botón de pago deshabilitado mientras se revalida, se envía o sube el archivo. */
+    private void updatePaymentButton() {
+        if (btnGoToPayment == null) return;
+        boolean enabled = !Boolean.TRUE.equals(checkoutViewModel.getPlacingOrder().getValue())
+                && !Boolean.TRUE.equals(checkoutViewModel.getRevalidating().getValue())
+                && !Boolean.TRUE.equals(printJobViewModel.getUploading().getValue());
+        btnGoToPayment.setEnabled(enabled);
+        btnGoToPayment.setAlpha(enabled ? 1f : 0.5f);
+    }
+
+    /**
+     * Muestra qué cambió en el catálogo desde que se armó el carrito.
+     * Aceptar actualiza el carrito (un lote) y pasa a la confirmación.
+     */
+    private void showCartChangesDialog(CartRevalidation result) {
+        StringBuilder msg = new StringBuilder();
+        for (CartRevalidation.PriceChange change : result.priceChanges) {
+            msg.append("• ").append(change.updated.name).append(": ")
+                    .append(ars.format(change.oldPrice)).append(" → ")
+                    .append(ars.format(change.updated.price)).append('\n');
+        }
+        for (Product p : result.unavailable) {
+            msg.append("• ").append(p.name).append(": ya no está disponible\n");
+        }
+
+        new AlertDialog.Builder(requireContext())
+                .setTitle("Cambios en tu carrito")
+                .setMessage(msg.toString().trim())
+                .setPositiveButton("Actualizar y continuar", (dialog, which) -> {
+                    if (checkoutViewModel.applyRevalidation(result) && hasSomethingToPay()) {
+                        showConfirmDialog();
+                    }
+                })
+                .setNegativeButton("Cancelar", null)
+                .show();
+    }
+
+    private void showConfirmDialog() {
+        // Se cotiza con el CP escrito: el total del diálogo es el que se guarda
+        PriceBreakdown realizarPago = checkoutViewModel.quoteOrder(textOf(etPostalCode));
+        updateTotalLabel();
+        if (realizarPago == null || realizarPago.isEmpty()) return;
+
+        new AlertDialog.Builder(requireContext())
+                .setTitle("Confirmar compra")
+                .setMessage("Vas a realizar un pedido por un total de " + realizarPago.formattedTotal)
+                .setPositiveButton("Confirmar", (dialog, which) ->
+                        // Un solo WriteBatch por pedido; el ViewModel ignora
+                        // toques extra mientras el envío está en curso.
+                        checkoutViewModel.placeOrder(
+                                realizarPago,
+                                textOf(etAddress),
+                                textOf(etPostalCode),
+                                textOf(etPhone),
+                                textOf(etNotes)
+                        ))
+                .setNegativeButton("Cancelar", null)
+                .show();
+    }
+
+    /**
+     * Pedido guardado en Firestore: abre SuccessActivity con su ID.
+     */
+    private void openSuccess(String orderId, boolean pendingSync) {
+        Intent i = new Intent(requireContext(), SuccessActivity.class);
+        i.putExtra(SuccessActivity.EXTRA_ORDER_ID, orderId);
+        i.putExtra(SuccessActivity.EXTRA_PENDING_SYNC, pendingSync);
+        i.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
+        startActivity(i);
+    }
+
+    private static String textOf(EditText et) {
+        return et != null ? et.getText().toString().trim() : "";
+    }
+
+    // ----------------------------------------------------------
+    // Cotización de envío según CP (4 dígitos), tabla de zonas
+    // ----------------------------------------------------------
+    private void onCalculateShippingClicked() {
+        String cp = textOf(etPostalCode);
+
+        if (cp.isEmpty()) {
+            showShippingDialog("Ingresá un código postal para calcular el envío.");
+            return;
+        }
+
+        ShippingQuote quote = checkoutViewModel.quoteShipping(cp);
+        if (quote == null && ShippingQuoteEngine.get().isLoading()
+                && ShippingQuoteEngine.parsePostalCode(cp) >= 0) {
+            showShippingDialog("Todavía se están cargando las zonas de envío. Probá en unos segundos.");
+        } else if (quote == null) {
+            showShippingDialog("El código postal debe tener 4 dígitos numéricos.");
+        } else if (!quote.isCovered()) {
+            showShippingDialog("Por ahora no se hacen envios a esa direccion.");
+        } else if (quote.isFree()) {
+            showShippingDialog("Envío a " + quote.zone.nombre + ": ¡envío gratis!");
+        } else {
+            showShippingDialog("Envío a " + quote.zone.nombre + ": " + ars.format(quote.amount));
+        }
+    }
+
+    private void showShippingDialog(String message) {
+        new AlertDialog.Builder(requireContext())
+                .setTitle("Envío")
+                .setMessage(message)
+                .setPositiveButton("Aceptar", null)
+                .show();
+    }
+}
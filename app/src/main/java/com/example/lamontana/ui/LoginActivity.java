@@ -26,7 +26,7 @@ import com.google.firebase.auth.FirebaseUser;
     - Navegar a la pantalla principal de catálogo si el login es válido.
     - Al completarse el login exitoso, cargar en UserStore los datos básicos
       del usuario autenticado (uid + email) para que otras pantallas
-      (por ejemplo ProfileActivity) puedan sincronizar con Firestore.
+      (por ejemplo ProfileFragment) puedan sincronizar con Firestore.
 
   Alcance:
     - Es la pantalla de entrada de la aplicación (launcher).
@@ -53,7 +53,7 @@ import com.google.firebase.auth.FirebaseUser;
         * Valida los campos de email y contraseña.
         * Si son válidos, llama a loginViewModel.login(email, password).
     - navigateToMain(String email)
-        * Navega a la pantalla principal (CatalogActivity) tras login exitoso.
+        * Navega a la pantalla principal (MainActivity, destino Catálogo) tras login exitoso.
 
 ----------------------------------------------------------------------------- */
 public class LoginActivity extends AppCompatActivity {
@@ -243,7 +243,7 @@ public class LoginActivity extends AppCompatActivity {
      * @param email Email del usuario logueado (opcional, se pasa como extra).
      */
     private void navigateToMain(String email) {
-        Intent intent = new Intent(this, CatalogActivity.class);
+        Intent intent = new Intent(this, MainActivity.class);
         intent.putExtra("email", email);
         startActivity(intent);
 
@@ -0,0 +1,277 @@
+package com.example.lamontana.ui;
+
+import android.content.Intent;
+import android.os.Bundle;
+import android.view.View;
+import android.widget.ImageView;
+
+import androidx.activity.OnBackPressedCallback;
+import androidx.annotation.Nullable;
+import androidx.appcompat.app.AlertDialog;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.fragment.app.Fragment;
+import androidx.fragment.app.FragmentManager;
+import androidx.fragment.app.FragmentTransaction;
+
+import com.example.lamontana.R;
+import com.example.lamontana.data.auth.AuthRepository;
+import com.example.lamontana.data.cart.CartSyncRepository;
+import com.example.lamontana.data.outbox.WriteOutbox;
+import com.example.lamontana.data.user.UserStore;
+import com.example.lamontana.ui.navbar.Destination;
+import com.example.lamontana.ui.navbar.MenuDesplegableHelper;
+import com.example.lamontana.ui.navbar.Navigator;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+
+/*
+ * ============================================================
+ * Archivo: MainActivity.java
+ * Paquete: com.example.lamontana.ui
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Es la Activity ÚNICA de la app tras el login. Aloja todas
+ *     las pantallas como Fragments (ver Destination):
+ *       · CatalogFragment, CartFragment, CheckoutFragment,
+ *         ProfileFragment, ServiciosFragment, OrdersFragment y
+ *         PdfViewerFragment.
+ *   - Verifica el login UNA sola vez (ensureUserLoggedIn()).
+ *   - Infla el navbar y el menú desplegable UNA sola vez
+ *     (activity_main.xml + MenuDesplegableHelper).
+ *   - Implementa Navigator: navegar es una transacción de
+ *     fragments que oculta el destino actual y muestra el nuevo.
+ *     Los destinos ya visitados se conservan tal cual (estado
+ *     "tibio": vistas, scroll y datos cargados).
+ *
+ * ViewModels compartidos:
+ *   - Los Fragments piden sus ViewModels con alcance de esta
+ *     Activity (new ViewModelProvider(requireActivity())):
+ *       · CatalogViewModel → productos (se cargan una vez).
+ *       · CartViewModel    → estado del carrito.
+ *       · ProfileViewModel / CheckoutViewModel → datos del usuario.
+ *       · OrdersViewModel  → páginas del historial de pedidos.
+ *     Así, ir y volver entre pantallas no vuelve a consultar
+ *     Firestore ni a recrear estado.
+ *
+ * Navegación "atrás":
+ *   - Cierra el menú si está abierto; si no, vuelve al destino
+ *     anterior; desde el Catálogo (inicio) cierra la app.
+ *   - El historial se guarda en savedInstanceState para
+ *     sobrevivir a rotaciones.
+ * ============================================================
+ */
+public class MainActivity extends AppCompatActivity implements Navigator {
+
+    private static final String STATE_CURRENT = "main.current";
+    private static final String STATE_HISTORY = "main.history";
+
+    private MenuDesplegableHelper menuHelper;
+
+    /** Destino visible. */
+    private Destination current;
+
+    /** Destinos anteriores (el último es al que vuelve "atrás"). */
+    private final ArrayDeque<Destination> history = new ArrayDeque<>();
+
+    @Override
+    protected void onCreate(@Nullable Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        // 1) Verificar login una sola vez para toda la app.
+        if (!ensureUserLoggedIn()) {
+            return;
+        }
+
+        setContentView(R.layout.activity_main);
+        setupNavbar();
+
+        getOnBackPressedDispatcher().addCallback(this, new OnBackPressedCallback(true) {
+            @Override
+            public void handleOnBackPressed() {
+                if (menuHelper != null && menuHelper.isMenuOpen()) {
+                    menuHelper.closeMenu();
+                } else {
+                    navigateBack();
+                }
+            }
+        });
+
+        if (savedInstanceState == null) {
+            navigateTo(Destination.CATALOG);
+        } else {
+            // Los fragments los restaura el FragmentManager; solo
+            // recuperamos cuál está visible y el historial.
+            current = (Destination) savedInstanceState.getSerializable(STATE_CURRENT);
+            ArrayList<?> saved = (ArrayList<?>) savedInstanceState.getSerializable(STATE_HISTORY);
+            if (saved != null) {
+                for (Object d : saved) history.addLast((Destination) d);
+            }
+        }
+    }
+
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        outState.putSerializable(STATE_CURRENT, current);
+        outState.putSerializable(STATE_HISTORY, new ArrayList<>(history));
+    }
+
+    /**
+     * Verifica si hay un usuario logueado en FirebaseAuth; si no,
+     * redirige a LoginActivity y cierra esta Activity.
+     */
+    private boolean ensureUserLoggedIn() {
+        FirebaseUser currentUser = FirebaseAuth.getInstance().getCurrentUser();
+        if (currentUser == null) {
+            Intent intent = new Intent(this, LoginActivity.class);
+            intent.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP | Intent.FLAG_ACTIVITY_NEW_TASK);
+            startActivity(intent);
+            finish();
+            return false;
+        }
+        return true;
+    }
+
+    private void setupNavbar() {
+        ImageView btnMenu = findViewById(R.id.btnMenu);
+        View overlay = findViewById(R.id.overlay);
+        View topSheet = findViewById(R.id.topSheet);
+
+        View btnInicio = findViewById(R.id.btnInicio);
+        View btnMisDatos = findViewById(R.id.btnMisDatos);
+        View btnMiCarrito = findViewById(R.id.btnMiCarrito);
+        View btnMisPedidos = findViewById(R.id.btnMisPedidos);
+        View btnImpresionesCopias = findViewById(R.id.btnImpresionesCopias);
+        View btnCerrarSesion = findViewById(R.id.btnCerrarSesion);
+
+        menuHelper = new MenuDesplegableHelper(
+                this,
+                this,
+                btnMenu,
+                overlay,
+                topSheet,
+                btnInicio,
+                btnMisDatos,
+                btnImpresionesCopias,
+                btnMiCarrito,
+                btnMisPedidos,
+                btnCerrarSesion
+        );
+        menuHelper.initMenu();
+    }
+
+    // ----------------------------------------------------------
+    // Navigator
+    // ----------------------------------------------------------
+
+    @Override
+    public void navigateTo(Destination destination) {
+        if (destination == current) return;
+
+        if (destination == Destination.CATALOG) {
+            // Inicio: el historial vuelve a empezar.
+            history.clear();
+        } else if (current != null) {
+            history.remove(destination);
+            history.addLast(current);
+        }
+        show(destination);
+    }
+
+    @Override
+    public void navigateBack() {
+        Destination previous = history.pollLast();
+        if (previous != null) {
+            show(previous);
+        } else if (current != Destination.CATALOG) {
+            show(Destination.CATALOG);
+        } else {
+            finish();
+        }
+    }
+
+    @Override
+    public void logout() {
+        // Si quedan escrituras sin subir, se avisa antes de descartarlas.
+        WriteOutbox outbox = WriteOutbox.get();
+        Integer pending = outbox.getPendingCount().getValue();
+        Integer failed = outbox.getFailedCount().getValue();
+        if ((pending != null && pending > 0) || (failed != null && failed > 0)) {
+            new AlertDialog.Builder(this)
+                    .setTitle(R.string.logout_pending_title)
+                    .setMessage(R.string.logout_pending_msg)
+                    .setPositiveButton(R.string.logout_confirm, (d, w) -> doLogout())
+                    .setNegativeButton(R.string.cancel, null)
+                    .show();
+            return;
+        }
+        doLogout();
+    }
+
+    /**
+     * Logout centralizado: primero se borra lo local del usuario que
+     * sale (carrito y bandeja de salida; el próximo no debe heredarlo).
+     */
+    private void doLogout() {
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        if (user != null) {
+            WriteOutbox.get().purgeUser(user.getUid());
+        }
+        CartSyncRepository.onLogout();
+        AuthRepository.getInstance().logout();
+        UserStore.get().clear();
+
+        Intent i = new Intent(this, LoginActivity.class);
+        i.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP | Intent.FLAG_ACTIVITY_NEW_TASK);
+        startActivity(i);
+        finish();
+    }
+
+    /**
+     * Oculta el destino actual y muestra el pedido (creándolo la
+     * primera vez). Una única transacción por navegación.
+     * Un destino oculto NO pasa por onStop(): lo que corre mientras
+     * se ve (listeners, renderers) se corta en onHiddenChanged(true).
+     */
+    private void show(Destination destination) {
+        FragmentManager fm = getSupportFragmentManager();
+        FragmentTransaction tx = fm.beginTransaction().setReorderingAllowed(true);
+
+        if (current != null) {
+            Fragment visible = fm.findFragmentByTag(current.name());
+            if (visible != null) tx.hide(visible);
+        }
+
+        Fragment target = fm.findFragmentByTag(destination.name());
+        if (target == null) {
+            tx.add(R.id.fragmentContainer, createFragment(destination), destination.name());
+        } else {
+            tx.show(target);
+        }
+        tx.commit();
+        current = destination;
+    }
+
+    private static Fragment createFragment(Destination destination) {
+        switch (destination) {
+            case CART:
+                return new CartFragment();
+            case CHECKOUT:
+                return new CheckoutFragment();
+            case PROFILE:
+                return new ProfileFragment();
+            case SERVICIOS:
+                return new ServiciosFragment();
+            case ORDERS:
+                return new OrdersFragment();
+            case VISOR:
+                return new PdfViewerFragment();
+            case CATALOG:
+            default:
+                return new CatalogFragment();
+        }
+    }
+}
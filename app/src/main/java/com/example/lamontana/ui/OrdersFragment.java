@@ -0,0 +1,142 @@
+package com.example.lamontana.ui;
+
+import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.lamontana.R;
+import com.example.lamontana.ui.orders.OrdersAdapter;
+import com.example.lamontana.ui.rows.RowViewPool;
+import com.example.lamontana.viewmodel.OrderRow;
+import com.example.lamontana.viewmodel.OrdersViewModel;
+
+import java.util.List;
+
+/*
+ * ============================================================
+ * Archivo: OrdersFragment.java
+ * Paquete: com.example.lamontana.ui
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Destino "Mis pedidos" de MainActivity (menú desplegable):
+ *     historial de pedidos del usuario, más nuevos primero.
+ *   - Login, navbar y menú desplegable los resuelve MainActivity.
+ *   - Usa OrdersViewModel (alcance: MainActivity), que guarda las
+ *     páginas ya traídas: al abrir se hace UNA consulta chica y,
+ *     al volver a la pantalla, ninguna.
+ *   - Pide la página siguiente cuando el scroll se acerca al final
+ *     de la lista (LOAD_MORE_THRESHOLD filas antes).
+ *   - Tocar un pedido lo expande y recién ahí se piden sus líneas.
+ * ============================================================
+ */
+public class OrdersFragment extends Fragment {
+
+    /** Filas antes del final a partir de las cuales se pide otra página. */
+    private static final int LOAD_MORE_THRESHOLD = 3;
+
+    // Filas que se piden pre-infladas al abrir la pantalla
+    private static final int PREFETCH_ROWS = 6;
+
+    private RecyclerView rvOrders;
+    private TextView tvOrdersStatus;
+    private OrdersAdapter ordersAdapter;
+
+    private OrdersViewModel ordersViewModel;
+
+    @Nullable
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater,
+                             @Nullable ViewGroup container,
+                             @Nullable Bundle savedInstanceState) {
+        return inflater.inflate(R.layout.fragment_orders, container, false);
+    }
+
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+        ordersViewModel = new ViewModelProvider(requireActivity()).get(OrdersViewModel.class);
+
+        rvOrders = view.findViewById(R.id.rvOrders);
+        tvOrdersStatus = view.findViewById(R.id.tvOrdersStatus);
+
+        ordersAdapter = new OrdersAdapter(orderId -> ordersViewModel.toggleExpanded(orderId));
+
+        RowViewPool rowPool = RowViewPool.get(requireContext());
+        rowPool.prefetch(R.layout.item_order, PREFETCH_ROWS);
+        rvOrders.setRecycledViewPool(rowPool.getRecycledViewPool());
+
+        final LinearLayoutManager layoutManager = new LinearLayoutManager(requireContext());
+        rvOrders.setLayoutManager(layoutManager);
+        rvOrders.setAdapter(ordersAdapter);
+
+        // Paginado: al acercarse al final se pide la página siguiente.
+        rvOrders.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (dy <= 0) return;
+                int lastVisible = layoutManager.findLastVisibleItemPosition();
+                if (lastVisible >= ordersAdapter.getItemCount() - LOAD_MORE_THRESHOLD) {
+                    ordersViewModel.loadNextPage();
+                }
+            }
+        });
+
+        ordersViewModel.getRows().observe(getViewLifecycleOwner(), rows -> {
+            ordersAdapter.submitList(rows);
+            updateStatus();
+        });
+        ordersViewModel.getLoading().observe(getViewLifecycleOwner(), loading -> updateStatus());
+        ordersViewModel.getError().observe(getViewLifecycleOwner(), msg -> {
+            if (msg != null && !msg.isEmpty()) {
+                Toast.makeText(requireContext(), msg, Toast.LENGTH_SHORT).show();
+            }
+        });
+
+        // Primera página (solo si no está en cache)
+        ordersViewModel.loadFirstPageIfNeeded();
+    }
+
+    @Override
+    public void onHiddenChanged(boolean hidden) {
+        super.onHiddenChanged(hidden);
+        // Al volver a la pantalla: no consulta nada si ya hay páginas.
+        if (!hidden && ordersViewModel != null) {
+            ordersViewModel.loadFirstPageIfNeeded();
+        }
+    }
+
+    @Override
+    public void onDestroyView() {
+        // Devuelve las filas al RecycledViewPool compartido.
+        if (rvOrders != null) {
+            rvOrders.setAdapter(null);
+        }
+        super.onDestroyView();
+    }
+
+    /** Texto de estado: "cargando" o "sin pedidos" solo si la lista está vacía. */
+    private void updateStatus() {
+        if (tvOrdersStatus == null) return;
+
+        List<OrderRow> rows = ordersViewModel.getRows().getValue();
+        boolean empty = rows == null || rows.isEmpty();
+        boolean loading = Boolean.TRUE.equals(ordersViewModel.getLoading().getValue());
+
+        if (!empty) {
+            tvOrdersStatus.setVisibility(View.GONE);
+        } else {
+            tvOrdersStatus.setText(loading ? R.string.orders_loading : R.string.orders_empty);
+            tvOrdersStatus.setVisibility(View.VISIBLE);
+        }
+    }
+}
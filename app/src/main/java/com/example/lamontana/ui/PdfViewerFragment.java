@@ -0,0 +1,174 @@
+package com.example.lamontana.ui;
+
+import android.net.Uri;
+import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.Button;
+import android.widget.ProgressBar;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
+
+import com.example.lamontana.R;
+import com.example.lamontana.data.pdf.PdfDocumentInfo;
+import com.example.lamontana.data.pdf.PdfTileRenderer;
+import com.example.lamontana.ui.navbar.Navigator;
+import com.example.lamontana.ui.viewer.TiledPageView;
+import com.example.lamontana.viewmodel.PrintJobViewModel;
+
+/*
+ * ============================================================
+ * Archivo: PdfViewerFragment.java
+ * Paquete: com.example.lamontana.ui
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Destino "Visor" de MainActivity: muestra el PDF elegido en
+ *     Servicios página por página, con zoom, para revisarlo en
+ *     detalle antes de imprimir. Se abre tocando una miniatura.
+ *   - Usa PrintJobViewModel (alcance: MainActivity): el archivo es
+ *     getCurrentUri() y la página, getViewerPage().
+ *   - La página la dibuja TiledPageView con un PdfTileRenderer.
+ *
+ * Memoria:
+ *   - El renderer (hilo, documento abierto, tiles) vive solo
+ *     mientras la pantalla está visible: MainActivity conserva los
+ *     destinos ocultos, así que se cierra en onHiddenChanged(true)
+ *     y en onStop().
+ * ============================================================
+ */
+public class PdfViewerFragment extends Fragment implements TiledPageView.Listener {
+
+    private PrintJobViewModel printJobViewModel;
+
+    private TiledPageView tiledPageView;
+    private ProgressBar progressVisor;
+    private TextView txtPaginaVisor;
+    private Button btnPaginaAnterior;
+    private Button btnPaginaSiguiente;
+
+    @Nullable private PdfTileRenderer renderer;
+
+    @Nullable
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater,
+                             @Nullable ViewGroup container,
+                             @Nullable Bundle savedInstanceState) {
+        return inflater.inflate(R.layout.fragment_pdf_viewer, container, false);
+    }
+
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+        printJobViewModel = new ViewModelProvider(requireActivity()).get(PrintJobViewModel.class);
+
+        tiledPageView = view.findViewById(R.id.tiledPageView);
+        progressVisor = view.findViewById(R.id.progressVisor);
+        txtPaginaVisor = view.findViewById(R.id.txtPaginaVisor);
+        btnPaginaAnterior = view.findViewById(R.id.btnPaginaAnterior);
+        btnPaginaSiguiente = view.findViewById(R.id.btnPaginaSiguiente);
+
+        tiledPageView.setListener(this);
+        btnPaginaAnterior.setOnClickListener(v -> movePage(-1));
+        btnPaginaSiguiente.setOnClickListener(v -> movePage(1));
+
+        printJobViewModel.getViewerPage().observe(getViewLifecycleOwner(), page -> {
+            int index = page != null ? page : 0;
+            progressVisor.setVisibility(View.VISIBLE);
+            tiledPageView.showPage(index);
+            updatePageBar(index);
+        });
+    }
+
+    @Override
+    public void onStart() {
+        super.onStart();
+        if (!isHidden()) openRenderer();
+    }
+
+    @Override
+    public void onStop() {
+        closeRenderer();
+        super.onStop();
+    }
+
+    @Override
+    public void onHiddenChanged(boolean hidden) {
+        super.onHiddenChanged(hidden);
+        if (hidden) {
+            closeRenderer();
+        } else {
+            openRenderer();
+        }
+    }
+
+    @Override
+    public void onDestroyView() {
+        closeRenderer();
+        super.onDestroyView();
+    }
+
+    // ------------------------------
+    // TiledPageView.Listener
+    // ------------------------------
+
+    @Override
+    public void onPageShown(int page) {
+        progressVisor.setVisibility(View.GONE);
+    }
+
+    @Override
+    public void onError() {
+        Toast.makeText(requireContext(), R.string.viewer_error, Toast.LENGTH_SHORT).show();
+        closeRenderer();
+        ((Navigator) requireActivity()).navigateBack();
+    }
+
+    // ------------------------------
+    // Internos
+    // ------------------------------
+
+    /** Abre el documento vigente (o vuelve atrás si no hay ninguno). */
+    private void openRenderer() {
+        if (renderer != null || tiledPageView == null) return;
+
+        Uri uri = printJobViewModel.getCurrentUri();
+        if (uri == null || printJobViewModel.getAnalysis().getValue() == null) {
+            Toast.makeText(requireContext(), R.string.viewer_no_file, Toast.LENGTH_SHORT).show();
+            ((Navigator) requireActivity()).navigateBack();
+            return;
+        }
+
+        progressVisor.setVisibility(View.VISIBLE);
+        renderer = new PdfTileRenderer(requireContext().getContentResolver(), uri, tiledPageView);
+        tiledPageView.setRenderer(renderer);
+        // El archivo pudo cambiar mientras la pantalla estaba oculta
+        Integer page = printJobViewModel.getViewerPage().getValue();
+        updatePageBar(page != null ? page : 0);
+    }
+
+    private void closeRenderer() {
+        if (renderer == null) return;
+        tiledPageView.setRenderer(null);
+        renderer.close();
+        renderer = null;
+    }
+
+    private void movePage(int delta) {
+        Integer page = printJobViewModel.getViewerPage().getValue();
+        printJobViewModel.setViewerPage((page != null ? page : 0) + delta);
+    }
+
+    private void updatePageBar(int page) {
+        PdfDocumentInfo info = printJobViewModel.getAnalysis().getValue();
+        int total = info != null ? info.paginas : 0;
+        txtPaginaVisor.setText(getString(R.string.viewer_page_format, page + 1, total));
+        btnPaginaAnterior.setEnabled(page > 0);
+        btnPaginaSiguiente.setEnabled(page < total - 1);
+    }
+}
@@ -0,0 +1,312 @@
+package com.example.lamontana.ui;
+
+import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.EditText;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
+
+import com.example.lamontana.R;
+import com.example.lamontana.model.UserProfile;
+import com.example.lamontana.ui.profile.ModificarContrasenaHelper;
+import com.example.lamontana.viewmodel.ProfileViewModel;
+
+/*
+ * ============================================================
+ * Archivo: ProfileFragment.java
+ * Paquete: com.example.lamontana.ui
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Destino "Mis datos" de MainActivity.
+ *   - Muestra y permite editar los datos básicos del usuario:
+ *       · nombre
+ *       · apellido
+ *       · email (solo lectura)
+ *       · teléfono
+ *       · dirección
+ *   - Muestra el perfil de ProfileRepository (vía ProfileViewModel):
+ *     cache reactiva compartida con Checkout, sin lecturas de red
+ *     al abrir la pantalla. Si el perfil cambia (otro equipo,
+ *     checkout) y el usuario no estaba editando, el formulario se
+ *     actualiza solo.
+ *   - Delegar el guardado de cambios al ProfileViewModel, que:
+ *       · Actualiza UserStore.
+ *       · Sincroniza con Firestore (colección "usuarios").
+ *       · Expone estados loading / saveSuccess / errorMessage.
+ *   - Muestra si quedan cambios sin subir a Firestore (pendientes o
+ *     fallidos en WriteOutbox) y permite reintentar los fallidos.
+ *   - Ofrece la acción "Cambiar contraseña", delegando toda la
+ *     lógica de Auth + Firestore en:
+ *       · ModificarContrasenaHelper.mostrarDialogoCambioContrasena(...)
+ *   - El navbar y su menú desplegable los aporta MainActivity.
+ *
+ * Clases usadas:
+ *   - ProfileViewModel:
+ *       * Orquesta el guardado de perfil (UserStore + Firestore).
+ *       * Alcance de MainActivity (compartido entre destinos).
+ *   - ModificarContrasenaHelper:
+ *       * Encapsula el flujo de "Cambiar contraseña".
+ *
+ * Métodos presentes:
+ *   - onViewCreated(View, Bundle):
+ *       * Inicializa vistas, ViewModel, listeners y carga datos
+ *         del usuario.
+ *   - onHiddenChanged(boolean):
+ *       * Re-carga el perfil vigente al volver a mostrarse.
+ *   - initViews(View):
+ *       * Enlaza las vistas de los campos de perfil.
+ *   - setupListeners():
+ *       * Configura botones de "Guardar" y "Cambiar contraseña".
+ *   - observeViewModel():
+ *       * Observa loading / saveSuccess / errorMessage y el estado
+ *         de la bandeja de salida del ProfileViewModel.
+ *   - renderSyncStatus():
+ *       * Muestra / oculta la fila de cambios pendientes o fallidos.
+ *   - saveProfile():
+ *       * Lee campos del formulario y delega el guardado en
+ *         profileViewModel.saveProfile(...).
+ *   - loadUserData() / bindUserData(UserProfile):
+ *       * Vuelca el perfil vigente en los EditText.
+ * ============================================================
+ */
+
+public class ProfileFragment extends Fragment {
+
+    // --- Vistas de formulario ---
+    private EditText etNombre;
+    private EditText etApellido;
+    private EditText etEmail;
+    private EditText etTelefono;
+    private EditText etDireccion;
+    private View btnSave;
+    private View btnChangePassword;
+
+    // --- Estado de la bandeja de salida ---
+    private View layoutSyncStatus;
+    private TextView tvSyncStatus;
+    private View btnSyncRetry;
+
+    // ViewModel para gestionar perfil de usuario
+    private ProfileViewModel profileViewModel;
+
+    /** Último perfil volcado al formulario (detecta ediciones en curso). */
+    @Nullable private UserProfile boundProfile;
+
+    @Nullable
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater,
+                             @Nullable ViewGroup container,
+                             @Nullable Bundle savedInstanceState) {
+        return inflater.inflate(R.layout.fragment_profile, container, false);
+    }
+
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+
+        initViews(view);
+
+        // ---------- ViewModel compartido (alcance: MainActivity) ----------
+        profileViewModel = new ViewModelProvider(requireActivity()).get(ProfileViewModel.class);
+        observeViewModel();
+
+        setupListeners();
+        loadUserData();
+    }
+
+    @Override
+    public void onHiddenChanged(boolean hidden) {
+        super.onHiddenChanged(hidden);
+        // Al volver a "Mis datos" se muestran los datos más recientes
+        // (pudieron cambiar desde el checkout o desde otro equipo).
+        if (!hidden) {
+            loadUserData();
+        }
+    }
+
+    /**
+     * Enlaza las vistas de la pantalla con las variables del Fragment.
+     */
+    private void initViews(View view) {
+        etNombre = view.findViewById(R.id.etNombre);
+        etApellido = view.findViewById(R.id.etApellido);
+        etEmail = view.findViewById(R.id.etEmail);
+        etTelefono = view.findViewById(R.id.etTelefono);
+        etDireccion = view.findViewById(R.id.etDireccion);
+
+        btnSave = view.findViewById(R.id.btnSave);
+        btnChangePassword = view.findViewById(R.id.btnChangePassword);
+
+        layoutSyncStatus = view.findViewById(R.id.layoutSyncStatus);
+        tvSyncStatus = view.findViewById(R.id.tvSyncStatus);
+        btnSyncRetry = view.findViewById(R.id.btnSyncRetry);
+    }
+
+    /**
+     * Vuelca el perfil en los EditText.
+     */
+    private void bindUserData(UserProfile u) {
+        boundProfile = u;
+
+        if (etNombre != null)   etNombre.setText(u.nombre);
+        if (etApellido != null) etApellido.setText(u.apellido);
+        if (etEmail != null)    etEmail.setText(u.email);
+        if (etTelefono != null) etTelefono.setText(u.telefono);
+        if (etDireccion != null)etDireccion.setText(u.direccion);
+    }
+
+    /**
+     * Configura listeners para los botones de "Guardar" y "Cambiar contraseña".
+     */
+    private void setupListeners() {
+        if (btnSave != null) {
+            btnSave.setOnClickListener(v -> saveProfile());
+        }
+
+        if (btnChangePassword != null) {
+            btnChangePassword.setOnClickListener(
+                    v -> ModificarContrasenaHelper.mostrarDialogoCambioContrasena(requireActivity())
+            );
+        }
+
+        if (btnSyncRetry != null) {
+            btnSyncRetry.setOnClickListener(v -> profileViewModel.retryFailedWrites());
+        }
+    }
+
+    /**
+     * Observa los estados del ProfileViewModel para actualizar la UI.
+     */
+    private void observeViewModel() {
+        if (profileViewModel == null) return;
+
+        // Perfil compartido: se re-dibuja solo si el usuario no está editando
+        profileViewModel.getProfile().observe(getViewLifecycleOwner(), profile -> {
+            if (profile != null && !isEditing()) {
+                bindUserData(profile);
+            }
+        });
+
+        // Loading: habilitar / deshabilitar botón "Guardar cambios"
+        profileViewModel.getLoading().observe(getViewLifecycleOwner(), isLoading -> {
+            if (btnSave != null && isLoading != null) {
+                btnSave.setEnabled(!isLoading);
+            }
+        });
+
+        // saveSuccess: guardado en el equipo (la subida la muestra renderSyncStatus)
+        profileViewModel.getSaveSuccess().observe(getViewLifecycleOwner(), success -> {
+            if (success != null && success) {
+                Toast.makeText(
+                        requireContext(),
+                        R.string.profile_saved_queued,
+                        Toast.LENGTH_SHORT
+                ).show();
+            }
+        });
+
+        // Bandeja de salida: cambios pendientes / fallidos
+        profileViewModel.getPendingWrites().observe(getViewLifecycleOwner(), n -> renderSyncStatus());
+        profileViewModel.getFailedWrites().observe(getViewLifecycleOwner(), n -> renderSyncStatus());
+
+        // errorMessage: mostrar mensaje de error
+        profileViewModel.getErrorMessage().observe(getViewLifecycleOwner(), msg -> {
+            if (msg != null && !msg.trim().isEmpty()) {
+                Toast.makeText(
+                        requireContext(),
+                        msg,
+                        Toast.LENGTH_LONG
+                ).show();
+            }
+        });
+    }
+
+    /**
+     * Fallidos primero (requieren acción); si no, pendientes; si no
+     * queda nada por subir, la fila se oculta.
+     */
+    private void renderSyncStatus() {
+        if (layoutSyncStatus == null) return;
+        Integer pending = profileViewModel.getPendingWrites().getValue();
+        Integer failed = profileViewModel.getFailedWrites().getValue();
+        int p = pending != null ? pending : 0;
+        int f = failed != null ? failed : 0;
+
+        if (f > 0) {
+            tvSyncStatus.setText(getString(R.string.profile_sync_failed, f));
+            btnSyncRetry.setVisibility(View.VISIBLE);
+            layoutSyncStatus.setVisibility(View.VISIBLE);
+        } else if (p > 0) {
+            tvSyncStatus.setText(getString(R.string.profile_sync_pending, p));
+            btnSyncRetry.setVisibility(View.GONE);
+            layoutSyncStatus.setVisibility(View.VISIBLE);
+        } else {
+            layoutSyncStatus.setVisibility(View.GONE);
+        }
+    }
+
+    /**
+     * Lee los campos del formulario y delega el guardado en el ViewModel.
+     */
+    private void saveProfile() {
+        // 1) Leer campos desde la UI
+        String nombre = etNombre != null ? etNombre.getText().toString().trim() : "";
+        String apellido = etApellido != null ? etApellido.getText().toString().trim() : "";
+        String telefono = etTelefono != null ? etTelefono.getText().toString().trim() : "";
+        String direccion = etDireccion != null ? etDireccion.getText().toString().trim() : "";
+
+        // Validación mínima: nombre no vacío (podés sumar más si querés)
+        if (nombre.isEmpty()) {
+            if (etNombre != null) {
+                etNombre.setError("Ingrese su nombre");
+                etNombre.requestFocus();
+            }
+            return;
+        }
+
+        if (profileViewModel == null) {
+            Toast.makeText(
+                    requireContext(),
+                    "Error interno: ProfileViewModel no inicializado",
+                    Toast.LENGTH_SHORT
+            ).show();
+            return;
+        }
+
+        // 2) Delegar la lógica de guardado al ViewModel
+        profileViewModel.saveProfile(nombre, apellido, telefono, direccion);
+    }
+
+    /**
+     * Carga el perfil vigente (cache en memoria) a la UI.
+     */
+    private void loadUserData() {
+        UserProfile profile = profileViewModel.getProfile().getValue();
+        if (profile != null) {
+            bindUserData(profile);
+        }
+    }
+
+    /**
+     * true si el formulario tiene cambios sin guardar respecto del
+     * último perfil volcado.
+     */
+    private boolean isEditing() {
+        if (boundProfile == null) return false;
+        return !boundProfile.nombre.equals(textOf(etNombre))
+                || !boundProfile.apellido.equals(textOf(etApellido))
+                || !boundProfile.telefono.equals(textOf(etTelefono))
+                || !boundProfile.direccion.equals(textOf(etDireccion));
+    }
+
+    private static String textOf(EditText et) {
+        return et != null ? et.getText().toString() : "";
+    }
+}
@@ -0,0 +1,464 @@
+package com.example.lamontana.ui;
+
+
+import android.net.Uri;
+import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.*;
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.lamontana.R;
+import com.example.lamontana.data.pdf.PageColorMap;
+import com.example.lamontana.data.pdf.PdfDocumentInfo;
+import com.example.lamontana.data.pricing.PricingEngine;
+import com.example.lamontana.data.pricing.PrintJob;
+import com.example.lamontana.data.pricing.ServicePriceTable;
+import com.example.lamontana.data.pricing.ServiciosRepository;
+import com.example.lamontana.ui.navbar.Destination;
+import com.example.lamontana.ui.navbar.Navigator;
+import com.example.lamontana.ui.rows.RowViewPool;
+import com.example.lamontana.ui.servicios.ThumbnailAdapter;
+import com.example.lamontana.viewmodel.CheckoutViewModel;
+import com.example.lamontana.viewmodel.PrintJobViewModel;
+
+import java.util.Arrays;
+
+// Destino "Servicios" de MainActivity (impresiones y copias).
+// Navbar y menú desplegable los aporta MainActivity.
+// El PDF elegido se analiza en segundo plano (PrintJobViewModel +
+// PdfAnalyzer), con progreso y botón para cancelar. Al terminar, el
+// modo "Por página" cobra cada carilla B/N o color según el PDF
+// (PageColorClassifier). Al pagar (paso al checkout) el PDF se sube a
+// Storage y su path viaja en el PrintJob hasta el pedido; con un archivo
+// elegido, Pagar no avanza hasta que ese path se conoce. Debajo del nombre se
+// muestra una tira de miniaturas de las páginas (PdfThumbnails);
+// tocar una abre el visor con zoom (PdfViewerFragment) en esa página.
+// Los precios (y los tamaños de hoja de spPaperSize) salen de la tabla
+// de ServiciosRepository (colección "servicios"); recalcularTotal la
+// evalúa en cada tecla sin crear objetos, y el PrintJob recién se arma
+// al pagar.
+public class ServiciosFragment extends Fragment {
+
+    // Navegación entre destinos (MainActivity)
+    private Navigator navigator;
+
+    // Precios: tabla compilada de ServiciosRepository (centavos exactos)
+    private ServicePriceTable tabla;
+
+    /** Último total dibujado en txtTotal (no se re-formatea si no cambió). */
+    private long totalMostrado = -1;
+
+    /** Tope de carillas que se aceptan del EditText. */
+    private static final int MAX_CARILLAS = 1_000_000;
+
+
+//
+    private TextView tvCartGrandTotal;
+    TextView txtTotal;
+    Button btnPagar;
+
+
+    Button btnArchivo;
+
+    TextView txtArchivo;
+    EditText edtCarillas, edtNotas;
+    Spinner spPaperSize, spMetodoPago;
+    RadioGroup rgModo;
+    CheckBox chkDobleFaz, chkEncuadernado, chkAnillado;
+
+    private Uri archivoSeleccionadoUri;
+
+    // Análisis del PDF (alcance: MainActivity, sobrevive a rotaciones)
+    private PrintJobViewModel printJobViewModel;
+    View layoutAnalisis;
+    ProgressBar progressAnalisis;
+    Button btnCancelarAnalisis;
+    RadioButton rbBN, rbColor, rbAuto;
+    TextView txtColorPaginas;
+    TextView txtSubida;
+    RecyclerView recyclerMiniaturas;
+    private ThumbnailAdapter thumbnailAdapter;
+
+    /** Páginas color/B&N del PDF actual (null: sin clasificar). */
+    private PageColorMap mapaColor;
+
+    /** Último análisis volcado en edtCarillas (no se re-aplica al mismo). */
+    private PdfDocumentInfo analisisAplicado;
+
+    // Se llama en cada tecla: solo lee los controles y evalúa la tabla
+    private void recalcularTotal() {
+        if (tabla == null) return;
+
+        int carillas = parseCarillas(edtCarillas.getText());
+        PrintJob.Modo modo = modoElegido();
+        int carillasColor = mapaColor != null ? Math.min(carillas, mapaColor.getColorCount()) : 0;
+
+        long total = tabla.printJobCents(
+                spPaperSize.getSelectedItemPosition(),
+                modo,
+                carillas,
+                carillasColor,
+                chkDobleFaz.isChecked(),
+                chkAnillado.isChecked(),
+                chkEncuadernado.isChecked()
+        );
+        if (total == totalMostrado) return;
+        totalMostrado = total;
+        txtTotal.setText("TOTAL: " + PricingEngine.format(total));
+    }
+
+    // Trabajo que se pasa al checkout (CheckoutViewModel)
+    private PrintJob armarTrabajo() {
+        int carillas = parseCarillas(edtCarillas.getText());
+        int papel = spPaperSize.getSelectedItemPosition();
+        return new PrintJob(
+                carillas,
+                modoElegido(),
+                mapaColor != null ? mapaColor.getColorCount() : 0,
+                chkDobleFaz.isChecked(),
+                chkAnillado.isChecked(),
+                chkEncuadernado.isChecked(),
+                tabla != null && papel >= 0 && papel < tabla.getPaperCount()
+                        ? tabla.getPaperId(papel)
+                        : null,
+                printJobViewModel.getUploadPath()
+        );
+    }
+
+    // Blanco y negro, color o por página
+    private PrintJob.Modo modoElegido() {
+        int modoSeleccionado = rgModo.getCheckedRadioButtonId();
+        if (modoSeleccionado == R.id.rbBN) {
+            return PrintJob.Modo.BN;
+        } else if (modoSeleccionado == R.id.rbColor) {
+            return PrintJob.Modo.COLOR;
+        } else if (modoSeleccionado == R.id.rbAuto && mapaColor != null) {
+            return PrintJob.Modo.AUTOMATICO;
+        }
+        return PrintJob.Modo.SIN_ELEGIR;
+    }
+
+    // Dígitos del EditText sin pasar por String (vacío = 0)
+    private static int parseCarillas(CharSequence texto) {
+        int valor = 0;
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c < '0' || c > '9') continue;
+            valor = valor * 10 + (c - '0');
+            if (valor >= MAX_CARILLAS) return MAX_CARILLAS;
+        }
+        return valor;
+    }
+
+    ActivityResultLauncher<String> seleccionarArchivo;
+
+
+    @Override
+    public void onCreate(@Nullable Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        printJobViewModel = new ViewModelProvider(requireActivity()).get(PrintJobViewModel.class);
+
+        // Selector de archivo (se registra antes de que el Fragment arranque)
+        seleccionarArchivo = registerForActivityResult(
+                new ActivityResultContracts.GetContent(),
+                uri -> {
+                    if (uri != null) {
+
+                        archivoSeleccionadoUri = uri;
+
+                        txtArchivo.setText(uri.getLastPathSegment());
+
+                        // Las carillas se detectan en segundo plano; el
+                        // resultado llega por getAnalysis()
+                        printJobViewModel.analyze(uri);
+                    }
+                }
+        );
+    }
+
+    @Nullable
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater,
+                             @Nullable ViewGroup container,
+                             @Nullable Bundle savedInstanceState) {
+        return inflater.inflate(R.layout.fragment_servicios, container, false);
+    }
+
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+        navigator = (Navigator) requireActivity();
+
+//        seccion total y pagar
+        txtTotal = view.findViewById(R.id.txtTotal);
+        btnPagar = view.findViewById(R.id.btnPagar);
+
+        // Referencias
+        btnArchivo = view.findViewById(R.id.btnArchivo);
+        txtArchivo = view.findViewById(R.id.txtArchivo);
+        edtCarillas = view.findViewById(R.id.edtCarillas);
+        edtNotas = view.findViewById(R.id.edtNotas);
+        spPaperSize = view.findViewById(R.id.spPaperSize);
+        spMetodoPago = view.findViewById(R.id.spMetodoPago);
+        rgModo = view.findViewById(R.id.rgModo);
+        chkDobleFaz = view.findViewById(R.id.chkDobleFaz);
+        chkEncuadernado = view.findViewById(R.id.chkEncuadernado);
+        chkAnillado = view.findViewById(R.id.chkAnillado);
+        layoutAnalisis = view.findViewById(R.id.layoutAnalisis);
+        progressAnalisis = view.findViewById(R.id.progressAnalisis);
+        btnCancelarAnalisis = view.findViewById(R.id.btnCancelarAnalisis);
+        rbBN = view.findViewById(R.id.rbBN);
+        rbColor = view.findViewById(R.id.rbColor);
+        rbAuto = view.findViewById(R.id.rbAuto);
+        txtColorPaginas = view.findViewById(R.id.txtColorPaginas);
+        txtSubida = view.findViewById(R.id.txtSubida);
+        recyclerMiniaturas = view.findViewById(R.id.recyclerMiniaturas);
+
+        // Tira de miniaturas: sin prefetch de items, solo se renderiza
+        // lo que está en pantalla
+        LinearLayoutManager miniaturasLayout = new LinearLayoutManager(
+                requireContext(), LinearLayoutManager.HORIZONTAL, false);
+        miniaturasLayout.setItemPrefetchEnabled(false);
+        recyclerMiniaturas.setLayoutManager(miniaturasLayout);
+        recyclerMiniaturas.setRecycledViewPool(RowViewPool.get(requireContext()).getRecycledViewPool());
+        thumbnailAdapter = new ThumbnailAdapter(printJobViewModel.getThumbnails(), page -> {
+            printJobViewModel.setViewerPage(page);
+            navigator.navigateTo(Destination.VISOR);
+        });
+        recyclerMiniaturas.setAdapter(thumbnailAdapter);
+
+        archivoSeleccionadoUri = printJobViewModel.getCurrentUri();
+        btnCancelarAnalisis.setOnClickListener(v -> printJobViewModel.cancel());
+        observarAnalisis();
+
+//        Btn para realizar el pago: el total viaja en el CheckoutViewModel
+//        compartido y se navega al destino Checkout
+        if (btnPagar != null){
+            btnPagar.setOnClickListener(v -> {
+                // Archivo elegido sin path todavía (hash en curso, sin
+                // Storage...): sin él el pedido saldría sin el PDF.
+                String bloqueo = printJobViewModel.getUploadBlocker();
+                if (bloqueo != null) {
+                    Toast.makeText(requireContext(), bloqueo, Toast.LENGTH_SHORT).show();
+                    return;
+                }
+                // El archivo se sube recién ahora (mientras se completa el
+                // checkout): elegir archivos sin pedirlos no llena Storage.
+                printJobViewModel.upload();
+                CheckoutViewModel checkout = new ViewModelProvider(requireActivity())
+                        .get(CheckoutViewModel.class);
+                // Las carillas también suman recargo al envío
+                checkout.setPrintJob(armarTrabajo());
+                navigator.navigateTo(Destination.CHECKOUT);
+            }
+            );
+        };
+
+        btnArchivo.setOnClickListener(v ->
+                seleccionarArchivo.launch("application/pdf")
+        );
+
+        btnArchivo.setOnClickListener(v ->
+                seleccionarArchivo.launch("*/*")
+        );
+
+
+
+//      escucha de cambios
+        edtCarillas.addTextChangedListener(new SimpleTextWatcher() {
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+                recalcularTotal();
+            }
+        });
+
+        rgModo.setOnCheckedChangeListener((group, checkedId) -> recalcularTotal());
+        chkDobleFaz.setOnCheckedChangeListener((b, v) -> recalcularTotal());
+        chkAnillado.setOnCheckedChangeListener((b, v) -> recalcularTotal());
+        chkEncuadernado.setOnCheckedChangeListener((b, v) -> recalcularTotal());
+
+        // Spinner tamaño hoja: opciones y precios de la tabla de servicios
+        spPaperSize.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View v, int position, long id) {
+                recalcularTotal();
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {
+            }
+        });
+        ServiciosRepository.getInstance().getTable()
+                .observe(getViewLifecycleOwner(), this::aplicarTabla);
+
+        // Spinner método pago
+        ArrayAdapter<String> pagoAdapter = new ArrayAdapter<>(
+                requireContext(),
+                android.R.layout.simple_spinner_dropdown_item,
+                Arrays.asList("Efectivo", "Transferencia")
+        );
+        spMetodoPago.setAdapter(pagoAdapter);
+
+
+
+    }
+
+    /**
+     * Tabla de precios nueva (al abrir o si cambió en Firestore):
+     * tamaños de hoja, servicios disponibles y total.
+     */
+    private void aplicarTabla(ServicePriceTable nueva) {
+        if (nueva == null || nueva == tabla) return;
+
+        // Se conserva el papel elegido si sigue en la tabla
+        int anterior = spPaperSize.getSelectedItemPosition();
+        String papelElegido = tabla != null && anterior >= 0 && anterior < tabla.getPaperCount()
+                ? tabla.getPaperId(anterior)
+                : null;
+        tabla = nueva;
+
+        String[] papeles = new String[nueva.getPaperCount()];
+        for (int i = 0; i < papeles.length; i++) {
+            papeles[i] = nueva.getPaperLabel(i);
+        }
+        ArrayAdapter<String> paperAdapter = new ArrayAdapter<>(
+                requireContext(),
+                android.R.layout.simple_spinner_dropdown_item,
+                papeles
+        );
+        spPaperSize.setAdapter(paperAdapter);
+        spPaperSize.setSelection(nueva.paperIndex(papelElegido));
+
+        actualizarDisponibles();
+        totalMostrado = -1;
+        recalcularTotal();
+    }
+
+    /**
+     * Habilita solo lo que la tabla ofrece (y "Por página" si además
+     * el PDF está clasificado).
+     */
+    private void actualizarDisponibles() {
+        boolean bn = tabla == null || tabla.isDisponible(ServicePriceTable.BN);
+        boolean color = tabla == null || tabla.isDisponible(ServicePriceTable.COLOR);
+        habilitar(rbBN, bn);
+        habilitar(rbColor, color);
+        habilitar(rbAuto, bn && color && mapaColor != null);
+        habilitar(chkDobleFaz, tabla == null || tabla.isDisponible(ServicePriceTable.DOBLE_FAZ));
+        habilitar(chkAnillado, tabla == null || tabla.isDisponible(ServicePriceTable.ANILLADO));
+        habilitar(chkEncuadernado, tabla == null || tabla.isDisponible(ServicePriceTable.ENCUADERNADO));
+    }
+
+    private void habilitar(CompoundButton boton, boolean habilitado) {
+        boton.setEnabled(habilitado);
+        if (habilitado || !boton.isChecked()) return;
+        if (boton instanceof RadioButton) {
+            rgModo.clearCheck();
+        } else {
+            boton.setChecked(false);
+        }
+    }
+
+    /**
+     * Estado de la subida del PDF a Storage.
+     */
+    private void observarSubida() {
+        printJobViewModel.getUploadProgress().observe(getViewLifecycleOwner(), percent -> {
+            if (Boolean.TRUE.equals(printJobViewModel.getUploading().getValue())) {
+                txtSubida.setText("Subiendo archivo… " + (percent != null ? percent : 0) + "%");
+                txtSubida.setVisibility(View.VISIBLE);
+            }
+        });
+
+        printJobViewModel.getUploading().observe(getViewLifecycleOwner(), subiendo -> {
+            if (Boolean.TRUE.equals(subiendo)) {
+                txtSubida.setText("Subiendo archivo…");
+                txtSubida.setVisibility(View.VISIBLE);
+            } else if (printJobViewModel.getUploadedPath().getValue() == null
+                    && printJobViewModel.getUploadError().getValue() == null) {
+                txtSubida.setVisibility(View.GONE);
+            }
+        });
+
+        printJobViewModel.getUploadedPath().observe(getViewLifecycleOwner(), path -> {
+            if (path != null) {
+                txtSubida.setText("Archivo subido ✓");
+                txtSubida.setVisibility(View.VISIBLE);
+            }
+        });
+
+        printJobViewModel.getUploadError().observe(getViewLifecycleOwner(), msg -> {
+            if (msg == null) return;
+            txtSubida.setText(msg);
+            txtSubida.setVisibility(View.VISIBLE);
+        });
+    }
+
+    /**
+     * Progreso, resultado y errores del análisis del PDF.
+     */
+    private void observarAnalisis() {
+        printJobViewModel.getAnalyzing().observe(getViewLifecycleOwner(), analyzing ->
+                layoutAnalisis.setVisibility(Boolean.TRUE.equals(analyzing) ? View.VISIBLE : View.GONE));
+
+        printJobViewModel.getProgress().observe(getViewLifecycleOwner(), percent ->
+                progressAnalisis.setProgress(percent != null ? percent : 0));
+
+        printJobViewModel.getAnalysis().observe(getViewLifecycleOwner(), info -> {
+            // Miniaturas: también al recrear la vista con el mismo análisis
+            thumbnailAdapter.setPageCount(info != null ? info.paginas : 0);
+            recyclerMiniaturas.setVisibility(info != null ? View.VISIBLE : View.GONE);
+
+            if (info == null || info == analisisAplicado) return;
+            analisisAplicado = info;
+
+            txtArchivo.setText(info.nombre + " · " + info.paginas + " páginas");
+            // Detecta carillas automáticamente
+            edtCarillas.setText(String.valueOf(info.paginas));
+            recalcularTotal();
+        });
+
+        // Color por página: habilita "Por página" y lo deja elegido
+        printJobViewModel.getColorMap().observe(getViewLifecycleOwner(), map -> {
+            boolean nuevo = map != null && map != mapaColor;
+            mapaColor = map;
+            actualizarDisponibles();
+            if (map == null) {
+                txtColorPaginas.setVisibility(View.GONE);
+            } else {
+                txtColorPaginas.setText(map.getColorCount() + " páginas a color, "
+                        + map.getGrayCount() + " en blanco y negro");
+                txtColorPaginas.setVisibility(View.VISIBLE);
+                if (nuevo && rbAuto.isEnabled()) rbAuto.setChecked(true);
+            }
+            recalcularTotal();
+        });
+
+        observarSubida();
+
+        printJobViewModel.getError().observe(getViewLifecycleOwner(), msg -> {
+            if (msg == null) return;
+            txtArchivo.setText(msg);
+            edtCarillas.setText("0");
+        });
+    }
+
+    @Override
+    public void onDestroyView() {
+        // Devuelve las filas al RecycledViewPool compartido (y suelta
+        // los bitmaps de las miniaturas).
+        if (recyclerMiniaturas != null) {
+            recyclerMiniaturas.setAdapter(null);
+        }
+        super.onDestroyView();
+    }
+}
@@ -26,7 +26,7 @@ import com.google.firebase.auth.FirebaseUser;
     - Navegar nuevamente al Login o a la pantalla principal si el registro es válido.
     - Tras un registro exitoso, cargar en UserStore los datos básicos del usuario
       recién creado, usando el UID real obtenido desde FirebaseAuth, para que
-      otras pantallas (por ejemplo ProfileActivity) puedan sincronizar con Firestore.
+      otras pantallas (por ejemplo ProfileFragment) puedan sincronizar con Firestore.
 
   Alcance:
     - Forma parte del flujo de autenticación inicial de la app.
@@ -246,7 +246,7 @@ public class SignupActivity extends AppCompatActivity {
     }
 
     /**
-     * Navega a la pantalla principal (CatalogActivity) tras un registro exitoso.
+     * Navega a la pantalla principal (MainActivity, destino Catálogo) tras un registro exitoso.
      * Además, carga en UserStore el UID real del usuario autenticado para que
      * otras pantallas (por ejemplo Mis Datos) puedan usarlo al escribir en Firestore.
      */
@@ -262,8 +262,8 @@ public class SignupActivity extends AppCompatActivity {
         // Guardar datos básicos en UserStore usando el UID real
         UserStore.get().setBasicData(uid, name, email);
 
-        // Navegar a CatalogActivity
-        Intent intent = new Intent(this, CatalogActivity.class);
+        // Navegar a MainActivity (abre en el Catálogo)
+        Intent intent = new Intent(this, MainActivity.class);
         startActivity(intent);
 
         // Cierra SignupActivity para no volver con back
@@ -3,23 +3,42 @@ package com.example.lamontana.ui;
 import android.content.Intent;
 import android.os.Bundle;
 import android.os.Handler;
+import android.view.View;
+import android.widget.TextView;
 
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.lamontana.R;
-import com.example.lamontana.ui.CatalogActivity;
 
 public class SuccessActivity extends AppCompatActivity {
 
+    /** ID del pedido recién guardado (lo envía CheckoutFragment). */
+    public static final String EXTRA_ORDER_ID = "ORDER_ID";
+    /** true si el pedido quedó guardado sin red, pendiente de sincronizar. */
+    public static final String EXTRA_PENDING_SYNC = "PENDING_SYNC";
+
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_success);
 
+        // Número de pedido para que el cliente pueda referenciarlo
+        String orderId = getIntent().getStringExtra(EXTRA_ORDER_ID);
+        TextView tvOrderId = findViewById(R.id.tvOrderId);
+        if (tvOrderId != null && orderId != null) {
+            tvOrderId.setText(getString(R.string.success_order_id_format, orderId));
+        }
+
+        // Sin red: el pedido está guardado y se envía al volver la conexión
+        TextView tvPendingSync = findViewById(R.id.tvPendingSync);
+        if (tvPendingSync != null && getIntent().getBooleanExtra(EXTRA_PENDING_SYNC, false)) {
+            tvPendingSync.setVisibility(View.VISIBLE);
+        }
+
         // Después de 2.5 segundos vuelve a catálogo
         new Handler().postDelayed(() -> {
-            Intent i = new Intent(SuccessActivity.this, CatalogActivity.class);
+            Intent i = new Intent(SuccessActivity.this, MainActivity.class);
             i.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP | Intent.FLAG_ACTIVITY_NEW_TASK);
             startActivity(i);
             finish();
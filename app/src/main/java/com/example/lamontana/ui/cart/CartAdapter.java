@@ -0,0 +1,255 @@
+package com.example.lamontana.ui.cart;
+
+import android.text.TextUtils;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.bumptech.glide.Glide;
+import com.example.lamontana.R;
+import com.example.lamontana.model.CartItem;
+import com.example.lamontana.model.Product;
+import com.example.lamontana.ui.rows.RowViewPool;
+import com.google.android.material.button.MaterialButton;
+
+import java.text.NumberFormat;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/*
+ * ============================================================
+ * Archivo: CartAdapter.java
+ * Paquete: com.example.lamontana.ui.cart
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Adapter del RecyclerView de la pantalla Carrito
+ *     (item_cart_detail.xml por fila).
+ *   - Usa IDs estables (uno por producto) y DiffUtil en segundo
+ *     plano (ListAdapter) para detectar qué filas cambiaron.
+ *   - Si en una fila solo cambió la cantidad, emite el payload
+ *     PAYLOAD_QTY y se re-dibujan ÚNICAMENTE tvQty y tvItemTotal:
+ *     la miniatura (Glide) y las filas vecinas no se tocan.
+ *   - Las filas salen de RowViewPool (pre-infladas en segundo
+ *     plano) y el viewType es el id del layout, para compartir el
+ *     RecycledViewPool de la app entre pantallas.
+ *
+ * Relación con otras clases:
+ *   - CartFragment: crea el adapter, le pasa la lista observada
+ *     (submitList) y recibe los clicks vía Listener.
+ *
+ * Métodos presentes:
+ *   - submitList(List<CartItem>) (heredado de ListAdapter).
+ *   - onBindViewHolder(holder, position, payloads): bind parcial.
+ * ============================================================
+ */
+public class CartAdapter extends ListAdapter<CartItem, CartAdapter.ViewHolder> {
+
+    /** Payload: solo cambió la cantidad de la línea. */
+    static final Object PAYLOAD_QTY = new Object();
+
+    /** Acciones de cada fila, delegadas en la Activity. */
+    public interface Listener {
+        void onIncrement(Product product);
+
+        void onDecrement(Product product);
+
+        void onRemove(Product product);
+    }
+
+    private final Listener listener;
+
+    /** ID estable por nombre de producto (clave lógica del carrito). */
+    private final Map<String, Long> stableIds = new HashMap<>();
+    private long nextId = 1;
+
+    public CartAdapter(Listener listener) {
+        super(DIFF);
+        this.listener = listener;
+        setHasStableIds(true);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        String name = getItem(position).product.name;
+        Long id = stableIds.get(name);
+        if (id == null) {
+            id = nextId++;
+            stableIds.put(name, id);
+        }
+        return id;
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return R.layout.item_cart_detail;
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View row = RowViewPool.get(parent.getContext()).obtain(viewType, parent);
+        return new ViewHolder(row);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        holder.listener = listener;
+        holder.bindFull(getItem(position));
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder,
+                                 int position,
+                                 @NonNull List<Object> payloads) {
+        // Siempre, antes de cualquier bind: la fila pudo venir del pool
+        // compartido o de otro adapter.
+        holder.listener = listener;
+        if (payloads.isEmpty()) {
+            holder.bindFull(getItem(position));
+            return;
+        }
+        // Solo cambió la cantidad: no se recarga la imagen ni los textos fijos.
+        holder.bindQty(getItem(position));
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull ViewHolder holder) {
+        // El listener se reasigna en cada bind; solo se suelta la línea.
+        holder.bound = null;
+    }
+
+    // ----------------------------------------------------------
+    // ViewHolder
+    // ----------------------------------------------------------
+
+    static class ViewHolder extends RecyclerView.ViewHolder {
+
+        // Formateador de moneda en ARS
+        private final NumberFormat ars =
+                NumberFormat.getCurrencyInstance(new Locale("es", "AR"));
+
+        private final ImageView iv;
+        private final TextView tvName;
+        private final TextView tvDesc;
+        private final TextView tvUnitPrice;
+        private final TextView tvItemTotal;
+        private final TextView tvQty;
+
+        /** Línea actualmente dibujada (los clicks usan su producto). */
+        private CartItem bound;
+
+        /** Listener del adapter que la bindeó por última vez. */
+        private Listener listener;
+
+        ViewHolder(@NonNull View row) {
+            super(row);
+            iv = row.findViewById(R.id.ivThumb);
+            tvName = row.findViewById(R.id.tvName);
+            tvDesc = row.findViewById(R.id.tvDesc);
+            tvUnitPrice = row.findViewById(R.id.tvUnitPrice);
+            tvItemTotal = row.findViewById(R.id.tvItemTotal);
+            tvQty = row.findViewById(R.id.tvQty);
+
+            MaterialButton btnMinus = row.findViewById(R.id.btnMinus);
+            MaterialButton btnPlus = row.findViewById(R.id.btnPlus);
+            MaterialButton btnRemoveItem = row.findViewById(R.id.btnRemoveItem);
+
+            // Listeners creados una sola vez por fila (no en cada bind)
+            if (btnMinus != null) {
+                btnMinus.setOnClickListener(v -> {
+                    if (bound != null && listener != null) listener.onDecrement(bound.product);
+                });
+            }
+            if (btnPlus != null) {
+                btnPlus.setOnClickListener(v -> {
+                    if (bound != null && listener != null) listener.onIncrement(bound.product);
+                });
+            }
+            if (btnRemoveItem != null) {
+                btnRemoveItem.setOnClickListener(v -> {
+                    if (bound != null && listener != null) listener.onRemove(bound.product);
+                });
+            }
+        }
+
+        void bindFull(CartItem ci) {
+            bound = ci;
+            Product p = ci.product;
+
+            // ==== CARGA DE IMAGEN: URL remota (imageUrl) + fallback a drawable local ====
+            if (iv != null) {
+                int fallbackRes = (p.imageRes != 0)
+                        ? p.imageRes
+                        : R.drawable.sample_print_bw;
+
+                if (!TextUtils.isEmpty(p.imageUrl)) {
+                    Glide.with(iv.getContext())
+                            .load(p.imageUrl)
+                            .placeholder(fallbackRes)
+                            .error(fallbackRes)
+                            .into(iv);
+                } else if (p.imageRes != 0) {
+                    iv.setImageResource(p.imageRes);
+                } else {
+                    iv.setImageResource(R.drawable.ic_launcher_foreground);
+                }
+            }
+
+            if (tvName != null) tvName.setText(p.name);
+            if (tvDesc != null) tvDesc.setText(p.desc);
+            if (tvUnitPrice != null) {
+                tvUnitPrice.setText(itemView.getContext()
+                        .getString(R.string.unit_price_format, ars.format(p.price)));
+            }
+            bindQty(ci);
+        }
+
+        void bindQty(CartItem ci) {
+            bound = ci;
+            if (tvQty != null) tvQty.setText(String.valueOf(ci.qty));
+            if (tvItemTotal != null) {
+                tvItemTotal.setText(itemView.getContext()
+                        .getString(R.string.item_total_format, ars.format(ci.subtotal)));
+            }
+        }
+    }
+
+    // ----------------------------------------------------------
+    // DiffUtil: misma línea = mismo nombre de producto
+    // ----------------------------------------------------------
+
+    private static final DiffUtil.ItemCallback<CartItem> DIFF =
+            new DiffUtil.ItemCallback<CartItem>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull CartItem a, @NonNull CartItem b) {
+                    return a.product.name.equals(b.product.name);
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull CartItem a, @NonNull CartItem b) {
+                    return a.qty == b.qty && sameProductData(a.product, b.product);
+                }
+
+                @Override
+                public Object getChangePayload(@NonNull CartItem a, @NonNull CartItem b) {
+                    // Si el producto es el mismo, solo cambió la cantidad.
+                    return sameProductData(a.product, b.product) ? PAYLOAD_QTY : null;
+                }
+            };
+
+    private static boolean sameProductData(Product a, Product b) {
+        if (a == b) return true;
+        return a.price == b.price
+                && a.imageRes == b.imageRes
+                && TextUtils.equals(a.desc, b.desc)
+                && TextUtils.equals(a.imageUrl, b.imageUrl);
+    }
+}
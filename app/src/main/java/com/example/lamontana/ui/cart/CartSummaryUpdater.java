@@ -0,0 +1,123 @@
+package com.example.lamontana.ui.cart;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import com.example.lamontana.data.CartStore;
+import com.example.lamontana.model.CartChange;
+import com.example.lamontana.model.CartSnapshot;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * ============================================================
+ * Archivo: CartSummaryUpdater.java
+ * Paquete: com.example.lamontana.ui.cart
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Mantener actualizado un resumen del carrito (badge de
+ *     cantidad + total) dibujándolo COMO MÁXIMO una vez por frame.
+ *   - Escucha los CartChange de CartStore; cada cambio solo marca
+ *     el resumen como "sucio" y pide un callback de Choreographer.
+ *     En el frame siguiente se lee el snapshot más nuevo y se
+ *     dibuja una sola vez, sin importar cuántos toques hubo.
+ *
+ * ¿Por qué existe?
+ *   - Al cargar cantidades tocando "Agregar" muy rápido, cada
+ *     toque formateaba textos y re-dibujaba el resumen. Las
+ *     mutaciones se siguen aplicando al instante en CartStore;
+ *     solo el dibujo se agrupa por frame.
+ *
+ * Relación con otras clases:
+ *   - CatalogFragment: lo crea, lo engancha en onStart() y lo
+ *     suelta en onStop(); implementa Renderer para pintar los
+ *     TextView del panel superior.
+ *
+ * Notas:
+ *   - Los CartChange pueden llegar desde cualquier hilo; el
+ *     callback de frame siempre corre en el main thread.
+ *   - Si la versión del snapshot no cambió desde el último dibujo,
+ *     el frame no hace nada.
+ * ============================================================
+ */
+public class CartSummaryUpdater implements CartStore.Listener, Choreographer.FrameCallback {
+
+    /** Pinta el resumen a partir de un snapshot (main thread). */
+    public interface Renderer {
+        void renderCartSummary(CartSnapshot snapshot);
+    }
+
+    private final Renderer renderer;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /** true si ya hay un callback de frame pedido y pendiente. */
+    private final AtomicBoolean frameScheduled = new AtomicBoolean(false);
+
+    /** Versión del último snapshot dibujado (solo main thread). */
+    private long renderedVersion = -1L;
+    private boolean started;
+
+    private final Runnable postFrame = () -> {
+        if (started) {
+            Choreographer.getInstance().postFrameCallback(this);
+        } else {
+            frameScheduled.set(false);
+        }
+    };
+
+    public CartSummaryUpdater(Renderer renderer) {
+        this.renderer = renderer;
+    }
+
+    /**
+     * Empieza a escuchar CartStore y dibuja el estado actual de
+     * inmediato (llamar desde onStart()).
+     */
+    public void start() {
+        if (started) return;
+        started = true;
+        CartStore.get().addListener(this);
+        renderNow();
+    }
+
+    /** Deja de escuchar y descarta el frame pendiente (onStop()). */
+    public void stop() {
+        if (!started) return;
+        started = false;
+        CartStore.get().removeListener(this);
+        Choreographer.getInstance().removeFrameCallback(this);
+        mainHandler.removeCallbacks(postFrame);
+        frameScheduled.set(false);
+    }
+
+    @Override
+    public void onCartChanged(CartChange change) {
+        // Solo el primer cambio del frame pide callback; el resto se suma.
+        if (!frameScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            postFrame.run();
+        } else {
+            mainHandler.post(postFrame);
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        frameScheduled.set(false);
+        if (started) {
+            renderNow();
+        }
+    }
+
+    private void renderNow() {
+        CartSnapshot snapshot = CartStore.get().getSnapshot();
+        if (snapshot.getVersion() == renderedVersion) {
+            return;
+        }
+        renderedVersion = snapshot.getVersion();
+        renderer.renderCartSummary(snapshot);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.lamontana.ui.navbar;
+
+/*
+ * ============================================================
+ * Archivo: Destination.java
+ * Paquete: com.example.lamontana.ui.navbar
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Enumera las pantallas (destinos) que aloja MainActivity.
+ *     Cada destino es un Fragment:
+ *       · CATALOG   → CatalogFragment (inicio)
+ *       · CART      → CartFragment
+ *       · CHECKOUT  → CheckoutFragment
+ *       · PROFILE   → ProfileFragment ("Mis datos")
+ *       · SERVICIOS → ServiciosFragment
+ *       · ORDERS    → OrdersFragment ("Mis pedidos")
+ *       · VISOR     → PdfViewerFragment (PDF elegido en Servicios)
+ * ============================================================
+ */
+public enum Destination {
+    CATALOG,
+    CART,
+    CHECKOUT,
+    PROFILE,
+    SERVICIOS,
+    ORDERS,
+    VISOR
+}
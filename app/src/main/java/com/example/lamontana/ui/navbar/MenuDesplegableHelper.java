@@ -1,19 +1,11 @@
 package com.example.lamontana.ui.navbar;
 
 import android.app.Activity;
-import android.content.Intent;
 import android.view.View;
 import android.view.animation.AnimationUtils;
 import android.widget.ImageView;
 
 import com.example.lamontana.R;
-import com.example.lamontana.data.auth.AuthRepository;
-import com.example.lamontana.data.user.UserStore;
-import com.example.lamontana.ui.CartActivity;
-import com.example.lamontana.ui.CatalogActivity;
-import com.example.lamontana.ui.LoginActivity;
-import com.example.lamontana.ui.ProfileActivity;
-import com.example.lamontana.ui.ServiciosActivity;
 
 /*
  * ============================================================
@@ -22,17 +14,20 @@ import com.example.lamontana.ui.ServiciosActivity;
  * ------------------------------------------------------------
  * ¿Qué hace este helper?
  *   - Encapsula TODA la lógica del menú desplegable superior
- *     (top sheet) usado en varias Activities de la app.
+ *     (top sheet) de MainActivity, la Activity única de la app.
  *   - Evita duplicar código de:
  *       · abrir/cerrar menú
  *       · overlay oscuro
  *       · animaciones
- *       · navegación a: Inicio, Mis datos, Mi carrito, Logout
+ *       · navegación a: Inicio, Mis datos, Mi carrito, Mis pedidos,
+ *         Servicios, Logout
  *
  * ¿Por qué existe?
- *   - Reduce el tamaño de las Activities.
+ *   - Reduce el tamaño de la Activity.
  *   - Aumenta cohesión y reduce acoplamiento.
- *   - Permite reusar el mismo menú en Catalog, Cart, Profile, etc.
+ *   - La navegación se delega en un Navigator: cada opción es una
+ *     transacción de fragments (no se lanzan Activities nuevas ni
+ *     se re-infla el navbar).
  *
  * Métodos presentes:
  *   - constructor(...)
@@ -43,22 +38,24 @@ import com.example.lamontana.ui.ServiciosActivity;
  *   - configureButtons()
  *
  * Requisitos:
- *   - La Activity debe tener en su layout:
+ *   - El layout de la Activity (activity_main.xml) debe tener:
  *       · btnMenu (ImageView)
  *       · overlay (View)
  *       · topSheet (View)
  *       · Opcionalmente btnInicio
  *       · btnMisDatos
  *       · btnMiCarrito
+ *       · btnMisPedidos
  *       · btnCerrarSesion
  *
  * Nota:
- *   - Logout se maneja desde AuthRepository y UserStore.
+ *   - Logout lo resuelve el Navigator (AuthRepository + UserStore).
  * ============================================================
  */
 public class MenuDesplegableHelper {
 
     private final Activity activity;
+    private final Navigator navigator;
 
     // Vistas del menú
     private final ImageView btnMenu;
@@ -69,6 +66,7 @@ public class MenuDesplegableHelper {
     private final View btnInicio;
     private final View btnMisDatos;
     private final View btnMiCarrito;
+    private final View btnMisPedidos;
 
     private final View btnImpresionesCopias;
     private final View btnCerrarSesion;
@@ -77,6 +75,7 @@ public class MenuDesplegableHelper {
 
     public MenuDesplegableHelper(
             Activity activity,
+            Navigator navigator,
             ImageView btnMenu,
             View overlay,
             View topSheet,
@@ -84,15 +83,18 @@ public class MenuDesplegableHelper {
             View btnMisDatos,
             View btnImpresionesCopias,
             View btnMiCarrito,
+            View btnMisPedidos,
             View btnCerrarSesion
     ) {
         this.activity = activity;
+        this.navigator = navigator;
         this.btnMenu = btnMenu;
         this.overlay = overlay;
         this.topSheet = topSheet;
         this.btnInicio = btnInicio;
         this.btnMisDatos = btnMisDatos;
         this.btnMiCarrito = btnMiCarrito;
+        this.btnMisPedidos = btnMisPedidos;
         this.btnImpresionesCopias = btnImpresionesCopias;
         this.btnCerrarSesion = btnCerrarSesion;
     }
@@ -121,9 +123,7 @@ public class MenuDesplegableHelper {
         if (btnInicio != null) {
             btnInicio.setOnClickListener(v -> {
                 closeMenu();
-                Intent i = new Intent(activity, CatalogActivity.class);
-                activity.startActivity(i);
-                activity.finish();
+                navigator.navigateTo(Destination.CATALOG);
             });
         }
 
@@ -131,25 +131,30 @@ public class MenuDesplegableHelper {
         if (btnMisDatos != null) {
             btnMisDatos.setOnClickListener(v -> {
                 closeMenu();
-                Intent i = new Intent(activity, ProfileActivity.class);
-                activity.startActivity(i);
+                navigator.navigateTo(Destination.PROFILE);
             });
         }
 
-        // 3) Mi Carrito (siempre navega a CartActivity)
+        // 3) Mi Carrito
         if (btnMiCarrito != null) {
             btnMiCarrito.setOnClickListener(v -> {
                 closeMenu();
-                Intent i = new Intent(activity, CartActivity.class);
-                activity.startActivity(i);
+                navigator.navigateTo(Destination.CART);
+            });
+        }
+
+        // Mis pedidos (historial)
+        if (btnMisPedidos != null) {
+            btnMisPedidos.setOnClickListener(v -> {
+                closeMenu();
+                navigator.navigateTo(Destination.ORDERS);
             });
         }
 
         if (btnImpresionesCopias != null) {
             btnImpresionesCopias.setOnClickListener(v -> {
-                        closeMenu();
-                        Intent i = new Intent(activity, ServiciosActivity.class);
-                        activity.startActivity(i);
+                closeMenu();
+                navigator.navigateTo(Destination.SERVICIOS);
             });
         }
 
@@ -157,19 +162,16 @@ public class MenuDesplegableHelper {
         if (btnCerrarSesion != null) {
             btnCerrarSesion.setOnClickListener(v -> {
                 closeMenu();
-
-                // Logout centralizado
-                AuthRepository.getInstance().logout();
-                UserStore.get().clear();
-
-                Intent i = new Intent(activity, LoginActivity.class);
-                i.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP | Intent.FLAG_ACTIVITY_NEW_TASK);
-                activity.startActivity(i);
-                activity.finish();
+                navigator.logout();
             });
         }
     }
 
+    /** true si el menú está desplegado (MainActivity lo cierra con "atrás"). */
+    public boolean isMenuOpen() {
+        return isMenuOpen;
+    }
+
     /**
      * Alterna entre abrir y cerrar menú.
      */
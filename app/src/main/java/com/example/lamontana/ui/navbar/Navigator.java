@@ -0,0 +1,28 @@
+package com.example.lamontana.ui.navbar;
+
+/*
+ * ============================================================
+ * Archivo: Navigator.java
+ * Paquete: com.example.lamontana.ui.navbar
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Contrato de navegación entre destinos dentro de la Activity
+ *     única (MainActivity). Lo usan los Fragments y el
+ *     MenuDesplegableHelper en lugar de lanzar Activities.
+ *
+ * Métodos:
+ *   - navigateTo(Destination): muestra el destino (una transacción
+ *     de fragments; si ya existía, se re-muestra tal como estaba).
+ *   - navigateBack(): vuelve al destino anterior (o cierra la app
+ *     si ya se está en el inicio).
+ *   - logout(): cierra sesión y vuelve a Login.
+ * ============================================================
+ */
+public interface Navigator {
+
+    void navigateTo(Destination destination);
+
+    void navigateBack();
+
+    void logout();
+}
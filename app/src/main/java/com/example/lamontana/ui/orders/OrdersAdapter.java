@@ -0,0 +1,184 @@
+package com.example.lamontana.ui.orders;
+
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.lamontana.R;
+import com.example.lamontana.data.pricing.PricingEngine;
+import com.example.lamontana.model.OrderLine;
+import com.example.lamontana.ui.rows.RowViewPool;
+import com.example.lamontana.viewmodel.OrderRow;
+
+import java.text.DateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+/*
+ * ============================================================
+ * Archivo: OrdersAdapter.java
+ * Paquete: com.example.lamontana.ui.orders
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Adapter del RecyclerView de "Mis pedidos" (item_order.xml
+ *     por fila).
+ *   - Tocar una fila avisa al Listener (expandir/colapsar); el
+ *     detalle de líneas solo se dibuja con la fila expandida.
+ *   - ListAdapter + DiffUtil: cuando llega una página nueva o las
+ *     líneas de un pedido, se re-dibujan únicamente esas filas.
+ *   - Las filas salen de RowViewPool y el viewType es el id del
+ *     layout (RecycledViewPool compartido de la app).
+ * ============================================================
+ */
+public class OrdersAdapter extends ListAdapter<OrderRow, OrdersAdapter.ViewHolder> {
+
+    /** Acciones de cada fila, delegadas en el Fragment. */
+    public interface Listener {
+        void onToggle(String orderId);
+    }
+
+    private final Listener listener;
+
+    public OrdersAdapter(Listener listener) {
+        super(DIFF);
+        this.listener = listener;
+        setHasStableIds(true);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        // Los IDs de pedido son únicos por usuario.
+        return getItem(position).summary.id.hashCode();
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return R.layout.item_order;
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View row = RowViewPool.get(parent.getContext()).obtain(viewType, parent);
+        return new ViewHolder(row);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        holder.listener = listener;
+        holder.bind(getItem(position));
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull ViewHolder holder) {
+        // Al volver al pool compartido la fila no debe retener el Fragment.
+        holder.listener = null;
+        holder.bound = null;
+    }
+
+    // ----------------------------------------------------------
+    // ViewHolder
+    // ----------------------------------------------------------
+
+    static class ViewHolder extends RecyclerView.ViewHolder {
+
+        // Fecha corta local (los importes, con PricingEngine.format)
+        private final DateFormat dateFormat =
+                DateFormat.getDateTimeInstance(DateFormat.SHORT, DateFormat.SHORT,
+                        new Locale("es", "AR"));
+
+        private final TextView tvOrderId;
+        private final TextView tvOrderDate;
+        private final TextView tvOrderStatus;
+        private final TextView tvOrderUnits;
+        private final TextView tvOrderTotal;
+        private final TextView tvOrderLines;
+
+        private OrderRow bound;
+        private Listener listener;
+
+        ViewHolder(@NonNull View row) {
+            super(row);
+            tvOrderId = row.findViewById(R.id.tvOrderId);
+            tvOrderDate = row.findViewById(R.id.tvOrderDate);
+            tvOrderStatus = row.findViewById(R.id.tvOrderStatus);
+            tvOrderUnits = row.findViewById(R.id.tvOrderUnits);
+            tvOrderTotal = row.findViewById(R.id.tvOrderTotal);
+            tvOrderLines = row.findViewById(R.id.tvOrderLines);
+
+            // Listener creado una sola vez por fila (no en cada bind)
+            row.setOnClickListener(v -> {
+                if (bound != null && listener != null) listener.onToggle(bound.summary.id);
+            });
+        }
+
+        void bind(OrderRow r) {
+            bound = r;
+            Context ctx = itemView.getContext();
+
+            tvOrderId.setText(ctx.getString(R.string.success_order_id_format, r.summary.id));
+            tvOrderStatus.setText(r.summary.estado);
+            tvOrderDate.setText(r.summary.createdAt > 0
+                    ? dateFormat.format(new Date(r.summary.createdAt))
+                    : "");
+            tvOrderUnits.setText(ctx.getString(R.string.order_units_format,
+                    r.summary.cantidadUnidades));
+            tvOrderTotal.setText(PricingEngine.format(r.summary.totalCents));
+
+            bindLines(ctx, r);
+        }
+
+        private void bindLines(Context ctx, OrderRow r) {
+            if (!r.expanded) {
+                tvOrderLines.setVisibility(View.GONE);
+                return;
+            }
+            tvOrderLines.setVisibility(View.VISIBLE);
+
+            if (r.lines == null) {
+                tvOrderLines.setText(r.linesLoading
+                        ? ctx.getString(R.string.orders_lines_loading)
+                        : "");
+                return;
+            }
+
+            StringBuilder sb = new StringBuilder();
+            for (OrderLine line : r.lines) {
+                if (sb.length() > 0) sb.append('\n');
+                sb.append(ctx.getString(R.string.order_line_format,
+                        line.cantidad, line.nombre, PricingEngine.format(line.subtotalCents)));
+            }
+            if (r.summary.costoEnvioCents > 0) {
+                sb.append('\n').append(ctx.getString(R.string.order_shipping_format,
+                        PricingEngine.format(r.summary.costoEnvioCents)));
+            }
+            tvOrderLines.setText(sb);
+        }
+    }
+
+    // ----------------------------------------------------------
+    // DiffUtil: misma fila = mismo ID de pedido
+    // ----------------------------------------------------------
+
+    private static final DiffUtil.ItemCallback<OrderRow> DIFF =
+            new DiffUtil.ItemCallback<OrderRow>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull OrderRow a, @NonNull OrderRow b) {
+                    return a.summary.id.equals(b.summary.id);
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull OrderRow a, @NonNull OrderRow b) {
+                    return a.expanded == b.expanded
+                            && a.linesLoading == b.linesLoading
+                            && a.lines == b.lines
+                            && a.summary.sameContentAs(b.summary);
+                }
+            };
+}
@@ -9,13 +9,12 @@ import android.widget.LinearLayout;
 import android.widget.Toast;
 
 import com.example.lamontana.R;
+import com.example.lamontana.data.user.UserRepository;
 import com.example.lamontana.data.user.UserStore;
 import com.google.firebase.auth.AuthCredential;
 import com.google.firebase.auth.EmailAuthProvider;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.firestore.FieldValue;
-import com.google.firebase.firestore.FirebaseFirestore;
 
 /*
  * ============================================================
@@ -38,14 +37,15 @@ import com.google.firebase.firestore.FirebaseFirestore;
  *     contraseña actual.
  *   - Si la reautenticación es correcta:
  *       · Actualiza la contraseña en Firebase Auth.
- *       · Impacta también en Firestore:
- *           - Actualiza el campo "passwordHash" del documento
- *             usuarios/{uid}.
+ *       · Impacta también en Firestore (vía UserRepository, que
+ *         encola la escritura en WriteOutbox):
+ *           - Deja vacío el campo "passwordHash" del documento
+ *             usuarios/{uid} (la contraseña solo vive en Auth).
  *           - Actualiza el campo "actualizadoEn" con
  *             FieldValue.serverTimestamp().
  *
  * Alcance:
- *   - Es invocado desde ProfileActivity cuando el usuario toca
+ *   - Es invocado desde ProfileFragment cuando el usuario toca
  *     el botón "Cambiar contraseña".
  *   - No mantiene estado interno; expone métodos estáticos de
  *     utilidad.
@@ -58,7 +58,7 @@ import com.google.firebase.firestore.FirebaseFirestore;
  *           - Validación de campos.
  *           - Reautenticación en Firebase Auth.
  *           - Actualización de contraseña en Auth.
- *           - Actualización de passwordHash + actualizadoEn en
+ *           - Encolado de passwordHash + actualizadoEn para
  *             Firestore.
  * ============================================================
  */
@@ -79,8 +79,8 @@ public class ModificarContrasenaHelper {
      *       - Que la nueva y la confirmación sean iguales.
      *  3) Reautentica al usuario usando EmailAuthProvider.
      *  4) Actualiza la contraseña en Firebase Auth.
-     *  5) Actualiza el campo "passwordHash" y "actualizadoEn"
-     *     en la colección "usuarios" de Firestore.
+     *  5) Encola la actualización de "passwordHash" y "actualizadoEn"
+     *     en la colección "usuarios" de Firestore (WriteOutbox).
      *
      * @param activity Activity desde la cual se invoca el diálogo.
      */
@@ -237,23 +237,15 @@ public class ModificarContrasenaHelper {
                                                         Toast.LENGTH_LONG
                                                 ).show();
                                             } else {
-                                                FirebaseFirestore.getInstance()
-                                                        .collection("usuarios")
-                                                        .document(uid)
-                                                        .update(
-                                                                "passwordHash", newPassword,
-                                                                "actualizadoEn", FieldValue.serverTimestamp()
-                                                        )
-                                                        .addOnSuccessListener(unusedDb -> Toast.makeText(
-                                                                activity,
-                                                                "Contraseña actualizada correctamente",
-                                                                Toast.LENGTH_SHORT
-                                                        ).show())
-                                                        .addOnFailureListener(e -> Toast.makeText(
-                                                                activity,
-                                                                "Contraseña actualizada en Auth, pero falló al actualizar en Firestore: " + e.getMessage(),
-                                                                Toast.LENGTH_LONG
-                                                        ).show());
+                                                // El cambio ya está confirmado en Auth. Los metadatos
+                                                // se encolan en la bandeja de salida ("Mis datos"
+                                                // muestra si quedan pendientes o fallan).
+                                                UserRepository.getInstance().updatePasswordHash(uid);
+                                                Toast.makeText(
+                                                        activity,
+                                                        "Contraseña actualizada correctamente",
+                                                        Toast.LENGTH_SHORT
+                                                ).show();
                                             }
                                         })
                                         .addOnFailureListener(e -> Toast.makeText(
@@ -0,0 +1,181 @@
+package com.example.lamontana.ui.rows;
+
+import android.content.Context;
+import android.util.SparseArray;
+import android.util.SparseIntArray;
+import android.view.ContextThemeWrapper;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import androidx.annotation.LayoutRes;
+import androidx.annotation.NonNull;
+import androidx.asynclayoutinflater.view.AsyncLayoutInflater;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.lamontana.R;
+
+import java.util.ArrayDeque;
+
+/*
+ * ============================================================
+ * Archivo: RowViewPool.java
+ * Paquete: com.example.lamontana.ui.rows
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Pool compartido (singleton) de filas ya infladas para las
+ *     listas de la app:
+ *       · item_catalog          → CatalogFragment
+ *       · item_cart_detail      → CartAdapter (CartFragment)
+ *       · item_product_checkout → CheckoutFragment
+ *       · item_order            → OrdersAdapter (OrdersFragment)
+ *       · item_thumbnail        → ThumbnailAdapter (ServiciosFragment)
+ *   - prefetch(layout, n): infla en segundo plano, con
+ *     AsyncLayoutInflater, hasta n filas de ese tipo mientras la
+ *     pantalla espera sus datos.
+ *   - obtain(layout, parent): entrega una fila del pool o, si no
+ *     hay, la infla en el momento (mismo resultado, más lento).
+ *   - releaseAll(container, layout): devuelve al pool las filas de
+ *     un contenedor antes de re-dibujarlo.
+ *   - getRecycledViewPool(): RecycledViewPool único para los
+ *     RecyclerView, así los ViewHolder sobreviven entre pantallas.
+ *
+ * ¿Por qué existe?
+ *   - Inflar filas dominaba el primer dibujo en equipos modestos;
+ *     con el pool ese trabajo se hace antes y fuera del main thread.
+ *
+ * Notas:
+ *   - Las filas se inflan con el contexto de la APLICACIÓN
+ *     envuelto en el tema de la app (Theme.Parcial_1): se pueden
+ *     pasar de una pantalla a otra sin retener ninguna Activity.
+ *   - Al liberar una fila se le quitan los click listeners (que
+ *     suelen apuntar a la Activity que la usó).
+ *   - Todo se usa desde el main thread.
+ * ============================================================
+ */
+public final class RowViewPool {
+
+    /** Tope de filas guardadas por tipo de layout. */
+    private static final int MAX_PER_TYPE = 16;
+
+    private static RowViewPool instance;
+
+    private final Context themedContext;
+    private final LayoutInflater inflater;
+    private final AsyncLayoutInflater asyncInflater;
+
+    /** Padre "de mentira": solo sirve para generar LayoutParams. */
+    private final FrameLayout templateParent;
+
+    private final SparseArray<ArrayDeque<View>> pooled = new SparseArray<>();
+    private final SparseIntArray inFlight = new SparseIntArray();
+
+    private final RecyclerView.RecycledViewPool recycledViewPool =
+            new RecyclerView.RecycledViewPool();
+
+    private RowViewPool(Context appContext) {
+        themedContext = new ContextThemeWrapper(appContext, R.style.Theme_Parcial_1);
+        inflater = LayoutInflater.from(themedContext);
+        asyncInflater = new AsyncLayoutInflater(themedContext);
+        templateParent = new FrameLayout(themedContext);
+    }
+
+    /** Instancia única (llamar desde el main thread). */
+    public static RowViewPool get(Context context) {
+        if (instance == null) {
+            instance = new RowViewPool(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * RecycledViewPool compartido. El viewType de cada adapter debe ser
+     * el id del layout de la fila.
+     */
+    public RecyclerView.RecycledViewPool getRecycledViewPool() {
+        return recycledViewPool;
+    }
+
+    /**
+     * Infla en segundo plano las filas que falten para tener count
+     * listas de este layout (contando las que ya están en camino).
+     */
+    public void prefetch(@LayoutRes int layoutRes, int count) {
+        int target = Math.min(count, MAX_PER_TYPE);
+        int missing = target - pooledCount(layoutRes) - inFlight.get(layoutRes);
+        for (int i = 0; i < missing; i++) {
+            inFlight.put(layoutRes, inFlight.get(layoutRes) + 1);
+            asyncInflater.inflate(layoutRes, templateParent, (view, resid, parent) -> {
+                inFlight.put(resid, Math.max(0, inFlight.get(resid) - 1));
+                offer(resid, view);
+            });
+        }
+    }
+
+    /**
+     * Devuelve una fila lista para bindear y agregar a parent. Si el
+     * pool está vacío, la infla de forma síncrona.
+     */
+    @NonNull
+    public View obtain(@LayoutRes int layoutRes, @NonNull ViewGroup parent) {
+        ArrayDeque<View> queue = pooled.get(layoutRes);
+        View row = queue != null ? queue.pollFirst() : null;
+        if (row != null) {
+            return row;
+        }
+        return inflater.inflate(layoutRes, parent, false);
+    }
+
+    /**
+     * Quita todas las filas de container y las devuelve al pool para
+     * reutilizarlas (en esta u otra pantalla).
+     */
+    public void releaseAll(@NonNull ViewGroup container, @LayoutRes int layoutRes) {
+        int count = container.getChildCount();
+        View[] rows = new View[count];
+        for (int i = 0; i < count; i++) {
+            rows[i] = container.getChildAt(i);
+        }
+        container.removeAllViews();
+        for (View row : rows) {
+            // Solo vuelven filas infladas por el pool (contexto de la app).
+            if (row.getContext() == themedContext) {
+                clearClickListeners(row);
+                offer(layoutRes, row);
+            }
+        }
+    }
+
+    // ----------------------------------------------------------
+    // Internos
+    // ----------------------------------------------------------
+
+    private int pooledCount(int layoutRes) {
+        ArrayDeque<View> queue = pooled.get(layoutRes);
+        return queue != null ? queue.size() : 0;
+    }
+
+    private void offer(int layoutRes, View row) {
+        ArrayDeque<View> queue = pooled.get(layoutRes);
+        if (queue == null) {
+            queue = new ArrayDeque<>();
+            pooled.put(layoutRes, queue);
+        }
+        if (queue.size() < MAX_PER_TYPE && row.getParent() == null) {
+            queue.addLast(row);
+        }
+    }
+
+    private static void clearClickListeners(View view) {
+        if (view.hasOnClickListeners()) {
+            view.setOnClickListener(null);
+        }
+        if (view instanceof ViewGroup) {
+            ViewGroup group = (ViewGroup) view;
+            for (int i = 0; i < group.getChildCount(); i++) {
+                clearClickListeners(group.getChildAt(i));
+            }
+        }
+    }
+}
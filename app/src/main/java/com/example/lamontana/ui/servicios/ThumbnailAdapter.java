@@ -0,0 +1,162 @@
+package com.example.lamontana.ui.servicios;
+
+import android.graphics.Bitmap;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.lamontana.R;
+import com.example.lamontana.data.pdf.PdfThumbnails;
+import com.example.lamontana.ui.rows.RowViewPool;
+
+/*
+ * ============================================================
+ * Archivo: ThumbnailAdapter.java
+ * Paquete: com.example.lamontana.ui.servicios
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Adapter de la tira de miniaturas del PDF en Servicios
+ *     (item_thumbnail.xml por página).
+ *   - Al bindear una fila se pide su miniatura a PdfThumbnails; al
+ *     reciclarla se cancela el pedido: solo se renderiza lo que está
+ *     en pantalla.
+ *   - Mientras una miniatura se muestra queda "attached" en
+ *     PdfThumbnails, así su bitmap no vuelve al pool aunque salga
+ *     del cache.
+ *   - Tocar una miniatura avisa al Listener (abrir el visor en esa
+ *     página).
+ *   - Las filas salen de RowViewPool y el viewType es el id del
+ *     layout (RecycledViewPool compartido de la app).
+ * ============================================================
+ */
+public class ThumbnailAdapter extends RecyclerView.Adapter<ThumbnailAdapter.ViewHolder> {
+
+    /** Acciones de cada miniatura, delegadas en el Fragment. */
+    public interface Listener {
+        void onPageClick(int page);
+    }
+
+    private final PdfThumbnails thumbnails;
+    private final Listener listener;
+    private int pageCount;
+
+    public ThumbnailAdapter(PdfThumbnails thumbnails, Listener listener) {
+        this.thumbnails = thumbnails;
+        this.listener = listener;
+        setHasStableIds(true);
+    }
+
+    /**
+     * Documento nuevo (0: sin documento). Se re-bindea todo aunque la
+     * cantidad coincida: las miniaturas son de otro archivo.
+     */
+    public void setPageCount(int pageCount) {
+        this.pageCount = pageCount;
+        notifyDataSetChanged();
+    }
+
+    @Override
+    public int getItemCount() {
+        return pageCount;
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return position;
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return R.layout.item_thumbnail;
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View row = RowViewPool.get(parent.getContext()).obtain(viewType, parent);
+        return new ViewHolder(row);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        holder.listener = listener;
+        holder.bind(thumbnails, position);
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull ViewHolder holder) {
+        // Al volver al pool compartido la fila no debe retener el
+        // Fragment ni el ViewModel.
+        holder.listener = null;
+        holder.unbind();
+    }
+
+    // ----------------------------------------------------------
+    // ViewHolder
+    // ----------------------------------------------------------
+
+    static class ViewHolder extends RecyclerView.ViewHolder implements PdfThumbnails.Callback {
+
+        private final ImageView imgMiniatura;
+        private final TextView txtPaginaMiniatura;
+
+        @Nullable private PdfThumbnails thumbnails;
+        @Nullable private Bitmap shown;
+        private int page = RecyclerView.NO_POSITION;
+        private Listener listener;
+
+        ViewHolder(@NonNull View row) {
+            super(row);
+            imgMiniatura = row.findViewById(R.id.imgMiniatura);
+            txtPaginaMiniatura = row.findViewById(R.id.txtPaginaMiniatura);
+
+            // Listener creado una sola vez por fila (no en cada bind)
+            row.setOnClickListener(v -> {
+                if (thumbnails != null && listener != null) listener.onPageClick(page);
+            });
+        }
+
+        void bind(PdfThumbnails thumbnails, int page) {
+            unbind();
+            this.thumbnails = thumbnails;
+            this.page = page;
+            txtPaginaMiniatura.setText(String.valueOf(page + 1));
+
+            Bitmap cached = thumbnails.peek(page);
+            if (cached != null) {
+                show(cached);
+            } else {
+                thumbnails.request(page, this);
+            }
+        }
+
+        @Override
+        public void onThumbnail(int page, Bitmap bitmap) {
+            if (thumbnails != null && page == this.page) show(bitmap);
+        }
+
+        void unbind() {
+            if (thumbnails != null) {
+                thumbnails.cancel(page);
+                if (shown != null) thumbnails.detach(shown);
+            }
+            imgMiniatura.setImageBitmap(null);
+            shown = null;
+            thumbnails = null;
+            page = RecyclerView.NO_POSITION;
+        }
+
+        private void show(Bitmap bitmap) {
+            if (thumbnails == null || bitmap == shown) return;
+            if (shown != null) thumbnails.detach(shown);
+            thumbnails.attach(bitmap);
+            shown = bitmap;
+            imgMiniatura.setImageBitmap(bitmap);
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package com.example.lamontana.ui.viewer;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.util.AttributeSet;
+import android.view.GestureDetector;
+import android.view.MotionEvent;
+import android.view.ScaleGestureDetector;
+import android.view.View;
+import android.widget.OverScroller;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.lamontana.data.pdf.PdfTileRenderer;
+
+/*
+ * ============================================================
+ * Archivo: TiledPageView.java
+ * Paquete: com.example.lamontana.ui.viewer
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Muestra una página de PDF con zoom (pinch o doble toque) y
+ *     desplazamiento (arrastre y fling), dibujando las capas de
+ *     PdfTileRenderer:
+ *       · la base (baja resolución) estirada a toda la página;
+ *       · encima, los tiles del nivel de zoom vigente.
+ *   - Tras cada cambio de zoom o posición calcula qué tiles cubren
+ *     la pantalla y se los pide al renderer (setViewport).
+ *
+ * Zoom:
+ *   - zoom = 1 es la página entera ajustada a la vista; MAX_ZOOM
+ *     es el máximo.
+ *   - El nivel de tiles es el menor L con 2^L ≥ zoom: los tiles
+ *     siempre tienen al menos la resolución de la pantalla.
+ *
+ * Notas:
+ *   - La página a mostrar se fija con showPage(); si la vista
+ *     todavía no tiene tamaño, se pide al medirse (la base depende
+ *     del tamaño de la vista).
+ *   - Todo corre en el main thread.
+ * ============================================================
+ */
+public class TiledPageView extends View implements PdfTileRenderer.Listener {
+
+    /** Avisos al Fragment que aloja la vista. */
+    public interface Listener {
+        void onPageShown(int page);
+
+        void onError();
+    }
+
+    private static final float MAX_ZOOM = 8f;
+    private static final float DOUBLE_TAP_ZOOM = 3f;
+    private static final int MAX_LEVEL = 3;
+
+    /** Lado mayor de la capa base, respecto del lado mayor de la vista. */
+    private static final float BASE_FRACTION = 0.5f;
+
+    private final Paint bitmapPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final RectF dst = new RectF();
+    private final ScaleGestureDetector scaleDetector;
+    private final GestureDetector gestureDetector;
+    private final OverScroller scroller;
+
+    @Nullable private PdfTileRenderer renderer;
+    @Nullable private Listener listener;
+
+    private int page = -1;
+    private boolean pageRequested;
+
+    // Transformación: página escalada a fitScale * zoom, con su esquina
+    // superior izquierda en (offsetX, offsetY) de la vista
+    private float fitScale;
+    private float zoom = 1f;
+    private float offsetX;
+    private float offsetY;
+
+    // Tiles del viewport (último setViewport)
+    private int level;
+    private float levelScale;
+    private int firstCol, firstRow, lastCol, lastRow = -1;
+
+    public TiledPageView(Context context) {
+        this(context, null);
+    }
+
+    public TiledPageView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        scroller = new OverScroller(context);
+        scaleDetector = new ScaleGestureDetector(context, new ScaleListener());
+        gestureDetector = new GestureDetector(context, new PanListener());
+    }
+
+    public void setListener(@Nullable Listener listener) {
+        this.listener = listener;
+    }
+
+    /** Renderer del documento (null al salir de la pantalla). */
+    public void setRenderer(@Nullable PdfTileRenderer renderer) {
+        this.renderer = renderer;
+        pageRequested = false;
+        requestPageIfReady();
+        invalidate();
+    }
+
+    public void showPage(int page) {
+        if (page == this.page && pageRequested) {
+            if (fitScale > 0 && listener != null) listener.onPageShown(page);
+            return;
+        }
+        this.page = page;
+        pageRequested = false;
+        requestPageIfReady();
+        invalidate();
+    }
+
+    // ------------------------------
+    // PdfTileRenderer.Listener
+    // ------------------------------
+
+    @Override
+    public void onPageReady(int page) {
+        if (renderer == null || page != this.page) return;
+        fitPage();
+        if (listener != null) listener.onPageShown(page);
+    }
+
+    @Override
+    public void onTileReady() {
+        invalidate();
+    }
+
+    @Override
+    public void onRenderError() {
+        if (listener != null) listener.onError();
+    }
+
+    // ------------------------------
+    // Medidas y dibujo
+    // ------------------------------
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        // La base depende del tamaño: se vuelve a pedir la página
+        pageRequested = false;
+        requestPageIfReady();
+    }
+
+    @Override
+    protected void onDraw(@NonNull Canvas canvas) {
+        super.onDraw(canvas);
+        Bitmap base = renderer != null ? renderer.getBase() : null;
+        if (base == null || fitScale <= 0) return;
+
+        float scale = fitScale * zoom;
+        float pageW = renderer.getPageWidthPt() * scale;
+        float pageH = renderer.getPageHeightPt() * scale;
+
+        canvas.save();
+        canvas.clipRect(offsetX, offsetY, offsetX + pageW, offsetY + pageH);
+        canvas.drawColor(Color.WHITE);
+
+        dst.set(offsetX, offsetY, offsetX + pageW, offsetY + pageH);
+        canvas.drawBitmap(base, null, dst, bitmapPaint);
+
+        // Lado de un tile en pantalla
+        float tile = PdfTileRenderer.TILE_SIZE * scale / levelScale;
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                Bitmap bitmap = renderer.getTile(level, col, row);
+                if (bitmap == null) continue;
+                float left = offsetX + col * tile;
+                float top = offsetY + row * tile;
+                dst.set(left, top, left + tile, top + tile);
+                canvas.drawBitmap(bitmap, null, dst, bitmapPaint);
+            }
+        }
+        canvas.restore();
+    }
+
+    // ------------------------------
+    // Gestos
+    // ------------------------------
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        boolean handled = scaleDetector.onTouchEvent(event);
+        handled |= gestureDetector.onTouchEvent(event);
+        return handled || super.onTouchEvent(event);
+    }
+
+    @Override
+    public void computeScroll() {
+        if (scroller.computeScrollOffset()) {
+            offsetX = scroller.getCurrX();
+            offsetY = scroller.getCurrY();
+            onTransformChanged();
+            postInvalidateOnAnimation();
+        }
+    }
+
+    private final class ScaleListener extends ScaleGestureDetector.SimpleOnScaleGestureListener {
+        @Override
+        public boolean onScale(ScaleGestureDetector detector) {
+            zoomTo(zoom * detector.getScaleFactor(), detector.getFocusX(), detector.getFocusY());
+            return true;
+        }
+    }
+
+    private final class PanListener extends GestureDetector.SimpleOnGestureListener {
+        @Override
+        public boolean onDown(MotionEvent e) {
+            scroller.forceFinished(true);
+            return true;
+        }
+
+        @Override
+        public boolean onScroll(MotionEvent e1, MotionEvent e2, float distanceX, float distanceY) {
+            offsetX -= distanceX;
+            offsetY -= distanceY;
+            onTransformChanged();
+            return true;
+        }
+
+        @Override
+        public boolean onFling(MotionEvent e1, MotionEvent e2, float velocityX, float velocityY) {
+            if (renderer == null || fitScale <= 0) return false;
+            float scale = fitScale * zoom;
+            int minX = (int) Math.min(0, getWidth() - renderer.getPageWidthPt() * scale);
+            int minY = (int) Math.min(0, getHeight() - renderer.getPageHeightPt() * scale);
+            scroller.fling((int) offsetX, (int) offsetY, (int) velocityX, (int) velocityY,
+                    minX, 0, minY, 0);
+            postInvalidateOnAnimation();
+            return true;
+        }
+
+        @Override
+        public boolean onDoubleTap(MotionEvent e) {
+            zoomTo(zoom > 1.01f ? 1f : DOUBLE_TAP_ZOOM, e.getX(), e.getY());
+            return true;
+        }
+    }
+
+    // ------------------------------
+    // Internos
+    // ------------------------------
+
+    private void requestPageIfReady() {
+        if (renderer == null || page < 0 || pageRequested) return;
+        if (getWidth() == 0 || getHeight() == 0) return;
+        pageRequested = true;
+        fitScale = 0;
+        lastRow = -1;
+        renderer.showPage(page, Math.round(Math.max(getWidth(), getHeight()) * BASE_FRACTION));
+    }
+
+    /** Página entera centrada, sin zoom. */
+    private void fitPage() {
+        if (renderer == null) return;
+        fitScale = Math.min((float) getWidth() / renderer.getPageWidthPt(),
+                (float) getHeight() / renderer.getPageHeightPt());
+        zoom = 1f;
+        offsetX = 0;
+        offsetY = 0;
+        scroller.forceFinished(true);
+        onTransformChanged();
+    }
+
+    /** Cambia el zoom manteniendo fijo el punto (focusX, focusY). */
+    private void zoomTo(float newZoom, float focusX, float focusY) {
+        if (fitScale <= 0) return;
+        newZoom = Math.max(1f, Math.min(MAX_ZOOM, newZoom));
+        float factor = newZoom / zoom;
+        offsetX = focusX - (focusX - offsetX) * factor;
+        offsetY = focusY - (focusY - offsetY) * factor;
+        zoom = newZoom;
+        onTransformChanged();
+    }
+
+    private void onTransformChanged() {
+        if (renderer == null || fitScale <= 0) return;
+        clampOffsets();
+        updateViewport();
+        invalidate();
+    }
+
+    /** Centra la página si entra en la vista; si no, no deja ver el borde. */
+    private void clampOffsets() {
+        float scale = fitScale * zoom;
+        offsetX = clampAxis(offsetX, renderer.getPageWidthPt() * scale, getWidth());
+        offsetY = clampAxis(offsetY, renderer.getPageHeightPt() * scale, getHeight());
+    }
+
+    private static float clampAxis(float offset, float content, int view) {
+        if (content <= view) return (view - content) / 2f;
+        return Math.max(view - content, Math.min(0, offset));
+    }
+
+    /** Calcula los tiles que cubren la vista y se los pide al renderer. */
+    private void updateViewport() {
+        int newLevel = 0;
+        while (newLevel < MAX_LEVEL && (1 << newLevel) < zoom - 0.01f) newLevel++;
+        level = newLevel;
+        levelScale = fitScale * (1 << newLevel);
+
+        float scale = fitScale * zoom;
+        float pageW = renderer.getPageWidthPt() * scale;
+        float pageH = renderer.getPageHeightPt() * scale;
+        float tile = PdfTileRenderer.TILE_SIZE * scale / levelScale;
+
+        float left = Math.max(0, -offsetX);
+        float top = Math.max(0, -offsetY);
+        float right = Math.min(pageW, getWidth() - offsetX);
+        float bottom = Math.min(pageH, getHeight() - offsetY);
+
+        firstCol = (int) (left / tile);
+        firstRow = (int) (top / tile);
+        lastCol = (int) ((right - 1) / tile);
+        lastRow = (int) ((bottom - 1) / tile);
+        renderer.setViewport(level, levelScale, firstCol, firstRow, lastCol, lastRow);
+    }
+}
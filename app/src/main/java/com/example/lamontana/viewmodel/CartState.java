@@ -0,0 +1,51 @@
+package com.example.lamontana.viewmodel;
+
+import com.example.lamontana.model.CartItem;
+
+import java.util.List;
+
+/*
+ * ============================================================
+ * Archivo: CartState.java
+ * Paquete: com.example.lamontana.viewmodel
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Estado de pantalla del carrito, listo para dibujar, que
+ *     CartViewModel emite en UN solo LiveData:
+ *       · lines            → líneas del carrito (inmutables).
+ *       · totalAmount      → total en pesos.
+ *       · totalQty         → cantidad de unidades.
+ *       · formattedTotal   → total ya formateado en ARS.
+ *       · checkoutEnabled  → si se puede avanzar al checkout.
+ *       · version          → versión del carrito de origen.
+ *
+ * ¿Por qué existe?
+ *   - Lista y totales llegan juntos y coherentes: la UI nunca
+ *     combina una lista nueva con un total viejo.
+ *
+ * Notas:
+ *   - Inmutable; se construye fuera del hilo de UI.
+ * ============================================================
+ */
+public final class CartState {
+
+    public final List<CartItem> lines;
+    public final int totalAmount;
+    public final int totalQty;
+    public final String formattedTotal;
+    public final boolean checkoutEnabled;
+    public final long version;
+
+    public CartState(List<CartItem> lines,
+                     int totalAmount,
+                     int totalQty,
+                     String formattedTotal,
+                     long version) {
+        this.lines = lines;
+        this.totalAmount = totalAmount;
+        this.totalQty = totalQty;
+        this.formattedTotal = formattedTotal;
+        this.checkoutEnabled = totalQty > 0;
+        this.version = version;
+    }
+}
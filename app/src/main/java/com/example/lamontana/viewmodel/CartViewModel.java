@@ -5,11 +5,19 @@ import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
 import com.example.lamontana.data.CartStore;
+import com.example.lamontana.model.CartChange;
 import com.example.lamontana.model.CartItem;
+import com.example.lamontana.model.CartOp;
+import com.example.lamontana.model.CartSnapshot;
 import com.example.lamontana.model.Product;
 
-import java.util.ArrayList;
+import java.text.NumberFormat;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /*
  * ============================================================
@@ -17,97 +25,165 @@ import java.util.List;
  * Paquete: com.example.lamontana.viewmodel
  * ------------------------------------------------------------
  * ¿De qué se encarga?
- *   - Exponer el estado del carrito como LiveData para la UI:
- *       · Lista de CartItem
- *       · Total en pesos
- *       · Cantidad total de ítems
+ *   - Exponer el estado del carrito a la UI en UN solo LiveData
+ *     de CartState (líneas, totales, total formateado y si se
+ *     puede avanzar al checkout).
  *   - Encapsular las operaciones sobre CartStore:
  *       · agregar / incrementar / decrementar / eliminar ítems
  *       · vaciar carrito
- *   - Notificar a la Activity cuando cambian los datos para que
- *     se re-renderice la lista y el total sin leer directo del
- *     CartStore.
+ *       · aplicar lotes de operaciones (CartOp)
+ *   - Escuchar los CartChange de CartStore y recalcular el
+ *     CartState en un hilo de fondo: cualquier cambio (desde esta
+ *     u otra pantalla) llega a la UI como una única emisión.
  *
  * Relación con otras clases:
  *   - CartStore:
  *       * Fuente real de datos (estado en memoria del carrito).
- *   - CartActivity:
- *       * Observa los LiveData expuestos por este ViewModel y
- *         delega en él todas las operaciones (+, -, eliminar,
- *         vaciar).
+ *   - CartFragment:
+ *       * Observa getState() y delega en este ViewModel todas las
+ *         operaciones (+, -, eliminar, vaciar).
+ *   - CatalogFragment / CheckoutFragment:
+ *       * Observan getState() para el resumen del carrito.
  *
+ * Notas:
+ *   - El CartState se arma en el executor "cart-state" (formateo de
+ *     moneda incluido) y se publica con postValue: si llegan varias
+ *     mutaciones seguidas, la UI recibe solo el último estado.
+ *   - Como cada cálculo lee el snapshot MÁS NUEVO del store, un
+ *     cálculo viejo nunca pisa a uno nuevo.
  * ============================================================
  */
 public class CartViewModel extends ViewModel {
 
-    private final MutableLiveData<List<CartItem>> itemsLiveData = new MutableLiveData<>();
-    private final MutableLiveData<Integer> totalAmountLiveData = new MutableLiveData<>();
-    private final MutableLiveData<Integer> totalQtyLiveData = new MutableLiveData<>();
+    private final MutableLiveData<CartState> stateLiveData = new MutableLiveData<>();
 
-    public CartViewModel() {
-        // Al crear el ViewModel, sincronizamos el estado inicial desde CartStore.
-        syncFromStore();
-    }
+    /** Hilo propio donde se arma cada CartState. */
+    private final ExecutorService stateExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "cart-state");
+        t.setDaemon(true);
+        return t;
+    });
 
-    // ---------- Getters de LiveData para la UI ----------
+    /** true mientras hay un recálculo encolado que todavía no empezó. */
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean(false);
+
+    // Formateador de moneda en ARS (solo se usa desde stateExecutor)
+    private final NumberFormat ars =
+            NumberFormat.getCurrencyInstance(new Locale("es", "AR"));
+
+    /** Versión del último CartState emitido (solo stateExecutor). */
+    private long lastEmittedVersion = -1L;
+
+    /** Recibe cada cambio de CartStore (puede llegar desde cualquier hilo). */
+    private final CartStore.Listener storeListener = this::onCartChanged;
 
-    public LiveData<List<CartItem>> getItems() {
-        return itemsLiveData;
+    public CartViewModel() {
+        // Estado inicial desde CartStore y, a partir de ahí, por eventos.
+        CartStore.get().addListener(storeListener);
+        scheduleRebuild(true);
     }
 
-    public LiveData<Integer> getTotalAmount() {
-        return totalAmountLiveData;
+    @Override
+    protected void onCleared() {
+        CartStore.get().removeListener(storeListener);
+        stateExecutor.shutdownNow();
+        super.onCleared();
     }
 
-    public LiveData<Integer> getTotalQty() {
-        return totalQtyLiveData;
+    // ---------- Getters de LiveData para la UI ----------
+
+    /** Estado completo del carrito, listo para dibujar. */
+    public LiveData<CartState> getState() {
+        return stateLiveData;
     }
 
     // ---------- Operaciones sobre el carrito ----------
+    // El CartState se recalcula al recibir el CartChange correspondiente.
+
+    public void add(Product product) {
+        if (product == null) return;
+        CartStore.get().add(product);
+    }
 
     public void inc(Product product) {
         if (product == null) return;
         CartStore.get().inc(product);
-        syncFromStore();
     }
 
     public void dec(Product product) {
         if (product == null) return;
         CartStore.get().dec(product);
-        syncFromStore();
     }
 
     public void remove(Product product) {
         if (product == null) return;
         CartStore.get().remove(product);
-        syncFromStore();
     }
 
     public void clear() {
         CartStore.get().clear();
-        syncFromStore();
     }
 
     /**
-     * Fuerza una re-sincronización completa del LiveData con el CartStore.
-     * Podés llamarlo desde la UI si por algún motivo se modificó el store
-     * desde otra capa.
+     * Aplica varias operaciones juntas ("repetir pedido", importar una
+     * lista de trabajos, vaciar y recargar): un solo cambio del store y
+     * una sola actualización de la UI, sin importar el tamaño del lote.
+     */
+    public void apply(List<CartOp> ops) {
+        if (ops == null || ops.isEmpty()) return;
+        CartStore.get().apply(ops);
+    }
+
+    /**
+     * Fuerza una nueva emisión del CartState aunque la versión del
+     * carrito no haya cambiado.
      */
     public void refresh() {
-        syncFromStore();
+        scheduleRebuild(true);
     }
 
     // ---------- Sincronización interna ----------
 
-    private void syncFromStore() {
-        // Copia defensiva de la lista para no exponer la lista interna del store.
-        List<CartItem> snapshot = new ArrayList<>(CartStore.get().getItems());
-        itemsLiveData.setValue(snapshot);
+    private void onCartChanged(CartChange change) {
+        scheduleRebuild(false);
+    }
 
-        int totalAmount = CartStore.get().getTotalAmount();
-        int totalQty = CartStore.get().getTotalQty();
+    /**
+     * Encola un recálculo del CartState. Sin force, si ya hay uno
+     * pendiente no se encola otro: ese recálculo va a leer el snapshot
+     * más nuevo y alcanza para todos los cambios acumulados.
+     */
+    private void scheduleRebuild(boolean force) {
+        if (!force && !rebuildQueued.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            stateExecutor.execute(() -> rebuild(force));
+        } catch (RejectedExecutionException e) {
+            // ViewModel ya limpiado: no hay a quién emitir.
+        }
+    }
+
+    /** Corre en stateExecutor. */
+    private void rebuild(boolean force) {
+        if (!force) rebuildQueued.set(false);
+        CartSnapshot snapshot = CartStore.get().getSnapshot();
+        if (!force && snapshot.getVersion() == lastEmittedVersion) {
+            return;
+        }
+        lastEmittedVersion = snapshot.getVersion();
+        stateLiveData.postValue(buildState(snapshot));
+    }
 
-        totalAmountLiveData.setValue(totalAmount);
-        totalQtyLiveData.setValue(totalQty);
+    private CartState buildState(CartSnapshot snapshot) {
+        // La lista del snapshot ya es inmutable: se comparte sin copiar.
+        List<CartItem> lines = snapshot.getItems();
+        return new CartState(
+                lines,
+                snapshot.getTotalAmount(),
+                snapshot.getTotalQty(),
+                ars.format(snapshot.getTotalAmount()),
+                snapshot.getVersion()
+        );
     }
 }
@@ -27,7 +27,7 @@ import java.util.List;
  *     Firebase Firestore respetando la estructura real de
  *     la base de datos (colecciones-db.txt).
  *   - Expone la lista de productos y estados de carga/error
- *     mediante LiveData para que CatalogActivity observe
+ *     mediante LiveData para que CatalogFragment observe
  *     y renderice la UI.
  *
  * Campos relevantes en la colección "productos":
@@ -92,7 +92,7 @@ public class CatalogViewModel extends ViewModel {
 
     /**
      * Carga los productos desde Firestore sólo si aún no se han cargado.
-     * Úsalo típicamente en onCreate/onStart de CatalogActivity.
+     * Úsalo típicamente en onCreate/onStart de CatalogFragment.
      */
     public void loadProductsIfNeeded() {
         List<Product> current = productsLiveData.getValue();
@@ -206,6 +206,7 @@ public class CatalogViewModel extends ViewModel {
         boolean copyBased = true;
 
         return new Product(
+                doc.getId(),
                 nombre,
                 descripcion != null ? descripcion : "",
                 precio,
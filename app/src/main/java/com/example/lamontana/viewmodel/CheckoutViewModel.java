@@ -1,14 +1,34 @@
 package com.example.lamontana.viewmodel;
 
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.Nullable;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
 import androidx.lifecycle.ViewModel;
 
+import com.example.lamontana.data.CartStore;
 import com.example.lamontana.data.auth.AuthRepository;
-import com.example.lamontana.data.user.UserStore;
+import com.example.lamontana.data.cart.CartRevalidation;
+import com.example.lamontana.data.cart.CartRevalidator;
+import com.example.lamontana.data.order.OrderDraft;
+import com.example.lamontana.data.order.OrderRepository;
+import com.example.lamontana.data.order.PendingOrderStore;
+import com.example.lamontana.data.pricing.PriceBreakdown;
+import com.example.lamontana.data.pricing.PricingEngine;
+import com.example.lamontana.data.pricing.PrintJob;
+import com.example.lamontana.data.shipping.ShippingQuote;
+import com.example.lamontana.data.shipping.ShippingQuoteEngine;
+import com.example.lamontana.data.user.ProfileRepository;
+import com.example.lamontana.model.CartSnapshot;
+import com.example.lamontana.model.UserProfile;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.firestore.DocumentSnapshot;
-import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
 
 /*
  * ============================================================
@@ -16,30 +36,104 @@ import com.google.firebase.firestore.FirebaseFirestore;
  * Paquete: com.example.lamontana.viewmodel
  * ------------------------------------------------------------
  * Responsabilidad:
- *   - Cargar desde Firestore los datos básicos de envío
- *     del usuario logueado:
+ *   - Exponer los datos básicos de envío del usuario logueado:
  *       · direccion
  *       · telefono
- *   - Exponerlos como LiveData para que CheckoutActivity
- *     pueda rellenar el formulario.
- *   - Actualizar también el UserStore como cache en memoria.
+ *     como LiveData derivados de ProfileRepository (cache reactiva
+ *     compartida con Mis datos, un snapshot listener por usuario):
+ *     abrir el checkout o marcar "usar mi dirección guardada" no
+ *     hace lecturas de red.
+ *   - Guardar el trabajo de impresión armado en ServiciosFragment
+ *     (PrintJob) hasta confirmar el pedido.
+ *   - Dar el desglose de precios vigente (getPricing) con
+ *     PricingEngine: carrito + impresión + envío, en centavos y
+ *     memorizado por versión del carrito.
+ *   - Cotizar el envío (quoteShipping) con ShippingQuoteEngine:
+ *     zona por código postal + recargos por unidades y carillas.
+ *     La cotización se re-evalúa ante cambios del carrito o de la
+ *     impresión (refreshShippingQuote), con cache por estado.
+ *   - Revalidar el carrito contra "productos" antes de confirmar
+ *     (revalidateCart, CartRevalidator: whereIn en tandas paralelas).
+ *     Si cambió algún precio o hay productos no disponibles, la UI
+ *     los muestra y applyRevalidation() deja el carrito al día.
+ *     placeOrder() solo envía un carrito cuya versión ya se revalidó.
+ *   - Enviar el pedido (placeOrder): arma un OrderDraft con el
+ *     snapshot del carrito y el desglose que el usuario CONFIRMÓ
+ *     (quoteOrder, el del diálogo), y lo escribe con OrderRepository
+ *     en un único WriteBatch. Si al enviar el total ya no es ese (CP
+ *     editado, carrito o tarifas nuevas), se rechaza y se vuelve a
+ *     mostrar.
+ *   - Si la impresión lleva archivo, el pedido espera a que esté
+ *     subido (setUploadedFile, lo informa CheckoutFragment desde
+ *     PrintJobViewModel). Un archivo elegido cuyo path todavía no
+ *     se conoce (hash en curso) también se espera; setPrintFile()
+ *     completa PrintJob.archivo cuando llega.
  *
- * Colección usada en Firestore:
- *   - "usuarios" con documentos usuarios/{uid}
- *     (uid = FirebaseAuth.getCurrentUser().getUid())
+ * Pedido idempotente:
+ *   - El orderId se genera una vez y se reutiliza en cada intento
+ *     hasta que uno se confirma: un reintento tras un error vuelve
+ *     a escribir el MISMO pedido. Mientras hay un envío en curso,
+ *     los toques extra se ignoran.
+ *   - El orderId se guarda en disco (PendingOrderStore) antes de
+ *     enviar: si la app muere a mitad de camino, el carrito vuelve y
+ *     el reintento usa el mismo ID.
+ *   - El pedido se da por hecho cuando el servidor lo confirma o,
+ *     si no contesta en LOCAL_ACCEPT_GRACE_MS, cuando Firestore ya lo
+ *     guardó en el dispositivo (whenSavedLocally): sin red,
+ *     batch.commit() no completa hasta que vuelve la conexión, pero
+ *     el pedido ya está encolado y se sube solo. Entonces se vacía el
+ *     carrito, se descarta la impresión y se publica el ID en
+ *     getPlacedOrderId(); isPlacedOrderSynced() dice si ya llegó al
+ *     servidor.
  *
- * Campos esperados:
- *   - direccion: string
- *   - telefono: string
- *   - apellido: string (opcional, solo para completar el UserStore)
+ * Alcance:
+ *   - Se pide con alcance de MainActivity (compartido entre destinos).
  * ============================================================
  */
 public class CheckoutViewModel extends ViewModel {
 
-    private final MutableLiveData<String> addressLiveData = new MutableLiveData<>();
-    private final MutableLiveData<String> phoneLiveData   = new MutableLiveData<>();
+    /** Espera por la confirmación del servidor antes de darlo por encolado. */
+    private static final long LOCAL_ACCEPT_GRACE_MS = 3000;
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private final ProfileRepository profileRepository = ProfileRepository.getInstance();
+
+    // Derivados del perfil compartido (solo emiten si el valor cambia)
+    private final LiveData<String> addressLiveData = Transformations.distinctUntilChanged(
+            Transformations.map(profileRepository.getProfile(), p -> p.direccion));
+    private final LiveData<String> phoneLiveData = Transformations.distinctUntilChanged(
+            Transformations.map(profileRepository.getProfile(), p -> p.telefono));
+    private final MutableLiveData<PrintJob> printJobLiveData = new MutableLiveData<>();
+    private final MutableLiveData<ShippingQuote> shippingQuoteLiveData = new MutableLiveData<>();
+
+    /** Último archivo que terminó de subirse a Storage (null: ninguno). */
+    @Nullable private String uploadedFile;
+
+    /** true si en Servicios hay un archivo elegido (tenga path o no). */
+    private boolean fileSelected;
+
+    /** Último código postal cotizado ("" si no se cotizó). */
+    private String shippingPostalCode = "";
+
+    // Envío del pedido
+    private final MutableLiveData<Boolean> placingOrder = new MutableLiveData<>(false);
+    private final MutableLiveData<String> placedOrderId = new MutableLiveData<>();
+    /** false si el último pedido quedó encolado sin red. */
+    private boolean placedOrderSynced = true;
+    private final MutableLiveData<String> orderError = new MutableLiveData<>();
+
+    // Revalidación de precios/disponibilidad
+    private final MutableLiveData<Boolean> revalidating = new MutableLiveData<>(false);
+    private final MutableLiveData<CartRevalidation> revalidation = new MutableLiveData<>();
+
+    /** Versión del carrito revalidada por última vez (-1: ninguna). */
+    private long validatedCartVersion = -1;
+
+    /** ID del pedido en curso (se conserva entre reintentos). */
+    private String pendingOrderId;
+    private long pendingOrderCreatedAt;
 
-    private final FirebaseFirestore firestore = FirebaseFirestore.getInstance();
     private final AuthRepository authRepository = AuthRepository.getInstance();
 
     // Getters para la Activity
@@ -51,57 +145,364 @@ public class CheckoutViewModel extends ViewModel {
         return phoneLiveData;
     }
 
+    /** Trabajo de impresión pendiente (null si no hay). */
+    public LiveData<PrintJob> getPrintJob() {
+        return printJobLiveData;
+    }
 
-    public void loadUserAddressFromFirestore() {
-        FirebaseUser currentUser = authRepository.getCurrentUser();
-        if (currentUser == null) {
+    /**
+     * Guarda el trabajo de impresión armado en Servicios. Sus carillas
+     * suman recargo al envío, así que se re-cotiza.
+     */
+    public void setPrintJob(PrintJob job) {
+        printJobLiveData.setValue(job != null && !job.isEmpty() ? job : null);
+        refreshShippingQuote();
+    }
 
-            addressLiveData.setValue("");
-            phoneLiveData.setValue("");
-            return;
+    /** Path en Storage del archivo ya subido (null si no hay). */
+    public void setUploadedFile(@Nullable String path) {
+        uploadedFile = path;
+    }
+
+    /**
+     * Archivo elegido en Servicios y su path en Storage (null mientras
+     * se calcula el hash). Actualiza el archivo del trabajo pendiente.
+     */
+    public void setPrintFile(boolean selected, @Nullable String path) {
+        fileSelected = selected;
+        PrintJob job = printJobLiveData.getValue();
+        if (job != null && !Objects.equals(job.archivo, path)) {
+            printJobLiveData.setValue(job.withArchivo(path));
         }
+    }
 
-        final String uid = currentUser.getUid();
+    /**
+     * true si la impresión lleva archivo y todavía no terminó de
+     * subirse (o aún no se sabe a dónde subirlo).
+     */
+    public boolean isWaitingForFile() {
+        if (printJobLiveData.getValue() == null) return false;
+        String file = printFile();
+        if (file == null) return fileSelected;
+        return !file.equals(uploadedFile);
+    }
 
-        firestore.collection("usuarios")
-                .document(uid)
-                .get()
-                .addOnSuccessListener(this::onUserDocLoaded)
+    /**
+     * Desglose de precios vigente: carrito actual + impresión + envío
+     * cotizado (si tiene cobertura). Sin cambios de por medio, el motor
+     * devuelve el mismo objeto sin recalcular. null mientras se carga
+     * la tabla de precios de impresión.
+     */
+    @Nullable
+    public PriceBreakdown getPricing() {
+        ShippingQuote quote = shippingPostalCode.isEmpty() ? null : shippingQuoteLiveData.getValue();
+        return PricingEngine.get().price(CartStore.get().getSnapshot(), printJobs(), quote);
+    }
+
+    /** Cotización de envío vigente (null si no hay CP válido cotizado). */
+    public LiveData<ShippingQuote> getShippingQuote() {
+        return shippingQuoteLiveData;
+    }
+
+    /**
+     * Cotiza el envío al código postal cp para el carrito actual y la
+     * impresión pendiente.
+     *
+     * @return la cotización, o null si cp no tiene 4 dígitos.
+     */
+    public ShippingQuote quoteShipping(String cp) {
+        shippingPostalCode = cp != null ? cp.trim() : "";
+        ShippingQuote quote = ShippingQuoteEngine.get()
+                .quote(shippingPostalCode, CartStore.get().getSnapshot(), printPages());
+        shippingQuoteLiveData.setValue(quote);
+        return quote;
+    }
+
+    /**
+     * Re-cotiza el último CP tras un cambio de carrito/impresión. Si el
+     * estado no cambió, el motor devuelve la cotización cacheada.
+     */
+    public void refreshShippingQuote() {
+        if (shippingPostalCode.isEmpty()) return;
+        ShippingQuote quote = ShippingQuoteEngine.get()
+                .quote(shippingPostalCode, CartStore.get().getSnapshot(), printPages());
+        if (quote != shippingQuoteLiveData.getValue()) {
+            shippingQuoteLiveData.setValue(quote);
+        }
+    }
+
+    /** true mientras se consultan precios y disponibilidad. */
+    public LiveData<Boolean> getRevalidating() {
+        return revalidating;
+    }
+
+    /** Resultado de la última revalidación (evento; null si ya se atendió). */
+    public LiveData<CartRevalidation> getRevalidation() {
+        return revalidation;
+    }
+
+    /**
+     * Compara el carrito actual con "productos" (un solo viaje a
+     * Firestore) y publica el resultado en getRevalidation().
+     */
+    public void revalidateCart() {
+        if (Boolean.TRUE.equals(revalidating.getValue())) return;
+
+        revalidating.setValue(true);
+        orderError.setValue(null);
+
+        CartRevalidator.getInstance()
+                .revalidate(CartStore.get().getSnapshot())
+                .addOnSuccessListener(result -> {
+                    if (result.isClean()) {
+                        validatedCartVersion = result.cartVersion;
+                    }
+                    revalidating.setValue(false);
+                    revalidation.setValue(result);
+                })
                 .addOnFailureListener(e -> {
-                    // Ante error, no reventamos la app:
-                    // dejamos los valores actuales o vacíos.
-                    addressLiveData.setValue("");
-                    phoneLiveData.setValue("");
+                    revalidating.setValue(false);
+                    orderError.setValue("No se pudieron verificar los precios. Intentá nuevamente.");
                 });
     }
 
-    // ----------------------------------------------------------
-    // Mapeo de documento Firestore -> LiveData + UserStore
-    // ----------------------------------------------------------
-    private void onUserDocLoaded(DocumentSnapshot doc) {
-        if (doc == null || !doc.exists()) {
-            addressLiveData.setValue("");
-            phoneLiveData.setValue("");
+    /**
+     * Aplica al carrito los precios nuevos y quita lo no disponible
+     * (un único lote). El carrito resultante queda revalidado.
+     *
+     * @return false si el carrito cambió mientras se revisaba (se
+     *         vuelve a revalidar y el resultado llega de nuevo).
+     */
+    public boolean applyRevalidation(CartRevalidation result) {
+        if (result.cartVersion != CartStore.get().getSnapshot().getVersion()) {
+            revalidateCart();
+            return false;
+        }
+        CartStore.get().apply(result.toOps());
+        validatedCartVersion = CartStore.get().getSnapshot().getVersion();
+        refreshShippingQuote();
+        return true;
+    }
+
+    /** Marca como consumido el resultado de la revalidación. */
+    public void onRevalidationHandled() {
+        revalidation.setValue(null);
+    }
+
+    /**
+     * Desglose a cobrar con el CP ingresado (vacío: sin envío). Es el
+     * que muestra el diálogo de confirmación y el que placeOrder()
+     * guarda tal cual.
+     *
+     * @return null si el CP no tiene cobertura o los precios todavía
+     *         se están cargando (el motivo va a getOrderError()).
+     */
+    @Nullable
+    public PriceBreakdown quoteOrder(String codigoPostal) {
+        String cp = codigoPostal != null ? codigoPostal.trim() : "";
+        ShippingQuote quote = quoteShipping(cp);
+        if (quote == null && ShippingQuoteEngine.parsePostalCode(cp) >= 0
+                && ShippingQuoteEngine.get().isLoading()) {
+            orderError.setValue("Todavía se están cargando las zonas de envío. Probá en unos segundos.");
+            return null;
+        }
+        if (!cp.isEmpty() && (quote == null || !quote.isCovered())) {
+            orderError.setValue("Por ahora no se hacen envíos a ese código postal.");
+            return null;
+        }
+        PriceBreakdown pricing = PricingEngine.get().price(CartStore.get().getSnapshot(), printJobs(), quote);
+        if (pricing == null) {
+            orderError.setValue("Todavía se están cargando los precios. Probá en unos segundos.");
+        }
+        return pricing;
+    }
+
+    /** true mientras se está enviando un pedido. */
+    public LiveData<Boolean> getPlacingOrder() {
+        return placingOrder;
+    }
+
+    /** ID del último pedido confirmado (evento de éxito). */
+    public LiveData<String> getPlacedOrderId() {
+        return placedOrderId;
+    }
+
+    /**
+     * true si el último pedido publicado en getPlacedOrderId() ya lo
+     * confirmó el servidor; false si está pendiente de sincronizar.
+     */
+    public boolean isPlacedOrderSynced() {
+        return placedOrderSynced;
+    }
+
+    public LiveData<String> getOrderError() {
+        return orderError;
+    }
+
+    /**
+     * Envía el pedido con el carrito actual, la impresión pendiente y
+     * los datos de envío, cobrando "confirmado" (de quoteOrder). No
+     * hace nada si ya hay un envío en curso o si no hay nada para
+     * cobrar.
+     */
+    public void placeOrder(PriceBreakdown confirmado,
+                           String direccion,
+                           String codigoPostal,
+                           String telefono,
+                           String notas) {
+        if (Boolean.TRUE.equals(placingOrder.getValue())) return;
+
+        FirebaseUser currentUser = authRepository.getCurrentUser();
+        if (currentUser == null) {
+            orderError.setValue("Tenés que iniciar sesión para realizar el pedido.");
             return;
         }
 
-        String direccion = doc.getString("direccion");
-        String telefono  = doc.getString("telefono");
-        String apellido  = doc.getString("apellido");
+        // El local imprime desde Storage: sin archivo subido no hay pedido.
+        if (isWaitingForFile()) {
+            orderError.setValue("Esperá a que termine de subirse el archivo.");
+            return;
+        }
 
-        if (direccion == null) direccion = "";
-        if (telefono  == null) telefono  = "";
-        if (apellido  == null) apellido  = "";
+        String uid = currentUser.getUid();
+        if (pendingOrderId == null) {
+            // Tras un reinicio, el pedido que quedó a medio enviar
+            PendingOrderStore store = PendingOrderStore.get();
+            pendingOrderId = store.idFor(uid);
+            if (pendingOrderId != null) {
+                pendingOrderCreatedAt = store.createdAt();
+            } else {
+                pendingOrderId = OrderRepository.newOrderId();
+                pendingOrderCreatedAt = System.currentTimeMillis();
+            }
+        }
 
-        // Actualizamos LiveData (será observado desde CheckoutActivity)
-        addressLiveData.setValue(direccion);
-        phoneLiveData.setValue(telefono);
+        // Precio y líneas salen del MISMO snapshot, ya revalidado.
+        CartSnapshot snapshot = CartStore.get().getSnapshot();
+        if (snapshot.getVersion() != validatedCartVersion) {
+            revalidateCart();
+            return;
+        }
+
+        // Se guarda lo que el usuario vio: si con los datos de ahora
+        // (CP incluido) el cobro sería otro, no se envía.
+        PriceBreakdown vigente = quoteOrder(codigoPostal);
+        if (vigente == null) return;
+        if (!sameCharge(vigente, confirmado)) {
+            orderError.setValue("El total cambió. Revisalo y volvé a confirmar el pedido.");
+            return;
+        }
 
-        // Actualizamos también el UserStore en memoria
-        UserStore.get().setOptionalData(
-                apellido,
+        final OrderDraft draft = new OrderDraft(
+                pendingOrderId,
+                pendingOrderCreatedAt,
+                snapshot,
+                confirmado,
+                direccion,
+                codigoPostal,
                 telefono,
-                direccion
+                notas,
+                printFile()
         );
+        if (draft.isEmpty()) return;
+
+        placingOrder.setValue(true);
+        orderError.setValue(null);
+        PendingOrderStore.get().save(uid, draft.orderId, draft.createdAt);
+
+        OrderRepository repo = OrderRepository.getInstance();
+        boolean[] accepted = {false};
+        repo.placeOrder(uid, draft)
+                .addOnSuccessListener(unused -> {
+                    if (accepted[0]) return;
+                    accepted[0] = true;
+                    onOrderAccepted(draft, true);
+                })
+                .addOnFailureListener(e -> {
+                    if (accepted[0]) {
+                        // Ya se había dado por hecho (sin red) y el servidor lo rechazó.
+                        orderError.setValue("No se pudo guardar el pedido " + draft.orderId
+                                + ". Revisalo en Mis pedidos.");
+                        return;
+                    }
+                    // Se conserva pendingOrderId: el reintento no duplica.
+                    accepted[0] = true;
+                    placingOrder.setValue(false);
+                    orderError.setValue("No se pudo realizar el pedido. Intentá nuevamente.");
+                });
+        // Sin respuesta del servidor: alcanza con que esté encolado en el
+        // dispositivo (la lectura va detrás del batch en la cola de Firestore).
+        mainHandler.postDelayed(() -> {
+            if (accepted[0]) return;
+            repo.whenSavedLocally(uid, draft.orderId)
+                    .addOnSuccessListener(doc -> {
+                        if (accepted[0] || !doc.exists()) return;
+                        accepted[0] = true;
+                        onOrderAccepted(draft, false);
+                    });
+        }, LOCAL_ACCEPT_GRACE_MS);
+    }
+
+    /**
+     * Pedido guardado (en el servidor, o encolado en el dispositivo si
+     * synced es false): el próximo usará un ID nuevo.
+     */
+    private void onOrderAccepted(OrderDraft draft, boolean synced) {
+        pendingOrderId = null;
+        PendingOrderStore.get().clear(draft.orderId);
+        CartStore.get().clear();
+        printJobLiveData.setValue(null);
+        placingOrder.setValue(false);
+        placedOrderSynced = synced;
+        placedOrderId.setValue(draft.orderId);
+    }
+
+    @Override
+    protected void onCleared() {
+        // El pedido en envío sigue en PendingOrderStore: el reintento no duplica.
+        mainHandler.removeCallbacksAndMessages(null);
+        super.onCleared();
+    }
+
+    /** Marca como consumido el evento de pedido confirmado. */
+    public void onPlacedOrderHandled() {
+        placedOrderId.setValue(null);
+    }
+
+    /**
+     * Perfil guardado del usuario (cache en memoria, sin red): lo usa
+     * el checkbox "usar mi dirección guardada".
+     */
+    public UserProfile getSavedProfile() {
+        return profileRepository.getCurrent();
+    }
+
+    /** Mismo carrito y mismos importes (el objeto puede ser otro). */
+    private static boolean sameCharge(PriceBreakdown a, PriceBreakdown b) {
+        return a.cartVersion == b.cartVersion
+                && a.productsCents == b.productsCents
+                && a.printCents == b.printCents
+                && a.shippingCents == b.shippingCents
+                && a.totalCents == b.totalCents;
+    }
+
+    // ------------------------------
+    // Trabajo de impresión
+    // ------------------------------
+
+    private List<PrintJob> printJobs() {
+        PrintJob job = printJobLiveData.getValue();
+        return job != null ? Collections.singletonList(job) : Collections.emptyList();
+    }
+
+    @Nullable
+    private String printFile() {
+        PrintJob job = printJobLiveData.getValue();
+        return job != null ? job.archivo : null;
+    }
+
+    private int printPages() {
+        PrintJob job = printJobLiveData.getValue();
+        return job != null ? job.carillas : 0;
     }
 }
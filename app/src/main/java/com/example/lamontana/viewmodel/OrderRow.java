@@ -0,0 +1,44 @@
+package com.example.lamontana.viewmodel;
+
+import androidx.annotation.Nullable;
+
+import com.example.lamontana.model.OrderLine;
+import com.example.lamontana.model.OrderSummary;
+
+import java.util.List;
+
+/*
+ * ============================================================
+ * Archivo: OrderRow.java
+ * Paquete: com.example.lamontana.viewmodel
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Fila inmutable del historial de pedidos, lista para dibujar,
+ *     que OrdersViewModel emite en la lista de getRows():
+ *       · summary      → cabecera del pedido.
+ *       · expanded     → si el usuario abrió el detalle.
+ *       · lines        → líneas del pedido (null si no se pidieron).
+ *       · linesLoading → si las líneas están en camino.
+ *
+ * Notas:
+ *   - Expandir o recibir líneas crea una fila NUEVA: el adapter
+ *     re-dibuja solo esa fila (DiffUtil).
+ * ============================================================
+ */
+public final class OrderRow {
+
+    public final OrderSummary summary;
+    public final boolean expanded;
+    @Nullable public final List<OrderLine> lines;
+    public final boolean linesLoading;
+
+    public OrderRow(OrderSummary summary,
+                    boolean expanded,
+                    @Nullable List<OrderLine> lines,
+                    boolean linesLoading) {
+        this.summary = summary;
+        this.expanded = expanded;
+        this.lines = lines;
+        this.linesLoading = linesLoading;
+    }
+}
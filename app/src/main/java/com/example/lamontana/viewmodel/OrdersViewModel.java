@@ -0,0 +1,232 @@
+package com.example.lamontana.viewmodel;
+
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.ViewModel;
+
+import com.example.lamontana.data.auth.AuthRepository;
+import com.example.lamontana.data.order.OrderRepository;
+import com.example.lamontana.model.OrderLine;
+import com.example.lamontana.model.OrderSummary;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * ============================================================
+ * Archivo: OrdersViewModel.java
+ * Paquete: com.example.lamontana.viewmodel
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Estado del historial de pedidos ("Mis pedidos") del usuario
+ *     logueado: usuarios/{uid}/pedidos, más nuevos primero.
+ *   - Paginado por cursor: abrir la pantalla hace UNA consulta chica
+ *     (OrderRepository.HISTORY_PAGE_SIZE cabeceras); las siguientes
+ *     páginas se piden al acercarse al final de la lista, arrancando
+ *     después del último documento recibido.
+ *   - Las líneas de un pedido se piden recién al expandirlo, una
+ *     sola vez por pedido.
+ *
+ * Cache:
+ *   - Páginas y líneas ya recibidas quedan en memoria mientras viva
+ *     MainActivity (alcance de la Activity): volver a "Mis pedidos"
+ *     no consulta Firestore. Confirmar un pedido o cerrar sesión
+ *     recrean la Activity, y con ella este cache.
+ *   - Además, Firestore guarda en disco lo leído (persistencia
+ *     offline): sin red se ve lo último consultado.
+ *
+ * ¿Qué métodos expone?
+ *   - LiveData<List<OrderRow>> getRows()
+ *   - LiveData<Boolean> getLoading() / getEndReached()
+ *   - LiveData<String> getError()
+ *   - void loadFirstPageIfNeeded()
+ *   - void loadNextPage()
+ *   - void toggleExpanded(String orderId)
+ * ============================================================
+ */
+public class OrdersViewModel extends ViewModel {
+
+    private final OrderRepository orderRepository = OrderRepository.getInstance();
+    private final AuthRepository authRepository = AuthRepository.getInstance();
+
+    private final MutableLiveData<List<OrderRow>> rowsLiveData =
+            new MutableLiveData<>(Collections.emptyList());
+    private final MutableLiveData<Boolean> loadingLiveData = new MutableLiveData<>(false);
+    private final MutableLiveData<Boolean> endReachedLiveData = new MutableLiveData<>(false);
+    private final MutableLiveData<String> errorLiveData = new MutableLiveData<>(null);
+
+    // Páginas recibidas (cache en memoria)
+    private final List<OrderSummary> orders = new ArrayList<>();
+    @Nullable private DocumentSnapshot cursor;
+    private boolean loadedOnce = false;
+
+    // Detalle por pedido
+    private final Set<String> expanded = new HashSet<>();
+    private final Map<String, List<OrderLine>> linesByOrder = new HashMap<>();
+    private final Set<String> linesLoading = new HashSet<>();
+
+    /** Usuario dueño del cache ("" si todavía no se cargó nada). */
+    private String uid = "";
+
+    public LiveData<List<OrderRow>> getRows() {
+        return rowsLiveData;
+    }
+
+    public LiveData<Boolean> getLoading() {
+        return loadingLiveData;
+    }
+
+    /** true cuando ya no quedan pedidos más viejos por traer. */
+    public LiveData<Boolean> getEndReached() {
+        return endReachedLiveData;
+    }
+
+    public LiveData<String> getError() {
+        return errorLiveData;
+    }
+
+    /**
+     * Trae la primera página si todavía no hay nada en cache (o si
+     * cambió el usuario). Si ya se cargó, no consulta Firestore.
+     */
+    public void loadFirstPageIfNeeded() {
+        FirebaseUser user = authRepository.getCurrentUser();
+        if (user == null) {
+            errorLiveData.setValue("Tenés que iniciar sesión para ver tus pedidos.");
+            return;
+        }
+        if (!user.getUid().equals(uid)) {
+            resetFor(user.getUid());
+        }
+        if (loadedOnce) return;
+        fetchPage();
+    }
+
+    /**
+     * Trae la página siguiente (más vieja). No hace nada si ya hay
+     * una en camino o si se llegó al final.
+     */
+    public void loadNextPage() {
+        if (!loadedOnce || uid.isEmpty()) return;
+        if (Boolean.TRUE.equals(endReachedLiveData.getValue())) return;
+        fetchPage();
+    }
+
+    /**
+     * Expande o colapsa un pedido. La primera vez que se expande se
+     * piden sus líneas; después se muestran desde el cache.
+     */
+    public void toggleExpanded(String orderId) {
+        if (!expanded.remove(orderId)) {
+            expanded.add(orderId);
+            if (!linesByOrder.containsKey(orderId)) {
+                fetchLines(orderId);
+            }
+        }
+        publishRows();
+    }
+
+    // ------------------------------
+    // Consultas
+    // ------------------------------
+
+    private void fetchPage() {
+        if (Boolean.TRUE.equals(loadingLiveData.getValue())) return;
+
+        final String requestUid = uid;
+        loadingLiveData.setValue(true);
+        errorLiveData.setValue(null);
+
+        orderRepository.fetchHistoryPage(requestUid, cursor)
+                .addOnSuccessListener(snapshot -> {
+                    if (!requestUid.equals(uid)) return; // cambió el usuario
+                    appendPage(snapshot);
+                    loadingLiveData.setValue(false);
+                })
+                .addOnFailureListener(e -> {
+                    if (!requestUid.equals(uid)) return;
+                    loadingLiveData.setValue(false);
+                    errorLiveData.setValue("No se pudieron cargar tus pedidos.");
+                });
+    }
+
+    private void appendPage(QuerySnapshot snapshot) {
+        List<DocumentSnapshot> docs = snapshot.getDocuments();
+        for (DocumentSnapshot doc : docs) {
+            orders.add(OrderRepository.toSummary(doc));
+        }
+        if (!docs.isEmpty()) {
+            cursor = docs.get(docs.size() - 1);
+        }
+        loadedOnce = true;
+        endReachedLiveData.setValue(docs.size() < OrderRepository.HISTORY_PAGE_SIZE);
+        publishRows();
+    }
+
+    private void fetchLines(final String orderId) {
+        if (!linesLoading.add(orderId)) return;
+
+        final String requestUid = uid;
+        orderRepository.fetchLines(requestUid, orderId)
+                .addOnSuccessListener(snapshot -> {
+                    if (!requestUid.equals(uid)) return;
+                    List<OrderLine> lines = new ArrayList<>();
+                    for (DocumentSnapshot doc : snapshot.getDocuments()) {
+                        lines.add(OrderRepository.toLine(doc));
+                    }
+                    linesLoading.remove(orderId);
+                    linesByOrder.put(orderId, Collections.unmodifiableList(lines));
+                    publishRows();
+                })
+                .addOnFailureListener(e -> {
+                    if (!requestUid.equals(uid)) return;
+                    // Sin cache: se vuelve a intentar al expandir de nuevo.
+                    linesLoading.remove(orderId);
+                    expanded.remove(orderId);
+                    errorLiveData.setValue("No se pudo cargar el detalle del pedido.");
+                    publishRows();
+                });
+        publishRows();
+    }
+
+    // ------------------------------
+    // Estado
+    // ------------------------------
+
+    private void resetFor(String newUid) {
+        uid = newUid;
+        orders.clear();
+        cursor = null;
+        loadedOnce = false;
+        expanded.clear();
+        linesByOrder.clear();
+        linesLoading.clear();
+        loadingLiveData.setValue(false);
+        endReachedLiveData.setValue(false);
+        publishRows();
+    }
+
+    /** Arma la lista inmutable de filas a partir del cache. */
+    private void publishRows() {
+        List<OrderRow> rows = new ArrayList<>(orders.size());
+        for (OrderSummary summary : orders) {
+            String id = summary.id;
+            rows.add(new OrderRow(
+                    summary,
+                    expanded.contains(id),
+                    linesByOrder.get(id),
+                    linesLoading.contains(id)
+            ));
+        }
+        rowsLiveData.setValue(Collections.unmodifiableList(rows));
+    }
+}
@@ -0,0 +1,486 @@
+package com.example.lamontana.viewmodel;
+
+import android.app.Application;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.example.lamontana.data.pdf.ContentHasher;
+import com.example.lamontana.data.pdf.PageColorClassifier;
+import com.example.lamontana.data.pdf.PageColorMap;
+import com.example.lamontana.data.pdf.PdfAnalysisCache;
+import com.example.lamontana.data.pdf.PdfAnalyzer;
+import com.example.lamontana.data.pdf.PdfDocumentInfo;
+import com.example.lamontana.data.pdf.PdfThumbnails;
+import com.example.lamontana.data.upload.FirebaseFileStorage;
+import com.example.lamontana.data.upload.ResumableUploader;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * ============================================================
+ * Archivo: PrintJobViewModel.java
+ * Paquete: com.example.lamontana.viewmodel
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Estado del archivo elegido en Servicios y de su análisis,
+ *     que corre en un hilo de fondo propio en etapas:
+ *       0) ContentHasher: SHA-256 del contenido. Si PdfAnalysisCache
+ *          ya lo conoce, se publica lo guardado y no hay más etapas.
+ *       1) PdfAnalyzer: páginas, nombre y tamaño (rápido).
+ *       2) PageColorClassifier: color / B/N página por página.
+ *          El resultado completo se guarda en PdfAnalysisCache.
+ *   - LiveData:
+ *       · getAnalysis()  → PdfDocumentInfo (apenas termina la etapa 1).
+ *       · getColorMap()  → PageColorMap (al terminar la etapa 2;
+ *                          null si no se pudo clasificar).
+ *       · getProgress()  → avance 0..100 (HASH_SHARE para la etapa 0,
+ *                          ANALYSIS_SHARE para la 1, el resto es la 2).
+ *       · getAnalyzing() → true mientras corre.
+ *       · getError()     → mensaje si el archivo no se pudo leer.
+ *   - Subida: recién al ir al checkout (upload(), desde Servicios)
+ *     el archivo analizado se sube a Storage en
+ *     "trabajos/{uid}/{hash}.pdf" con ResumableUploader, en otro
+ *     hilo. Elegir archivos y no pedirlos no deja nada en Storage.
+ *       · getUploadPath() / getUploadPathLive() → path destino (va
+ *                             en el PrintJob; null hasta tener el hash).
+ *       · getUploadBlocker() → por qué el archivo elegido todavía no
+ *                             se puede subir (Servicios no deja pagar
+ *                             y el checkout lo espera).
+ *       · getUploading() / getUploadProgress() (0..100)
+ *       · getUploadedPath() → path ya subido (el pedido lo exige).
+ *       · getUploadError()
+ *     Elegir otro archivo corta la subida; la sesión queda guardada y
+ *     volver a elegirlo la retoma desde lo que Storage confirmó.
+ *   - Miniaturas: getThumbnails() → PdfThumbnails del archivo
+ *     analizado (se abre al publicar el análisis, con el hash como
+ *     clave de cache).
+ *   - Visor: getViewerPage() → página que muestra PdfViewerFragment
+ *     (se fija al tocar una miniatura).
+ *
+ * Cancelación:
+ *   - Elegir otro archivo cancela el análisis en curso; cancel()
+ *     lo corta a pedido del usuario. Cada análisis tiene su propia
+ *     bandera de cancelación: un resultado viejo nunca pisa al del
+ *     archivo nuevo.
+ *
+ * Rotación:
+ *   - Se pide con alcance de MainActivity: el análisis sigue
+ *     corriendo y el resultado queda guardado. Volver a entregar
+ *     la MISMA Uri (ej. el callback del selector tras recrear la
+ *     Activity) no vuelve a analizar.
+ * ============================================================
+ */
+public class PrintJobViewModel extends AndroidViewModel {
+
+    private static final String TAG = "PrintJobViewModel";
+
+    /** Partes de la barra de progreso que ocupan las etapas 0 y 1. */
+    private static final int HASH_SHARE = 10;
+    private static final int ANALYSIS_SHARE = 10;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "pdf-analysis");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final ContentHasher hasher;
+    private final PdfAnalysisCache cache;
+    private final PdfAnalyzer analyzer;
+    private final PageColorClassifier classifier;
+    private final PdfThumbnails thumbnails;
+
+    /** Los resultados se publican en el main thread, donde también se cancela. */
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private final ExecutorService uploadExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "pdf-upload");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /** null si el proyecto no tiene Storage configurado. */
+    @Nullable private final ResumableUploader uploader;
+
+    private final MutableLiveData<PdfDocumentInfo> analysisLiveData = new MutableLiveData<>();
+    private final MutableLiveData<PageColorMap> colorMapLiveData = new MutableLiveData<>();
+    private final MutableLiveData<Integer> progressLiveData = new MutableLiveData<>(0);
+    private final MutableLiveData<Boolean> analyzingLiveData = new MutableLiveData<>(false);
+    private final MutableLiveData<String> errorLiveData = new MutableLiveData<>(null);
+
+    private final MutableLiveData<Boolean> uploadingLiveData = new MutableLiveData<>(false);
+    private final MutableLiveData<Integer> uploadProgressLiveData = new MutableLiveData<>(0);
+    private final MutableLiveData<String> uploadedPathLiveData = new MutableLiveData<>(null);
+    private final MutableLiveData<String> uploadErrorLiveData = new MutableLiveData<>(null);
+    private final MutableLiveData<String> uploadPathLiveData = new MutableLiveData<>(null);
+
+    private final MutableLiveData<Integer> viewerPageLiveData = new MutableLiveData<>(0);
+
+    /** Uri del archivo vigente (analizado o en análisis). */
+    @Nullable private Uri currentUri;
+
+    /** Hash del archivo analizado (null hasta publicar el análisis o si falló). */
+    @Nullable private String currentHash;
+
+    // Trabajo en curso
+    @Nullable private Future<?> running;
+    @Nullable private AtomicBoolean runningCancelled;
+
+    // Subida en curso
+    @Nullable private Future<?> uploading;
+    @Nullable private AtomicBoolean uploadCancelled;
+
+    public PrintJobViewModel(@NonNull Application application) {
+        super(application);
+        hasher = new ContentHasher(application.getContentResolver());
+        cache = new PdfAnalysisCache(application.getCacheDir());
+        analyzer = new PdfAnalyzer(application.getContentResolver());
+        classifier = new PageColorClassifier(application.getContentResolver());
+        thumbnails = new PdfThumbnails(application.getContentResolver(), application.getCacheDir());
+        uploader = createUploader(application);
+    }
+
+    public LiveData<PdfDocumentInfo> getAnalysis() {
+        return analysisLiveData;
+    }
+
+    public LiveData<PageColorMap> getColorMap() {
+        return colorMapLiveData;
+    }
+
+    public LiveData<Integer> getProgress() {
+        return progressLiveData;
+    }
+
+    public LiveData<Boolean> getAnalyzing() {
+        return analyzingLiveData;
+    }
+
+    public LiveData<String> getError() {
+        return errorLiveData;
+    }
+
+    public LiveData<Boolean> getUploading() {
+        return uploadingLiveData;
+    }
+
+    public LiveData<Integer> getUploadProgress() {
+        return uploadProgressLiveData;
+    }
+
+    public LiveData<String> getUploadedPath() {
+        return uploadedPathLiveData;
+    }
+
+    public LiveData<String> getUploadError() {
+        return uploadErrorLiveData;
+    }
+
+    /**
+     * Path en Storage que tendrá el archivo analizado (null si no hay
+     * archivo, sesión o Storage). El pedido solo sale cuando
+     * getUploadedPath() lo alcanza.
+     */
+    @Nullable
+    public String getUploadPath() {
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        if (uploader == null || user == null || currentHash == null) return null;
+        return "trabajos/" + user.getUid() + "/" + currentHash + ".pdf";
+    }
+
+    /** getUploadPath() como LiveData: cambia al llegar el hash o al elegir otro archivo. */
+    public LiveData<String> getUploadPathLive() {
+        return uploadPathLiveData;
+    }
+
+    /**
+     * Motivo por el que el archivo elegido todavía no tiene path en
+     * Storage, o null si lo tiene (o si no hay archivo).
+     */
+    @Nullable
+    public String getUploadBlocker() {
+        if (currentUri == null || getUploadPath() != null) return null;
+        if (uploader == null) return "No se pueden subir archivos en este momento.";
+        if (FirebaseAuth.getInstance().getCurrentUser() == null) {
+            return "Tenés que iniciar sesión para subir el archivo.";
+        }
+        if (analysisLiveData.getValue() == null && errorLiveData.getValue() == null) {
+            return "Esperá a que termine de leerse el archivo.";
+        }
+        return "No se pudo preparar el archivo para subirlo. Elegilo de nuevo.";
+    }
+
+    /** Miniaturas del archivo analizado (main thread). */
+    public PdfThumbnails getThumbnails() {
+        return thumbnails;
+    }
+
+    public LiveData<Integer> getViewerPage() {
+        return viewerPageLiveData;
+    }
+
+    /** Página del visor (se acota a las páginas del análisis). */
+    public void setViewerPage(int page) {
+        PdfDocumentInfo info = analysisLiveData.getValue();
+        int max = info != null ? info.paginas - 1 : 0;
+        viewerPageLiveData.setValue(Math.max(0, Math.min(max, page)));
+    }
+
+    /** Uri del archivo elegido (null si no hay). */
+    @Nullable
+    public Uri getCurrentUri() {
+        return currentUri;
+    }
+
+    /**
+     * Analiza el archivo en segundo plano. Si es el mismo que ya se
+     * analizó (o se está analizando) y no hubo errores, no hace nada.
+     */
+    public void analyze(Uri uri) {
+        if (uri == null) return;
+        if (uri.equals(currentUri)
+                && errorLiveData.getValue() == null
+                && uploadErrorLiveData.getValue() == null) return;
+
+        cancelRunning();
+        cancelUpload();
+        currentUri = uri;
+        setHash(null);
+
+        final AtomicBoolean cancelled = new AtomicBoolean(false);
+        runningCancelled = cancelled;
+
+        analysisLiveData.setValue(null);
+        colorMapLiveData.setValue(null);
+        viewerPageLiveData.setValue(0);
+        errorLiveData.setValue(null);
+        progressLiveData.setValue(0);
+        analyzingLiveData.setValue(true);
+
+        running = executor.submit(() -> {
+            try {
+                String hash = hashOrNull(uri, cancelled);
+                PdfAnalysisCache.Entry cached = hash != null ? cache.get(hash) : null;
+                if (cached != null) {
+                    // Archivo conocido: solo nombre y tamaño del proveedor
+                    PdfDocumentInfo info = analyzer.describe(uri,
+                            cached.paginas, cached.anchoPt, cached.altoPt);
+                    onMain(cancelled, () -> {
+                        setHash(hash);
+                        thumbnails.open(uri, hash);
+                        analysisLiveData.setValue(info);
+                        colorMapLiveData.setValue(cached.colores);
+                        progressLiveData.setValue(100);
+                        analyzingLiveData.setValue(false);
+                    });
+                    return;
+                }
+
+                PdfDocumentInfo info = analyzer.analyze(uri, cancelled,
+                        progressRange(cancelled, HASH_SHARE, HASH_SHARE + ANALYSIS_SHARE));
+                // Las páginas ya se pueden mostrar mientras se clasifica
+                onMain(cancelled, () -> {
+                    setHash(hash);
+                    thumbnails.open(uri, hash);
+                    analysisLiveData.setValue(info);
+                });
+
+                PageColorMap colors = classifyOrNull(uri, info.paginas, cancelled);
+                if (hash != null && colors != null) {
+                    cache.put(hash, info, colors);
+                }
+                onMain(cancelled, () -> {
+                    colorMapLiveData.setValue(colors);
+                    analyzingLiveData.setValue(false);
+                });
+            } catch (CancellationException e) {
+                // Otro archivo o cancel(): el estado ya lo actualizó quien canceló.
+            } catch (IOException | RuntimeException e) {
+                Log.w(TAG, "No se pudo analizar " + uri, e);
+                onMain(cancelled, () -> {
+                    errorLiveData.setValue("No se pudo leer el archivo (¿es un PDF válido?).");
+                    analyzingLiveData.setValue(false);
+                });
+            }
+        });
+    }
+
+    /** Cancela el análisis en curso (el archivo queda sin analizar). */
+    public void cancel() {
+        if (!Boolean.TRUE.equals(analyzingLiveData.getValue())) return;
+        cancelRunning();
+        currentUri = null;
+        setHash(null);
+        analyzingLiveData.setValue(false);
+        progressLiveData.setValue(0);
+    }
+
+    @Override
+    protected void onCleared() {
+        cancelRunning();
+        cancelUpload();
+        mainHandler.removeCallbacksAndMessages(null);
+        executor.shutdownNow();
+        uploadExecutor.shutdownNow();
+        classifier.shutdown();
+        thumbnails.close();
+    }
+
+    // ------------------------------
+    // Subida
+    // ------------------------------
+
+    @Nullable
+    private static ResumableUploader createUploader(Application application) {
+        try {
+            return new ResumableUploader(application, new FirebaseFileStorage());
+        } catch (IllegalStateException e) {
+            Log.w(TAG, "Sin Firebase Storage: los archivos no se suben", e);
+            return null;
+        }
+    }
+
+    /**
+     * Sube el archivo analizado (main thread): se llama al pasar al
+     * checkout. Si ya se está subiendo o ya se subió, no hace nada.
+     * El path lleva el hash: el mismo contenido nunca se sube dos veces.
+     */
+    public void upload() {
+        final Uri uri = currentUri;
+        final String path = getUploadPath();
+        if (uri == null) return;
+        if (path == null) {
+            // Sin path no hay subida: el checkout lo muestra y espera
+            uploadErrorLiveData.setValue(getUploadBlocker());
+            return;
+        }
+        if (uploading != null || path.equals(uploadedPathLiveData.getValue())) return;
+
+        final AtomicBoolean cancelled = new AtomicBoolean(false);
+        uploadCancelled = cancelled;
+
+        uploadErrorLiveData.setValue(null);
+        uploadProgressLiveData.setValue(0);
+        uploadingLiveData.setValue(true);
+
+        uploading = uploadExecutor.submit(() -> {
+            try {
+                uploader.upload(uri, path, "application/pdf", cancelled, (sent, total) -> {
+                    if (total <= 0) return;
+                    int percent = (int) Math.min(100, sent * 100 / total);
+                    onMain(cancelled, () -> uploadProgressLiveData.setValue(percent));
+                });
+                onMain(cancelled, () -> {
+                    uploading = null;
+                    uploadProgressLiveData.setValue(100);
+                    uploadedPathLiveData.setValue(path);
+                    uploadingLiveData.setValue(false);
+                });
+            } catch (CancellationException e) {
+                // Otro archivo: la sesión queda guardada para retomarla.
+            } catch (IOException | RuntimeException e) {
+                Log.w(TAG, "No se pudo subir " + uri, e);
+                onMain(cancelled, () -> {
+                    uploading = null;
+                    uploadErrorLiveData.setValue("No se pudo subir el archivo. Se reintentará al confirmar el pedido.");
+                    uploadingLiveData.setValue(false);
+                });
+            }
+        });
+    }
+
+    private void cancelUpload() {
+        if (uploadCancelled != null) uploadCancelled.set(true);
+        if (uploading != null) uploading.cancel(true);
+        uploading = null;
+        uploadCancelled = null;
+        uploadedPathLiveData.setValue(null);
+        uploadingLiveData.setValue(false);
+        uploadProgressLiveData.setValue(0);
+    }
+
+    // ------------------------------
+    // Internos
+    // ------------------------------
+
+    /** Hash del archivo vigente; publica el path destino que resulta. */
+    private void setHash(@Nullable String hash) {
+        currentHash = hash;
+        // Si el aviso era "esperá a que se lea", ya no aplica
+        if (hash != null) uploadErrorLiveData.setValue(null);
+        uploadPathLiveData.setValue(getUploadPath());
+    }
+
+    private void cancelRunning() {
+        if (runningCancelled != null) runningCancelled.set(true);
+        if (running != null) running.cancel(true);
+        running = null;
+        runningCancelled = null;
+    }
+
+    /**
+     * Etapa 0. Si falla (proveedor que no deja leer dos veces, etc.)
+     * se analiza igual, sin cache.
+     */
+    @Nullable
+    private String hashOrNull(Uri uri, AtomicBoolean cancelled) {
+        try {
+            return hasher.sha256(uri, cancelled, progressRange(cancelled, 0, HASH_SHARE));
+        } catch (CancellationException e) {
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "No se pudo calcular el hash de " + uri, e);
+            return null;
+        }
+    }
+
+    /**
+     * Etapa 2. Si falla, el archivo igual queda analizado (páginas
+     * conocidas): solo no se ofrece el modo automático.
+     */
+    @Nullable
+    private PageColorMap classifyOrNull(Uri uri, int paginas, AtomicBoolean cancelled) {
+        try {
+            return classifier.classify(uri, paginas, cancelled,
+                    progressRange(cancelled, HASH_SHARE + ANALYSIS_SHARE, 100));
+        } catch (CancellationException e) {
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "No se pudo clasificar color por página en " + uri, e);
+            return null;
+        }
+    }
+
+    /** Lleva el 0..100 de una etapa al tramo [from, to] de la barra. */
+    private PdfAnalyzer.ProgressListener progressRange(AtomicBoolean cancelled, int from, int to) {
+        return percent -> {
+            int value = from + percent * (to - from) / 100;
+            onMain(cancelled, () -> progressLiveData.setValue(value));
+        };
+    }
+
+    /**
+     * Publica en el main thread, salvo que el análisis se haya
+     * cancelado (la bandera se revisa allí, sin carreras con cancel()).
+     */
+    private void onMain(AtomicBoolean cancelled, Runnable action) {
+        mainHandler.post(() -> {
+            if (!cancelled.get()) action.run();
+        });
+    }
+}
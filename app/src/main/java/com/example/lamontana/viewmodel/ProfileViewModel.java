@@ -5,8 +5,11 @@ import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
 import com.example.lamontana.data.auth.AuthRepository;
+import com.example.lamontana.data.outbox.WriteOutbox;
+import com.example.lamontana.data.user.ProfileRepository;
 import com.example.lamontana.data.user.UserRepository;
 import com.example.lamontana.data.user.UserStore;
+import com.example.lamontana.model.UserProfile;
 import com.google.firebase.auth.FirebaseUser;
 
 /*
@@ -15,25 +18,37 @@ import com.google.firebase.auth.FirebaseUser;
  * Paquete: com.example.lamontana.viewmodel
  * ------------------------------------------------------------
  * ¿De qué se encarga?
- *   - Actúa como capa intermedia (MVVM) entre ProfileActivity
+ *   - Actúa como capa intermedia (MVVM) entre ProfileFragment
  *     y las fuentes de datos de usuario (UserStore + Firestore).
  *   - Expone estados observables (LiveData) para:
  *       · loading: indica si se está guardando el perfil.
- *       · saveSuccess: indica si el guardado fue exitoso.
+ *       · saveSuccess: el cambio quedó guardado en el equipo y
+ *         encolado (todavía NO subido a Firestore).
+ *       · pendingWrites / failedWrites: escrituras del usuario que
+ *         siguen en la bandeja de salida o que no se pudieron subir.
  *       · errorMessage: contiene mensajes de error a mostrar.
  *   - Orquesta la actualización del perfil:
  *       · Actualiza UserStore (copia en memoria).
- *       · Sincroniza con Firestore a través de UserRepository.updateUserProfile().
+ *       · Sincroniza con Firestore a través de UserRepository.updateUserProfile(),
+ *         que encola la escritura en WriteOutbox (durable, con reintentos).
+ *
+ *   - Expone el perfil vigente (getProfile) desde ProfileRepository,
+ *     la cache compartida con Checkout: abrir "Mis datos" no vuelve
+ *     a leer Firestore.
  *
  * Clases usadas:
+ *   - ProfileRepository: perfil reactivo (un snapshot listener por usuario).
  *   - UserStore: caché en memoria del usuario actual.
  *   - UserRepository: acceso a colección "usuarios" en Firestore.
  *   - AuthRepository: para obtener el usuario logueado (uid) si hace falta.
  *
  * Métodos públicos:
+ *   - LiveData<UserProfile> getProfile()
  *   - LiveData<Boolean> getLoading()
  *   - LiveData<Boolean> getSaveSuccess()
  *   - LiveData<String> getErrorMessage()
+ *   - LiveData<Integer> getPendingWrites() / getFailedWrites()
+ *   - void retryFailedWrites()
  *   - void saveProfile(String nombre, String apellido,
  *                      String telefono, String direccion)
  *       * Actualiza UserStore y sincroniza con Firestore.
@@ -41,13 +56,14 @@ import com.google.firebase.auth.FirebaseUser;
  * Notas:
  *   - No conoce detalles de la UI ni de Android Views.
  *   - La validación de campos (no vacíos, formatos, etc.)
- *     se hace en ProfileActivity antes de llamar a saveProfile().
+ *     se hace en ProfileFragment antes de llamar a saveProfile().
  * ============================================================
  */
 public class ProfileViewModel extends ViewModel {
 
     // Repositorios / stores
     private final UserRepository userRepository = UserRepository.getInstance();
+    private final ProfileRepository profileRepository = ProfileRepository.getInstance();
     private final AuthRepository authRepository = AuthRepository.getInstance();
 
     // Estados observables
@@ -57,6 +73,11 @@ public class ProfileViewModel extends ViewModel {
 
     // --- Getters de LiveData para que la Activity observe ---
 
+    /** Perfil del usuario logueado (cache compartida). */
+    public LiveData<UserProfile> getProfile() {
+        return profileRepository.getProfile();
+    }
+
     public LiveData<Boolean> getLoading() {
         return loading;
     }
@@ -69,6 +90,20 @@ public class ProfileViewModel extends ViewModel {
         return errorMessage;
     }
 
+    /** Escrituras del usuario todavía sin subir (WriteOutbox). */
+    public LiveData<Integer> getPendingWrites() {
+        return WriteOutbox.get().getPendingCount();
+    }
+
+    /** Escrituras del usuario que la bandeja dejó de reintentar. */
+    public LiveData<Integer> getFailedWrites() {
+        return WriteOutbox.get().getFailedCount();
+    }
+
+    public void retryFailedWrites() {
+        WriteOutbox.get().retryFailed();
+    }
+
     /**
      * Guarda los cambios del perfil del usuario actual.
      *
@@ -77,9 +112,9 @@ public class ProfileViewModel extends ViewModel {
      *       - Preferentemente desde UserStore.uid.
      *       - Si está vacío, intenta desde AuthRepository.getCurrentUser().
      *  2. Actualiza UserStore en memoria.
-     *  3. Envía los cambios a Firestore mediante UserRepository.updateUserProfile().
-     *  4. Actualiza los LiveData (loading, saveSuccess, errorMessage)
-     *     según el resultado.
+     *  3. Encola los cambios con UserRepository.updateUserProfile(): la
+     *     bandeja de salida los sube a Firestore (con reintentos).
+     *  4. Actualiza los LiveData (loading, saveSuccess, errorMessage).
      *
      * @param nombre   Nombre del usuario.
      * @param apellido Apellido del usuario.
@@ -116,31 +151,25 @@ public class ProfileViewModel extends ViewModel {
             return;
         }
 
-        // 2) Actualizar UserStore en memoria
+        // 2) Actualizar UserStore y la cache compartida (Checkout lo ve al instante)
         userStore.nombre = (nombre != null) ? nombre : "";
         userStore.setOptionalData(apellido, telefono, direccion);
-
-        // 3) Sincronizar con Firestore usando el método  updateUserProfile(...)
-        userRepository
-                .updateUserProfile(
-                        uid,
-                        userStore.nombre,
-                        userStore.apellido,
-                        userStore.telefono,
-                        userStore.direccion
-                )
-                .addOnSuccessListener(unused -> {
-                    // 4) Éxito
-                    loading.setValue(false);
-                    saveSuccess.setValue(true);
-                })
-                .addOnFailureListener(e -> {
-                    // 4) Error
-                    loading.setValue(false);
-                    String msg = (e != null && e.getMessage() != null)
-                            ? e.getMessage()
-                            : "Error desconocido al guardar el perfil.";
-                    errorMessage.setValue("Error al guardar en la nube: " + msg);
-                });
+        profileRepository.applyLocalEdit(userStore.nombre, apellido, telefono, direccion);
+
+        // 3) Encolar la escritura en la bandeja de salida (WriteOutbox):
+        //    queda guardada en disco y se sube en cuanto haya red.
+        userRepository.updateUserProfile(
+                uid,
+                userStore.nombre,
+                userStore.apellido,
+                userStore.telefono,
+                userStore.direccion
+        );
+
+        // 4) Guardado local: ya no se pierde aunque falle la red. Si la
+        //    subida queda pendiente o falla, lo muestran pendingWrites /
+        //    failedWrites.
+        loading.setValue(false);
+        saveSuccess.setValue(true);
     }
 }
@@ -24,7 +24,8 @@ import com.google.firebase.auth.FirebaseUser;
 //
 //   - Exponer estados observables (LiveData) para:
 //       * loading: indica si se está procesando el registro completo.
-//       * signupSuccess: indica si el registro fue exitoso (Auth + Firestore).
+//       * signupSuccess: indica si el registro fue exitoso (Auth; el perfil
+//         queda en la bandeja de salida hasta subir a Firestore).
 //       * errorMessage: mensaje de error a mostrar en la UI.
 //
 // Alcance:
@@ -38,7 +39,8 @@ import com.google.firebase.auth.FirebaseUser;
 //   - getErrorMessage(): LiveData<String> para observar mensajes de error.
 //   - signup(String name, String email, String password):
 //       * Crea el usuario en Firebase Auth.
-//       * Si Auth es exitoso, guarda el perfil en Firestore (UserRepository).
+//       * Si Auth es exitoso, encola el perfil para Firestore (UserRepository
+//         → WriteOutbox) y da el registro por exitoso.
 //       * Actualiza los LiveData según el resultado.
 // -----------------------------------------------------------------------------
 public class SignupViewModel extends ViewModel {
@@ -122,29 +124,16 @@ public class SignupViewModel extends ViewModel {
                             emailFromAuth = email; // fallback al email recibido
                         }
 
-                        // Paso 2: crear/actualizar perfil en Firestore
-                        userRepository.createUserProfile(uid, name, emailFromAuth)
-                                .addOnCompleteListener(new OnCompleteListener<Void>() {
-                                    @Override
-                                    public void onComplete(Task<Void> userTask) {
-                                        // Ya terminó todo el flujo (Auth + Firestore)
-                                        loading.setValue(false);
-
-                                        if (userTask.isSuccessful()) {
-                                            signupSuccess.setValue(true);
-                                            errorMessage.setValue(null);
-                                        } else {
-                                            signupSuccess.setValue(false);
-
-                                            String msg = "Cuenta creada pero hubo un error al guardar los datos";
-                                            if (userTask.getException() != null &&
-                                                    userTask.getException().getMessage() != null) {
-                                                msg = userTask.getException().getMessage();
-                                            }
-                                            errorMessage.setValue(msg);
-                                        }
-                                    }
-                                });
+                        // Paso 2: crear/actualizar perfil en Firestore. Se encola en
+                        // la bandeja de salida (WriteOutbox): si no hay red, se sube
+                        // después, sin bloquear ni hacer fallar el registro. El éxito
+                        // es el de la cuenta en Auth; si el perfil queda pendiente o
+                        // falla, "Mis datos" lo muestra.
+                        userRepository.createUserProfile(uid, name, emailFromAuth);
+
+                        loading.setValue(false);
+                        signupSuccess.setValue(true);
+                        errorMessage.setValue(null);
                     }
                 });
     }
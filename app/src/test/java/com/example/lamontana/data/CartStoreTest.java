@@ -0,0 +1,242 @@
+package com.example.lamontana.data;
+
+import com.example.lamontana.model.CartChange;
+import com.example.lamontana.model.CartOp;
+import com.example.lamontana.model.CartSnapshot;
+import com.example.lamontana.model.Category;
+import com.example.lamontana.model.Product;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/*
+ * ============================================================
+ * Archivo: CartStoreTest.java
+ * Paquete: com.example.lamontana.data
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - CartStore.apply(List<CartOp>): validación de TODO el lote
+ *     antes de tocar el carrito, un único snapshot y un único
+ *     CartChange BATCH por lote.
+ *   - Entrega de cambios fuera de writeLock: un listener puede
+ *     mutar el carrito (también desde otro hilo) sin deadlock, y
+ *     todos los listeners ven los cambios en orden de versión.
+ *
+ * Notas:
+ *   - CartStore es un singleton: cada test parte de un carrito
+ *     vacío y se desuscribe al terminar.
+ * ============================================================
+ */
+public class CartStoreTest {
+
+    private static final Product RESMA = product("Resma A4", 5000);
+    private static final Product ANILLADO = product("Anillado", 900);
+
+    private final List<CartChange> changes = new ArrayList<>();
+    private final CartStore.Listener listener = changes::add;
+
+    @Before
+    public void setUp() {
+        CartStore.get().clear();
+        CartStore.get().addListener(listener);
+    }
+
+    @After
+    public void tearDown() {
+        CartStore.get().removeListener(listener);
+        CartStore.get().clear();
+    }
+
+    @Test
+    public void apply_loteEnUnSoloCambio() {
+        long before = CartStore.get().getSnapshot().getVersion();
+
+        CartStore.get().apply(Arrays.asList(
+                CartOp.add(RESMA),
+                CartOp.inc(RESMA),
+                CartOp.setQty(ANILLADO, 3)));
+
+        CartSnapshot s = CartStore.get().getSnapshot();
+        assertEquals(2, s.find(RESMA.name).qty);
+        assertEquals(3, s.find(ANILLADO.name).qty);
+        assertEquals(2 * 5000 + 3 * 900, s.getTotalAmount());
+        assertEquals(before + 1, s.getVersion());
+
+        assertEquals(1, changes.size());
+        CartChange change = changes.get(0);
+        assertSame(CartChange.Type.BATCH, change.type);
+        assertEquals(2, change.upserts.size());
+        assertEquals(s.getVersion(), change.version);
+    }
+
+    @Test
+    public void apply_opNull_rechazaTodoSinTocarElCarrito() {
+        CartStore.get().add(RESMA);
+        changes.clear();
+        CartSnapshot before = CartStore.get().getSnapshot();
+
+        try {
+            CartStore.get().apply(Arrays.asList(CartOp.inc(RESMA), null));
+            fail("Se esperaba IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // ok
+        }
+
+        assertSame(before, CartStore.get().getSnapshot());
+        assertTrue(changes.isEmpty());
+    }
+
+    @Test
+    public void apply_productoNull_rechazaTodoSinTocarElCarrito() {
+        CartSnapshot before = CartStore.get().getSnapshot();
+
+        try {
+            CartStore.get().apply(Arrays.asList(CartOp.add(RESMA), CartOp.setQty(null, 2)));
+            fail("Se esperaba IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // ok
+        }
+
+        assertSame(before, CartStore.get().getSnapshot());
+        assertTrue(changes.isEmpty());
+    }
+
+    @Test
+    public void apply_loteVacioONulo_noHaceNada() {
+        CartSnapshot before = CartStore.get().getSnapshot();
+
+        CartStore.get().apply(null);
+        CartStore.get().apply(Collections.emptyList());
+
+        assertSame(before, CartStore.get().getSnapshot());
+        assertTrue(changes.isEmpty());
+    }
+
+    @Test
+    public void apply_sinCambiosEfectivos_noPublica() {
+        CartStore.get().setQty(RESMA, 2);
+        changes.clear();
+        CartSnapshot before = CartStore.get().getSnapshot();
+
+        // Misma cantidad y quitar algo que no está
+        CartStore.get().apply(Arrays.asList(CartOp.setQty(RESMA, 2), CartOp.remove(ANILLADO)));
+
+        assertSame(before, CartStore.get().getSnapshot());
+        assertTrue(changes.isEmpty());
+    }
+
+    @Test
+    public void apply_clearPrimero_marcaElLote() {
+        CartStore.get().add(RESMA);
+        changes.clear();
+
+        CartStore.get().apply(Arrays.asList(CartOp.clear(), CartOp.add(ANILLADO)));
+
+        CartSnapshot s = CartStore.get().getSnapshot();
+        assertEquals(1, s.getItems().size());
+        assertEquals(-1, s.indexOf(RESMA.name));
+
+        assertEquals(1, changes.size());
+        assertTrue(changes.get(0).clearedFirst);
+        assertEquals(1, changes.get(0).upserts.size());
+    }
+
+    @Test
+    public void apply_decYRemove_informanLasLineasQuitadas() {
+        CartStore.get().apply(Arrays.asList(CartOp.add(RESMA), CartOp.add(ANILLADO)));
+        changes.clear();
+
+        CartStore.get().apply(Arrays.asList(CartOp.dec(RESMA), CartOp.remove(ANILLADO)));
+
+        assertTrue(CartStore.get().getSnapshot().isEmpty());
+        assertEquals(1, changes.size());
+        assertEquals(2, changes.get(0).removals.size());
+    }
+
+    @Test
+    public void apply_updateProduct_conservaLaCantidadYSoloTocaLineasExistentes() {
+        CartStore.get().setQty(RESMA, 4);
+        changes.clear();
+
+        Product nuevoPrecio = RESMA.withPrice(5500);
+        CartStore.get().apply(Arrays.asList(
+                CartOp.updateProduct(nuevoPrecio),
+                CartOp.updateProduct(ANILLADO)));
+
+        CartSnapshot s = CartStore.get().getSnapshot();
+        assertSame(nuevoPrecio, s.find(RESMA.name).product);
+        assertEquals(4, s.find(RESMA.name).qty);
+        assertEquals(-1, s.indexOf(ANILLADO.name));
+        assertEquals(4 * 5500, s.getTotalAmount());
+        assertNotSame(RESMA, s.find(RESMA.name).product);
+    }
+
+    @Test
+    public void listenerQueMutaDesdeOtroHilo_noSeBloquea() throws InterruptedException {
+        AtomicBoolean mutated = new AtomicBoolean();
+        CartStore.Listener mutator = change -> {
+            if (!mutated.compareAndSet(false, true)) return;
+            // Con el lock tomado durante la entrega, este join no volvería
+            Thread other = new Thread(() -> CartStore.get().add(ANILLADO));
+            other.start();
+            try {
+                other.join(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            assertFalse(other.isAlive());
+        };
+        CartStore.get().addListener(mutator);
+        try {
+            CartStore.get().add(RESMA);
+        } finally {
+            CartStore.get().removeListener(mutator);
+        }
+
+        assertEquals(1, CartStore.get().getSnapshot().find(ANILLADO.name).qty);
+        assertEquals(2, changes.size());
+    }
+
+    @Test
+    public void listenerQueMuta_todosVenLosCambiosEnOrden() {
+        List<Long> versiones = new ArrayList<>();
+        CartStore.Listener mutator = change -> {
+            if (change.type == CartChange.Type.LINE_ADDED && change.item.product == RESMA) {
+                CartStore.get().add(ANILLADO);
+            }
+        };
+        CartStore.Listener last = change -> versiones.add(change.version);
+        CartStore.get().addListener(mutator);
+        CartStore.get().addListener(last);
+        try {
+            CartStore.get().add(RESMA);
+        } finally {
+            CartStore.get().removeListener(mutator);
+            CartStore.get().removeListener(last);
+        }
+
+        // El cambio de ANILLADO llega después de que TODOS vieron el de RESMA
+        assertEquals(2, versiones.size());
+        assertTrue(versiones.get(0) < versiones.get(1));
+        assertEquals(versiones.get(0).longValue(), changes.get(0).version);
+        assertEquals(versiones.get(1).longValue(), changes.get(1).version);
+    }
+
+    private static Product product(String name, int price) {
+        return new Product(name, "", price, Category.PRINT, 0, false, null);
+    }
+}
@@ -0,0 +1,286 @@
+package com.example.lamontana.data.cart;
+
+import com.example.lamontana.data.CartStore;
+import com.example.lamontana.model.CartChange;
+import com.example.lamontana.model.CartItem;
+import com.example.lamontana.model.Category;
+import com.example.lamontana.model.Product;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/*
+ * ============================================================
+ * Archivo: CartJournalTest.java
+ * Paquete: com.example.lamontana.data.cart
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Formato en disco de CartJournal sobre una carpeta temporal:
+ *       · lo escrito con writeBatch se reproduce igual con load()
+ *         (DEF una vez por producto, SET absolutos, CLEAR).
+ *       · un registro con CRC roto o cortado corta la reproducción
+ *         ahí, sin perder lo anterior.
+ *       · compact() deja el estado de CartStore en el snapshot y
+ *         el journal vacío.
+ *       · Product.id se guarda en ambos formatos, y los archivos
+ *         viejos (sin id) se siguen leyendo con id null.
+ * ============================================================
+ */
+public class CartJournalTest {
+
+    private static final Product RESMA = product("Resma A4", 5000, "https://example.com/resma.png");
+    private static final Product ANILLADO = product("Anillado", 900, null);
+    private static final Product CARPETA = new Product("p-123", "Carpeta", "Carpeta A4",
+            1200, Category.BINDING, 0, false, null);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = folder.newFolder("cart");
+        CartStore.get().clear();
+    }
+
+    @After
+    public void tearDown() {
+        CartStore.get().clear();
+    }
+
+    @Test
+    public void writeBatch_seReproduceIgual() throws IOException {
+        CartJournal journal = new CartJournal(dir);
+        journal.writeBatch(Arrays.asList(
+                added(RESMA, 1),
+                qtyChanged(RESMA, 3),
+                added(ANILLADO, 2),
+                removed(ANILLADO)));
+
+        Map<String, CartItem> lines = new CartJournal(dir).load();
+
+        assertEquals(1, lines.size());
+        CartItem resma = lines.get(RESMA.name);
+        assertEquals(3, resma.qty);
+        assertEquals(RESMA.price, resma.product.price);
+        assertEquals(RESMA.desc, resma.product.desc);
+        assertEquals(RESMA.imageUrl, resma.product.imageUrl);
+        assertEquals(RESMA.category, resma.product.category);
+    }
+
+    @Test
+    public void productoConDatosNuevos_seRedefine() throws IOException {
+        CartJournal journal = new CartJournal(dir);
+        Product revalidado = RESMA.withPrice(5500);
+        journal.writeBatch(Collections.singletonList(added(RESMA, 2)));
+        journal.writeBatch(Collections.singletonList(batch(false,
+                Collections.singletonList(new CartItem(revalidado, 2)),
+                Collections.emptyList())));
+
+        CartItem resma = new CartJournal(dir).load().get(RESMA.name);
+
+        assertEquals(2, resma.qty);
+        assertEquals(5500, resma.product.price);
+    }
+
+    @Test
+    public void loteConClear_loInformaYVaciaLoAnterior() throws IOException {
+        CartJournal journal = new CartJournal(dir);
+        journal.writeBatch(Collections.singletonList(added(RESMA, 1)));
+
+        boolean cleared = journal.writeBatch(Collections.singletonList(batch(true,
+                Collections.singletonList(new CartItem(ANILLADO, 1)),
+                Collections.emptyList())));
+
+        assertTrue(cleared);
+        Map<String, CartItem> lines = new CartJournal(dir).load();
+        assertNull(lines.get(RESMA.name));
+        assertEquals(1, lines.get(ANILLADO.name).qty);
+    }
+
+    @Test
+    public void crcRoto_cortaLaReproduccionAhi() throws IOException {
+        CartJournal journal = new CartJournal(dir);
+        journal.writeBatch(Collections.singletonList(added(RESMA, 1)));
+        long validos = journalFile().length();
+        journal.writeBatch(Collections.singletonList(qtyChanged(RESMA, 7)));
+
+        // Se invierte un byte del payload del último SET (qty)
+        try (RandomAccessFile raf = new RandomAccessFile(journalFile(), "rw")) {
+            long at = validos + 2 + 5;
+            raf.seek(at);
+            int b = raf.read();
+            raf.seek(at);
+            raf.write(b ^ 0xFF);
+        }
+
+        assertEquals(1, new CartJournal(dir).load().get(RESMA.name).qty);
+    }
+
+    @Test
+    public void ultimoRegistroCortado_seIgnora() throws IOException {
+        CartJournal journal = new CartJournal(dir);
+        journal.writeBatch(Collections.singletonList(added(RESMA, 1)));
+        journal.writeBatch(Collections.singletonList(qtyChanged(RESMA, 4)));
+
+        // Crash a mitad de la escritura: falta el final del último registro
+        try (RandomAccessFile raf = new RandomAccessFile(journalFile(), "rw")) {
+            raf.setLength(raf.length() - 3);
+        }
+
+        assertEquals(1, new CartJournal(dir).load().get(RESMA.name).qty);
+    }
+
+    @Test
+    public void compact_pasaCartStoreAlSnapshotYVaciaElJournal() throws IOException {
+        CartJournal journal = new CartJournal(dir);
+        journal.writeBatch(Collections.singletonList(added(RESMA, 9)));
+        CartStore.get().setQty(ANILLADO, 2);
+
+        journal.compact();
+
+        assertEquals(0, journalFile().length());
+        Map<String, CartItem> lines = new CartJournal(dir).load();
+        // El snapshot es CartStore, no lo que había en el journal
+        assertFalse(lines.containsKey(RESMA.name));
+        assertEquals(2, lines.get(ANILLADO.name).qty);
+    }
+
+    @Test
+    public void despuesDeCompactar_elJournalSigueDesdeElSnapshot() throws IOException {
+        CartJournal journal = new CartJournal(dir);
+        CartStore.get().setQty(RESMA, 2);
+        journal.compact();
+
+        // Tras compactar, los DEF se vuelven a escribir en el journal nuevo
+        journal.writeBatch(Collections.singletonList(added(ANILLADO, 1)));
+        journal.writeBatch(Collections.singletonList(qtyChanged(RESMA, 5)));
+
+        Map<String, CartItem> lines = new CartJournal(dir).load();
+        assertEquals(5, lines.get(RESMA.name).qty);
+        assertEquals(1, lines.get(ANILLADO.name).qty);
+    }
+
+    @Test
+    public void productId_seConservaEnJournalYSnapshot() throws IOException {
+        CartJournal journal = new CartJournal(dir);
+        journal.writeBatch(Collections.singletonList(added(CARPETA, 2)));
+
+        CartItem carpeta = new CartJournal(dir).load().get(CARPETA.name);
+        assertEquals("p-123", carpeta.product.id);
+
+        CartStore.get().setQty(CARPETA, 2);
+        journal.compact();
+
+        carpeta = new CartJournal(dir).load().get(CARPETA.name);
+        assertEquals("p-123", carpeta.product.id);
+        assertEquals(Category.BINDING, carpeta.product.category);
+    }
+
+    @Test
+    public void formatoViejo_seLeeSinId() throws IOException {
+        // snapshot.bin formato 1: sin el flag de id delante del producto
+        try (DataOutputStream out = new DataOutputStream(
+                new FileOutputStream(new File(dir, "snapshot.bin")))) {
+            out.writeInt(1);
+            out.writeInt(1);
+            writeLegacyProduct(out, RESMA);
+            out.writeInt(2);
+        }
+        // journal.bin con un DEF viejo (op 1) + SET
+        ByteArrayOutputStream def = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(def);
+        out.writeByte(1);
+        out.writeInt(0);
+        writeLegacyProduct(out, ANILLADO);
+        ByteArrayOutputStream set = new ByteArrayOutputStream();
+        out = new DataOutputStream(set);
+        out.writeByte(2);
+        out.writeInt(0);
+        out.writeInt(3);
+        try (DataOutputStream journal = new DataOutputStream(new FileOutputStream(journalFile()))) {
+            writeRecord(journal, def.toByteArray());
+            writeRecord(journal, set.toByteArray());
+        }
+
+        Map<String, CartItem> lines = new CartJournal(dir).load();
+
+        assertEquals(2, lines.get(RESMA.name).qty);
+        assertNull(lines.get(RESMA.name).product.id);
+        assertEquals(3, lines.get(ANILLADO.name).qty);
+        assertNull(lines.get(ANILLADO.name).product.id);
+    }
+
+    @Test
+    public void sinArchivos_cargaVacio() throws IOException {
+        assertTrue(new CartJournal(dir).load().isEmpty());
+    }
+
+    // ------------------------------
+    // Helpers
+    // ------------------------------
+
+    private File journalFile() {
+        return new File(dir, "journal.bin");
+    }
+
+    /** Producto como lo escribía el formato 1 (sin Product.id). */
+    private static void writeLegacyProduct(DataOutputStream out, Product p) throws IOException {
+        out.writeUTF(p.name);
+        out.writeUTF(p.desc);
+        out.writeInt(p.price);
+        out.writeUTF(p.category.name());
+        out.writeBoolean(p.copyBased);
+        out.writeBoolean(p.imageUrl != null);
+        if (p.imageUrl != null) out.writeUTF(p.imageUrl);
+    }
+
+    private static void writeRecord(DataOutputStream out, byte[] payload) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        out.writeShort(payload.length);
+        out.write(payload);
+        out.writeInt((int) crc.getValue());
+    }
+
+    private static Product product(String name, int price, String imageUrl) {
+        return new Product(name, "Descripción de " + name, price, Category.PRINT, 0, false, imageUrl);
+    }
+
+    private static CartChange added(Product p, int qty) {
+        return new CartChange(CartChange.Type.LINE_ADDED, 0, new CartItem(p, qty), 0, 0, 0);
+    }
+
+    private static CartChange qtyChanged(Product p, int qty) {
+        return new CartChange(CartChange.Type.QTY_CHANGED, 0, new CartItem(p, qty), 0, 0, 0);
+    }
+
+    private static CartChange removed(Product p) {
+        return new CartChange(CartChange.Type.LINE_REMOVED, 0, new CartItem(p, 1), 0, 0, 0);
+    }
+
+    private static CartChange batch(boolean clearedFirst, List<CartItem> upserts, List<Product> removals) {
+        return CartChange.batch(clearedFirst, upserts, removals, 0, 0, 0);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.lamontana.data.order;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/*
+ * ============================================================
+ * Archivo: OrderRepositoryTest.java
+ * Paquete: com.example.lamontana.data.order
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Formato de los IDs que genera el cliente: newOrderId()
+ *     (LM-<tiempo base 36>-<4 al azar, sin 0/O/1/I>) y los IDs
+ *     de línea por posición (000, 001…).
+ *
+ * Notas:
+ *   - Solo métodos estáticos: no se crea el singleton (Firestore).
+ * ============================================================
+ */
+public class OrderRepositoryTest {
+
+    private static final String FORMATO = "LM-[0-9A-Z]+-[A-HJ-NP-Z2-9]{4}";
+
+    @Test
+    public void newOrderId_respetaElFormato() {
+        for (int i = 0; i < 200; i++) {
+            String id = OrderRepository.newOrderId();
+            assertTrue(id, id.matches(FORMATO));
+        }
+    }
+
+    @Test
+    public void newOrderId_sinCaracteresAmbiguosEnLaParteAlAzar() {
+        for (int i = 0; i < 200; i++) {
+            String suffix = suffixOf(OrderRepository.newOrderId());
+            for (char c : new char[]{'0', 'O', '1', 'I'}) {
+                assertFalse(suffix, suffix.indexOf(c) >= 0);
+            }
+        }
+    }
+
+    @Test
+    public void newOrderId_llevaLaMarcaDeTiempo() {
+        long before = System.currentTimeMillis();
+        String id = OrderRepository.newOrderId();
+        long after = System.currentTimeMillis();
+
+        String stamp = id.substring("LM-".length(), id.lastIndexOf('-'));
+        long millis = Long.parseLong(stamp.toLowerCase(Locale.ROOT), 36);
+
+        assertTrue(id, millis >= before && millis <= after);
+    }
+
+    @Test
+    public void lineId_tresDigitosYOrdenLexicografico() {
+        assertEquals("000", OrderRepository.lineId(0));
+        assertEquals("007", OrderRepository.lineId(7));
+        assertEquals("042", OrderRepository.lineId(42));
+        assertEquals("123", OrderRepository.lineId(123));
+
+        // Firestore ordena los IDs como texto: tiene que coincidir con la posición
+        List<String> ids = Arrays.asList(
+                OrderRepository.lineId(2),
+                OrderRepository.lineId(10),
+                OrderRepository.lineId(100));
+        assertTrue(ids.get(0).compareTo(ids.get(1)) < 0);
+        assertTrue(ids.get(1).compareTo(ids.get(2)) < 0);
+    }
+
+    // ------------------------------
+    // Helpers
+    // ------------------------------
+
+    private static String suffixOf(String id) {
+        return id.substring(id.lastIndexOf('-') + 1);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.lamontana.data.pdf;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/*
+ * ============================================================
+ * Archivo: PageColorClassifierTest.java
+ * Paquete: com.example.lamontana.data.pdf
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Umbrales de PageColorClassifier.hasColor (CHROMA_THRESHOLD y
+ *     MIN_COLOR_PIXELS) sobre buffers ARGB armados a mano, sin
+ *     PdfRenderer.
+ * ============================================================
+ */
+public class PageColorClassifierTest {
+
+    private static final int WHITE = 0xFFFFFFFF;
+
+    @Test
+    public void paginaEnBlanco_noEsColor() {
+        assertFalse(PageColorClassifier.hasColor(page(WHITE)));
+    }
+
+    @Test
+    public void grisesYAntialiasing_noSonColor() {
+        int[] pixels = page(WHITE);
+        for (int i = 0; i < pixels.length; i++) {
+            int v = i % 256;
+            pixels[i] = rgb(v, v, v);
+        }
+        assertFalse(PageColorClassifier.hasColor(pixels));
+    }
+
+    @Test
+    public void cromaEnElUmbral_noCuenta() {
+        int t = PageColorClassifier.CHROMA_THRESHOLD;
+        // max - min == umbral: todavía gris (papel amarillento)
+        int[] pixels = page(rgb(200, 200, 200 - t));
+        assertFalse(PageColorClassifier.hasColor(pixels));
+    }
+
+    @Test
+    public void cromaSobreElUmbral_cuenta() {
+        int t = PageColorClassifier.CHROMA_THRESHOLD;
+        int[] pixels = page(rgb(200, 200, 200 - t - 1));
+        assertTrue(PageColorClassifier.hasColor(pixels));
+    }
+
+    @Test
+    public void pocosPixelesDeColor_noAlcanzan() {
+        int[] pixels = page(WHITE);
+        for (int i = 0; i < PageColorClassifier.MIN_COLOR_PIXELS - 1; i++) {
+            pixels[i * 97] = rgb(255, 0, 0);
+        }
+        assertFalse(PageColorClassifier.hasColor(pixels));
+    }
+
+    @Test
+    public void minimoDePixelesDeColor_alcanza() {
+        int[] pixels = page(WHITE);
+        for (int i = 0; i < PageColorClassifier.MIN_COLOR_PIXELS; i++) {
+            pixels[pixels.length - 1 - i * 97] = rgb(0, 0, 255);
+        }
+        assertTrue(PageColorClassifier.hasColor(pixels));
+    }
+
+    @Test
+    public void ignoraElAlfa() {
+        // Gris con alfa distinto: el canal alfa no suma croma
+        int[] pixels = page(0x10808080);
+        assertFalse(PageColorClassifier.hasColor(pixels));
+    }
+
+    // ------------------------------
+    // Helpers
+    // ------------------------------
+
+    private static int[] page(int argb) {
+        int[] pixels = new int[PageColorClassifier.RENDER_W * PageColorClassifier.RENDER_H];
+        Arrays.fill(pixels, argb);
+        return pixels;
+    }
+
+    private static int rgb(int r, int g, int b) {
+        return 0xFF000000 | (r << 16) | (g << 8) | b;
+    }
+}
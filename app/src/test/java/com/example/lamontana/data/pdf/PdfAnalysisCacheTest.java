@@ -0,0 +1,159 @@
+package com.example.lamontana.data.pdf;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/*
+ * ============================================================
+ * Archivo: PdfAnalysisCacheTest.java
+ * Paquete: com.example.lamontana.data.pdf
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - PdfAnalysisCache sobre una carpeta temporal:
+ *       · lo guardado con put se lee igual con get.
+ *       · con más de MAX_ENTRIES se borra el menos usado, y un
+ *         get cuenta como uso.
+ *       · al reabrir, la recencia sale de la fecha de modificación.
+ *       · una entrada ilegible se descarta.
+ * ============================================================
+ */
+public class PdfAnalysisCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File cacheDir;
+
+    @Before
+    public void setUp() throws IOException {
+        cacheDir = folder.newFolder("cache");
+    }
+
+    @Test
+    public void put_seLeeIgual() {
+        PdfAnalysisCache cache = new PdfAnalysisCache(cacheDir);
+        BitSet color = new BitSet();
+        color.set(0);
+        color.set(70);
+        cache.put("abc", info(100, 595, 842), new PageColorMap(100, color));
+
+        PdfAnalysisCache.Entry e = new PdfAnalysisCache(cacheDir).get("abc");
+
+        assertNotNull(e);
+        assertEquals(100, e.paginas);
+        assertEquals(595, e.anchoPt);
+        assertEquals(842, e.altoPt);
+        assertEquals(2, e.colores.getColorCount());
+        assertTrue(e.colores.isColor(70));
+        assertFalse(e.colores.isColor(1));
+    }
+
+    @Test
+    public void hashDesconocido_esNull() {
+        assertNull(new PdfAnalysisCache(cacheDir).get("nada"));
+    }
+
+    @Test
+    public void lleno_borraElMenosUsado() {
+        PdfAnalysisCache cache = new PdfAnalysisCache(cacheDir);
+        fill(cache, PdfAnalysisCache.MAX_ENTRIES);
+
+        cache.put("extra", info(1, 0, 0), grayMap(1));
+
+        assertNull(cache.get(hash(0)));
+        assertFalse(file(hash(0)).exists());
+        assertNotNull(cache.get(hash(1)));
+        assertNotNull(cache.get("extra"));
+        assertEquals(PdfAnalysisCache.MAX_ENTRIES, entryFiles());
+    }
+
+    @Test
+    public void get_cuentaComoUso() {
+        PdfAnalysisCache cache = new PdfAnalysisCache(cacheDir);
+        fill(cache, PdfAnalysisCache.MAX_ENTRIES);
+
+        assertNotNull(cache.get(hash(0)));
+        cache.put("extra", info(1, 0, 0), grayMap(1));
+
+        assertNotNull(cache.get(hash(0)));
+        assertNull(cache.get(hash(1)));
+        assertFalse(file(hash(1)).exists());
+    }
+
+    @Test
+    public void alReabrir_laRecenciaSaleDeLaFecha() {
+        PdfAnalysisCache cache = new PdfAnalysisCache(cacheDir);
+        fill(cache, PdfAnalysisCache.MAX_ENTRIES);
+
+        // Fechas al revés del orden de escritura: el último es el más viejo
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < PdfAnalysisCache.MAX_ENTRIES; i++) {
+            assertTrue(file(hash(i)).setLastModified(now - i * 10_000L));
+        }
+
+        PdfAnalysisCache reopened = new PdfAnalysisCache(cacheDir);
+        reopened.put("extra", info(1, 0, 0), grayMap(1));
+
+        int oldest = PdfAnalysisCache.MAX_ENTRIES - 1;
+        assertFalse(file(hash(oldest)).exists());
+        assertNotNull(reopened.get(hash(0)));
+    }
+
+    @Test
+    public void entradaIlegible_seDescarta() throws IOException {
+        PdfAnalysisCache cache = new PdfAnalysisCache(cacheDir);
+        cache.put("roto", info(3, 0, 0), grayMap(3));
+        try (FileOutputStream out = new FileOutputStream(file("roto"))) {
+            out.write(new byte[]{0, 0, 0, 1, 0}); // versión ok, resto cortado
+        }
+
+        assertNull(cache.get("roto"));
+        assertFalse(file("roto").exists());
+        assertNull(cache.get("roto"));
+    }
+
+    // ------------------------------
+    // Helpers
+    // ------------------------------
+
+    private static void fill(PdfAnalysisCache cache, int n) {
+        for (int i = 0; i < n; i++) {
+            cache.put(hash(i), info(i + 1, 0, 0), grayMap(i + 1));
+        }
+    }
+
+    private static String hash(int i) {
+        return String.format(Locale.ROOT, "h%04d", i);
+    }
+
+    private File file(String hash) {
+        return new File(new File(cacheDir, "pdf-analysis"), hash + ".bin");
+    }
+
+    private int entryFiles() {
+        File[] files = new File(cacheDir, "pdf-analysis").listFiles((d, name) -> name.endsWith(".bin"));
+        return files == null ? 0 : files.length;
+    }
+
+    private static PdfDocumentInfo info(int paginas, int ancho, int alto) {
+        return new PdfDocumentInfo("content://test", "apunte.pdf", 1024, paginas, ancho, alto);
+    }
+
+    private static PageColorMap grayMap(int pages) {
+        return new PageColorMap(pages, new BitSet());
+    }
+}
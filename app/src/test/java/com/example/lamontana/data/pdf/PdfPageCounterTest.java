@@ -0,0 +1,227 @@
+package com.example.lamontana.data.pdf;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/*
+ * ============================================================
+ * Archivo: PdfPageCounterTest.java
+ * Paquete: com.example.lamontana.data.pdf
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Parser de PdfPageCounter sobre PDFs armados en memoria
+ *     (ByteBuffer), sin ContentResolver:
+ *       · camino del trailer, con /MediaBox y cadena /Prev.
+ *       · barrido cuando la xref está rota: solo la raíz del
+ *         catálogo más nuevo, y null si otra raíz no coincide.
+ *       · los casos que tienen que ir al fallback (null): cifrado,
+ *         objetos en object streams, /Count indirecto, basura.
+ * ============================================================
+ */
+public class PdfPageCounterTest {
+
+    private static final String CATALOG = "<< /Type /Catalog /Pages 2 0 R >>";
+
+    @Test
+    public void trailer_cuentaYMediaBox() {
+        Pdf pdf = new Pdf()
+                .obj(1, CATALOG)
+                .obj(2, "<< /Type /Pages /Kids [3 0 R] /Count 3 /MediaBox [0 0 595.28 841.89] >>")
+                .obj(3, "<< /Type /Page /Parent 2 0 R >>")
+                .xref("/Size 4 /Root 1 0 R");
+
+        PdfPageCounter.Result r = PdfPageCounter.parse(pdf.buffer());
+
+        assertNotNull(r);
+        assertEquals(3, r.paginas);
+        assertEquals(595, r.anchoPt);
+        assertEquals(842, r.altoPt);
+    }
+
+    @Test
+    public void trailer_sinMediaBox_tamanioCero() {
+        Pdf pdf = new Pdf()
+                .obj(1, CATALOG)
+                .obj(2, "<< /Type /Pages /Count 12 >>")
+                .xref("/Size 3 /Root 1 0 R");
+
+        PdfPageCounter.Result r = PdfPageCounter.parse(pdf.buffer());
+
+        assertEquals(12, r.paginas);
+        assertEquals(0, r.anchoPt);
+        assertEquals(0, r.altoPt);
+    }
+
+    @Test
+    public void actualizacionIncremental_usaLaVersionNueva() {
+        Pdf pdf = new Pdf()
+                .obj(1, CATALOG)
+                .obj(2, "<< /Type /Pages /Count 2 >>")
+                .xref("/Size 3 /Root 1 0 R");
+        // La sección nueva solo redefine /Pages; el catálogo sale por /Prev
+        pdf.obj(2, "<< /Type /Pages /Count 5 >>")
+                .xref("/Size 3 /Root 1 0 R /Prev " + pdf.lastXref);
+
+        assertEquals(5, PdfPageCounter.parse(pdf.buffer()).paginas);
+    }
+
+    @Test
+    public void xrefRota_barridoUsaLaRaizDelCatalogo() {
+        Pdf pdf = new Pdf()
+                .obj(1, CATALOG)
+                .obj(2, "<< /Type /Pages /Kids [3 0 R 4 0 R] /Count 2 /MediaBox [0 0 612 792] >>")
+                // Nodo intermedio: tiene /Parent, no cuenta como raíz
+                .obj(3, "<< /Type /Pages /Parent 2 0 R /Count 1 >>")
+                .obj(4, "<< /Type /Page /Parent 2 0 R >>")
+                .brokenXref("/Size 5 /Root 1 0 R");
+
+        PdfPageCounter.Result r = PdfPageCounter.parse(pdf.buffer());
+
+        assertNotNull(r);
+        assertEquals(2, r.paginas);
+        assertEquals(612, r.anchoPt);
+    }
+
+    @Test
+    public void xrefRota_versionesViejasDeLaRaiz_noMolestan() {
+        Pdf pdf = new Pdf()
+                .obj(1, CATALOG)
+                .obj(2, "<< /Type /Pages /Count 2 >>")
+                .brokenXref("/Size 3 /Root 1 0 R");
+        pdf.obj(2, "<< /Type /Pages /Count 4 >>")
+                .brokenXref("/Size 3 /Root 1 0 R");
+
+        assertEquals(4, PdfPageCounter.parse(pdf.buffer()).paginas);
+    }
+
+    @Test
+    public void xrefRota_otraRaizConOtroCount_esNull() {
+        Pdf pdf = new Pdf()
+                .obj(1, CATALOG)
+                .obj(2, "<< /Type /Pages /Count 2 >>")
+                // Árbol huérfano de otro documento
+                .obj(7, "<< /Type /Pages /Count 9 >>")
+                .brokenXref("/Size 8 /Root 1 0 R");
+
+        assertNull(PdfPageCounter.parse(pdf.buffer()));
+    }
+
+    @Test
+    public void xrefRota_raizConParent_esNull() {
+        Pdf pdf = new Pdf()
+                .obj(1, CATALOG)
+                .obj(2, "<< /Type /Pages /Parent 5 0 R /Count 2 >>")
+                .brokenXref("/Size 3 /Root 1 0 R");
+
+        assertNull(PdfPageCounter.parse(pdf.buffer()));
+    }
+
+    @Test
+    public void cifrado_esNull() {
+        Pdf pdf = new Pdf()
+                .obj(1, CATALOG)
+                .obj(2, "<< /Type /Pages /Count 3 >>")
+                .obj(3, "<< /Filter /Standard /V 2 >>")
+                .xref("/Size 4 /Root 1 0 R /Encrypt 3 0 R");
+
+        assertNull(PdfPageCounter.parse(pdf.buffer()));
+    }
+
+    @Test
+    public void xrefComprimida_conObjetosEnObjectStream_esNull() {
+        // Catálogo y /Pages dentro del object stream 4: no hay "1 0 obj" suelto
+        Pdf pdf = new Pdf()
+                .obj(4, "<< /Type /ObjStm /N 2 /First 8 /Length 0 >>\nstream\n\nendstream")
+                .obj(5, "<< /Type /XRef /Size 6 /Root 1 0 R /Length 0 >>\nstream\n\nendstream");
+        pdf.startxref(pdf.offsetOf(5));
+
+        assertNull(PdfPageCounter.parse(pdf.buffer()));
+    }
+
+    @Test
+    public void countIndirecto_esNull() {
+        Pdf pdf = new Pdf()
+                .obj(1, CATALOG)
+                .obj(2, "<< /Type /Pages /Count 6 0 R >>")
+                .obj(6, "3")
+                .xref("/Size 7 /Root 1 0 R");
+
+        assertNull(PdfPageCounter.parse(pdf.buffer()));
+    }
+
+    @Test
+    public void noEsPdf_esNull() {
+        assertNull(PdfPageCounter.parse(ByteBuffer.wrap(
+                "hola, esto no es un PDF".getBytes(StandardCharsets.US_ASCII))));
+        assertNull(PdfPageCounter.parse(ByteBuffer.allocate(0)));
+    }
+
+    // ------------------------------
+    // Helpers
+    // ------------------------------
+
+    /**
+     * PDF mínimo armado en texto, con offsets reales en la xref.
+     * Cada xref() lista solo los objetos agregados desde la anterior
+     * (como una actualización incremental).
+     */
+    private static final class Pdf {
+
+        private final StringBuilder sb = new StringBuilder("%PDF-1.4\n");
+        private final Map<Integer, Integer> pending = new LinkedHashMap<>();
+        private final Map<Integer, Integer> offsets = new LinkedHashMap<>();
+        private boolean first = true;
+        int lastXref = -1;
+
+        Pdf obj(int num, String body) {
+            pending.put(num, sb.length());
+            offsets.put(num, sb.length());
+            sb.append(num).append(" 0 obj\n").append(body).append("\nendobj\n");
+            return this;
+        }
+
+        int offsetOf(int num) {
+            return offsets.get(num);
+        }
+
+        Pdf xref(String trailer) {
+            lastXref = sb.length();
+            sb.append("xref\n");
+            if (first) sb.append("0 1\n0000000000 65535 f\r\n");
+            for (Map.Entry<Integer, Integer> e : pending.entrySet()) {
+                sb.append(e.getKey()).append(" 1\n")
+                        .append(String.format(Locale.ROOT, "%010d 00000 n\r\n", e.getValue()));
+            }
+            sb.append("trailer\n<< ").append(trailer).append(" >>\n");
+            startxref(lastXref);
+            pending.clear();
+            first = false;
+            return this;
+        }
+
+        /** Como xref(), pero "startxref" apunta a cualquier lado. */
+        Pdf brokenXref(String trailer) {
+            xref(trailer);
+            sb.setLength(sb.lastIndexOf("startxref"));
+            startxref(3);
+            return this;
+        }
+
+        void startxref(int offset) {
+            sb.append("startxref\n").append(offset).append("\n%%EOF\n");
+        }
+
+        ByteBuffer buffer() {
+            return ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.lamontana.data.pricing;
+
+import com.example.lamontana.data.Servicio;
+import com.example.lamontana.model.CartItem;
+import com.example.lamontana.model.CartSnapshot;
+import com.example.lamontana.model.Category;
+import com.example.lamontana.model.Product;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/*
+ * ============================================================
+ * Archivo: PricingEngineTest.java
+ * Paquete: com.example.lamontana.data.pricing
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Cuentas de PricingEngine en centavos exactos: carrito +
+ *     impresión (recargos decimales y modo AUTOMATICO), cache del
+ *     último desglose y conversión/formato de montos.
+ *
+ * Notas:
+ *   - Cada test compila su propia ServicePriceTable: el motor es
+ *     un singleton y la tabla forma parte de la clave de su cache.
+ * ============================================================
+ */
+public class PricingEngineTest {
+
+    private static final Product RESMA =
+            new Product("Resma A4", "", 5000, Category.PRINT, 0, false, null);
+
+    private ServicePriceTable table;
+
+    @Before
+    public void setUp() {
+        table = ServicePriceTable.compile(Arrays.asList(
+                servicio("carilla", 10, 0),
+                servicio("fotocopiado_bn", 40, 0),
+                servicio("fotocopiado_color", 120, 0),
+                servicio("doble_faz", 15, 0),
+                servicio("anillado", 900, 0),
+                servicio("encuadernado", 1500, 0),
+                servicio("papel_a4", 0, 1),
+                servicio("papel_a3", 0.5, 2)));
+    }
+
+    @Test
+    public void carritoEImpresion_enCentavos() {
+        CartSnapshot cart = cartWith(RESMA, 2);
+        PrintJob job = new PrintJob(3, PrintJob.Modo.BN, 0, false, true, false, "papel_a4", null);
+
+        PriceBreakdown p = PricingEngine.get().price(cart, jobs(job), null, table);
+
+        assertEquals(2 * 500_000L, p.productsCents);
+        // 3 × (10 + 40) + anillado 900, en centavos
+        assertEquals(3 * 5_000L + 90_000L, p.printCents);
+        assertEquals(0L, p.shippingCents);
+        assertEquals(p.productsCents + p.printCents, p.totalCents);
+        assertEquals(cart.getVersion(), p.cartVersion);
+
+        assertEquals(2, p.lines.size());
+        assertSame(PriceLine.Tipo.PRODUCTO, p.lines.get(0).tipo);
+        assertSame(PriceLine.Tipo.IMPRESION, p.lines.get(1).tipo);
+    }
+
+    @Test
+    public void recargoDecimalDelPapel_sinErrorDeRedondeo() {
+        PrintJob job = new PrintJob(3, PrintJob.Modo.BN, 0, false, false, false, "papel_a3", null);
+
+        PriceBreakdown p = PricingEngine.get().price(CartSnapshot.empty(), jobs(job), null, table);
+
+        // 3 × (1000 + 4000 + 50) centavos
+        assertEquals(15_150L, p.printCents);
+        assertEquals(15_150L, p.totalCents);
+    }
+
+    @Test
+    public void automatico_cobraCadaCarillaSegunSuColor() {
+        PrintJob job = new PrintJob(10, PrintJob.Modo.AUTOMATICO, 3, true, false, false, "papel_a4", null);
+
+        PriceBreakdown p = PricingEngine.get().price(CartSnapshot.empty(), jobs(job), null, table);
+
+        // 10 × (carilla + doble faz) + 7 B/N + 3 color
+        assertEquals(10 * 2_500L + 7 * 4_000L + 3 * 12_000L, p.printCents);
+    }
+
+    @Test
+    public void sinCambios_devuelveElMismoDesglose() {
+        CartSnapshot cart = cartWith(RESMA, 1);
+        PrintJob job = new PrintJob(2, PrintJob.Modo.COLOR, false, false, false);
+
+        PriceBreakdown first = PricingEngine.get().price(cart, jobs(job), null, table);
+        PriceBreakdown again = PricingEngine.get().price(cart,
+                jobs(new PrintJob(2, PrintJob.Modo.COLOR, false, false, false)), null, table);
+        PriceBreakdown otherJob = PricingEngine.get().price(cart,
+                jobs(new PrintJob(3, PrintJob.Modo.COLOR, false, false, false)), null, table);
+
+        assertSame(first, again);
+        assertNotSame(first, otherJob);
+    }
+
+    @Test
+    public void sinTabla_conImpresion_esNull() {
+        PrintJob job = new PrintJob(1, PrintJob.Modo.BN, false, false, false);
+
+        assertNull(PricingEngine.get().price(cartWith(RESMA, 1), jobs(job), null, null));
+    }
+
+    @Test
+    public void sinTabla_soloCarrito_seCotiza() {
+        PriceBreakdown p = PricingEngine.get().price(cartWith(RESMA, 3),
+                Collections.emptyList(), null, null);
+
+        assertNotNull(p);
+        assertEquals(1_500_000L, p.totalCents);
+    }
+
+    @Test
+    public void trabajoVacio_noSumaRenglon() {
+        PrintJob vacio = new PrintJob(0, PrintJob.Modo.BN, false, false, false);
+
+        PriceBreakdown p = PricingEngine.get().price(cartWith(RESMA, 1), jobs(vacio), null, table);
+
+        assertEquals(1, p.lines.size());
+        assertEquals(0L, p.printCents);
+    }
+
+    @Test
+    public void conversiones() {
+        assertEquals(123_400L, PricingEngine.pesosToCents(1234));
+        assertEquals(2, PricingEngine.centsToPesos(150));
+        assertEquals(1, PricingEngine.centsToPesos(149));
+        assertEquals(1234, PricingEngine.centsToPesos(123_400));
+    }
+
+    @Test
+    public void formato_arsSinPasarPorDouble() {
+        String text = PricingEngine.format(123_450L);
+        assertTrue(text, text.contains("1.234,50"));
+    }
+
+    // ------------------------------
+    // Helpers
+    // ------------------------------
+
+    private static Servicio servicio(String id, double precio, int orden) {
+        return new Servicio(id, id, "", true, precio, orden);
+    }
+
+    private static CartSnapshot cartWith(Product p, int qty) {
+        return CartSnapshot.empty().withItemAdded(new CartItem(p, qty));
+    }
+
+    private static List<PrintJob> jobs(PrintJob job) {
+        return Collections.singletonList(job);
+    }
+}
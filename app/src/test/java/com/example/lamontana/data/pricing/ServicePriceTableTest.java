@@ -0,0 +1,166 @@
+package com.example.lamontana.data.pricing;
+
+import com.example.lamontana.data.Servicio;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/*
+ * ============================================================
+ * Archivo: ServicePriceTableTest.java
+ * Paquete: com.example.lamontana.data.pricing
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Indexado de la tabla compilada: cada combinación papel ×
+ *     modo × doble faz cae en su propia celda, los papeles quedan
+ *     en el orden del campo "orden" y un índice fuera de rango usa
+ *     el primero.
+ *   - Validaciones de compile() y redondeo de precios decimales.
+ * ============================================================
+ */
+public class ServicePriceTableTest {
+
+    // Precios elegidos para que cada suma sea distinguible
+    private static final double CARILLA = 10;
+    private static final double BN = 40;
+    private static final double COLOR = 120;
+    private static final double DOBLE_FAZ = 15;
+    private static final double ANILLADO = 900;
+    private static final double ENCUADERNADO = 1500;
+
+    @Test
+    public void cadaCombinacion_tieneSuPrecio() {
+        ServicePriceTable t = ServicePriceTable.compile(base(
+                paper("papel_a4", "A4", 0, 1),
+                paper("papel_a3", "A3", 2, 2),
+                paper("papel_oficio", "Oficio", 0.25, 3)));
+
+        double[] recargos = {0, 2, 0.25};
+        for (int p = 0; p < recargos.length; p++) {
+            for (PrintJob.Modo modo : PrintJob.Modo.values()) {
+                if (modo == PrintJob.Modo.AUTOMATICO) continue;
+                for (boolean dobleFaz : new boolean[]{false, true}) {
+                    double porCarilla = CARILLA + recargos[p]
+                            + (modo == PrintJob.Modo.BN ? BN : modo == PrintJob.Modo.COLOR ? COLOR : 0)
+                            + (dobleFaz ? DOBLE_FAZ : 0);
+                    String what = p + "/" + modo + "/" + dobleFaz;
+                    assertEquals(what, Math.round(3 * porCarilla * 100),
+                            t.printJobCents(p, modo, 3, 0, dobleFaz, false, false));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void automatico_sumaBnYColorPorCarilla() {
+        ServicePriceTable t = ServicePriceTable.compile(base(paper("papel_a4", "A4", 0, 1)));
+
+        long cents = t.printJobCents(0, PrintJob.Modo.AUTOMATICO, 5, 2, true, false, false);
+
+        // 5 × (carilla + doble faz) + 3 B/N + 2 color
+        assertEquals(5 * 2_500L + 3 * 4_000L + 2 * 12_000L, cents);
+    }
+
+    @Test
+    public void terminaciones_sonPorTrabajo() {
+        ServicePriceTable t = ServicePriceTable.compile(base(paper("papel_a4", "A4", 0, 1)));
+
+        long sin = t.printJobCents(0, PrintJob.Modo.BN, 4, 0, false, false, false);
+        long con = t.printJobCents(0, PrintJob.Modo.BN, 4, 0, false, true, true);
+
+        assertEquals(90_000L + 150_000L, con - sin);
+    }
+
+    @Test
+    public void papeles_enOrdenYSinLosNoDisponibles() {
+        List<Servicio> servicios = base(
+                paper("papel_oficio", "Oficio", 0, 3),
+                paper("papel_a4", "A4", 0, 1),
+                paper("papel_a3", "A3", 0, 2));
+        servicios.add(new Servicio("papel_a5", "A5", "", false, 0, 0));
+        ServicePriceTable t = ServicePriceTable.compile(servicios);
+
+        assertEquals(3, t.getPaperCount());
+        assertEquals("papel_a4", t.getPaperId(0));
+        assertEquals("papel_a3", t.getPaperId(1));
+        assertEquals("Oficio", t.getPaperLabel(2));
+        assertEquals(2, t.paperIndex("papel_oficio"));
+        assertFalse(t.isDisponible("papel_a5"));
+        assertTrue(t.isDisponible("anillado"));
+        assertFalse(t.isDisponible("inexistente"));
+    }
+
+    @Test
+    public void papelDesconocidoOFueraDeRango_usaElPrimero() {
+        ServicePriceTable t = ServicePriceTable.compile(base(
+                paper("papel_a4", "A4", 0, 1),
+                paper("papel_a3", "A3", 5, 2)));
+        long primero = t.printJobCents(0, PrintJob.Modo.BN, 2, 0, false, false, false);
+
+        assertEquals(0, t.paperIndex("papel_a0"));
+        assertEquals(0, t.paperIndex(null));
+        assertEquals(primero, t.printJobCents(7, PrintJob.Modo.BN, 2, 0, false, false, false));
+        assertEquals(primero, t.printJobCents(-1, PrintJob.Modo.BN, 2, 0, false, false, false));
+        assertEquals(primero, t.printJobCents(
+                new PrintJob(2, PrintJob.Modo.BN, 0, false, false, false, "papel_a0", null)));
+    }
+
+    @Test
+    public void preciosDecimales_redondeanAlCentavo() {
+        List<Servicio> servicios = base(paper("papel_a4", "A4", 0.005, 1));
+        ServicePriceTable t = ServicePriceTable.compile(servicios);
+
+        // 10 + 40 + 0,005 → 5000,5 centavos → 5001
+        assertEquals(5_001L, t.printJobCents(0, PrintJob.Modo.BN, 1, 0, false, false, false));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void faltaUnObligatorio_falla() {
+        List<Servicio> servicios = base(paper("papel_a4", "A4", 0, 1));
+        servicios.removeIf(s -> s.id.equals(ServicePriceTable.ENCUADERNADO));
+        ServicePriceTable.compile(servicios);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void sinPapelesDisponibles_falla() {
+        List<Servicio> servicios = base();
+        servicios.add(new Servicio("papel_a4", "A4", "", false, 0, 1));
+        ServicePriceTable.compile(servicios);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void precioNegativo_falla() {
+        ServicePriceTable.compile(base(paper("papel_a4", "A4", -1, 1)));
+    }
+
+    // ------------------------------
+    // Helpers
+    // ------------------------------
+
+    private static List<Servicio> base(Servicio... papers) {
+        List<Servicio> list = new ArrayList<>(Arrays.asList(
+                servicio(ServicePriceTable.CARILLA, CARILLA),
+                servicio(ServicePriceTable.BN, BN),
+                servicio(ServicePriceTable.COLOR, COLOR),
+                servicio(ServicePriceTable.DOBLE_FAZ, DOBLE_FAZ),
+                servicio(ServicePriceTable.ANILLADO, ANILLADO),
+                servicio(ServicePriceTable.ENCUADERNADO, ENCUADERNADO)));
+        list.addAll(Arrays.asList(papers));
+        return list;
+    }
+
+    private static Servicio servicio(String id, double precio) {
+        return new Servicio(id, id, "", true, precio, 0);
+    }
+
+    private static Servicio paper(String id, String nombre, double recargo, int orden) {
+        return new Servicio(id, nombre, "", true, recargo, orden);
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.lamontana.data.shipping;
+
+import org.json.JSONException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/*
+ * ============================================================
+ * Archivo: ShippingZoneTableTest.java
+ * Paquete: com.example.lamontana.data.shipping
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Búsqueda por código postal de ShippingZoneTable: rangos
+ *     inclusivos, superposición (gana el último), códigos sin
+ *     cobertura o fuera de 0000..9999, y los JSON que parse()
+ *     tiene que rechazar.
+ * ============================================================
+ */
+public class ShippingZoneTableTest {
+
+    private static final String ZONAS =
+            "\"zonas\": ["
+                    + "{\"id\": 1, \"nombre\": \"CABA\", \"base\": 0},"
+                    + "{\"id\": 2, \"nombre\": \"GBA\", \"base\": 1500, \"unidadesIncluidas\": 10,"
+                    + " \"porUnidad\": 80, \"porCienCarillas\": 150}"
+                    + "]";
+
+    @Test
+    public void zoneFor_rangosInclusivos() throws JSONException {
+        ShippingZoneTable t = table("[1000, 1499, 1], [1600, 1999, 2]");
+
+        assertEquals(1, t.zoneFor(1000).id);
+        assertEquals(1, t.zoneFor(1499).id);
+        assertEquals(2, t.zoneFor(1600).id);
+        assertEquals(2, t.zoneFor(1999).id);
+        assertSame(t.zoneFor(1000), t.zoneFor(1200));
+    }
+
+    @Test
+    public void zoneFor_sinCobertura_esNull() throws JSONException {
+        ShippingZoneTable t = table("[1000, 1499, 1]");
+
+        assertNull(t.zoneFor(999));
+        assertNull(t.zoneFor(1500));
+        assertNull(t.zoneFor(0));
+        assertNull(t.zoneFor(9999));
+    }
+
+    @Test
+    public void zoneFor_fueraDeRango_esNull() throws JSONException {
+        ShippingZoneTable t = table("[0, 9999, 1]");
+
+        assertEquals(1, t.zoneFor(0).id);
+        assertEquals(1, t.zoneFor(9999).id);
+        assertNull(t.zoneFor(-1));
+        assertNull(t.zoneFor(ShippingZoneTable.CP_COUNT));
+    }
+
+    @Test
+    public void rangosSuperpuestos_ganaElUltimo() throws JSONException {
+        ShippingZoneTable t = table("[1000, 1999, 1], [1500, 1600, 2]");
+
+        assertEquals(1, t.zoneFor(1499).id);
+        assertEquals(2, t.zoneFor(1500).id);
+        assertEquals(2, t.zoneFor(1600).id);
+        assertEquals(1, t.zoneFor(1601).id);
+    }
+
+    @Test
+    public void rangoQueSeSaleDeLosLimites_seRecorta() throws JSONException {
+        ShippingZoneTable t = table("[-50, 10, 1], [9990, 20000, 2]");
+
+        assertEquals(1, t.zoneFor(0).id);
+        assertEquals(2, t.zoneFor(9999).id);
+    }
+
+    @Test
+    public void tarifasYVersion_seLeen() throws JSONException {
+        ShippingZoneTable t = table("[1600, 1999, 2]");
+        ShippingZone gba = t.zoneFor(1700);
+
+        assertEquals(7, t.version);
+        assertEquals("GBA", gba.nombre);
+        assertEquals(1500, gba.base);
+        assertEquals(10, gba.unidadesIncluidas);
+        assertEquals(80, gba.porUnidad);
+        assertEquals(150, gba.porCienCarillas);
+    }
+
+    @Test(expected = JSONException.class)
+    public void rangoConZonaDesconocida_falla() throws JSONException {
+        table("[1000, 1499, 3]");
+    }
+
+    @Test(expected = JSONException.class)
+    public void idDeZonaCero_falla() throws JSONException {
+        ShippingZoneTable.parse("{\"zonas\": [{\"id\": 0, \"nombre\": \"X\"}], \"rangos\": []}");
+    }
+
+    @Test(expected = JSONException.class)
+    public void idDeZonaMayorA127_falla() throws JSONException {
+        ShippingZoneTable.parse("{\"zonas\": [{\"id\": 128, \"nombre\": \"X\"}], \"rangos\": []}");
+    }
+
+    // ------------------------------
+    // Helpers
+    // ------------------------------
+
+    private static ShippingZoneTable table(String rangos) throws JSONException {
+        return ShippingZoneTable.parse("{\"version\": 7, " + ZONAS + ", \"rangos\": [" + rangos + "]}");
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.lamontana.data.upload;
+
+import android.content.SharedPreferences;
+
+import androidx.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * ============================================================
+ * Archivo: InMemoryPreferences.java
+ * Paquete: com.example.lamontana.data.upload
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - SharedPreferences en memoria para los tests JVM (el de
+ *     android.jar no funciona fuera del dispositivo). Compartir la
+ *     misma instancia entre dos ResumableUploader simula reiniciar
+ *     la app con lo que quedó guardado en disco.
+ * ============================================================
+ */
+final class InMemoryPreferences implements SharedPreferences {
+
+    private final Map<String, Object> values = new HashMap<>();
+
+    @Override
+    public Map<String, ?> getAll() {
+        return new HashMap<>(values);
+    }
+
+    @Nullable
+    @Override
+    public String getString(String key, @Nullable String defValue) {
+        Object v = values.get(key);
+        return v != null ? (String) v : defValue;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nullable
+    @Override
+    public Set<String> getStringSet(String key, @Nullable Set<String> defValues) {
+        Object v = values.get(key);
+        return v != null ? (Set<String>) v : defValues;
+    }
+
+    @Override
+    public int getInt(String key, int defValue) {
+        Object v = values.get(key);
+        return v != null ? (Integer) v : defValue;
+    }
+
+    @Override
+    public long getLong(String key, long defValue) {
+        Object v = values.get(key);
+        return v != null ? (Long) v : defValue;
+    }
+
+    @Override
+    public float getFloat(String key, float defValue) {
+        Object v = values.get(key);
+        return v != null ? (Float) v : defValue;
+    }
+
+    @Override
+    public boolean getBoolean(String key, boolean defValue) {
+        Object v = values.get(key);
+        return v != null ? (Boolean) v : defValue;
+    }
+
+    @Override
+    public boolean contains(String key) {
+        return values.containsKey(key);
+    }
+
+    @Override
+    public Editor edit() {
+        return new MemoryEditor();
+    }
+
+    @Override
+    public void registerOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+    }
+
+    @Override
+    public void unregisterOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+    }
+
+    /** Acumula los cambios y los aplica juntos, como el Editor real. */
+    private final class MemoryEditor implements Editor {
+
+        private final Map<String, Object> puts = new HashMap<>();
+        private final Set<String> removals = new HashSet<>();
+        private boolean clear;
+
+        @Override
+        public Editor putString(String key, @Nullable String value) {
+            return put(key, value);
+        }
+
+        @Override
+        public Editor putStringSet(String key, @Nullable Set<String> values) {
+            return put(key, values != null ? new HashSet<>(values) : null);
+        }
+
+        @Override
+        public Editor putInt(String key, int value) {
+            return put(key, value);
+        }
+
+        @Override
+        public Editor putLong(String key, long value) {
+            return put(key, value);
+        }
+
+        @Override
+        public Editor putFloat(String key, float value) {
+            return put(key, value);
+        }
+
+        @Override
+        public Editor putBoolean(String key, boolean value) {
+            return put(key, value);
+        }
+
+        @Override
+        public Editor remove(String key) {
+            removals.add(key);
+            return this;
+        }
+
+        @Override
+        public Editor clear() {
+            clear = true;
+            return this;
+        }
+
+        @Override
+        public boolean commit() {
+            apply();
+            return true;
+        }
+
+        @Override
+        public void apply() {
+            if (clear) values.clear();
+            for (String key : removals) {
+                values.remove(key);
+            }
+            for (Map.Entry<String, Object> e : puts.entrySet()) {
+                if (e.getValue() == null) {
+                    values.remove(e.getKey());
+                } else {
+                    values.put(e.getKey(), e.getValue());
+                }
+            }
+        }
+
+        private Editor put(String key, @Nullable Object value) {
+            puts.put(key, value);
+            return this;
+        }
+    }
+}
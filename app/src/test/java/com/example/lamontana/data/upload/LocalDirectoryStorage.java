@@ -0,0 +1,139 @@
+package com.example.lamontana.data.upload;
+
+import android.net.Uri;
+
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * ============================================================
+ * Archivo: LocalDirectoryStorage.java
+ * Paquete: com.example.lamontana.data.upload
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - FileStorage de prueba sobre una carpeta local, con el mismo
+ *     contrato que FirebaseFileStorage:
+ *       · cada sesión es un archivo ".sessions/<id>.part" con lo que
+ *         el "servidor" ya confirmó; retomarla sigue desde su largo.
+ *       · una sesión que no existe → SessionExpiredException.
+ *       · al completar, el .part pasa a <dir>/<path>.
+ *   - Simula cortes de red (dropAfter) y cuenta lo que se envió,
+ *     para comprobar que una subida retomada no empieza de cero.
+ *
+ * Notas:
+ *   - El contenido a subir se da en el constructor: la Uri se
+ *     ignora (en los tests JVM no hay ContentResolver).
+ * ============================================================
+ */
+final class LocalDirectoryStorage implements FileStorage {
+
+    static final int CHUNK = 4;
+
+    private final File dir;
+    private final File sessions;
+    private final byte[] source;
+
+    private int nextSession;
+
+    /** Bytes que se aceptan antes del próximo corte (-1: sin cortes). */
+    private long dropAfter = -1;
+    /** Cortes que quedan por simular (-1: todos los intentos). */
+    private int drops;
+
+    /** Bytes enviados en total, sumando todos los intentos. */
+    long bytesSent;
+    /** Sesión con la que llegó cada llamada a upload() (null: nueva). */
+    final List<String> resumedWith = new ArrayList<>();
+
+    LocalDirectoryStorage(File dir, byte[] source) {
+        this.dir = dir;
+        this.sessions = new File(dir, ".sessions");
+        this.source = source;
+    }
+
+    /** Las próximas "times" subidas se cortan tras "bytes" enviados (-1: siempre). */
+    void dropAfter(long bytes, int times) {
+        this.dropAfter = bytes;
+        this.drops = times;
+    }
+
+    /** Borra las sesiones abiertas, como si el backend las venciera. */
+    void expireSessions() {
+        File[] parts = sessions.listFiles();
+        if (parts == null) return;
+        for (File part : parts) {
+            part.delete();
+        }
+    }
+
+    File fileAt(String path) {
+        return new File(dir, path);
+    }
+
+    @Override
+    public void upload(Uri uri,
+                       String path,
+                       String contentType,
+                       @Nullable String resumeSession,
+                       AtomicBoolean cancelled,
+                       SessionListener sessionListener,
+                       ProgressListener progress) throws IOException {
+        resumedWith.add(resumeSession);
+
+        String session = resumeSession;
+        if (session == null) {
+            session = "s" + (++nextSession);
+            if (!sessions.isDirectory() && !sessions.mkdirs()) {
+                throw new IOException("No se pudo crear " + sessions);
+            }
+            new FileOutputStream(part(session)).close();
+            sessionListener.onSession(session);
+        } else if (!part(session).exists()) {
+            throw new SessionExpiredException("Sesión desconocida: " + session, null);
+        }
+
+        File part = part(session);
+        long sentNow = 0;
+        try (OutputStream out = new FileOutputStream(part, true)) {
+            for (int at = (int) part.length(); at < source.length; at += CHUNK) {
+                if (cancelled.get()) throw new CancellationException();
+                if (dropAfter >= 0 && drops != 0 && sentNow >= dropAfter) {
+                    if (drops > 0) drops--;
+                    throw new IOException("Corte de red simulado");
+                }
+                int n = Math.min(CHUNK, source.length - at);
+                out.write(source, at, n);
+                out.flush();
+                sentNow += n;
+                bytesSent += n;
+                progress.onProgress(at + n, source.length);
+            }
+        }
+
+        File target = fileAt(path);
+        File parent = target.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("No se pudo crear " + parent);
+        }
+        Files.move(part.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Override
+    public boolean exists(String path) {
+        return fileAt(path).isFile();
+    }
+
+    private File part(String session) {
+        return new File(sessions, session + ".part");
+    }
+}
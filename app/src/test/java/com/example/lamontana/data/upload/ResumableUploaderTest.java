@@ -0,0 +1,196 @@
+package com.example.lamontana.data.upload;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/*
+ * ============================================================
+ * Archivo: ResumableUploaderTest.java
+ * Paquete: com.example.lamontana.data.upload
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - ResumableUploader contra LocalDirectoryStorage:
+ *       · tras un corte, el reintento retoma la misma sesión y no
+ *         vuelve a mandar lo confirmado.
+ *       · sin red, la sesión queda guardada (también para la
+ *         próxima subida, tras "reiniciar").
+ *       · una sesión vencida se descarta y se abre otra.
+ *       · cancelar corta con CancellationException.
+ *       · un archivo ya subido solo se saltea si sigue estando.
+ *
+ * Notas:
+ *   - Backoff de 1 ms: los reintentos no demoran el test.
+ * ============================================================
+ */
+public class ResumableUploaderTest {
+
+    private static final String PATH = "trabajos/uid/abc.pdf";
+    private static final byte[] PDF = content(40);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private InMemoryPreferences prefs;
+    private LocalDirectoryStorage storage;
+
+    @Before
+    public void setUp() throws IOException {
+        prefs = new InMemoryPreferences();
+        storage = new LocalDirectoryStorage(folder.newFolder("bucket"), PDF);
+    }
+
+    @Test
+    public void subidaCompleta_dejaElArchivo() throws IOException {
+        uploader().upload(null, PATH, "application/pdf", new AtomicBoolean(), (s, t) -> { });
+
+        assertArrayEquals(PDF, read(storage.fileAt(PATH)));
+        assertEquals(PDF.length, storage.bytesSent);
+        assertNull(savedSession());
+    }
+
+    @Test
+    public void corte_retomaLaMismaSesionSinEmpezarDeCero() throws IOException {
+        storage.dropAfter(12, 1);
+
+        uploader().upload(null, PATH, "application/pdf", new AtomicBoolean(), (s, t) -> { });
+
+        assertArrayEquals(PDF, read(storage.fileAt(PATH)));
+        // Nada se mandó dos veces
+        assertEquals(PDF.length, storage.bytesSent);
+        assertEquals(Arrays.asList(null, "s1"), storage.resumedWith);
+    }
+
+    @Test
+    public void sinRed_conservaLaSesionParaLaProximaSubida() throws IOException {
+        storage.dropAfter(8, -1);
+        try {
+            uploader().upload(null, PATH, "application/pdf", new AtomicBoolean(), (s, t) -> { });
+            fail("Se esperaba IOException");
+        } catch (IOException expected) {
+            // ok
+        }
+        assertEquals("s1", savedSession());
+        assertFalse(storage.fileAt(PATH).exists());
+
+        // Vuelve la red (y la app se reinició: otro uploader, mismas prefs)
+        storage.dropAfter(-1, 0);
+        uploader().upload(null, PATH, "application/pdf", new AtomicBoolean(), (s, t) -> { });
+
+        assertArrayEquals(PDF, read(storage.fileAt(PATH)));
+        assertEquals("s1", storage.resumedWith.get(storage.resumedWith.size() - 1));
+        assertEquals(PDF.length, storage.bytesSent);
+    }
+
+    @Test
+    public void sesionVencida_seDescartaYSeAbreOtra() throws IOException {
+        storage.dropAfter(8, -1);
+        try {
+            uploader().upload(null, PATH, "application/pdf", new AtomicBoolean(), (s, t) -> { });
+            fail("Se esperaba IOException");
+        } catch (IOException expected) {
+            // ok
+        }
+        storage.expireSessions();
+        storage.dropAfter(-1, 0);
+
+        uploader().upload(null, PATH, "application/pdf", new AtomicBoolean(), (s, t) -> { });
+
+        assertArrayEquals(PDF, read(storage.fileAt(PATH)));
+        int calls = storage.resumedWith.size();
+        assertEquals("s1", storage.resumedWith.get(calls - 2));
+        assertNull(storage.resumedWith.get(calls - 1));
+        assertNull(savedSession());
+    }
+
+    @Test
+    public void cancelar_cortaYConservaLaSesion() throws IOException {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        try {
+            uploader().upload(null, PATH, "application/pdf", cancelled, (sent, total) -> {
+                if (sent >= 16) cancelled.set(true);
+            });
+            fail("Se esperaba CancellationException");
+        } catch (CancellationException expected) {
+            // ok
+        }
+
+        assertFalse(storage.fileAt(PATH).exists());
+        assertEquals("s1", savedSession());
+    }
+
+    @Test
+    public void yaSubido_noSeVuelveASubir() throws IOException {
+        uploader().upload(null, PATH, "application/pdf", new AtomicBoolean(), (s, t) -> { });
+        long sent = storage.bytesSent;
+
+        long[] progress = new long[2];
+        uploader().upload(null, PATH, "application/pdf", new AtomicBoolean(), (s, t) -> {
+            progress[0] = s;
+            progress[1] = t;
+        });
+
+        assertEquals(sent, storage.bytesSent);
+        assertEquals(1, storage.resumedWith.size());
+        assertEquals(progress[0], progress[1]);
+    }
+
+    @Test
+    public void yaSubidoPeroBorradoDelBackend_seSubeDeNuevo() throws IOException {
+        uploader().upload(null, PATH, "application/pdf", new AtomicBoolean(), (s, t) -> { });
+        assertTrue(storage.fileAt(PATH).delete());
+
+        uploader().upload(null, PATH, "application/pdf", new AtomicBoolean(), (s, t) -> { });
+
+        assertArrayEquals(PDF, read(storage.fileAt(PATH)));
+        assertEquals(2 * PDF.length, storage.bytesSent);
+    }
+
+    // ------------------------------
+    // Helpers
+    // ------------------------------
+
+    private ResumableUploader uploader() {
+        return new ResumableUploader(prefs, storage, 1);
+    }
+
+    /** Sesión guardada para PATH (null si no hay). */
+    private String savedSession() {
+        for (String key : prefs.getAll().keySet()) {
+            if (key.startsWith("session:") && key.endsWith(PATH)) {
+                String value = prefs.getString(key, null);
+                assertNotNull(value);
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private static byte[] read(File file) throws IOException {
+        return Files.readAllBytes(file.toPath());
+    }
+
+    private static byte[] content(int size) {
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) ('A' + i % 26);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.lamontana.model;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/*
+ * ============================================================
+ * Archivo: CartSnapshotTest.java
+ * Paquete: com.example.lamontana.model
+ * ------------------------------------------------------------
+ * ¿De qué se encarga?
+ *   - Snapshots derivados de CartSnapshot: totales incrementales,
+ *     versión que avanza en cada derivación, inmutabilidad del
+ *     original y búsqueda por nombre.
+ * ============================================================
+ */
+public class CartSnapshotTest {
+
+    private static final Product RESMA = product("Resma A4", 5000);
+    private static final Product ANILLADO = product("Anillado", 900);
+
+    @Test
+    public void empty_sinLineasNiTotales() {
+        CartSnapshot s = CartSnapshot.empty();
+        assertTrue(s.isEmpty());
+        assertEquals(0, s.getTotalAmount());
+        assertEquals(0, s.getTotalQty());
+        assertEquals(0L, s.getVersion());
+    }
+
+    @Test
+    public void withItemAdded_sumaTotalesYAvanzaVersion() {
+        CartSnapshot s = CartSnapshot.empty()
+                .withItemAdded(new CartItem(RESMA, 2))
+                .withItemAdded(new CartItem(ANILLADO, 1));
+
+        assertEquals(2, s.getItems().size());
+        assertEquals(2 * 5000 + 900, s.getTotalAmount());
+        assertEquals(3, s.getTotalQty());
+        assertEquals(2L, s.getVersion());
+    }
+
+    @Test
+    public void withItemAt_reemplazaSoloLaDiferencia() {
+        CartSnapshot base = CartSnapshot.empty()
+                .withItemAdded(new CartItem(RESMA, 2))
+                .withItemAdded(new CartItem(ANILLADO, 1));
+
+        CartSnapshot next = base.withItemAt(0, new CartItem(RESMA, 5));
+
+        assertEquals(5 * 5000 + 900, next.getTotalAmount());
+        assertEquals(6, next.getTotalQty());
+        assertEquals(base.getVersion() + 1, next.getVersion());
+        // El original no cambia
+        assertEquals(2, base.find(RESMA.name).qty);
+    }
+
+    @Test
+    public void withItemRemovedAt_restaLaLinea() {
+        CartSnapshot s = CartSnapshot.empty()
+                .withItemAdded(new CartItem(RESMA, 2))
+                .withItemAdded(new CartItem(ANILLADO, 3))
+                .withItemRemovedAt(0);
+
+        assertEquals(1, s.getItems().size());
+        assertEquals(3 * 900, s.getTotalAmount());
+        assertEquals(3, s.getTotalQty());
+        assertEquals(-1, s.indexOf(RESMA.name));
+    }
+
+    @Test
+    public void withItems_recalculaDesdeCero() {
+        CartSnapshot base = CartSnapshot.empty().withItemAdded(new CartItem(RESMA, 1));
+
+        CartSnapshot s = base.withItems(Arrays.asList(
+                new CartItem(ANILLADO, 2),
+                new CartItem(RESMA, 4)));
+
+        assertEquals(2 * 900 + 4 * 5000, s.getTotalAmount());
+        assertEquals(6, s.getTotalQty());
+        assertEquals(base.getVersion() + 1, s.getVersion());
+        assertEquals(0, s.indexOf(ANILLADO.name));
+    }
+
+    @Test
+    public void cleared_vaciaPeroConservaLaSecuenciaDeVersiones() {
+        CartSnapshot base = CartSnapshot.empty()
+                .withItemAdded(new CartItem(RESMA, 1))
+                .withItemAdded(new CartItem(ANILLADO, 1));
+
+        CartSnapshot s = base.cleared();
+
+        assertTrue(s.isEmpty());
+        assertEquals(0, s.getTotalAmount());
+        assertEquals(0, s.getTotalQty());
+        assertEquals(base.getVersion() + 1, s.getVersion());
+    }
+
+    @Test
+    public void find_porNombre() {
+        CartItem resma = new CartItem(RESMA, 1);
+        CartSnapshot s = CartSnapshot.empty().withItemAdded(resma);
+
+        assertSame(resma, s.find(RESMA.name));
+        assertNull(s.find("Otro"));
+        assertNull(s.find(null));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void getItems_noSePuedeModificar() {
+        CartSnapshot s = CartSnapshot.empty().withItemAdded(new CartItem(RESMA, 1));
+        s.getItems().clear();
+    }
+
+    private static Product product(String name, int price) {
+        return new Product(name, "", price, Category.PRINT, 0, false, null);
+    }
+}